@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the reflective invocation of constraint methods, as it was done by
+ * {@link MethodConstraint} before, with the call sites created by {@link ConstraintFunctions}.
+ * The constraints read their values from a combination of all parameters, like in the
+ * ConstraintTree.
+ *
+ * @author Noah Zuch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConstraintInvocationBenchmark {
+
+  /**
+   * The number of parameters of the constraint.
+   */
+  @Param({"2", "4"})
+  public int arity;
+
+  /**
+   * Whether the constraint method is public or private. Public methods are bound via the
+   * LambdaMetafactory, private ones via a MethodHandle.
+   */
+  @Param({"public", "private"})
+  public String visibility;
+
+  private Object[] combination;
+  private int[] parameters;
+  private Method method;
+  private MethodConstraint constraint;
+
+  public static boolean publicConstraint2(int value0, int value1) {
+    return value0 <= value1;
+  }
+
+  public static boolean publicConstraint4(int value0, int value1, int value2, int value3) {
+    return value0 <= value1 && value2 <= value3;
+  }
+
+  private static boolean privateConstraint2(int value0, int value1) {
+    return value0 <= value1;
+  }
+
+  private static boolean privateConstraint4(int value0, int value1, int value2, int value3) {
+    return value0 <= value1 && value2 <= value3;
+  }
+
+  @Setup
+  public void setup() throws NoSuchMethodException {
+    combination = new Object[] {3, 1, 4, 1, 5, 9, 2, 6};
+    parameters = arity == 2 ? new int[] {1, 5} : new int[] {1, 5, 3, 7};
+    Class<?>[] parameterTypes = new Class<?>[arity];
+    for (int i = 0; i < arity; i++) {
+      parameterTypes[i] = int.class;
+    }
+    method = ConstraintInvocationBenchmark.class
+        .getDeclaredMethod(visibility + "Constraint" + arity, parameterTypes);
+    method.setAccessible(true);
+    constraint = new MethodConstraint(parameters, method);
+  }
+
+  @Benchmark
+  public boolean reflective() throws ReflectiveOperationException {
+    Object[] input = new Object[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      input[i] = combination[parameters[i]];
+    }
+    return (Boolean) method.invoke(null, input);
+  }
+
+  @Benchmark
+  public boolean callSite() {
+    return constraint.confirmsWith(combination, parameters);
+  }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.github.noahzuch.jcomb.core.StandardJCombContext;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+
+/**
+ * Compares the checks of the {@link ConstraintTree}, the {@link FlatConstraintTree} and the
+ * {@link CompiledConstraintTree} for the same model. Every invocation checks a fixed set of random
+ * partial combinations, in which every parameter is a wildcard with a probability of one half.
+ *
+ * @author Noah Zuch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConstraintTreeBenchmark {
+
+  private static final int COMBINATION_COUNT = 1024;
+
+  /**
+   * The model. "chain" consists of six parameters with four values each, where neighbouring
+   * parameters have to differ. "configuration" is a system configuration with dependencies
+   * between its operating system, browser, file system, architecture and memory.
+   */
+  @Param({"chain", "configuration"})
+  public String model;
+
+  private ConstraintTree tree;
+  private FlatConstraintTree flatTree;
+  private CompiledConstraintTree compiledTree;
+  private int[][] combinations;
+
+  @Setup
+  public void setup() {
+    StandardJCombContext context = new StandardJCombContext();
+    List<Constraint> constraints = new ArrayList<>();
+    if (model.equals("chain")) {
+      List<Domain> parameters = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        parameters.add(new Values(0, 1, 2, 3));
+      }
+      context.addParameters(parameters);
+      for (int i = 0; i < 5; i++) {
+        constraints.add(Constraints.of(i, i + 1, (Integer a, Integer b) -> !a.equals(b)));
+      }
+    } else {
+      context.addParameters(Arrays.asList(
+          new Values("Windows", "Linux", "MacOS"),
+          new Values("Edge", "Chrome", "Firefox", "Safari"),
+          new Values("NTFS", "FAT32", "ext4", "btrfs", "APFS"),
+          new Values("x86", "x64", "arm64"),
+          new Values(2, 4, 8, 16, 32),
+          new Values("de", "en", "fr", "ja"),
+          new Values("1080p", "1440p", "4K")));
+      constraints.add(Constraints.of(0, 1, (String os, String browser) -> !browser.equals("Edge")
+          || os.equals("Windows")));
+      constraints.add(Constraints.of(0, 1, (String os, String browser) -> !browser.equals("Safari")
+          || os.equals("MacOS")));
+      constraints.add(Constraints.of(0, 2, (String os, String fs) -> os.equals("Windows")
+          ? fs.equals("NTFS") || fs.equals("FAT32")
+          : os.equals("Linux") ? !fs.equals("APFS") : fs.equals("APFS") || fs.equals("FAT32")));
+      constraints.add(Constraints.of(0, 3, (String os, String arch) -> !os.equals("MacOS")
+          || !arch.equals("x86")));
+      constraints.add(Constraints.of(3, 4, (String arch, Integer memory) -> !arch.equals("x86")
+          || memory <= 4));
+      constraints.add(Constraints.of(0, 4, 6, (String os, Integer memory, String resolution) ->
+          !resolution.equals("4K") || memory >= 8 && !os.equals("Linux")));
+      constraints.add(Constraints.of(1, 5, (String browser, String language) ->
+          !language.equals("ja") || !browser.equals("Edge")));
+    }
+    Map<Integer, Constraint> constraintMap = new HashMap<>();
+    IntStream.range(0, constraints.size()).forEach(i -> constraintMap.put(i, constraints.get(i)));
+    context.setConstraints(constraintMap);
+
+    tree = new ConstraintTree(context);
+    flatTree = new FlatConstraintTree(tree);
+    compiledTree = new CompiledConstraintTree(flatTree);
+
+    Random random = new Random(42);
+    combinations = new int[COMBINATION_COUNT][context.getParameterCount()];
+    for (int[] combination : combinations) {
+      for (int parameter = 0; parameter < combination.length; parameter++) {
+        combination[parameter] = random.nextBoolean() ? -1
+            : random.nextInt(context.getParameter(parameter).getSize());
+      }
+    }
+  }
+
+  @Benchmark
+  public int tree() {
+    int satisfiable = 0;
+    for (int[] combination : combinations) {
+      if (tree.isSatisfiable(combination)) {
+        satisfiable++;
+      }
+    }
+    return satisfiable;
+  }
+
+  @Benchmark
+  public int flat() {
+    int satisfiable = 0;
+    for (int[] combination : combinations) {
+      if (flatTree.isSatisfiable(combination)) {
+        satisfiable++;
+      }
+    }
+    return satisfiable;
+  }
+
+  @Benchmark
+  public int compiled() {
+    int satisfiable = 0;
+    for (int[] combination : combinations) {
+      if (compiledTree.isSatisfiable(combination)) {
+        satisfiable++;
+      }
+    }
+    return satisfiable;
+  }
+
+}
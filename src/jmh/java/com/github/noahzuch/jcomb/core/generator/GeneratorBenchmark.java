@@ -0,0 +1,92 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.generator.dda.DdaTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+
+/**
+ * Compares the run time and the size of the created covering arrays of the IPOG and the DDA
+ * generator. The size is reported as the secondary result "rows".
+ *
+ * @author Noah Zuch
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GeneratorBenchmark {
+
+  /**
+   * The models as a comma separated list of domain sizes.
+   */
+  @Param({"3,3,3,3,3,3,3,3,3,3,3,3,3",
+      "2,3,4,5,4",
+      "7,6,5,4,3,2",
+      "5,5,4,4,3,3,2,2,2,2",
+      "4,4,4,4,4,3,3,3,3,3,2,2,2,2,2,2,2,2,2,2",
+      "10,10,10,10,10,10,10,10,10,10"})
+  public String model;
+
+  @Param({"2", "3"})
+  public int strength;
+
+  @Param({"IPOG", "DDA"})
+  public String algorithm;
+
+  private int[] domainSizes;
+
+  /**
+   * Holds the size of the last created covering array.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ArraySize {
+    public long rows;
+  }
+
+  @Setup
+  public void setup() {
+    domainSizes = Stream.of(model.split(",")).mapToInt(Integer::parseInt).toArray();
+  }
+
+  @Benchmark
+  public long generate(ArraySize size) {
+    TestGenerator generator;
+    if (algorithm.equals("DDA")) {
+      generator = new DdaTestGenerator(strength, domainSizes,
+          ConstraintHandler.getDefaultConstraintHandler());
+    } else {
+      generator = new IpogTestGenerator(strength, domainSizes,
+          ConstraintHandler.getDefaultConstraintHandler());
+    }
+    size.rows = generator.getAllInputCombinations().count();
+    return size.rows;
+  }
+
+}
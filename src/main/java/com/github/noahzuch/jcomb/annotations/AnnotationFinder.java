@@ -18,6 +18,7 @@ package com.github.noahzuch.jcomb.annotations;
 import com.github.noahzuch.jcomb.core.JCombContext;
 import com.github.noahzuch.jcomb.core.JCombException;
 import com.github.noahzuch.jcomb.core.StandardJCombContext;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
 import com.github.noahzuch.jcomb.core.constraint.MethodConstraint;
 import com.github.noahzuch.jcomb.core.domain.Domain;
 import com.github.noahzuch.jcomb.core.parameter.FieldInputParameter;
@@ -25,6 +26,7 @@ import com.github.noahzuch.jcomb.core.parameter.MethodInputParameter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -122,6 +124,8 @@ public class AnnotationFinder {
             + " interface");
       }
       addParameterFieldToParameters((Parameter) annotation, field);
+    } else if (annotation instanceof Constraint) {
+      addConstraintField(context, (Constraint) annotation, field);
     } else if (annotation instanceof InheritSetup) {
       scanNewClass(field.getType());
     }
@@ -143,6 +147,26 @@ public class AnnotationFinder {
     }
   }
 
+  private void addConstraintField(StandardJCombContext context, Constraint constraint,
+      Field field) {
+    if (!Modifier.isStatic(field.getModifiers())) {
+      throw new JCombException("Constraint field " + field.getName()
+          + " does not have the static modifier. Constraints have to be static.");
+    }
+    if (context.getConstraintsMap().containsKey(constraint.id())) {
+      throw new JCombException("Multiple constraints use the same id " + constraint.id());
+    }
+    Object predicate;
+    try {
+      field.setAccessible(true);
+      predicate = field.get(null);
+    } catch (IllegalAccessException e) {
+      throw new JCombException("Can't access field " + field.getName() + ".", e);
+    }
+    context.getConstraintsMap().put(constraint.id(),
+        Constraints.fromPredicate(constraint.parameters(), predicate));
+  }
+
   private void addParameterFieldToParameters(Parameter parameter,
       Field field) {
     if (parameters.containsKey(parameter.value())) {
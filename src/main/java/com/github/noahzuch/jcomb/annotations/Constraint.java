@@ -24,7 +24,9 @@ import java.lang.annotation.Target;
 
 /**
  * This annotation can be used to define Constraints for the combinatorial test. A Constraint is a
- * static method, that returns a boolean.
+ * static method, that returns a boolean, or a static field holding one of the predicates of
+ * {@link com.github.noahzuch.jcomb.core.constraint.Constraints} or a
+ * {@link com.github.noahzuch.jcomb.core.constraint.Relation}.
  * 
  * <p>
  * Example:
@@ -40,6 +42,13 @@ import java.lang.annotation.Target;
  * public static boolean checkNotEqual(int param1, Strint param2){
  *     return param1 != Integer.parseInt(param2);
  * }
+ * 
+ * &#64;Constraint(id=1, parameters={0,1})
+ * private static Constraints.IndexPredicate2 notBothFirst =
+ *     (index1, index2) -&gt; index1 + index2 != 0;
+ * 
+ * &#64;Constraint(id=2, parameters={0,1})
+ * private static Relation notThreeAndOne = Relation.is(0, 3).then(Relation.isNot(1, "1"));
  * </pre>
  * 
  * @author Noah
@@ -58,8 +67,8 @@ public @interface Constraint {
   int id();
 
   /**
-   * The parameters required for this constraint. The annotated method has to define its parameters
-   * in the same order.
+   * The parameters required for this constraint. The annotated method or predicate has to define
+   * its parameters in the same order.
    * 
    * @return The parameters required for this constraint.
    */
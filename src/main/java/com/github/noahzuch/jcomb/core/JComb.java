@@ -23,6 +23,8 @@ import com.github.noahzuch.jcomb.annotations.JCombTest;
 import com.github.noahzuch.jcomb.core.generator.TestGenerator;
 import com.github.noahzuch.jcomb.core.generator.TestGeneratorFactory;
 import com.github.noahzuch.jcomb.core.partial.PartialJCombContext;
+import com.github.noahzuch.jcomb.core.reduction.ReducedJCombContext;
+import com.github.noahzuch.jcomb.core.reduction.ReducedTestGenerator;
 
 /**
  * The main Class to execute test generation for a given annotated testclass.
@@ -57,12 +59,23 @@ public class JComb {
   }
 
   /**
-   * Creates a {@link TestGenerator} for this JComb instance.
+   * Creates a {@link TestGenerator} for this JComb instance. Before the generator is created, the
+   * constraints are used to remove values, that can not be part of any valid test. See
+   * {@link ReducedJCombContext}.
    * 
    * @return A {@link TestGenerator}.
+   * @throws JCombException if the constraints do not allow any test.
    */
   public TestGenerator createTestGenerator() {
-    return TestGeneratorFactory.createGenerator(context);
+    if (context.getConstraints().isEmpty()) {
+      return TestGeneratorFactory.createGenerator(context);
+    }
+    ReducedJCombContext reducedContext = ReducedJCombContext.reduce(context);
+    TestGenerator generator = TestGeneratorFactory.createGenerator(reducedContext);
+    if (!reducedContext.hasReducedDomains()) {
+      return generator;
+    }
+    return ReducedTestGenerator.create(generator, reducedContext);
   }
 
   /**
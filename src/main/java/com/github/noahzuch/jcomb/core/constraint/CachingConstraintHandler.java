@@ -0,0 +1,273 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+/**
+ * A {@link ConstraintHandler} that remembers the results of another ConstraintHandler. Generators
+ * like IPOG check the same partial tests many times, which is expensive for constraints with
+ * costly methods.
+ * <p>
+ * A test is identified by the values of the constrained parameters only, as all other values do
+ * not influence the result. These values are packed into a long, where a wildcard is stored as 0
+ * and a value v as v+1. If the packed tests do not fit into a long, no results are cached.
+ * <p>
+ * The results are kept in an open addressing hash table with a bounded number of entries. When it
+ * is full, an entry is evicted with the clock algorithm: Every hit marks an entry as referenced,
+ * and the clock hand moves over the table, unmarking referenced entries, until it finds one that
+ * was not referenced since its last visit.
+ * <p>
+ * The number of hits, misses and evictions can be queried to judge the usefulness of the cache.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class CachingConstraintHandler implements ConstraintHandler {
+
+  /**
+   * The default maximum number of cached results.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 16;
+
+  /**
+   * The largest supported maximum number of cached results.
+   */
+  public static final int MAX_CAPACITY = 1 << 28;
+
+  private static final byte EMPTY = 0;
+  private static final byte ALLOWED = 1;
+  private static final byte FORBIDDEN = 2;
+  private static final byte REFERENCED = 4;
+
+  private final ConstraintHandler constraintHandler;
+  private final int[] constrainedParameters;
+  private final long[] radixes;
+  private final boolean packable;
+
+  private final int capacity;
+  private final long[] keys;
+  private final byte[] states;
+  private final int mask;
+  private int size;
+  private int clockHand;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Creates a new CachingConstraintHandler with the {@link #DEFAULT_CAPACITY}.
+   * 
+   * @param constraintHandler The ConstraintHandler whose results are cached.
+   * @param domainSizes The domain sizes of all parameters.
+   */
+  public CachingConstraintHandler(ConstraintHandler constraintHandler, int[] domainSizes) {
+    this(constraintHandler, domainSizes, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a new CachingConstraintHandler.
+   * 
+   * @param constraintHandler The ConstraintHandler whose results are cached.
+   * @param domainSizes The domain sizes of all parameters.
+   * @param capacity The maximum number of cached results.
+   * @throws IllegalArgumentException if the capacity is not positive or greater than
+   *         {@link #MAX_CAPACITY}.
+   */
+  public CachingConstraintHandler(ConstraintHandler constraintHandler, int[] domainSizes,
+      int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity must be positive.");
+    }
+    if (capacity > MAX_CAPACITY) {
+      throw new IllegalArgumentException("The capacity must not exceed " + MAX_CAPACITY + ".");
+    }
+    this.constraintHandler = constraintHandler;
+    int constrainedCount = 0;
+    for (int parameter = 0; parameter < domainSizes.length; parameter++) {
+      if (constraintHandler.isConstrained(parameter)) {
+        constrainedCount++;
+      }
+    }
+    constrainedParameters = new int[constrainedCount];
+    radixes = new long[constrainedCount];
+    boolean fitsIntoLong = true;
+    long radix = 1;
+    int index = 0;
+    for (int parameter = 0; parameter < domainSizes.length; parameter++) {
+      if (constraintHandler.isConstrained(parameter)) {
+        constrainedParameters[index] = parameter;
+        radixes[index++] = radix;
+        if (radix > Long.MAX_VALUE / (domainSizes[parameter] + 1)) {
+          fitsIntoLong = false;
+        } else {
+          radix *= domainSizes[parameter] + 1;
+        }
+      }
+    }
+    packable = fitsIntoLong;
+
+    this.capacity = capacity;
+    // at most half of the table is used, which keeps probe sequences short
+    int tableSize = Integer.highestOneBit(capacity) << 2;
+    keys = new long[tableSize];
+    states = new byte[tableSize];
+    mask = tableSize - 1;
+  }
+
+  @Override
+  public boolean isSatisfiable(int[] test) {
+    if (!packable) {
+      return constraintHandler.isSatisfiable(test);
+    }
+    long key = 0;
+    for (int i = 0; i < constrainedParameters.length; i++) {
+      key += (test[constrainedParameters[i]] + 1) * radixes[i];
+    }
+    synchronized (this) {
+      int slot = find(key);
+      if (states[slot] != EMPTY) {
+        hitCount++;
+        states[slot] |= REFERENCED;
+        return (states[slot] & ALLOWED) != 0;
+      }
+      missCount++;
+    }
+    boolean satisfiable = constraintHandler.isSatisfiable(test);
+    synchronized (this) {
+      if (states[find(key)] == EMPTY) {
+        if (size == capacity) {
+          evict();
+        }
+        int slot = find(key);
+        keys[slot] = key;
+        states[slot] = satisfiable ? ALLOWED : FORBIDDEN;
+        size++;
+      }
+    }
+    return satisfiable;
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return constraintHandler.isConstrained(parameter);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The query is passed to the underlying ConstraintHandler, which may answer it in a single pass.
+   * Its results are not cached.
+   */
+  @Override
+  public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    return constraintHandler.getAllowedValues(test, parameter, domainSize);
+  }
+
+  /**
+   * Returns the number of checks that were answered from the cache.
+   * 
+   * @return The number of hits.
+   */
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of checks that were passed to the underlying ConstraintHandler.
+   * 
+   * @return The number of misses.
+   */
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the number of results that were removed from the full cache.
+   * 
+   * @return The number of evictions.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the share of checks that were answered from the cache.
+   * 
+   * @return The hit rate between 0 and 1, or 0 if nothing was checked yet.
+   */
+  public synchronized double getHitRate() {
+    long checkCount = hitCount + missCount;
+    return checkCount == 0 ? 0 : (double) hitCount / checkCount;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "CachingConstraintHandler [hits=" + hitCount + ", misses=" + missCount
+        + ", evictions=" + evictionCount + ", size=" + size + "]";
+  }
+
+  /**
+   * Returns the slot of the given key, or the empty slot where it would be inserted.
+   */
+  private int find(long key) {
+    int slot = hash(key);
+    while (states[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private int hash(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ hash >>> 32) & mask;
+  }
+
+  private void evict() {
+    while (true) {
+      if (states[clockHand] != EMPTY) {
+        if ((states[clockHand] & REFERENCED) == 0) {
+          remove(clockHand);
+          evictionCount++;
+          return;
+        }
+        states[clockHand] &= ~REFERENCED;
+      }
+      clockHand = (clockHand + 1) & mask;
+    }
+  }
+
+  /**
+   * Removes the entry in the given slot and moves following entries of the same probe sequence
+   * back, so that no lookup stops early at the freed slot.
+   */
+  private void remove(int slot) {
+    int free = slot;
+    int next = (free + 1) & mask;
+    while (states[next] != EMPTY) {
+      int home = hash(keys[next]);
+      // the entry may move to the free slot, if its home is not between the two slots
+      if (((next - home) & mask) >= ((next - free) & mask)) {
+        keys[free] = keys[next];
+        states[free] = states[next];
+        free = next;
+      }
+      next = (next + 1) & mask;
+    }
+    states[free] = EMPTY;
+    size--;
+  }
+
+}
@@ -15,6 +15,8 @@
  */
 package com.github.noahzuch.jcomb.core.constraint;
 
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
 /**
  * An interface for a Constraint of a combinatoral test.
  * @author Noah
@@ -40,4 +42,79 @@ public interface Constraint {
    * @return whether or not the combination confirms with this constraint.
    */
   public abstract boolean confirmsWith(Object[] inputCombination);
+
+  /**
+   * Checks whether or not the values at the given positions of a combination confirm with this
+   * constraint. Unlike {@link #confirmsWith(Object[])} the values do not have to be copied into a
+   * new array. The default implementation copies them anyway, but implementations can avoid this.
+   * 
+   * @param combination An Object[] containing the values of the involved parameters.
+   * @param parameters The positions of the values of the involved parameters in the combination,
+   *        ordered in the way defined by {@link #getInvolvedParameters()}.
+   * @return whether or not the combination confirms with this constraint.
+   */
+  public default boolean confirmsWith(Object[] combination, int[] parameters) {
+    Object[] input = new Object[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      input[i] = combination[parameters[i]];
+    }
+    return confirmsWith(input);
+  }
+
+  /**
+   * Returns whether or not this constraint is checked with the indices of the values in the domains
+   * of its parameters, instead of the values themselves. The values of parameters that are only
+   * involved in such constraints never have to be looked up.
+   * 
+   * @return true if this constraint has to be checked with
+   *         {@link #confirmsWithIndices(int[], int[])}, false otherwise.
+   */
+  public default boolean usesValueIndices() {
+    return false;
+  }
+
+  /**
+   * Checks whether or not the values with the given indices confirm with this constraint. This is
+   * only supported by constraints, that use value indices.
+   * 
+   * @param valueIndices An int[] containing the value indices of the involved parameters.
+   * @param parameters The positions of the value indices of the involved parameters in the array,
+   *        ordered in the way defined by {@link #getInvolvedParameters()}.
+   * @return whether or not the combination confirms with this constraint.
+   * @throws UnsupportedOperationException if this constraint does not use value indices.
+   */
+  public default boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+    throw new UnsupportedOperationException("This constraint does not use value indices.");
+  }
+
+  /**
+   * Checks a combination given both by its values and by their indices. Depending on
+   * {@link #usesValueIndices()}, only one of the arrays is read.
+   * 
+   * @param combination An Object[] containing the values of the involved parameters.
+   * @param valueIndices An int[] containing the value indices of the involved parameters.
+   * @param parameters The positions of the involved parameters in both arrays, ordered in the way
+   *        defined by {@link #getInvolvedParameters()}.
+   * @return whether or not the combination confirms with this constraint.
+   */
+  public default boolean confirmsWith(Object[] combination, int[] valueIndices,
+      int[] parameters) {
+    if (usesValueIndices()) {
+      return confirmsWithIndices(valueIndices, parameters);
+    }
+    return confirmsWith(combination, parameters);
+  }
+
+  /**
+   * Returns a constraint, that is equivalent to this constraint for the given domains, but may be
+   * checked faster, e.g. with value indices. This is called once, when a constraint handler is
+   * created. By default this constraint itself is returned.
+   * 
+   * @param domains The domains of the involved parameters, ordered in the way defined by
+   *        {@link #getInvolvedParameters()}.
+   * @return The compiled constraint.
+   */
+  public default Constraint compile(Domain[] domains) {
+    return this;
+  }
 }
@@ -0,0 +1,262 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import com.github.noahzuch.jcomb.core.JCombException;
+
+/**
+ * Arity specialized functional interfaces for constraints with one to four parameters. Constraint
+ * methods are bound to these interfaces by {@link #createInvoker(Method)}, so that they can be
+ * called without reflection and without allocating an argument array.
+ * <p>
+ * If the constraint method is public and visible to JComb, the interface is implemented via the
+ * {@link LambdaMetafactory}, which results in a direct call of the method. Otherwise a
+ * {@link MethodHandle} of the method is invoked. Constraint methods with more than four parameters
+ * are invoked via a spreading {@link MethodHandle}.
+ * <p>
+ * Exceptions thrown by the constraint method, including checked ones, are passed on unchanged.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public final class ConstraintFunctions {
+
+  /**
+   * A constraint for one parameter.
+   */
+  @FunctionalInterface
+  public interface Arity1 {
+
+    /**
+     * Checks whether or not the given value confirms with this constraint.
+     * 
+     * @param value0 The value of the first involved parameter.
+     * @return whether or not the value confirms with this constraint.
+     */
+    boolean test(Object value0);
+  }
+
+  /**
+   * A constraint for two parameters.
+   */
+  @FunctionalInterface
+  public interface Arity2 {
+
+    /**
+     * Checks whether or not the given values confirm with this constraint.
+     * 
+     * @param value0 The value of the first involved parameter.
+     * @param value1 The value of the second involved parameter.
+     * @return whether or not the values confirm with this constraint.
+     */
+    boolean test(Object value0, Object value1);
+  }
+
+  /**
+   * A constraint for three parameters.
+   */
+  @FunctionalInterface
+  public interface Arity3 {
+
+    /**
+     * Checks whether or not the given values confirm with this constraint.
+     * 
+     * @param value0 The value of the first involved parameter.
+     * @param value1 The value of the second involved parameter.
+     * @param value2 The value of the third involved parameter.
+     * @return whether or not the values confirm with this constraint.
+     */
+    boolean test(Object value0, Object value1, Object value2);
+  }
+
+  /**
+   * A constraint for four parameters.
+   */
+  @FunctionalInterface
+  public interface Arity4 {
+
+    /**
+     * Checks whether or not the given values confirm with this constraint.
+     * 
+     * @param value0 The value of the first involved parameter.
+     * @param value1 The value of the second involved parameter.
+     * @param value2 The value of the third involved parameter.
+     * @param value3 The value of the fourth involved parameter.
+     * @return whether or not the values confirm with this constraint.
+     */
+    boolean test(Object value0, Object value1, Object value2, Object value3);
+  }
+
+  /**
+   * Calls a constraint with the values at the given positions of an array.
+   */
+  @FunctionalInterface
+  interface Invoker {
+
+    boolean invoke(Object[] values, int[] positions);
+  }
+
+  private ConstraintFunctions() {
+
+  }
+
+  /**
+   * Creates an {@link Invoker} for the given static constraint method.
+   * 
+   * @param method The constraint method.
+   * @return An invoker calling the method.
+   * @throws JCombException if the method can not be accessed.
+   */
+  static Invoker createInvoker(Method method) {
+    MethodHandle handle;
+    try {
+      method.setAccessible(true);
+      handle = MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException | SecurityException e) {
+      throw new JCombException("Can't access constraint method " + method.getName() + ".", e);
+    }
+    switch (method.getParameterCount()) {
+      case 1:
+        Arity1 function1 = createFunction(Arity1.class, method, handle);
+        return (values, positions) -> function1.test(values[positions[0]]);
+      case 2:
+        Arity2 function2 = createFunction(Arity2.class, method, handle);
+        return (values, positions) -> function2.test(values[positions[0]],
+            values[positions[1]]);
+      case 3:
+        Arity3 function3 = createFunction(Arity3.class, method, handle);
+        return (values, positions) -> function3.test(values[positions[0]],
+            values[positions[1]], values[positions[2]]);
+      case 4:
+        Arity4 function4 = createFunction(Arity4.class, method, handle);
+        return (values, positions) -> function4.test(values[positions[0]],
+            values[positions[1]], values[positions[2]], values[positions[3]]);
+      default:
+        MethodHandle spreader = handle.asType(MethodType.genericMethodType(
+            method.getParameterCount()).changeReturnType(boolean.class))
+            .asSpreader(Object[].class, method.getParameterCount());
+        return (values, positions) -> {
+          Object[] input = new Object[positions.length];
+          for (int i = 0; i < positions.length; i++) {
+            input[i] = values[positions[i]];
+          }
+          try {
+            return (boolean) spreader.invokeExact(input);
+          } catch (Throwable e) {
+            throw sneakyThrow(e);
+          }
+        };
+    }
+  }
+
+  private static <T> T createFunction(Class<T> functionType, Method method, MethodHandle handle) {
+    if (isVisibleToJComb(method)) {
+      try {
+        return createFunctionViaLambdaMetafactory(functionType, method, handle);
+      } catch (Throwable e) {
+        // fallback to the method handle
+      }
+    }
+    return createFunctionViaMethodHandle(functionType, method, handle);
+  }
+
+  private static boolean isVisibleToJComb(Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    if (!Modifier.isPublic(method.getModifiers())
+        || !Modifier.isPublic(declaringClass.getModifiers())) {
+      return false;
+    }
+    try {
+      return Class.forName(declaringClass.getName(), false,
+          ConstraintFunctions.class.getClassLoader()) == declaringClass;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static <T> T createFunctionViaLambdaMetafactory(Class<T> functionType, Method method,
+      MethodHandle handle) throws Throwable {
+    int arity = method.getParameterCount();
+    MethodType erasedType = MethodType.genericMethodType(arity).changeReturnType(boolean.class);
+    MethodType instantiatedType = handle.type().wrap().changeReturnType(boolean.class);
+    MethodHandle factory = LambdaMetafactory.metafactory(MethodHandles.lookup(), "test",
+        MethodType.methodType(functionType), erasedType, handle, instantiatedType).getTarget();
+    return functionType.cast(factory.invoke());
+  }
+
+  private static <T> T createFunctionViaMethodHandle(Class<T> functionType, Method method,
+      MethodHandle handle) {
+    int arity = method.getParameterCount();
+    MethodHandle target =
+        handle.asType(MethodType.genericMethodType(arity).changeReturnType(boolean.class));
+    Object function;
+    switch (arity) {
+      case 1:
+        function = (Arity1) value0 -> {
+          try {
+            return (boolean) target.invokeExact(value0);
+          } catch (Throwable e) {
+            throw sneakyThrow(e);
+          }
+        };
+        break;
+      case 2:
+        function = (Arity2) (value0, value1) -> {
+          try {
+            return (boolean) target.invokeExact(value0, value1);
+          } catch (Throwable e) {
+            throw sneakyThrow(e);
+          }
+        };
+        break;
+      case 3:
+        function = (Arity3) (value0, value1, value2) -> {
+          try {
+            return (boolean) target.invokeExact(value0, value1, value2);
+          } catch (Throwable e) {
+            throw sneakyThrow(e);
+          }
+        };
+        break;
+      default:
+        function = (Arity4) (value0, value1, value2, value3) -> {
+          try {
+            return (boolean) target.invokeExact(value0, value1, value2, value3);
+          } catch (Throwable e) {
+            throw sneakyThrow(e);
+          }
+        };
+        break;
+    }
+    return functionType.cast(function);
+  }
+
+  /**
+   * Throws the given exception unchanged, even if it is checked. The declared return type only
+   * allows callers to write {@code throw sneakyThrow(e)}.
+   */
+  @SuppressWarnings("unchecked")
+  private static <E extends Throwable> RuntimeException sneakyThrow(Throwable e) throws E {
+    throw (E) e;
+  }
+
+}
@@ -31,6 +31,91 @@ public interface ConstraintHandler {
    */
   public boolean isSatisfiable(int[] test);
 
+  /**
+   * Checks whether or not the values of a parameter can be restricted by this ConstraintHandler. A
+   * partial test, in which all assigned parameters are unconstrained, is satisfiable if any test
+   * is. The default implementation returns true for every parameter.
+   * 
+   * @param parameter The index of the parameter.
+   * @return false if no constraint involves the parameter, true otherwise.
+   */
+  public default boolean isConstrained(int parameter) {
+    return true;
+  }
+
+  /**
+   * Returns the values of a parameter, which keep the given partial test satisfiable. The value
+   * of the parameter in the test is ignored and restored afterwards. The default implementation
+   * checks every value with {@link #isSatisfiable(int[])}.
+   * 
+   * @param test The partial test. A value of -1 indicates a wildcard value.
+   * @param parameter The index of the parameter.
+   * @param domainSize The number of values of the parameter.
+   * @return A bitmask, in which the bit {@code value % 64} of the element {@code value / 64} is
+   *         set for every allowed value. Use {@link #isAllowed(long[], int)} to test it.
+   */
+  public default long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    long[] allowedValues = new long[(domainSize + 63) >>> 6];
+    int originalValue = test[parameter];
+    if (!isConstrained(parameter)) {
+      test[parameter] = -1;
+      if (isSatisfiable(test)) {
+        allowAll(allowedValues, domainSize);
+      }
+    } else {
+      for (int value = 0; value < domainSize; value++) {
+        test[parameter] = value;
+        if (isSatisfiable(test)) {
+          allowedValues[value >>> 6] |= 1L << value;
+        }
+      }
+    }
+    test[parameter] = originalValue;
+    return allowedValues;
+  }
+
+  /**
+   * Checks whether or not a value is set in a bitmask returned by
+   * {@link #getAllowedValues(int[], int, int)}.
+   * 
+   * @param allowedValues The bitmask of allowed values.
+   * @param value The value index to check.
+   * @return true if the value is allowed, false otherwise.
+   */
+  public static boolean isAllowed(long[] allowedValues, int value) {
+    return (allowedValues[value >>> 6] & 1L << value) != 0;
+  }
+
+  /**
+   * Checks whether or not all values of a parameter are set in a bitmask of allowed values.
+   * 
+   * @param allowedValues The bitmask of allowed values.
+   * @param domainSize The number of values of the parameter.
+   * @return true if every value is allowed, false otherwise.
+   */
+  public static boolean allAllowed(long[] allowedValues, int domainSize) {
+    for (int word = 0; word < allowedValues.length; word++) {
+      int bits = Math.min(64, domainSize - (word << 6));
+      if (allowedValues[word] != (bits == 64 ? -1L : (1L << bits) - 1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sets the bits of all values of a parameter in a bitmask of allowed values.
+   * 
+   * @param allowedValues The bitmask of allowed values.
+   * @param domainSize The number of values of the parameter.
+   */
+  public static void allowAll(long[] allowedValues, int domainSize) {
+    for (int word = 0; word < allowedValues.length; word++) {
+      int bits = Math.min(64, domainSize - (word << 6));
+      allowedValues[word] = bits == 64 ? -1L : (1L << bits) - 1;
+    }
+  }
+
   /**
    * Returns the default {@link ConstraintHandler}, which allows all tests.
    * 
@@ -43,6 +128,11 @@ public interface ConstraintHandler {
       public boolean isSatisfiable(int[] test) {
         return true;
       }
+
+      @Override
+      public boolean isConstrained(int parameter) {
+        return false;
+      }
     };
   }
 }
@@ -0,0 +1,627 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * Creates {@link Constraint}s from lambdas, without the reflection needed for constraint methods.
+ * A constraint either receives the values of its parameters through one of the typed
+ * PredicateN interfaces, or the indices of the values in the domains of its parameters through one
+ * of the IndexPredicate interfaces. Constraints on value indices neither box nor look up any
+ * values. Simple relations between values can also be declared with a {@link Relation}, which is
+ * compiled into a table of the allowed value indices.
+ * <p>
+ * The PredicateN interfaces are {@link Serializable}, so that the types of the values a lambda
+ * expects can be read from it. Values of other types are reported before the lambda is called.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * &#64;Parameter(0)
+ * private static Ints parameter0 = new Ints(1, 2, 3);
+ * 
+ * &#64;Parameter(1)
+ * private static Values parameter1 = new Values("1", "2", "3");
+ * 
+ * &#64;Constraint(id = 0, parameters = {0, 1})
+ * private static Constraints.Predicate2&lt;Integer, String&gt; notEqual =
+ *     (param0, param1) -&gt; param0 != Integer.parseInt(param1);
+ * 
+ * &#64;Constraint(id = 1, parameters = {0, 1})
+ * private static Constraints.IndexPredicate2 notBothFirst =
+ *     (index0, index1) -&gt; index0 + index1 != 0;
+ * 
+ * Constraint constraint = Constraints.ofIndices(0, 1, (index0, index1) -&gt; index0 != index1);
+ * </pre>
+ * 
+ * @author Noah Zuch
+ *
+ */
+public final class Constraints {
+
+  /**
+   * The default maximum number of value combinations of a constraint, for which it is evaluated in
+   * advance and stored in a table.
+   */
+  public static final int TABLE_SIZE_LIMIT = 1 << 20;
+
+  private Constraints() {
+
+  }
+
+  /**
+   * A constraint on the value of one parameter.
+   */
+  @FunctionalInterface
+  public interface Predicate1<A> extends Serializable {
+    boolean test(A value0);
+  }
+
+  /**
+   * A constraint on the values of two parameters.
+   */
+  @FunctionalInterface
+  public interface Predicate2<A, B> extends Serializable {
+    boolean test(A value0, B value1);
+  }
+
+  /**
+   * A constraint on the values of three parameters.
+   */
+  @FunctionalInterface
+  public interface Predicate3<A, B, C> extends Serializable {
+    boolean test(A value0, B value1, C value2);
+  }
+
+  /**
+   * A constraint on the values of four parameters.
+   */
+  @FunctionalInterface
+  public interface Predicate4<A, B, C, D> extends Serializable {
+    boolean test(A value0, B value1, C value2, D value3);
+  }
+
+  /**
+   * A constraint on the value index of one parameter.
+   */
+  @FunctionalInterface
+  public interface IndexPredicate1 {
+    boolean test(int index0);
+  }
+
+  /**
+   * A constraint on the value indices of two parameters.
+   */
+  @FunctionalInterface
+  public interface IndexPredicate2 {
+    boolean test(int index0, int index1);
+  }
+
+  /**
+   * A constraint on the value indices of three parameters.
+   */
+  @FunctionalInterface
+  public interface IndexPredicate3 {
+    boolean test(int index0, int index1, int index2);
+  }
+
+  /**
+   * A constraint on the value indices of four parameters.
+   */
+  @FunctionalInterface
+  public interface IndexPredicate4 {
+    boolean test(int index0, int index1, int index2, int index3);
+  }
+
+  /**
+   * A constraint on the value indices of any number of parameters. The indices are passed in the
+   * order of the involved parameters.
+   */
+  @FunctionalInterface
+  public interface IndexPredicate {
+    boolean test(int[] indices);
+  }
+
+  /**
+   * Creates a constraint on the value of one parameter.
+   * 
+   * @param parameter0 The index of the parameter.
+   * @param predicate The predicate the value has to satisfy.
+   * @param <A> The type of the values of the parameter.
+   * @return The constraint.
+   */
+  public static <A> Constraint of(int parameter0, Predicate1<A> predicate) {
+    return new LambdaConstraint(new int[] {parameter0}, predicate) {
+
+      @SuppressWarnings("unchecked")
+      @Override
+      boolean test(Object[] combination, int[] parameters) {
+        return predicate.test((A) combination[parameters[0]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the values of two parameters.
+   * 
+   * @param parameter0 The index of the first parameter.
+   * @param parameter1 The index of the second parameter.
+   * @param predicate The predicate the values have to satisfy.
+   * @param <A> The type of the values of the first parameter.
+   * @param <B> The type of the values of the second parameter.
+   * @return The constraint.
+   */
+  public static <A, B> Constraint of(int parameter0, int parameter1,
+      Predicate2<A, B> predicate) {
+    return new LambdaConstraint(new int[] {parameter0, parameter1}, predicate) {
+
+      @SuppressWarnings("unchecked")
+      @Override
+      boolean test(Object[] combination, int[] parameters) {
+        return predicate.test((A) combination[parameters[0]], (B) combination[parameters[1]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the values of three parameters.
+   * 
+   * @param parameter0 The index of the first parameter.
+   * @param parameter1 The index of the second parameter.
+   * @param parameter2 The index of the third parameter.
+   * @param predicate The predicate the values have to satisfy.
+   * @param <A> The type of the values of the first parameter.
+   * @param <B> The type of the values of the second parameter.
+   * @param <C> The type of the values of the third parameter.
+   * @return The constraint.
+   */
+  public static <A, B, C> Constraint of(int parameter0, int parameter1, int parameter2,
+      Predicate3<A, B, C> predicate) {
+    return new LambdaConstraint(new int[] {parameter0, parameter1, parameter2}, predicate) {
+
+      @SuppressWarnings("unchecked")
+      @Override
+      boolean test(Object[] combination, int[] parameters) {
+        return predicate.test((A) combination[parameters[0]], (B) combination[parameters[1]],
+            (C) combination[parameters[2]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the values of four parameters.
+   * 
+   * @param parameter0 The index of the first parameter.
+   * @param parameter1 The index of the second parameter.
+   * @param parameter2 The index of the third parameter.
+   * @param parameter3 The index of the fourth parameter.
+   * @param predicate The predicate the values have to satisfy.
+   * @param <A> The type of the values of the first parameter.
+   * @param <B> The type of the values of the second parameter.
+   * @param <C> The type of the values of the third parameter.
+   * @param <D> The type of the values of the fourth parameter.
+   * @return The constraint.
+   */
+  public static <A, B, C, D> Constraint of(int parameter0, int parameter1, int parameter2,
+      int parameter3, Predicate4<A, B, C, D> predicate) {
+    return new LambdaConstraint(new int[] {parameter0, parameter1, parameter2, parameter3}, predicate) {
+
+      @SuppressWarnings("unchecked")
+      @Override
+      boolean test(Object[] combination, int[] parameters) {
+        return predicate.test((A) combination[parameters[0]], (B) combination[parameters[1]],
+            (C) combination[parameters[2]], (D) combination[parameters[3]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the value index of one parameter.
+   * 
+   * @param parameter0 The index of the parameter.
+   * @param predicate The predicate the value index has to satisfy.
+   * @return The constraint.
+   */
+  public static Constraint ofIndices(int parameter0, IndexPredicate1 predicate) {
+    return new IndexConstraint(new int[] {parameter0}) {
+
+      @Override
+      public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+        return predicate.test(valueIndices[parameters[0]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the value indices of two parameters.
+   * 
+   * @param parameter0 The index of the first parameter.
+   * @param parameter1 The index of the second parameter.
+   * @param predicate The predicate the value indices have to satisfy.
+   * @return The constraint.
+   */
+  public static Constraint ofIndices(int parameter0, int parameter1, IndexPredicate2 predicate) {
+    return new IndexConstraint(new int[] {parameter0, parameter1}) {
+
+      @Override
+      public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+        return predicate.test(valueIndices[parameters[0]], valueIndices[parameters[1]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the value indices of three parameters.
+   * 
+   * @param parameter0 The index of the first parameter.
+   * @param parameter1 The index of the second parameter.
+   * @param parameter2 The index of the third parameter.
+   * @param predicate The predicate the value indices have to satisfy.
+   * @return The constraint.
+   */
+  public static Constraint ofIndices(int parameter0, int parameter1, int parameter2,
+      IndexPredicate3 predicate) {
+    return new IndexConstraint(new int[] {parameter0, parameter1, parameter2}) {
+
+      @Override
+      public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+        return predicate.test(valueIndices[parameters[0]], valueIndices[parameters[1]],
+            valueIndices[parameters[2]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the value indices of four parameters.
+   * 
+   * @param parameter0 The index of the first parameter.
+   * @param parameter1 The index of the second parameter.
+   * @param parameter2 The index of the third parameter.
+   * @param parameter3 The index of the fourth parameter.
+   * @param predicate The predicate the value indices have to satisfy.
+   * @return The constraint.
+   */
+  public static Constraint ofIndices(int parameter0, int parameter1, int parameter2,
+      int parameter3, IndexPredicate4 predicate) {
+    return new IndexConstraint(new int[] {parameter0, parameter1, parameter2, parameter3}) {
+
+      @Override
+      public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+        return predicate.test(valueIndices[parameters[0]], valueIndices[parameters[1]],
+            valueIndices[parameters[2]], valueIndices[parameters[3]]);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint on the value indices of any number of parameters.
+   * 
+   * @param parameters The indices of the involved parameters.
+   * @param predicate The predicate the value indices have to satisfy.
+   * @return The constraint.
+   */
+  public static Constraint ofIndices(int[] parameters, IndexPredicate predicate) {
+    return new IndexConstraint(parameters.clone()) {
+
+      @Override
+      public boolean confirmsWithIndices(int[] valueIndices, int[] positions) {
+        int[] indices = new int[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+          indices[i] = valueIndices[positions[i]];
+        }
+        return predicate.test(indices);
+      }
+    };
+  }
+
+  /**
+   * Creates a constraint from a {@link Relation}. The position i of the relation refers to the
+   * i-th of the given parameters.
+   * 
+   * @param parameters The indices of the involved parameters.
+   * @param relation The relation the values have to satisfy.
+   * @return The constraint.
+   * @throws JCombException if the relation refers to more positions than there are parameters.
+   */
+  public static Constraint of(int[] parameters, Relation relation) {
+    if (relation.getArity() > parameters.length) {
+      throw new JCombException("A relation on " + relation.getArity()
+          + " values can not be used as a constraint for the parameters "
+          + Arrays.toString(parameters) + ".");
+    }
+    return new RelationConstraint(parameters.clone(), relation);
+  }
+
+  /**
+   * Creates a constraint from one of the predicate interfaces of this class or from a
+   * {@link Relation}.
+   * 
+   * @param parameters The indices of the involved parameters.
+   * @param predicate The predicate.
+   * @return The constraint.
+   * @throws JCombException if the predicate has an unsupported type or does not take as many values
+   *         as there are parameters.
+   */
+  @SuppressWarnings("unchecked")
+  public static Constraint fromPredicate(int[] parameters, Object predicate) {
+    if (predicate == null || !isPredicateType(predicate.getClass(), parameters.length)) {
+      throw new JCombException("A constraint for the parameters " + Arrays.toString(parameters)
+          + " has to be one of the predicates in Constraints with " + parameters.length
+          + " arguments or a Relation.");
+    }
+    if (predicate instanceof Relation) {
+      return of(parameters, (Relation) predicate);
+    }
+    if (predicate instanceof IndexPredicate) {
+      return ofIndices(parameters, (IndexPredicate) predicate);
+    }
+    int p0 = parameters[0];
+    switch (parameters.length) {
+      case 1:
+        return predicate instanceof Predicate1 ? of(p0, (Predicate1<Object>) predicate)
+            : ofIndices(p0, (IndexPredicate1) predicate);
+      case 2:
+        return predicate instanceof Predicate2
+            ? of(p0, parameters[1], (Predicate2<Object, Object>) predicate)
+            : ofIndices(p0, parameters[1], (IndexPredicate2) predicate);
+      case 3:
+        return predicate instanceof Predicate3
+            ? of(p0, parameters[1], parameters[2], (Predicate3<Object, Object, Object>) predicate)
+            : ofIndices(p0, parameters[1], parameters[2], (IndexPredicate3) predicate);
+      default:
+        return predicate instanceof Predicate4
+            ? of(p0, parameters[1], parameters[2], parameters[3],
+                (Predicate4<Object, Object, Object, Object>) predicate)
+            : ofIndices(p0, parameters[1], parameters[2], parameters[3],
+                (IndexPredicate4) predicate);
+    }
+  }
+
+  /**
+   * Checks whether or not the given type is one of the predicate interfaces of this class, that
+   * takes the given number of values.
+   * 
+   * @param type The type to check.
+   * @param parameterCount The number of involved parameters.
+   * @return true if a predicate of this type can be used as a constraint.
+   */
+  public static boolean isPredicateType(Class<?> type, int parameterCount) {
+    if (IndexPredicate.class.isAssignableFrom(type) || Relation.class.equals(type)) {
+      return parameterCount > 0;
+    }
+    Class<?>[][] typesByArity = new Class<?>[][] {
+        {Predicate1.class, IndexPredicate1.class},
+        {Predicate2.class, IndexPredicate2.class},
+        {Predicate3.class, IndexPredicate3.class},
+        {Predicate4.class, IndexPredicate4.class}};
+    return parameterCount > 0 && parameterCount <= typesByArity.length
+        && Arrays.stream(typesByArity[parameterCount - 1])
+            .anyMatch(predicateType -> predicateType.isAssignableFrom(type));
+  }
+
+  /**
+   * Checks whether or not the given type is one of the predicate interfaces on value indices.
+   * 
+   * @param type The type to check.
+   * @return true if the type is a predicate on value indices.
+   */
+  public static boolean isIndexPredicateType(Class<?> type) {
+    return IndexPredicate.class.isAssignableFrom(type)
+        || IndexPredicate1.class.isAssignableFrom(type)
+        || IndexPredicate2.class.isAssignableFrom(type)
+        || IndexPredicate3.class.isAssignableFrom(type)
+        || IndexPredicate4.class.isAssignableFrom(type);
+  }
+
+  /**
+   * Compiles the constraints of the given context for the domains of their parameters, using the
+   * default {@link #TABLE_SIZE_LIMIT}. See {@link #compile(Constraint, Domain[], int)}.
+   * 
+   * @param context The context containing the constraints and domains.
+   * @return The compiled constraints in the order of the context.
+   */
+  public static List<Constraint> compile(JCombContext context) {
+    return compile(context, TABLE_SIZE_LIMIT);
+  }
+
+  /**
+   * Compiles the constraints of the given context for the domains of their parameters. See
+   * {@link #compile(Constraint, Domain[], int)}.
+   * 
+   * @param context The context containing the constraints and domains.
+   * @param tableSizeLimit The maximum number of value combinations of a constraint, for which it is
+   *        stored in a table.
+   * @return The compiled constraints in the order of the context.
+   */
+  public static List<Constraint> compile(JCombContext context, int tableSizeLimit) {
+    List<Constraint> compiled = new ArrayList<>(context.getConstraints().size());
+    for (Constraint constraint : context.getConstraints().values()) {
+      int[] parameters = constraint.getInvolvedParameters();
+      Domain[] domains = new Domain[parameters.length];
+      for (int i = 0; i < parameters.length; i++) {
+        domains[i] = context.getParameter(parameters[i]);
+      }
+      compiled.add(compile(constraint, domains, tableSizeLimit));
+    }
+    return compiled;
+  }
+
+  /**
+   * Compiles a constraint for the given domains. First {@link Constraint#compile(Domain[])} is
+   * called. If the result is still checked with values and its parameters have at most
+   * tableSizeLimit value combinations, it is evaluated once for every combination. The results are
+   * stored in a bitmask over the value indices, so that the returned constraint never calls the
+   * code of the original constraint again.
+   * 
+   * @param constraint The constraint to compile.
+   * @param domains The domains of the involved parameters, ordered in the way defined by
+   *        {@link Constraint#getInvolvedParameters()}.
+   * @param tableSizeLimit The maximum number of value combinations, for which the constraint is
+   *        stored in a table.
+   * @return The compiled constraint.
+   */
+  public static Constraint compile(Constraint constraint, Domain[] domains, int tableSizeLimit) {
+    return TabulatedConstraint.tabulate(constraint.compile(domains), domains, tableSizeLimit);
+  }
+
+  /**
+   * Checks whether or not the given constraint was stored in a table by
+   * {@link #compile(Constraint, Domain[], int)}. A tabulated constraint only reads its table and
+   * can be checked by several threads at the same time. All other constraints run the code of
+   * their creator, which does not have to be thread-safe.
+   * 
+   * @param constraint The constraint to check.
+   * @return true if the constraint is tabulated, false otherwise.
+   */
+  public static boolean isTabulated(Constraint constraint) {
+    return constraint instanceof TabulatedConstraint;
+  }
+
+  /**
+   * Returns for every parameter, whether or not its values are needed to check the given
+   * constraints. This is the case for parameters involved in a constraint that does not use value
+   * indices.
+   * 
+   * @param constraints The constraints.
+   * @param parameterCount The number of parameters.
+   * @return An array containing true for all parameters whose values are needed.
+   */
+  public static boolean[] getParametersWithNeededValues(Collection<Constraint> constraints,
+      int parameterCount) {
+    boolean[] valuesNeeded = new boolean[parameterCount];
+    for (Constraint constraint : constraints) {
+      if (!constraint.usesValueIndices()) {
+        for (int parameter : constraint.getInvolvedParameters()) {
+          valuesNeeded[parameter] = true;
+        }
+      }
+    }
+    return valuesNeeded;
+  }
+
+  /**
+   * A constraint on values, that checks the types of the values before its predicate is called.
+   * Exceptions thrown by the predicate are passed on unchanged.
+   */
+  private abstract static class LambdaConstraint extends AbstractConstraint {
+
+    private final int[] identityPositions;
+    private final Class<?>[] valueTypes;
+
+    LambdaConstraint(int[] involvedParameters, Object predicate) {
+      super(involvedParameters);
+      identityPositions = IntStream.range(0, involvedParameters.length).toArray();
+      valueTypes = getValueTypes(predicate, involvedParameters.length);
+    }
+
+    abstract boolean test(Object[] combination, int[] parameters);
+
+    @Override
+    public boolean confirmsWith(Object[] inputCombination) {
+      return confirmsWith(inputCombination, identityPositions);
+    }
+
+    @Override
+    public boolean confirmsWith(Object[] combination, int[] parameters) {
+      for (int i = 0; i < parameters.length; i++) {
+        Object value = combination[parameters[i]];
+        if (value != null && !valueTypes[i].isInstance(value)) {
+          throw new JCombException("The values of the parameters "
+              + Arrays.toString(getInvolvedParameters())
+              + " do not match the types expected by the constraint.");
+        }
+      }
+      return test(combination, parameters);
+    }
+
+    /**
+     * Returns the types of the values the given predicate expects. They are read from the
+     * serialized form of lambdas and method references and from the test method of other classes.
+     * Types that can not be determined are returned as Object.
+     */
+    private static Class<?>[] getValueTypes(Object predicate, int valueCount) {
+      Class<?> predicateClass = predicate.getClass();
+      try {
+        if (predicateClass.isSynthetic()) {
+          Method writeReplace = predicateClass.getDeclaredMethod("writeReplace");
+          writeReplace.setAccessible(true);
+          Object serialized = writeReplace.invoke(predicate);
+          if (serialized instanceof SerializedLambda) {
+            return MethodType.fromMethodDescriptorString(
+                ((SerializedLambda) serialized).getInstantiatedMethodType(),
+                predicateClass.getClassLoader()).wrap().parameterArray();
+          }
+        } else {
+          for (Method method : predicateClass.getMethods()) {
+            if (method.getName().equals("test") && !method.isBridge()
+                && method.getParameterCount() == valueCount) {
+              return MethodType.methodType(boolean.class, method.getParameterTypes()).wrap()
+                  .parameterArray();
+            }
+          }
+        }
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        // the types can not be read, so every value is passed to the predicate
+      }
+      Class<?>[] valueTypes = new Class<?>[valueCount];
+      Arrays.fill(valueTypes, Object.class);
+      return valueTypes;
+    }
+  }
+
+  /**
+   * A constraint on value indices, which can not be checked with values.
+   */
+  private abstract static class IndexConstraint extends AbstractConstraint {
+
+    IndexConstraint(int[] involvedParameters) {
+      super(involvedParameters);
+    }
+
+    @Override
+    public boolean usesValueIndices() {
+      return true;
+    }
+
+    @Override
+    public abstract boolean confirmsWithIndices(int[] valueIndices, int[] parameters);
+
+    @Override
+    public boolean confirmsWith(Object[] inputCombination) {
+      throw new UnsupportedOperationException(
+          "This constraint has to be checked with value indices.");
+    }
+
+    @Override
+    public boolean confirmsWith(Object[] combination, int[] parameters) {
+      throw new UnsupportedOperationException(
+          "This constraint has to be checked with value indices.");
+    }
+  }
+
+}
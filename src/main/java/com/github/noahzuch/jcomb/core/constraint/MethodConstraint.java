@@ -15,15 +15,18 @@
  */
 package com.github.noahzuch.jcomb.core.constraint;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintFunctions.Invoker;
 
 /**
  * A MethodConstraint is an implementation of the {@link Constraint} interface that uses a method as
- * a constraint.
+ * a constraint. The method is not called via reflection, but via a call site created by
+ * {@link ConstraintFunctions}. The types of the values are checked before the call, so that an
+ * exception thrown inside the method is never mistaken for a type mismatch.
  * 
  * @author Noah
  *
@@ -31,6 +34,14 @@ import com.github.noahzuch.jcomb.core.JCombException;
 public class MethodConstraint extends AbstractConstraint {
 
   private Method method;
+  private Invoker invoker;
+  private int[] identityPositions;
+
+  /**
+   * The parameter types of the method, with primitive types replaced by their wrapper types.
+   */
+  private Class<?>[] parameterTypes;
+  private boolean[] primitiveParameters;
 
   /**
    * Creates a new MethodConstraint from the supplied method and involved parameters.
@@ -49,23 +60,59 @@ public class MethodConstraint extends AbstractConstraint {
           "A Constraint method has to return a boolean, but the Constraint method "
               + method.getName() + " does not.");
     }
+    if (method.getParameterCount() != involvedParameters.length) {
+      throw new JCombException("The Constraint method " + method.getName() + " has "
+          + method.getParameterCount() + " parameters, but " + involvedParameters.length
+          + " parameters are defined in the constraints annotation.");
+    }
     this.method = method;
-    method.setAccessible(true);
+    invoker = ConstraintFunctions.createInvoker(method);
+    identityPositions = new int[involvedParameters.length];
+    for (int i = 0; i < identityPositions.length; i++) {
+      identityPositions[i] = i;
+    }
+    parameterTypes = method.getParameterTypes();
+    primitiveParameters = new boolean[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (parameterTypes[i].isPrimitive()) {
+        primitiveParameters[i] = true;
+        parameterTypes[i] = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+      }
+    }
   }
 
   @Override
   public boolean confirmsWith(Object[] inputKombination) {
+    return confirmsWith(inputKombination, identityPositions);
+  }
+
+  @Override
+  public boolean confirmsWith(Object[] combination, int[] parameters) {
+    checkParameterTypes(combination, parameters);
     try {
-      return (Boolean) method.invoke(null, inputKombination);
-    } catch (IllegalAccessException e) {
-      throw new JCombException("Can't access constraint method " + method.getName() + ".", e);
-    } catch (IllegalArgumentException e) {
-      throw new JCombException("The Methodparameters of the constraint '" + method.getName()
-          + "' have different types than the defined Parameters in the constraints annotation:"
-          + Arrays.toString(Arrays.stream(inputKombination).map(Object::getClass).toArray()), e);
-    } catch (InvocationTargetException e) {
+      return invoker.invoke(combination, parameters);
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable e) {
+      // also catches checked exceptions, which the method handles pass on unchanged
       throw new JCombException(
-          "constraint method" + method.getName() + "threw an exception.", e);
+          "constraint method " + method.getName() + " threw an exception.", e);
+    }
+  }
+
+  private void checkParameterTypes(Object[] combination, int[] parameters) {
+    for (int i = 0; i < parameters.length; i++) {
+      Object value = combination[parameters[i]];
+      if (value == null ? primitiveParameters[i] : !parameterTypes[i].isInstance(value)) {
+        Object[] input = new Object[parameters.length];
+        for (int j = 0; j < parameters.length; j++) {
+          input[j] = combination[parameters[j]];
+        }
+        throw new JCombException("The Methodparameters of the constraint '" + method.getName()
+            + "' have different types than the defined Parameters in the constraints annotation:"
+            + Arrays.toString(Arrays.stream(input)
+                .map(element -> element == null ? null : element.getClass()).toArray()));
+      }
     }
   }
 
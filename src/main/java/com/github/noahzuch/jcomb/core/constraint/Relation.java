@@ -0,0 +1,240 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A declarative description of a simple constraint, that does not need a constraint method. A
+ * relation refers to the values of its parameters by their position, in the same way as the
+ * arguments of a constraint method: Position 0 is the first parameter of the constraint, position
+ * 1 the second one and so on. Values are compared with {@link Object#equals(Object)}.
+ * <p>
+ * When a constraint handler is created, a relation is compiled into a table of the allowed value
+ * index combinations, so that checking it only needs array lookups. Relations with more than
+ * {@link Constraints#TABLE_SIZE_LIMIT} tupels are checked with the values instead.
+ * <p>
+ * Example:
+ * 
+ * <pre>
+ * &#64;Constraint(id = 0, parameters = {0, 1})
+ * private static Relation noExt4OnWindows =
+ *     Relation.is(0, OS.WINDOWS).then(Relation.isNot(1, FileSystem.EXT4));
+ * 
+ * &#64;Constraint(id = 1, parameters = {2, 0})
+ * private static Relation unsupportedBrowsers = Relation.forbidden(
+ *     new Object[] {Browser.SAFARI, OS.LINUX},
+ *     new Object[] {Browser.EDGE, OS.MAC});
+ * </pre>
+ * 
+ * @author Noah Zuch
+ *
+ */
+public final class Relation {
+
+  private final int arity;
+  private final Evaluation evaluation;
+
+  /**
+   * Evaluates a relation for the values at the given positions of a combination.
+   */
+  @FunctionalInterface
+  private interface Evaluation {
+    boolean test(Object[] combination, int[] parameters);
+  }
+
+  private Relation(int arity, Evaluation evaluation) {
+    this.arity = arity;
+    this.evaluation = evaluation;
+  }
+
+  /**
+   * Creates a relation, that is satisfied if the value at the given position is equal to one of
+   * the given values.
+   * 
+   * @param position The position of the parameter.
+   * @param values The allowed values.
+   * @return The relation.
+   */
+  public static Relation is(int position, Object... values) {
+    checkPosition(position);
+    Object[] allowed = values.clone();
+    return new Relation(position + 1,
+        (combination, parameters) -> contains(allowed, combination[parameters[position]]));
+  }
+
+  /**
+   * Creates a relation, that is satisfied if the value at the given position is equal to none of
+   * the given values.
+   * 
+   * @param position The position of the parameter.
+   * @param values The forbidden values.
+   * @return The relation.
+   */
+  public static Relation isNot(int position, Object... values) {
+    return is(position, values).negate();
+  }
+
+  /**
+   * Creates a relation, that is satisfied if the values at the given positions are equal.
+   * 
+   * @param position0 The position of the first parameter.
+   * @param position1 The position of the second parameter.
+   * @return The relation.
+   */
+  public static Relation equal(int position0, int position1) {
+    checkPosition(position0);
+    checkPosition(position1);
+    return new Relation(Math.max(position0, position1) + 1,
+        (combination, parameters) -> Objects.equals(combination[parameters[position0]],
+            combination[parameters[position1]]));
+  }
+
+  /**
+   * Creates a relation, that is satisfied if the values of the parameters are equal to one of the
+   * given tupels. The i-th value of a tupel belongs to the parameter at position i.
+   * 
+   * @param tupels The allowed tupels, which all have to have the same length.
+   * @return The relation.
+   * @throws IllegalArgumentException if no tupels are given or their lengths differ.
+   */
+  public static Relation allowed(Object[]... tupels) {
+    if (tupels.length == 0 || tupels[0].length == 0) {
+      throw new IllegalArgumentException("At least one non empty tupel has to be given.");
+    }
+    Object[][] allowedTupels = new Object[tupels.length][];
+    for (int i = 0; i < tupels.length; i++) {
+      if (tupels[i].length != tupels[0].length) {
+        throw new IllegalArgumentException("The tupel " + Arrays.toString(tupels[i])
+            + " does not have " + tupels[0].length + " values.");
+      }
+      allowedTupels[i] = tupels[i].clone();
+    }
+    return new Relation(tupels[0].length, (combination, parameters) -> {
+      for (Object[] tupel : allowedTupels) {
+        if (matches(tupel, combination, parameters)) {
+          return true;
+        }
+      }
+      return false;
+    });
+  }
+
+  /**
+   * Creates a relation, that is satisfied if the values of the parameters are equal to none of
+   * the given tupels. The i-th value of a tupel belongs to the parameter at position i.
+   * 
+   * @param tupels The forbidden tupels, which all have to have the same length.
+   * @return The relation.
+   * @throws IllegalArgumentException if no tupels are given or their lengths differ.
+   */
+  public static Relation forbidden(Object[]... tupels) {
+    return allowed(tupels).negate();
+  }
+
+  /**
+   * Creates a relation, that is satisfied if both this and the given relation are satisfied.
+   * 
+   * @param other The other relation.
+   * @return The conjunction of both relations.
+   */
+  public Relation and(Relation other) {
+    return new Relation(Math.max(arity, other.arity),
+        (combination, parameters) -> evaluation.test(combination, parameters)
+            && other.evaluation.test(combination, parameters));
+  }
+
+  /**
+   * Creates a relation, that is satisfied if this or the given relation is satisfied.
+   * 
+   * @param other The other relation.
+   * @return The disjunction of both relations.
+   */
+  public Relation or(Relation other) {
+    return new Relation(Math.max(arity, other.arity),
+        (combination, parameters) -> evaluation.test(combination, parameters)
+            || other.evaluation.test(combination, parameters));
+  }
+
+  /**
+   * Creates a relation, that is satisfied if the given relation is satisfied whenever this
+   * relation is satisfied.
+   * 
+   * @param consequence The relation, that has to hold if this relation holds.
+   * @return The implication.
+   */
+  public Relation then(Relation consequence) {
+    return negate().or(consequence);
+  }
+
+  /**
+   * Creates a relation, that is satisfied if this relation is not satisfied.
+   * 
+   * @return The negation of this relation.
+   */
+  public Relation negate() {
+    return new Relation(arity, (combination, parameters) -> !evaluation.test(combination,
+        parameters));
+  }
+
+  /**
+   * Returns the number of parameters, this relation needs. This is the highest position it refers
+   * to plus one.
+   * 
+   * @return The number of needed parameters.
+   */
+  public int getArity() {
+    return arity;
+  }
+
+  /**
+   * Checks whether or not the values at the given positions of the combination satisfy this
+   * relation.
+   * 
+   * @param combination An Object[] containing the values of the parameters.
+   * @param parameters The positions of the parameters in the combination.
+   * @return whether or not the values satisfy this relation.
+   */
+  boolean test(Object[] combination, int[] parameters) {
+    return evaluation.test(combination, parameters);
+  }
+
+  private static boolean matches(Object[] tupel, Object[] combination, int[] parameters) {
+    for (int position = 0; position < tupel.length; position++) {
+      if (!Objects.equals(tupel[position], combination[parameters[position]])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean contains(Object[] values, Object value) {
+    for (Object candidate : values) {
+      if (Objects.equals(candidate, value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void checkPosition(int position) {
+    if (position < 0) {
+      throw new IllegalArgumentException("The position " + position + " is negative.");
+    }
+  }
+
+}
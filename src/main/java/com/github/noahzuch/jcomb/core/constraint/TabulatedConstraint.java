@@ -0,0 +1,128 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import java.util.stream.IntStream;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * A constraint, that was evaluated once for every combination of the value indices of its
+ * parameters. The results are stored in a bitmask, so that checking the constraint only needs
+ * array lookups and never calls the code of the original constraint again.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class TabulatedConstraint implements Constraint {
+
+  private final Constraint constraint;
+
+  /**
+   * The position of a value index combination in the table is the sum of the value indices
+   * multiplied with these factors.
+   */
+  private final int[] factors;
+  private final long[] allowedTupels;
+
+  private TabulatedConstraint(Constraint constraint, int[] factors, long[] allowedTupels) {
+    this.constraint = constraint;
+    this.factors = factors;
+    this.allowedTupels = allowedTupels;
+  }
+
+  /**
+   * Evaluates the given constraint for every combination of values of the given domains. If the
+   * constraint already uses value indices or there are more combinations than the given limit, the
+   * constraint is returned unchanged.
+   * 
+   * @param constraint The constraint to evaluate.
+   * @param domains The domains of the involved parameters, ordered in the way defined by
+   *        {@link Constraint#getInvolvedParameters()}.
+   * @param tableSizeLimit The maximum number of combinations.
+   * @return The tabulated constraint or the given one.
+   */
+  static Constraint tabulate(Constraint constraint, Domain[] domains, int tableSizeLimit) {
+    if (constraint.usesValueIndices()) {
+      return constraint;
+    }
+    long tupelCount = 1;
+    for (Domain domain : domains) {
+      tupelCount *= domain.getSize();
+      if (tupelCount > tableSizeLimit) {
+        return constraint;
+      }
+    }
+    int[] factors = new int[domains.length];
+    int factor = 1;
+    for (int i = domains.length - 1; i >= 0; i--) {
+      factors[i] = factor;
+      factor *= domains[i].getSize();
+    }
+    long[] allowedTupels = new long[(int) ((tupelCount + 63) >>> 6)];
+    if (tupelCount == 0) {
+      return new TabulatedConstraint(constraint, factors, allowedTupels);
+    }
+    int[] positions = IntStream.range(0, domains.length).toArray();
+    Object[] values = new Object[domains.length];
+    int[] valueIndices = new int[domains.length];
+    for (int i = 0; i < domains.length; i++) {
+      values[i] = domains[i].getValueAt(0);
+    }
+    for (int tupel = 0; tupel < tupelCount; tupel++) {
+      if (constraint.confirmsWith(values, positions)) {
+        allowedTupels[tupel >>> 6] |= 1L << tupel;
+      }
+      for (int i = domains.length - 1; i >= 0; i--) {
+        valueIndices[i] = (valueIndices[i] + 1) % domains[i].getSize();
+        values[i] = domains[i].getValueAt(valueIndices[i]);
+        if (valueIndices[i] != 0) {
+          break;
+        }
+      }
+    }
+    return new TabulatedConstraint(constraint, factors, allowedTupels);
+  }
+
+  @Override
+  public int[] getInvolvedParameters() {
+    return constraint.getInvolvedParameters();
+  }
+
+  @Override
+  public boolean confirmsWith(Object[] inputCombination) {
+    return constraint.confirmsWith(inputCombination);
+  }
+
+  @Override
+  public boolean confirmsWith(Object[] combination, int[] parameters) {
+    return constraint.confirmsWith(combination, parameters);
+  }
+
+  @Override
+  public boolean usesValueIndices() {
+    return true;
+  }
+
+  @Override
+  public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+    int tupel = 0;
+    for (int i = 0; i < parameters.length; i++) {
+      tupel += valueIndices[parameters[i]] * factors[i];
+    }
+    return (allowedTupels[tupel >>> 6] & 1L << tupel) != 0;
+  }
+
+}
@@ -0,0 +1,468 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.mdd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * An implementation of the {@link ConstraintHandler} interface, that represents the conjunction of
+ * all constraints as a reduced multi-valued decision diagram (MDD). Unlike the ConstraintTree,
+ * identical sub-diagrams are created only once and shared, and a node whose children are all
+ * identical is replaced by its child.
+ * <p>
+ * Only the parameters involved in a constraint are part of the diagram. They are ordered so that
+ * parameters sharing constraints lie close together. The diagram is built top-down: At every
+ * level the remaining sub-diagram only depends on the values of those assigned parameters, that
+ * are involved in a constraint with an unassigned parameter. Sub-diagrams are therefore cached by
+ * these values. A constraint is checked as soon as its last parameter is assigned.
+ * <p>
+ * A wildcard (-1) in a checked test follows all children of a node. Below the last assigned level
+ * every node except the false terminal is satisfiable, so the check stops there. Nodes that were
+ * already found unsatisfiable during a check are not visited again. The allowed values of a
+ * parameter are collected in a single traversal, in which every node is visited at most once.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class MddConstraintHandler implements ConstraintHandler {
+
+  private final int[] order;
+  private final MddNode trueTerminal;
+  private final MddNode falseTerminal;
+  private final MddNode root;
+  private final int nodeCount;
+  private final boolean[] constrainedParameters;
+  private final int[] levelOfParameter;
+
+  private final ThreadLocal<int[]> visitedNodes;
+  private final ThreadLocal<int[]> checkCounter;
+
+  /**
+   * Creates a new MddConstraintHandler for the given context.
+   * 
+   * @param jcombContext The context to create the diagram from.
+   */
+  public MddConstraintHandler(JCombContext jcombContext) {
+    this(jcombContext, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new MddConstraintHandler for the given context, whose construction is aborted when
+   * it would build too many sub-diagrams.
+   * 
+   * @param jcombContext The context to create the diagram from.
+   * @param sizeLimit The maximum number of sub-diagrams, that may be built during the construction.
+   * @throws IllegalArgumentException if the construction exceeds the size limit.
+   */
+  public MddConstraintHandler(JCombContext jcombContext, int sizeLimit) {
+    List<Constraint> constraints = Constraints.compile(jcombContext);
+    order = createVariableOrder(jcombContext.getParameterCount(), constraints);
+    constrainedParameters = new boolean[jcombContext.getParameterCount()];
+    levelOfParameter = new int[jcombContext.getParameterCount()];
+    for (int level = 0; level < order.length; level++) {
+      constrainedParameters[order[level]] = true;
+      levelOfParameter[order[level]] = level;
+    }
+    Builder builder = new Builder(jcombContext, constraints, order, sizeLimit);
+    trueTerminal = builder.trueTerminal;
+    falseTerminal = builder.falseTerminal;
+    root = builder.build();
+    nodeCount = builder.nextId;
+    visitedNodes = ThreadLocal.withInitial(() -> new int[nodeCount]);
+    checkCounter = ThreadLocal.withInitial(() -> new int[1]);
+  }
+
+  /**
+   * Returns the number of nodes of the diagram, including the two terminals.
+   * 
+   * @return The number of nodes.
+   */
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  /**
+   * Returns the order of the parameters in the diagram.
+   * 
+   * @return The parameter indices from the root level to the last level.
+   */
+  public int[] getVariableOrder() {
+    return order.clone();
+  }
+
+  @Override
+  public boolean isSatisfiable(int[] test) {
+    if (root == trueTerminal || root == falseTerminal) {
+      return root == trueTerminal;
+    }
+    int[] visited = visitedNodes.get();
+    return isSatisfiable(root, test, getLastAssignedLevel(test), visited, nextCheck(visited));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The allowed values are collected in a single traversal of the diagram. Every node is visited
+   * at most once, as the values it allows only depend on the node and the test.
+   */
+  @Override
+  public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    if (root == trueTerminal || root == falseTerminal || !constrainedParameters[parameter]) {
+      return ConstraintHandler.super.getAllowedValues(test, parameter, domainSize);
+    }
+    long[] allowedValues = new long[(domainSize + 63) >>> 6];
+    int originalValue = test[parameter];
+    test[parameter] = -1;
+    int level = levelOfParameter[parameter];
+    int lastAssignedLevel = Math.max(getLastAssignedLevel(test), level);
+    int[] visited = visitedNodes.get();
+    addAllowedValues(root, test, level, lastAssignedLevel, allowedValues, domainSize, visited,
+        nextCheck(visited));
+    test[parameter] = originalValue;
+    return allowedValues;
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return constrainedParameters[parameter];
+  }
+
+  private int getLastAssignedLevel(int[] test) {
+    for (int level = order.length - 1; level >= 0; level--) {
+      if (test[order[level]] != -1) {
+        return level;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a new mark for the visited nodes of a check.
+   */
+  private int nextCheck(int[] visited) {
+    int[] counter = checkCounter.get();
+    int check = ++counter[0];
+    if (check == 0) {
+      // the counter overflowed, so old marks could be mistaken as current ones
+      Arrays.fill(visited, 0);
+      check = ++counter[0];
+    }
+    return check;
+  }
+
+  /**
+   * Adds the values of the parameter at the given level, for which a path below the node is
+   * satisfiable. Nodes above and at the level are marked once they were visited, nodes below the
+   * level once they were found unsatisfiable.
+   * 
+   * @return true if all values are allowed.
+   */
+  private boolean addAllowedValues(MddNode node, int[] test, int level, int lastAssignedLevel,
+      long[] allowedValues, int domainSize, int[] visited, int check) {
+    while (!node.isTerminal() && node.level < level) {
+      int value = test[order[node.level]];
+      if (value == -1) {
+        break;
+      }
+      node = node.children[value];
+    }
+    if (node.isTerminal() || node.level > level) {
+      // the level was skipped, so all values of the parameter lead to this node
+      if (isSatisfiable(node, test, lastAssignedLevel, visited, check)) {
+        ConstraintHandler.allowAll(allowedValues, domainSize);
+        return true;
+      }
+      return false;
+    }
+    if (visited[node.id] == check) {
+      return false;
+    }
+    visited[node.id] = check;
+    if (node.level == level) {
+      for (int value = 0; value < node.children.length; value++) {
+        if (!ConstraintHandler.isAllowed(allowedValues, value)
+            && isSatisfiable(node.children[value], test, lastAssignedLevel, visited, check)) {
+          allowedValues[value >>> 6] |= 1L << value;
+        }
+      }
+      return ConstraintHandler.allAllowed(allowedValues, domainSize);
+    }
+    for (MddNode child : node.children) {
+      if (addAllowedValues(child, test, level, lastAssignedLevel, allowedValues, domainSize,
+          visited, check)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isSatisfiable(MddNode node, int[] test, int lastAssignedLevel, int[] visited,
+      int check) {
+    while (true) {
+      if (node.isTerminal() || node.level > lastAssignedLevel) {
+        return node.satisfiable;
+      }
+      int value = test[order[node.level]];
+      if (value == -1) {
+        break;
+      }
+      node = node.children[value];
+    }
+    if (visited[node.id] == check) {
+      return false;
+    }
+    for (MddNode child : node.children) {
+      if (isSatisfiable(child, test, lastAssignedLevel, visited, check)) {
+        return true;
+      }
+    }
+    visited[node.id] = check;
+    return false;
+  }
+
+  /**
+   * Orders the parameters that are involved in at least one constraint. The order starts with the
+   * parameter that is involved in the most constraints. Afterwards the parameter involved in the
+   * most constraints with already ordered parameters is added. Ties are broken in favor of the
+   * parameter with the fewest remaining constraints, as this keeps the number of assigned
+   * parameters, on which the rest of the diagram depends, small.
+   */
+  static int[] createVariableOrder(int parameterCount, Collection<Constraint> constraints) {
+    List<int[]> parametersOfConstraints = new ArrayList<>();
+    int[] constraintCounts = new int[parameterCount];
+    for (Constraint constraint : constraints) {
+      int[] parameters = distinctParameters(constraint);
+      parametersOfConstraints.add(parameters);
+      for (int parameter : parameters) {
+        constraintCounts[parameter]++;
+      }
+    }
+    int[] sharedCounts = new int[parameterCount];
+    boolean[] ordered = new boolean[parameterCount];
+    boolean[] touched = new boolean[parametersOfConstraints.size()];
+    List<Integer> order = new ArrayList<>();
+    while (true) {
+      int best = -1;
+      for (int parameter = 0; parameter < parameterCount; parameter++) {
+        if (!ordered[parameter] && constraintCounts[parameter] > 0
+            && (best == -1 || isBetterNextParameter(parameter, best, order.isEmpty(),
+                constraintCounts, sharedCounts))) {
+          best = parameter;
+        }
+      }
+      if (best == -1) {
+        break;
+      }
+      ordered[best] = true;
+      order.add(best);
+      for (int i = 0; i < touched.length; i++) {
+        int[] parameters = parametersOfConstraints.get(i);
+        if (!touched[i] && Arrays.stream(parameters).anyMatch(parameter -> ordered[parameter])) {
+          touched[i] = true;
+          for (int parameter : parameters) {
+            sharedCounts[parameter]++;
+          }
+        }
+      }
+    }
+    return order.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private static boolean isBetterNextParameter(int parameter, int best, boolean first,
+      int[] constraintCounts, int[] sharedCounts) {
+    if (first) {
+      return constraintCounts[parameter] > constraintCounts[best];
+    }
+    if (sharedCounts[parameter] != sharedCounts[best]) {
+      return sharedCounts[parameter] > sharedCounts[best];
+    }
+    return constraintCounts[parameter] - sharedCounts[parameter] < constraintCounts[best]
+        - sharedCounts[best];
+  }
+
+  private static int[] distinctParameters(Constraint constraint) {
+    return Arrays.stream(constraint.getInvolvedParameters()).distinct().toArray();
+  }
+
+  /**
+   * Builds the diagram for a fixed variable order.
+   */
+  private static class Builder {
+
+    private final int[] order;
+    private final Domain[] domains;
+
+    /**
+     * The constraints, that are checked when the parameter of a level is assigned.
+     */
+    private final Constraint[][] constraintsOfLevel;
+
+    /**
+     * The assigned parameters, on which the sub-diagram of a level depends.
+     */
+    private final int[][] frontierOfLevel;
+
+    private final List<Map<List<Integer>, MddNode>> cacheOfLevel;
+    private final Map<List<Integer>, MddNode> uniqueNodes;
+    private final Object[] combination;
+    private final int[] valueIndices;
+    private final boolean[] valuesNeeded;
+
+    private final int sizeLimit;
+    private int builtCount;
+    private int nextId;
+    private final MddNode trueTerminal;
+    private final MddNode falseTerminal;
+
+    Builder(JCombContext context, Collection<Constraint> constraints, int[] order,
+        int sizeLimit) {
+      this.order = order;
+      this.sizeLimit = sizeLimit;
+      int parameterCount = context.getParameterCount();
+      int[] levelOfParameter = new int[parameterCount];
+      Arrays.fill(levelOfParameter, -1);
+      domains = new Domain[order.length];
+      for (int level = 0; level < order.length; level++) {
+        levelOfParameter[order[level]] = level;
+        domains[level] = context.getParameter(order[level]);
+      }
+
+      List<List<Constraint>> constraintLists = new ArrayList<>();
+      for (int level = 0; level < order.length; level++) {
+        constraintLists.add(new ArrayList<>());
+      }
+      int[] lastLevelOfParameter = new int[parameterCount];
+      Arrays.fill(lastLevelOfParameter, -1);
+      for (Constraint constraint : constraints) {
+        int lastLevel = Arrays.stream(constraint.getInvolvedParameters())
+            .map(parameter -> levelOfParameter[parameter]).max().getAsInt();
+        constraintLists.get(lastLevel).add(constraint);
+        for (int parameter : constraint.getInvolvedParameters()) {
+          lastLevelOfParameter[parameter] =
+              Math.max(lastLevelOfParameter[parameter], lastLevel);
+        }
+      }
+      constraintsOfLevel = new Constraint[order.length][];
+      frontierOfLevel = new int[order.length][];
+      cacheOfLevel = new ArrayList<>();
+      for (int level = 0; level < order.length; level++) {
+        constraintsOfLevel[level] =
+            constraintLists.get(level).toArray(new Constraint[constraintLists.get(level).size()]);
+        final int currentLevel = level;
+        frontierOfLevel[level] = Arrays.stream(order, 0, level)
+            .filter(parameter -> lastLevelOfParameter[parameter] >= currentLevel).toArray();
+        cacheOfLevel.add(new HashMap<>());
+      }
+      uniqueNodes = new HashMap<>();
+      combination = new Object[parameterCount];
+      valueIndices = new int[parameterCount];
+      valuesNeeded = Constraints.getParametersWithNeededValues(constraints, parameterCount);
+      trueTerminal = new MddNode(nextId++, Integer.MAX_VALUE, null, true);
+      falseTerminal = new MddNode(nextId++, Integer.MAX_VALUE, null, false);
+    }
+
+    MddNode build() {
+      return build(0);
+    }
+
+    private MddNode build(int level) {
+      if (level == order.length) {
+        return trueTerminal;
+      }
+      List<Integer> cacheKey = new ArrayList<>(frontierOfLevel[level].length);
+      for (int parameter : frontierOfLevel[level]) {
+        cacheKey.add(valueIndices[parameter]);
+      }
+      MddNode node = cacheOfLevel.get(level).get(cacheKey);
+      if (node == null) {
+        if (++builtCount > sizeLimit) {
+          throw new IllegalArgumentException(
+              "The decision diagram exceeds the size limit of " + sizeLimit + ".");
+        }
+        node = createNode(level);
+        cacheOfLevel.get(level).put(cacheKey, node);
+      }
+      return node;
+    }
+
+    private MddNode createNode(int level) {
+      int parameter = order[level];
+      Domain domain = domains[level];
+      MddNode[] children = new MddNode[domain.getSize()];
+      for (int valueIndex = 0; valueIndex < children.length; valueIndex++) {
+        valueIndices[parameter] = valueIndex;
+        if (valuesNeeded[parameter]) {
+          combination[parameter] = domain.getValueAt(valueIndex);
+        }
+        if (confirmsWithConstraints(level)) {
+          children[valueIndex] = build(level + 1);
+        } else {
+          children[valueIndex] = falseTerminal;
+        }
+      }
+      combination[parameter] = null;
+      return getUniqueNode(level, children);
+    }
+
+    private boolean confirmsWithConstraints(int level) {
+      for (Constraint constraint : constraintsOfLevel[level]) {
+        if (!constraint.confirmsWith(combination, valueIndices,
+            constraint.getInvolvedParameters())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Returns the shared node for the given level and children. A node with only one distinct
+     * child is replaced by this child.
+     */
+    private MddNode getUniqueNode(int level, MddNode[] children) {
+      boolean redundant = true;
+      boolean satisfiable = false;
+      for (MddNode child : children) {
+        redundant &= child == children[0];
+        satisfiable |= child.satisfiable;
+      }
+      if (redundant) {
+        return children[0];
+      }
+      List<Integer> key = new ArrayList<>(children.length + 1);
+      key.add(level);
+      for (MddNode child : children) {
+        key.add(child.id);
+      }
+      MddNode node = uniqueNodes.get(key);
+      if (node == null) {
+        node = new MddNode(nextId++, level, children, satisfiable);
+        uniqueNodes.put(key, node);
+      }
+      return node;
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.mdd;
+
+/**
+ * A node of a multi-valued decision diagram. A node belongs to a level of the diagram, which
+ * corresponds to a parameter, and has one child per value of this parameter. The two terminal
+ * nodes have no level and no children.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class MddNode {
+
+  final int id;
+  final int level;
+  final MddNode[] children;
+
+  /**
+   * Whether or not at least one path from this node leads to the true terminal. As identical nodes
+   * are shared, this is false only for the false terminal.
+   */
+  final boolean satisfiable;
+
+  MddNode(int id, int level, MddNode[] children, boolean satisfiable) {
+    this.id = id;
+    this.level = level;
+    this.children = children;
+    this.satisfiable = satisfiable;
+  }
+
+  boolean isTerminal() {
+    return children == null;
+  }
+
+}
@@ -0,0 +1,459 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A conflict driven clause learning (CDCL) solver for boolean formulas in conjunctive normal form.
+ * A literal of the variable v is 2v if it is positive and 2v+1 if it is negated.
+ * <p>
+ * Clauses are propagated with two watched literals. A conflict is analyzed until the first unique
+ * implication point, the resulting clause is learned and the solver jumps back to the second
+ * highest decision level of this clause. Decisions are made on the unassigned variable with the
+ * highest activity, which is increased for every variable taking part in a conflict.
+ * <p>
+ * Constraints that are not given as clauses can be added as {@link LazyConstraint}s. They are
+ * checked whenever propagation reached a fixpoint and can then return a clause violated by the
+ * current assignment, which is learned like any other conflict.
+ * <p>
+ * The solver is incremental: Every call of {@link #solve(int[])} takes a set of assumptions, which
+ * are treated as the first decisions. Learned clauses remain valid, as they only depend on the
+ * added clauses and constraints. Learned clauses are removed once there are too many of them.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class Solver {
+
+  /**
+   * A constraint that is checked against the current assignment instead of being propagated.
+   */
+  interface LazyConstraint {
+
+    /**
+     * Checks the constraint against the current assignment of the given solver.
+     * 
+     * @param solver The solver to read the assignment from.
+     * @return The literals of a clause, that follows from the constraint and is false under the
+     *         current assignment, or null if the constraint is not violated.
+     */
+    int[] findViolatedClause(Solver solver);
+  }
+
+  private static final byte TRUE = 1;
+  private static final byte FALSE = -1;
+  private static final byte UNDEFINED = 0;
+
+  private static final double ACTIVITY_DECAY = 0.95;
+  private static final int MIN_LEARNED_CLAUSES = 2000;
+
+  private final int variableCount;
+  private final byte[] assignments;
+  private final int[] levels;
+  private final Clause[] reasons;
+  private final long[] stamps;
+  private final double[] activities;
+  private final boolean[] seen;
+  private final List<List<Clause>> watches;
+
+  private final int[] trail;
+  private int trailSize;
+  private int propagationHead;
+  private final List<Integer> levelStarts = new ArrayList<>();
+  private long nextStamp = 1;
+  private double activityIncrement = 1;
+
+  private final List<Clause> clauses = new ArrayList<>();
+  private final List<Clause> learnedClauses = new ArrayList<>();
+  private final List<LazyConstraint> lazyConstraints = new ArrayList<>();
+  private boolean consistent = true;
+
+  /**
+   * Creates a new solver without any clauses.
+   * 
+   * @param variableCount The number of boolean variables.
+   */
+  Solver(int variableCount) {
+    this.variableCount = variableCount;
+    assignments = new byte[variableCount];
+    levels = new int[variableCount];
+    reasons = new Clause[variableCount];
+    stamps = new long[variableCount];
+    activities = new double[variableCount];
+    seen = new boolean[variableCount];
+    trail = new int[variableCount];
+    watches = new ArrayList<>(2 * variableCount);
+    for (int i = 0; i < 2 * variableCount; i++) {
+      watches.add(new ArrayList<>());
+    }
+  }
+
+  /**
+   * Adds a clause to the formula. Must not be called during {@link #solve(int[])}.
+   * 
+   * @param literals The literals of the clause.
+   * @return false if the formula became unsatisfiable, true otherwise.
+   */
+  boolean addClause(int... literals) {
+    if (!consistent) {
+      return false;
+    }
+    List<Integer> remaining = new ArrayList<>();
+    for (int literal : literals) {
+      if (value(literal) == TRUE || remaining.contains(literal ^ 1)) {
+        return true;
+      }
+      if (value(literal) == UNDEFINED && !remaining.contains(literal)) {
+        remaining.add(literal);
+      }
+    }
+    if (remaining.isEmpty()) {
+      consistent = false;
+    } else if (remaining.size() == 1) {
+      assign(remaining.get(0), null);
+      consistent = propagate() == null;
+    } else {
+      Clause clause = new Clause(remaining.stream().mapToInt(Integer::intValue).toArray());
+      clauses.add(clause);
+      watch(clause);
+    }
+    return consistent;
+  }
+
+  void addLazyConstraint(LazyConstraint lazyConstraint) {
+    lazyConstraints.add(lazyConstraint);
+  }
+
+  /**
+   * Checks whether or not the formula is satisfiable if all given literals are true.
+   * 
+   * @param assumptions The literals that have to be true.
+   * @return true if there is a satisfying assignment, false otherwise.
+   */
+  boolean solve(int[] assumptions) {
+    if (!consistent) {
+      return false;
+    }
+    if (learnedClauses.size() > MIN_LEARNED_CLAUSES + clauses.size() / 3) {
+      reduceLearnedClauses();
+    }
+    try {
+      while (true) {
+        Clause conflict = propagate();
+        if (conflict == null) {
+          conflict = checkLazyConstraints();
+        }
+        if (conflict != null) {
+          if (!handleConflict(conflict)) {
+            consistent = false;
+            return false;
+          }
+        } else {
+          int next = -1;
+          while (getDecisionLevel() < assumptions.length) {
+            int assumption = assumptions[getDecisionLevel()];
+            if (value(assumption) == TRUE) {
+              // keeps the decision levels aligned with the assumptions
+              newDecisionLevel();
+            } else if (value(assumption) == FALSE) {
+              return false;
+            } else {
+              next = assumption;
+              break;
+            }
+          }
+          if (next == -1) {
+            next = pickBranchLiteral();
+            if (next == -1) {
+              return true;
+            }
+          }
+          newDecisionLevel();
+          assign(next, null);
+        }
+      }
+    } finally {
+      cancelUntil(0);
+    }
+  }
+
+  /**
+   * Returns whether or not the given literal is true in the current assignment.
+   * 
+   * @param literal The literal.
+   * @return true if the literal is assigned and true.
+   */
+  boolean isTrue(int literal) {
+    return value(literal) == TRUE;
+  }
+
+  /**
+   * Returns a number that identifies the assignment of the variable of the given literal. A new
+   * number is used every time a variable is assigned.
+   * 
+   * @param literal The literal.
+   * @return The number of the current assignment.
+   */
+  long getStamp(int literal) {
+    return stamps[literal >> 1];
+  }
+
+  int getLearnedClauseCount() {
+    return learnedClauses.size();
+  }
+
+  private byte value(int literal) {
+    byte value = assignments[literal >> 1];
+    return (literal & 1) == 0 ? value : (byte) -value;
+  }
+
+  private int getDecisionLevel() {
+    return levelStarts.size();
+  }
+
+  private void newDecisionLevel() {
+    levelStarts.add(trailSize);
+  }
+
+  private void assign(int literal, Clause reason) {
+    int variable = literal >> 1;
+    assignments[variable] = (literal & 1) == 0 ? TRUE : FALSE;
+    levels[variable] = getDecisionLevel();
+    reasons[variable] = reason;
+    stamps[variable] = nextStamp++;
+    trail[trailSize++] = literal;
+  }
+
+  private void cancelUntil(int level) {
+    if (getDecisionLevel() > level) {
+      int start = levelStarts.get(level);
+      for (int i = trailSize - 1; i >= start; i--) {
+        int variable = trail[i] >> 1;
+        assignments[variable] = UNDEFINED;
+        reasons[variable] = null;
+      }
+      trailSize = start;
+      propagationHead = start;
+      levelStarts.subList(level, levelStarts.size()).clear();
+    }
+  }
+
+  private void watch(Clause clause) {
+    watches.get(clause.literals[0]).add(clause);
+    watches.get(clause.literals[1]).add(clause);
+  }
+
+  /**
+   * Propagates all assignments on the trail.
+   * 
+   * @return A clause that is false under the current assignment, or null if there is none.
+   */
+  private Clause propagate() {
+    while (propagationHead < trailSize) {
+      int falseLiteral = trail[propagationHead++] ^ 1;
+      List<Clause> watchList = watches.get(falseLiteral);
+      int kept = 0;
+      int index = 0;
+      while (index < watchList.size()) {
+        Clause clause = watchList.get(index++);
+        int[] literals = clause.literals;
+        if (literals[0] == falseLiteral) {
+          literals[0] = literals[1];
+          literals[1] = falseLiteral;
+        }
+        if (value(literals[0]) != TRUE && !findNewWatch(clause, falseLiteral)) {
+          watchList.set(kept++, clause);
+          if (value(literals[0]) == FALSE) {
+            while (index < watchList.size()) {
+              watchList.set(kept++, watchList.get(index++));
+            }
+            watchList.subList(kept, watchList.size()).clear();
+            return clause;
+          }
+          assign(literals[0], clause);
+        } else if (literals[1] == falseLiteral) {
+          watchList.set(kept++, clause);
+        }
+      }
+      watchList.subList(kept, watchList.size()).clear();
+    }
+    return null;
+  }
+
+  private boolean findNewWatch(Clause clause, int falseLiteral) {
+    int[] literals = clause.literals;
+    for (int i = 2; i < literals.length; i++) {
+      if (value(literals[i]) != FALSE) {
+        literals[1] = literals[i];
+        literals[i] = falseLiteral;
+        watches.get(literals[1]).add(clause);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Clause checkLazyConstraints() {
+    for (LazyConstraint lazyConstraint : lazyConstraints) {
+      int[] literals = lazyConstraint.findViolatedClause(this);
+      if (literals != null) {
+        // highest levels first, so that the first two literals can be watched
+        Integer[] sorted = Arrays.stream(literals).boxed().toArray(Integer[]::new);
+        Arrays.sort(sorted, Comparator.comparingInt((Integer literal) -> levels[literal >> 1])
+            .reversed());
+        Clause clause = new Clause(Arrays.stream(sorted).mapToInt(Integer::intValue).toArray());
+        if (clause.literals.length > 1) {
+          learnedClauses.add(clause);
+          watch(clause);
+        }
+        return clause;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Learns a clause from the given conflict and jumps back to the level where it is unit.
+   * 
+   * @param conflict The clause that is false under the current assignment.
+   * @return false if the conflict does not depend on any decision.
+   */
+  private boolean handleConflict(Clause conflict) {
+    int conflictLevel = 0;
+    for (int literal : conflict.literals) {
+      conflictLevel = Math.max(conflictLevel, levels[literal >> 1]);
+    }
+    if (conflictLevel == 0) {
+      return false;
+    }
+    // a lazily found conflict may have been caused on an earlier level
+    cancelUntil(conflictLevel);
+
+    int[] learned = analyze(conflict);
+    int backjumpLevel = 0;
+    for (int i = 1; i < learned.length; i++) {
+      if (levels[learned[i] >> 1] > backjumpLevel) {
+        backjumpLevel = levels[learned[i] >> 1];
+        int literal = learned[1];
+        learned[1] = learned[i];
+        learned[i] = literal;
+      }
+    }
+    cancelUntil(backjumpLevel);
+    if (learned.length == 1) {
+      assign(learned[0], null);
+    } else {
+      Clause clause = new Clause(learned);
+      learnedClauses.add(clause);
+      watch(clause);
+      assign(learned[0], clause);
+    }
+    activityIncrement /= ACTIVITY_DECAY;
+    return true;
+  }
+
+  /**
+   * Resolves the conflict with the reasons of its literals on the current level until only one
+   * literal of this level remains.
+   */
+  private int[] analyze(Clause conflict) {
+    List<Integer> learned = new ArrayList<>();
+    learned.add(-1);
+    int pathCount = 0;
+    int literal = -1;
+    int index = trailSize - 1;
+    Clause clause = conflict;
+    do {
+      // the first literal of a reason clause is the implied literal itself
+      for (int i = literal == -1 ? 0 : 1; i < clause.literals.length; i++) {
+        int variable = clause.literals[i] >> 1;
+        if (!seen[variable] && levels[variable] > 0) {
+          seen[variable] = true;
+          bumpActivity(variable);
+          if (levels[variable] == getDecisionLevel()) {
+            pathCount++;
+          } else {
+            learned.add(clause.literals[i]);
+          }
+        }
+      }
+      while (!seen[trail[index] >> 1]) {
+        index--;
+      }
+      literal = trail[index--];
+      clause = reasons[literal >> 1];
+      seen[literal >> 1] = false;
+      pathCount--;
+    } while (pathCount > 0);
+    learned.set(0, literal ^ 1);
+    for (int i = 1; i < learned.size(); i++) {
+      seen[learned.get(i) >> 1] = false;
+    }
+    return learned.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private void bumpActivity(int variable) {
+    activities[variable] += activityIncrement;
+    if (activities[variable] > 1e100) {
+      for (int i = 0; i < variableCount; i++) {
+        activities[i] *= 1e-100;
+      }
+      activityIncrement *= 1e-100;
+    }
+  }
+
+  private int pickBranchLiteral() {
+    int best = -1;
+    for (int variable = 0; variable < variableCount; variable++) {
+      if (assignments[variable] == UNDEFINED
+          && (best == -1 || activities[variable] > activities[best])) {
+        best = variable;
+      }
+    }
+    return best == -1 ? -1 : 2 * best;
+  }
+
+  /**
+   * Removes the longer half of the learned clauses. Must only be called on decision level 0,
+   * where no learned clause is needed as a reason.
+   */
+  private void reduceLearnedClauses() {
+    learnedClauses.sort(Comparator.comparingInt(clause -> clause.literals.length));
+    learnedClauses.subList(learnedClauses.size() / 2, learnedClauses.size()).clear();
+    for (List<Clause> watchList : watches) {
+      watchList.clear();
+    }
+    for (int variable = 0; variable < variableCount; variable++) {
+      reasons[variable] = null;
+    }
+    clauses.forEach(this::watch);
+    learnedClauses.forEach(this::watch);
+  }
+
+  private static class Clause {
+
+    private final int[] literals;
+
+    Clause(int[] literals) {
+      this.literals = literals;
+    }
+  }
+
+}
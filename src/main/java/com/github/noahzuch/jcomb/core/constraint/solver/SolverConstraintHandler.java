@@ -0,0 +1,257 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * An implementation of the {@link ConstraintHandler} interface, that decides the satisfiability of
+ * a test with a conflict driven clause learning solver. Unlike a ConstraintTree, its memory does
+ * not grow with the number of value combinations and wildcards are not enumerated one by one.
+ * <p>
+ * Every value of a constrained parameter is a boolean variable, and clauses ensure that every
+ * parameter takes exactly one value. A constraint with at most {@link #DEFAULT_TABLE_SIZE_LIMIT}
+ * tupels is evaluated once for every tupel and added as a clause per forbidden tupel. For a
+ * binary constraint, clauses requiring a supporting value of the other parameter are added as
+ * well. Larger constraints are only evaluated when all of their parameters are assigned during
+ * the search, and every forbidden tupel found this way is learned as a clause.
+ * <p>
+ * The values of a checked test are passed to the solver as assumptions, so that the clauses
+ * learned by one check speed up all following checks. Checks are synchronized, as they share the
+ * state of the solver.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class SolverConstraintHandler implements ConstraintHandler {
+
+  /**
+   * The maximum number of tupels of a constraint, for which it is compiled into a table.
+   */
+  public static final int DEFAULT_TABLE_SIZE_LIMIT = 4096;
+
+  private final Solver solver;
+  private final int[] variableOffsets;
+
+  /**
+   * Creates a new SolverConstraintHandler for the given context.
+   * 
+   * @param jcombContext The context containing the constraints.
+   */
+  public SolverConstraintHandler(JCombContext jcombContext) {
+    this(jcombContext, DEFAULT_TABLE_SIZE_LIMIT);
+  }
+
+  /**
+   * Creates a new SolverConstraintHandler for the given context.
+   * 
+   * @param jcombContext The context containing the constraints.
+   * @param tableSizeLimit The maximum number of tupels of a constraint, for which it is compiled
+   *        into a table.
+   */
+  public SolverConstraintHandler(JCombContext jcombContext, int tableSizeLimit) {
+    int parameterCount = jcombContext.getParameterCount();
+    List<Constraint> constraints = Constraints.compile(jcombContext);
+    variableOffsets = new int[parameterCount];
+    Arrays.fill(variableOffsets, -1);
+    for (Constraint constraint : constraints) {
+      for (int parameter : constraint.getInvolvedParameters()) {
+        variableOffsets[parameter] = 0;
+      }
+    }
+    int variableCount = 0;
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      if (variableOffsets[parameter] == 0) {
+        variableOffsets[parameter] = variableCount;
+        variableCount += jcombContext.getParameter(parameter).getSize();
+      }
+    }
+
+    solver = new Solver(variableCount);
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      if (isConstrained(parameter)) {
+        addExactlyOneValueClauses(parameter, jcombContext.getParameter(parameter).getSize());
+      }
+    }
+    for (Constraint constraint : constraints) {
+      int[] parameters = Arrays.stream(constraint.getInvolvedParameters()).distinct().toArray();
+      if (TableConstraint.getTupelCount(parameters, jcombContext) <= tableSizeLimit) {
+        addTableClauses(TableConstraint.compile(constraint, jcombContext));
+      } else {
+        solver.addLazyConstraint(new LazyMethodConstraint(constraint, parameters, jcombContext));
+      }
+    }
+  }
+
+  @Override
+  public synchronized boolean isSatisfiable(int[] test) {
+    List<Integer> assumptions = new ArrayList<>();
+    for (int parameter = 0; parameter < test.length; parameter++) {
+      if (test[parameter] != -1 && isConstrained(parameter)) {
+        assumptions.add(getLiteral(parameter, test[parameter]));
+      }
+    }
+    return solver.solve(assumptions.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return variableOffsets[parameter] != -1;
+  }
+
+  /**
+   * Returns the number of clauses the solver currently keeps from previous checks.
+   * 
+   * @return The number of learned clauses.
+   */
+  public synchronized int getLearnedClauseCount() {
+    return solver.getLearnedClauseCount();
+  }
+
+  private int getLiteral(int parameter, int value) {
+    return 2 * (variableOffsets[parameter] + value);
+  }
+
+  private void addExactlyOneValueClauses(int parameter, int domainSize) {
+    int[] atLeastOne = new int[domainSize];
+    for (int value = 0; value < domainSize; value++) {
+      atLeastOne[value] = getLiteral(parameter, value);
+      for (int otherValue = value + 1; otherValue < domainSize; otherValue++) {
+        solver.addClause(getLiteral(parameter, value) ^ 1, getLiteral(parameter, otherValue) ^ 1);
+      }
+    }
+    solver.addClause(atLeastOne);
+  }
+
+  private void addTableClauses(TableConstraint table) {
+    int[] parameters = table.getParameters();
+    for (int tupel = 0; tupel < table.getTupelCount(); tupel++) {
+      if (!table.isAllowed(tupel)) {
+        int[] values = table.getValues(tupel);
+        int[] clause = new int[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+          clause[i] = getLiteral(parameters[i], values[i]) ^ 1;
+        }
+        solver.addClause(clause);
+      }
+    }
+    if (parameters.length == 2) {
+      addSupportClauses(table, 0);
+      addSupportClauses(table, 1);
+    }
+  }
+
+  /**
+   * Adds a clause for every value of one parameter of a binary table, that requires one of the
+   * values of the other parameter, with which it is allowed. Unit propagation on these clauses
+   * removes every value without support.
+   */
+  private void addSupportClauses(TableConstraint table, int position) {
+    int[] parameters = table.getParameters();
+    List<List<Integer>> supports = new ArrayList<>();
+    for (int tupel = 0; tupel < table.getTupelCount(); tupel++) {
+      int[] values = table.getValues(tupel);
+      while (supports.size() <= values[position]) {
+        supports.add(new ArrayList<>());
+      }
+      if (table.isAllowed(tupel)) {
+        supports.get(values[position]).add(getLiteral(parameters[1 - position],
+            values[1 - position]));
+      }
+    }
+    for (int value = 0; value < supports.size(); value++) {
+      int[] clause = new int[supports.get(value).size() + 1];
+      clause[0] = getLiteral(parameters[position], value) ^ 1;
+      for (int i = 1; i < clause.length; i++) {
+        clause[i] = supports.get(value).get(i - 1);
+      }
+      solver.addClause(clause);
+    }
+  }
+
+  /**
+   * A constraint with too many tupels for a table. It is evaluated as soon as all of its parameters
+   * are assigned.
+   */
+  private class LazyMethodConstraint implements Solver.LazyConstraint {
+
+    private final Constraint constraint;
+    private final int[] parameters;
+    private final Domain[] domains;
+    private final Object[] combination;
+    private final int[] valueIndices;
+    private final int[] literals;
+    private long checkedStamp = -1;
+
+    LazyMethodConstraint(Constraint constraint, int[] parameters, JCombContext context) {
+      this.constraint = constraint;
+      this.parameters = parameters;
+      domains = new Domain[parameters.length];
+      for (int i = 0; i < parameters.length; i++) {
+        domains[i] = context.getParameter(parameters[i]);
+      }
+      combination = new Object[context.getParameterCount()];
+      valueIndices = new int[context.getParameterCount()];
+      literals = new int[parameters.length];
+    }
+
+    @Override
+    public int[] findViolatedClause(Solver solver) {
+      long stamp = 0;
+      for (int i = 0; i < parameters.length; i++) {
+        int value = getAssignedValue(solver, i);
+        if (value == -1) {
+          return null;
+        }
+        literals[i] = getLiteral(parameters[i], value);
+        stamp = Math.max(stamp, solver.getStamp(literals[i]));
+        valueIndices[parameters[i]] = value;
+      }
+      // the assignment of the last assigned parameter is still the same, so all earlier ones are
+      if (stamp == checkedStamp) {
+        return null;
+      }
+      checkedStamp = stamp;
+      if (!constraint.usesValueIndices()) {
+        for (int i = 0; i < parameters.length; i++) {
+          combination[parameters[i]] = domains[i].getValueAt(valueIndices[parameters[i]]);
+        }
+      }
+      if (constraint.confirmsWith(combination, valueIndices,
+          constraint.getInvolvedParameters())) {
+        return null;
+      }
+      return Arrays.stream(literals).map(literal -> literal ^ 1).toArray();
+    }
+
+    private int getAssignedValue(Solver solver, int position) {
+      for (int value = 0; value < domains[position].getSize(); value++) {
+        if (solver.isTrue(getLiteral(parameters[position], value))) {
+          return value;
+        }
+      }
+      return -1;
+    }
+  }
+
+}
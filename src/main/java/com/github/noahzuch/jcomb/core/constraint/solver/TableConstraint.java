@@ -0,0 +1,135 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.solver;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * A constraint given by the set of its allowed tupels of value indices. A tupel is identified by
+ * its index, in which the value of the first parameter is the most significant digit.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class TableConstraint {
+
+  private final int[] parameters;
+  private final int[] domainSizes;
+  private final BitSet allowedTupels;
+
+  private TableConstraint(int[] parameters, int[] domainSizes, BitSet allowedTupels) {
+    this.parameters = parameters;
+    this.domainSizes = domainSizes;
+    this.allowedTupels = allowedTupels;
+  }
+
+  /**
+   * Creates the table of a constraint by evaluating it for every tupel of its parameters.
+   * 
+   * @param constraint The constraint to evaluate.
+   * @param context The context containing the domains of the parameters.
+   * @return The table of allowed tupels.
+   */
+  static TableConstraint compile(Constraint constraint, JCombContext context) {
+    int[] parameters = Arrays.stream(constraint.getInvolvedParameters()).distinct().toArray();
+    int[] domainSizes = new int[parameters.length];
+    Domain[] domains = new Domain[parameters.length];
+    Object[] combination = new Object[context.getParameterCount()];
+    int[] valueIndices = new int[context.getParameterCount()];
+    boolean valuesNeeded = !constraint.usesValueIndices();
+    for (int i = 0; i < parameters.length; i++) {
+      domains[i] = context.getParameter(parameters[i]);
+      domainSizes[i] = domains[i].getSize();
+      if (valuesNeeded) {
+        combination[parameters[i]] = domains[i].getValueAt(0);
+      }
+    }
+    int tupelCount = (int) getTupelCount(parameters, context);
+    BitSet allowedTupels = new BitSet(tupelCount);
+    int[] values = new int[parameters.length];
+    for (int tupel = 0; tupel < tupelCount; tupel++) {
+      if (constraint.confirmsWith(combination, valueIndices,
+          constraint.getInvolvedParameters())) {
+        allowedTupels.set(tupel);
+      }
+      for (int i = parameters.length - 1; i >= 0; i--) {
+        values[i] = (values[i] + 1) % domainSizes[i];
+        valueIndices[parameters[i]] = values[i];
+        if (valuesNeeded) {
+          combination[parameters[i]] = domains[i].getValueAt(values[i]);
+        }
+        if (values[i] != 0) {
+          break;
+        }
+      }
+    }
+    return new TableConstraint(parameters, domainSizes, allowedTupels);
+  }
+
+  /**
+   * Returns the number of tupels of the given parameters.
+   * 
+   * @param parameters The distinct parameters.
+   * @param context The context containing the domains of the parameters.
+   * @return The product of the domain sizes.
+   */
+  static long getTupelCount(int[] parameters, JCombContext context) {
+    long tupelCount = 1;
+    for (int parameter : parameters) {
+      tupelCount *= context.getParameter(parameter).getSize();
+      if (tupelCount > Integer.MAX_VALUE) {
+        return Long.MAX_VALUE;
+      }
+    }
+    return tupelCount;
+  }
+
+  int[] getParameters() {
+    return parameters;
+  }
+
+  int getTupelCount() {
+    int tupelCount = 1;
+    for (int domainSize : domainSizes) {
+      tupelCount *= domainSize;
+    }
+    return tupelCount;
+  }
+
+  boolean isAllowed(int tupel) {
+    return allowedTupels.get(tupel);
+  }
+
+  /**
+   * Returns the value indices of the given tupel.
+   * 
+   * @param tupel The index of the tupel.
+   * @return The value index for every parameter of this table.
+   */
+  int[] getValues(int tupel) {
+    int[] values = new int[parameters.length];
+    for (int i = parameters.length - 1; i >= 0; i--) {
+      values[i] = tupel % domainSizes[i];
+      tupel /= domainSizes[i];
+    }
+    return values;
+  }
+
+}
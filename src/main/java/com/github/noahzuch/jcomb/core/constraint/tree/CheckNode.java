@@ -30,4 +30,28 @@ public interface CheckNode {
    */
   public boolean isSatisfiable(int[] combination);
 
+  /**
+   * Checks recursively if the given combination is satisfiable, knowing the position of the last
+   * assigned parameter in the order in which the parameters are tested by the tree. Nodes can use
+   * this to answer without visiting their children, if no parameter below them is assigned.
+   * 
+   * @param combination The combination to check.
+   * @param lastAssignedPosition The highest position of an assigned parameter or -1 if no
+   *        parameter is assigned.
+   * @return whether or not the combination is satisfiable.
+   */
+  public default boolean isSatisfiable(int[] combination, int lastAssignedPosition) {
+    return isSatisfiable(combination);
+  }
+
+  /**
+   * Returns the node, that checks combinations in place of this node. A placeholder for a subtree,
+   * that is created on demand, creates the subtree and returns its root.
+   * 
+   * @return This node by default. null represents a subtree, in which every path is satisfiable.
+   */
+  public default CheckNode resolve() {
+    return this;
+  }
+
 }
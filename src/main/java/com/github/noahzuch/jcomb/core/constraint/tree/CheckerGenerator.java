@@ -0,0 +1,585 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+
+/**
+ * Generates the class file of a {@link ConstraintHandler}, which makes the same decisions as a
+ * {@link FlatConstraintTree}. The nodes of the tree become nested tableswitch statements on the
+ * value indices of their parameters. A wildcard jumps to the code of the first child and every
+ * child, that is not satisfiable, continues with its next sibling, if the parameter of its parent
+ * is a wildcard. Subtrees are moved into methods of their own, so that no method gets too large
+ * to be compiled by the JIT.
+ * <p>
+ * The class file uses version 49, so no stack map frames have to be calculated. The generated
+ * class only references {@link Object} and {@link ConstraintHandler} and can therefore be defined
+ * by any class loader, that sees the ConstraintHandler interface.
+ * 
+ * @author Noah Zuch
+ *
+ */
+final class CheckerGenerator {
+
+  /**
+   * The binary name of the generated class.
+   */
+  static final String CLASS_NAME =
+      "com.github.noahzuch.jcomb.core.constraint.tree.GeneratedChecker";
+
+  private static final int CLASS_FILE_VERSION = 49;
+  private static final int MAX_CONSTANTS = 0xFFFF;
+
+  /**
+   * The maximum length of a method. Branch offsets are signed 16 bit values.
+   */
+  private static final int MAX_CODE_LENGTH = Short.MAX_VALUE;
+
+  /**
+   * The length up to which subtrees are inlined into the method of their parent. Longer methods
+   * are not compiled by HotSpot.
+   */
+  private static final int METHOD_SIZE_LIMIT = 7500;
+
+  /**
+   * The maximum number of locals, which can be addressed by a two byte istore.
+   */
+  private static final int MAX_LOCALS = 0xFF;
+
+  private static final int NODE_HEADER_SIZE = 31;
+  private static final int SWITCH_CASE_SIZE = 4;
+  private static final int SIBLING_SIZE = 9;
+  private static final int CALL_SIZE = 8;
+
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_PRIVATE = 0x0002;
+  private static final int ACC_STATIC = 0x0008;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_SUPER = 0x0020;
+
+  private static final int ICONST_M1 = 0x02;
+  private static final int ICONST_0 = 0x03;
+  private static final int ICONST_1 = 0x04;
+  private static final int BIPUSH = 0x10;
+  private static final int SIPUSH = 0x11;
+  private static final int LDC_W = 0x13;
+  private static final int ILOAD_1 = 0x1b;
+  private static final int ILOAD = 0x15;
+  private static final int ILOAD_2 = 0x1c;
+  private static final int ALOAD_0 = 0x2a;
+  private static final int ALOAD_1 = 0x2b;
+  private static final int IALOAD = 0x2e;
+  private static final int ISTORE = 0x36;
+  private static final int ISTORE_2 = 0x3d;
+  private static final int DUP = 0x59;
+  private static final int IFNE = 0x9a;
+  private static final int IF_ICMPEQ = 0x9f;
+  private static final int IF_ICMPNE = 0xa0;
+  private static final int IF_ICMPGT = 0xa3;
+  private static final int GOTO = 0xa7;
+  private static final int TABLESWITCH = 0xaa;
+  private static final int IRETURN = 0xac;
+  private static final int RETURN = 0xb1;
+  private static final int INVOKESPECIAL = 0xb7;
+  private static final int INVOKESTATIC = 0xb8;
+
+  private static final String NODE_DESCRIPTOR = "([II)Z";
+
+  private final FlatConstraintTree tree;
+  private final int[] nodes;
+  private final String className = CLASS_NAME.replace('.', '/');
+
+  /**
+   * The length of the inlined code of the node at an offset.
+   */
+  private final int[] inlinedSize;
+
+  /**
+   * Whether or not the node at an offset gets a method of its own.
+   */
+  private final boolean[] ownMethod;
+
+  private final ByteArrayOutputStream constantBytes = new ByteArrayOutputStream();
+  private final DataOutputStream constants = new DataOutputStream(constantBytes);
+  private final Map<String, Integer> constantIndices = new HashMap<>();
+  private int constantCount = 1;
+
+  /**
+   * Creates a new CheckerGenerator for the given tree.
+   * 
+   * @param tree The tree to generate a class for.
+   */
+  CheckerGenerator(FlatConstraintTree tree) {
+    this.tree = tree;
+    this.nodes = tree.getNodes();
+    inlinedSize = new int[nodes.length];
+    ownMethod = new boolean[nodes.length];
+  }
+
+  /**
+   * Returns the number of inner nodes of the tree.
+   * 
+   * @return The number of inner nodes of the tree.
+   */
+  int getNodeCount() {
+    int count = 0;
+    for (int node = 0; node < nodes.length; node = getNextNode(node)) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Generates the class file.
+   * 
+   * @return The bytes of the class file.
+   * @throws IllegalArgumentException If the tree is too large to be represented by a class file.
+   */
+  byte[] generate() {
+    try {
+      ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+      DataOutputStream methods = new DataOutputStream(methodBytes);
+      int methodCount = 2;
+      writeMethod(methods, ACC_PUBLIC, "<init>", "()V", 1, 1, createConstructor());
+      writeMethod(methods, ACC_PUBLIC, "isSatisfiable", "([I)Z", 2, 3, createEntry());
+      if (tree.getRoot() >= 0) {
+        computeInlinedSize(tree.getRoot());
+        ownMethod[tree.getRoot()] = true;
+      }
+      for (int node = 0; node < nodes.length; node = getNextNode(node)) {
+        if (ownMethod[node]) {
+          Code code = new Code();
+          Label returnTrue = new Label();
+          Label returnFalse = new Label();
+          createNode(code, node, 0, returnTrue, returnFalse);
+          code.mark(returnTrue);
+          code.op(ICONST_1);
+          code.op(IRETURN);
+          code.mark(returnFalse);
+          code.op(ICONST_0);
+          code.op(IRETURN);
+          writeMethod(methods, ACC_PRIVATE | ACC_STATIC, getMethodName(node), NODE_DESCRIPTOR,
+              2, code.maxLocals, code);
+          methodCount++;
+        }
+      }
+      int thisClass = classConstant(className);
+      int superClass = classConstant("java/lang/Object");
+      int handlerInterface = classConstant(ConstraintHandler.class.getName().replace('.', '/'));
+      if (constantCount > MAX_CONSTANTS) {
+        throw new IllegalArgumentException("The constraint tree has too many nodes");
+      }
+
+      ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(classBytes);
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(CLASS_FILE_VERSION);
+      out.writeShort(constantCount);
+      constantBytes.writeTo(out);
+      out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(1);
+      out.writeShort(handlerInterface);
+      out.writeShort(0); // fields
+      out.writeShort(methodCount);
+      methodBytes.writeTo(out);
+      out.writeShort(0); // attributes
+      return classBytes.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int getNextNode(int node) {
+    return node + FlatConstraintTree.CHILDREN + nodes[node + FlatConstraintTree.CHILD_COUNT];
+  }
+
+  private static String getMethodName(int node) {
+    return "node" + node;
+  }
+
+  private Code createConstructor() {
+    Code code = new Code();
+    code.op(ALOAD_0);
+    code.op(INVOKESPECIAL);
+    code.u2(methodConstant("java/lang/Object", "<init>", "()V"));
+    code.op(RETURN);
+    return code;
+  }
+
+  /**
+   * Creates the isSatisfiable method. It determines the highest position of an assigned
+   * parameter by checking the parameters in the reverse order of their positions and passes it to
+   * the method of the root node.
+   */
+  private Code createEntry() {
+    Code code = new Code();
+    int root = tree.getRoot();
+    if (root < 0) {
+      code.op(root == FlatConstraintTree.TRUE ? ICONST_1 : ICONST_0);
+      code.op(IRETURN);
+      return code;
+    }
+    Label call = new Label();
+    int[] parametersByPosition = IntStream.range(0, tree.getParameterCount())
+        .filter(parameter -> tree.getPositionOfParameter(parameter) != -1).boxed()
+        .sorted((p1, p2) -> Integer.compare(tree.getPositionOfParameter(p2),
+            tree.getPositionOfParameter(p1)))
+        .mapToInt(Integer::intValue).toArray();
+    for (int parameter : parametersByPosition) {
+      Label next = new Label();
+      code.op(ALOAD_1);
+      code.push(parameter);
+      code.op(IALOAD);
+      code.op(ICONST_M1);
+      code.branch(IF_ICMPEQ, next);
+      code.push(tree.getPositionOfParameter(parameter));
+      code.op(ISTORE_2);
+      code.branch(GOTO, call);
+      code.mark(next);
+    }
+    code.op(ICONST_M1);
+    code.op(ISTORE_2);
+    code.mark(call);
+    code.op(ALOAD_1);
+    code.op(ILOAD_2);
+    invokeNode(code, root);
+    code.op(IRETURN);
+    return code;
+  }
+
+  /**
+   * Computes the length of the code of the given subtree, if it is inlined into the method of its
+   * parent. The largest children are moved into methods of their own, until the code is short
+   * enough.
+   */
+  private int computeInlinedSize(int node) {
+    int childCount = nodes[node + FlatConstraintTree.CHILD_COUNT];
+    int size = NODE_HEADER_SIZE + SWITCH_CASE_SIZE * (childCount + 1);
+    List<Integer> inlinedChildren = new ArrayList<>();
+    for (int valueIndex = 0; valueIndex < childCount; valueIndex++) {
+      int child = nodes[node + FlatConstraintTree.CHILDREN + valueIndex];
+      if (child >= 0) {
+        size += SIBLING_SIZE + computeInlinedSize(child);
+        inlinedChildren.add(child);
+      }
+    }
+    inlinedChildren.sort((c1, c2) -> Integer.compare(inlinedSize[c2], inlinedSize[c1]));
+    for (int child : inlinedChildren) {
+      if (size <= METHOD_SIZE_LIMIT) {
+        break;
+      }
+      ownMethod[child] = true;
+      size += CALL_SIZE - inlinedSize[child];
+    }
+    inlinedSize[node] = size;
+    return size;
+  }
+
+  /**
+   * Adds the code of the given node, which jumps to returnTrue, if the combination is satisfiable
+   * below the node and to returnFalse otherwise. The value index of the parameter of the node is
+   * stored in the local variable depth + 2.
+   */
+  private void createNode(Code code, int node, int depth, Label returnTrue, Label returnFalse) {
+    int local = depth + 2;
+    if (local >= MAX_LOCALS) {
+      throw new IllegalArgumentException("The constraint tree is too deep");
+    }
+    code.maxLocals = Math.max(code.maxLocals, local + 1);
+    int childCount = nodes[node + FlatConstraintTree.CHILD_COUNT];
+
+    // no parameter below this node is assigned and every inner node has a satisfiable path
+    code.push(nodes[node + FlatConstraintTree.POSITION]);
+    code.op(ILOAD_1);
+    code.branch(IF_ICMPGT, returnTrue);
+
+    Label[] childLabels = new Label[childCount];
+    for (int valueIndex = 0; valueIndex < childCount; valueIndex++) {
+      int child = nodes[node + FlatConstraintTree.CHILDREN + valueIndex];
+      if (child == FlatConstraintTree.TRUE) {
+        childLabels[valueIndex] = returnTrue;
+      } else if (child == FlatConstraintTree.FALSE) {
+        childLabels[valueIndex] = returnFalse;
+      } else {
+        childLabels[valueIndex] = new Label();
+      }
+    }
+    code.op(ALOAD_0);
+    code.push(nodes[node + FlatConstraintTree.PARAMETER]);
+    code.op(IALOAD);
+    code.op(DUP);
+    code.op(ISTORE);
+    code.op(local);
+    code.tableSwitch(returnFalse, getWildcardTarget(node, 0, childLabels, returnFalse),
+        childLabels);
+
+    for (int valueIndex = 0; valueIndex < childCount; valueIndex++) {
+      int child = nodes[node + FlatConstraintTree.CHILDREN + valueIndex];
+      if (child >= 0) {
+        Label nextSibling = new Label();
+        code.mark(childLabels[valueIndex]);
+        if (ownMethod[child]) {
+          code.op(ALOAD_0);
+          code.op(ILOAD_1);
+          invokeNode(code, child);
+          code.branch(IFNE, returnTrue);
+        } else {
+          createNode(code, child, depth + 1, returnTrue, nextSibling);
+        }
+        // the child is not satisfiable, go on with the next child, if this is a wildcard
+        code.mark(nextSibling);
+        code.op(ILOAD);
+        code.op(local);
+        code.op(ICONST_M1);
+        code.branch(IF_ICMPNE, returnFalse);
+        code.branch(GOTO, getWildcardTarget(node, valueIndex + 1, childLabels, returnFalse));
+      }
+    }
+  }
+
+  /**
+   * Returns the label of the first child starting at the given value index, which can be
+   * satisfiable.
+   */
+  private Label getWildcardTarget(int node, int valueIndex, Label[] childLabels,
+      Label returnFalse) {
+    for (; valueIndex < childLabels.length; valueIndex++) {
+      if (nodes[node + FlatConstraintTree.CHILDREN + valueIndex] != FlatConstraintTree.FALSE) {
+        return childLabels[valueIndex];
+      }
+    }
+    return returnFalse;
+  }
+
+  private void invokeNode(Code code, int node) {
+    code.op(INVOKESTATIC);
+    code.u2(methodConstant(className, getMethodName(node), NODE_DESCRIPTOR));
+  }
+
+  private void writeMethod(DataOutputStream out, int access, String name, String descriptor,
+      int maxStack, int maxLocals, Code code) throws IOException {
+    byte[] bytes = code.toByteArray();
+    out.writeShort(access);
+    out.writeShort(utf8Constant(name));
+    out.writeShort(utf8Constant(descriptor));
+    out.writeShort(1);
+    out.writeShort(utf8Constant("Code"));
+    out.writeInt(12 + bytes.length);
+    out.writeShort(maxStack);
+    out.writeShort(maxLocals);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+    out.writeShort(0); // exception table
+    out.writeShort(0); // attributes
+  }
+
+  private int utf8Constant(String value) {
+    Integer index = constantIndices.get("U" + value);
+    if (index == null) {
+      index = addConstant(() -> {
+        constants.writeByte(1);
+        constants.writeUTF(value);
+      });
+      constantIndices.put("U" + value, index);
+    }
+    return index;
+  }
+
+  private int classConstant(String internalName) {
+    Integer index = constantIndices.get("C" + internalName);
+    if (index == null) {
+      int name = utf8Constant(internalName);
+      index = addConstant(() -> {
+        constants.writeByte(7);
+        constants.writeShort(name);
+      });
+      constantIndices.put("C" + internalName, index);
+    }
+    return index;
+  }
+
+  private int methodConstant(String owner, String name, String descriptor) {
+    String key = "M" + owner + "." + name + descriptor;
+    Integer index = constantIndices.get(key);
+    if (index == null) {
+      int ownerIndex = classConstant(owner);
+      int nameIndex = utf8Constant(name);
+      int descriptorIndex = utf8Constant(descriptor);
+      int nameAndType = addConstant(() -> {
+        constants.writeByte(12);
+        constants.writeShort(nameIndex);
+        constants.writeShort(descriptorIndex);
+      });
+      index = addConstant(() -> {
+        constants.writeByte(10);
+        constants.writeShort(ownerIndex);
+        constants.writeShort(nameAndType);
+      });
+      constantIndices.put(key, index);
+    }
+    return index;
+  }
+
+  private int integerConstant(int value) {
+    Integer index = constantIndices.get("I" + value);
+    if (index == null) {
+      index = addConstant(() -> {
+        constants.writeByte(3);
+        constants.writeInt(value);
+      });
+      constantIndices.put("I" + value, index);
+    }
+    return index;
+  }
+
+  private int addConstant(ConstantWriter writer) {
+    try {
+      writer.write();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return constantCount++;
+  }
+
+  private interface ConstantWriter {
+    void write() throws IOException;
+  }
+
+  /**
+   * A position in the code of a method, which can be referenced before it is marked.
+   */
+  private static class Label {
+    private int address = -1;
+  }
+
+  /**
+   * The code of a single method. Branches to labels are patched when the code is finished.
+   */
+  private class Code {
+
+    private byte[] bytes = new byte[64];
+    private int length;
+    private int maxLocals = 2;
+    private final List<Label> patchLabels = new ArrayList<>();
+    private final List<int[]> patchSites = new ArrayList<>();
+
+    void op(int opcode) {
+      ensureCapacity(1);
+      bytes[length++] = (byte) opcode;
+    }
+
+    void u2(int value) {
+      op(value >>> 8);
+      op(value);
+    }
+
+    void u4(int value) {
+      u2(value >>> 16);
+      u2(value);
+    }
+
+    void push(int value) {
+      if (value >= -1 && value <= 5) {
+        op(ICONST_0 + value);
+      } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+        op(BIPUSH);
+        op(value);
+      } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+        op(SIPUSH);
+        u2(value);
+      } else {
+        op(LDC_W);
+        u2(integerConstant(value));
+      }
+    }
+
+    void branch(int opcode, Label label) {
+      int instruction = length;
+      op(opcode);
+      addPatch(label, instruction, 2);
+      u2(0);
+    }
+
+    /**
+     * Adds a tableswitch on the value index on top of the stack, which jumps to the given
+     * wildcard label for -1 and to the label of the value index for all others.
+     */
+    void tableSwitch(Label defaultLabel, Label wildcardLabel, Label[] labels) {
+      int instruction = length;
+      op(TABLESWITCH);
+      while (length % 4 != 0) {
+        op(0);
+      }
+      addPatch(defaultLabel, instruction, 4);
+      u4(0);
+      u4(-1);
+      u4(labels.length - 1);
+      addPatch(wildcardLabel, instruction, 4);
+      u4(0);
+      for (Label label : labels) {
+        addPatch(label, instruction, 4);
+        u4(0);
+      }
+    }
+
+    void mark(Label label) {
+      label.address = length;
+    }
+
+    byte[] toByteArray() {
+      if (length > MAX_CODE_LENGTH) {
+        throw new IllegalArgumentException("A node of the constraint tree has too many values");
+      }
+      for (int i = 0; i < patchLabels.size(); i++) {
+        int[] site = patchSites.get(i);
+        int offset = patchLabels.get(i).address - site[0];
+        for (int b = site[2] - 1; b >= 0; b--) {
+          bytes[site[1] + b] = (byte) offset;
+          offset >>= 8;
+        }
+      }
+      byte[] result = new byte[length];
+      System.arraycopy(bytes, 0, result, 0, length);
+      return result;
+    }
+
+    private void addPatch(Label label, int instruction, int size) {
+      patchLabels.add(label);
+      patchSites.add(new int[] {instruction, length, size});
+    }
+
+    private void ensureCapacity(int additional) {
+      if (length + additional > bytes.length) {
+        byte[] newBytes = new byte[Math.max(bytes.length * 2, length + additional)];
+        System.arraycopy(bytes, 0, newBytes, 0, length);
+        bytes = newBytes;
+      }
+    }
+  }
+
+}
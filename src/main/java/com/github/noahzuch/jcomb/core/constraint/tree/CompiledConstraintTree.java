@@ -0,0 +1,122 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+
+/**
+ * An implementation of the {@link ConstraintHandler} interface, that compiles a
+ * {@link FlatConstraintTree} into a generated class. The nodes of the tree become nested switch
+ * statements on the value indices of their parameters, which the JIT optimizes like hand-written
+ * code. The class is defined by its own class loader and can be unloaded together with this
+ * handler.
+ * <p>
+ * If the tree has more than {@link #NODE_LIMIT} inner nodes or the class can not be defined, the
+ * FlatConstraintTree is used directly. Both ways give the same results. The allowed values of a
+ * parameter are always collected by the FlatConstraintTree, as they need a single walk only.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class CompiledConstraintTree implements ConstraintHandler {
+
+  /**
+   * The maximum number of inner nodes of a tree, for which a class is generated. The code for
+   * larger trees does not fit into the instruction cache and is slower than the flat encoding.
+   */
+  public static final int NODE_LIMIT = 1024;
+
+  private FlatConstraintTree tree;
+  private ConstraintHandler checker;
+  private boolean compiled;
+  private boolean[] constrainedParameters;
+
+  /**
+   * Creates a new CompiledConstraintTree for the given context.
+   * 
+   * @param jcombContext The context to create a CompiledConstraintTree from.
+   */
+  public CompiledConstraintTree(JCombContext jcombContext) {
+    this(new FlatConstraintTree(jcombContext));
+  }
+
+  /**
+   * Creates a new CompiledConstraintTree, which compiles the given {@link FlatConstraintTree}.
+   * 
+   * @param tree The tree to compile.
+   */
+  public CompiledConstraintTree(FlatConstraintTree tree) {
+    constrainedParameters = new boolean[tree.getParameterCount()];
+    for (int parameter = 0; parameter < constrainedParameters.length; parameter++) {
+      constrainedParameters[parameter] = tree.isConstrained(parameter);
+    }
+    this.tree = tree;
+    CheckerGenerator generator = new CheckerGenerator(tree);
+    checker = tree;
+    if (generator.getNodeCount() <= NODE_LIMIT) {
+      try {
+        byte[] classFile = generator.generate();
+        checker = (ConstraintHandler) new CheckerClassLoader().define(classFile)
+            .getConstructor().newInstance();
+        compiled = true;
+      } catch (IllegalArgumentException | ReflectiveOperationException | LinkageError
+          | SecurityException e) {
+        // the tree is too large for a class file or the class can not be defined here
+        checker = tree;
+      }
+    }
+  }
+
+  @Override
+  public boolean isSatisfiable(int[] combination) {
+    return checker.isSatisfiable(combination);
+  }
+
+  @Override
+  public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    return tree.getAllowedValues(test, parameter, domainSize);
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return constrainedParameters[parameter];
+  }
+
+  /**
+   * Returns whether or not a class was generated for the tree.
+   * 
+   * @return true if the generated class is used, false if the FlatConstraintTree is used.
+   */
+  public boolean isCompiled() {
+    return compiled;
+  }
+
+  /**
+   * Defines the generated class of a single CompiledConstraintTree.
+   */
+  private static class CheckerClassLoader extends ClassLoader {
+
+    CheckerClassLoader() {
+      super(ConstraintHandler.class.getClassLoader());
+    }
+
+    Class<?> define(byte[] classFile) {
+      return defineClass(CheckerGenerator.CLASS_NAME, classFile, 0, classFile.length);
+    }
+  }
+
+}
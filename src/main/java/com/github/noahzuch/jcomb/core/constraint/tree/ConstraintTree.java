@@ -15,11 +15,16 @@
  */
 package com.github.noahzuch.jcomb.core.constraint.tree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 import com.github.noahzuch.jcomb.core.JCombContext;
 import com.github.noahzuch.jcomb.core.constraint.Constraint;
 import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
 import com.github.noahzuch.jcomb.core.domain.Domain;
 
 /**
@@ -32,22 +37,72 @@ import com.github.noahzuch.jcomb.core.domain.Domain;
 public class ConstraintTree implements ConstraintHandler {
 
   private CheckNode root;
+  private boolean[] constrainedParameters;
+  private boolean[] valuesNeeded;
+
+  /**
+   * The position of every constrained parameter in the order in which the parameters are tested
+   * by the tree. This order is the same on every path, as every path covers the parameters of the
+   * constraints in the same order.
+   */
+  private int[] positionOfParameter;
+
+  /**
+   * The number of positions, whose branches are created concurrently.
+   */
+  private int parallelPositions;
   private static final CheckNode falseLeave = new LeaveNode(false);
 
+  /**
+   * The number of branches per thread of the common pool, that are created concurrently.
+   */
+  private static final int PARALLEL_BRANCHES_PER_THREAD = 4;
+
   /**
    * Creates a new ConstraintTree for the given context.
    * 
    * @param jcombContext The context to create a ConstraintTree from.
    */
   public ConstraintTree(JCombContext jcombContext) {
-    List<Constraint> constraints = jcombContext.getConstraints().values().stream()
+    this(jcombContext, false);
+  }
+
+  /**
+   * Creates a new ConstraintTree for the given context. If parallel is true, the branches of the
+   * first parameters are created concurrently in the common {@link ForkJoinPool}, so the compiled
+   * constraints are checked by several threads at the same time. Constraints tabulated by
+   * {@link Constraints#compile(JCombContext)} only read their table and are always safe, see
+   * {@link Constraints#isTabulated(Constraint)}. Method constraints, index predicates and
+   * constraints with too many value combinations for a table run their own code during the
+   * construction and are only safe, if this code is. The created tree is the same in both cases.
+   * 
+   * @param jcombContext The context to create a ConstraintTree from.
+   * @param parallel Whether or not the tree is created concurrently.
+   */
+  public ConstraintTree(JCombContext jcombContext, boolean parallel) {
+    List<Constraint> constraints = Constraints.compile(jcombContext).stream()
         .sorted((l1, l2) -> Integer.compare(l1.getInvolvedParameters().length,
             l2.getInvolvedParameters().length))
         .collect(Collectors.toList());
+    constrainedParameters = new boolean[jcombContext.getParameterCount()];
+    for (Constraint constraint : constraints) {
+      for (int parameter : constraint.getInvolvedParameters()) {
+        constrainedParameters[parameter] = true;
+      }
+    }
+    positionOfParameter =
+        getPositionsOfParameters(constraints, jcombContext.getParameterCount());
+    int position = (int) Arrays.stream(positionOfParameter).filter(p -> p != -1).count();
+    valuesNeeded = Constraints.getParametersWithNeededValues(constraints,
+        jcombContext.getParameterCount());
+    if (parallel) {
+      parallelPositions = getParallelPositions(jcombContext, position);
+    }
     if (constraints.size() == 0) {
       root = null;
     } else {
-      root = createNode(jcombContext, new Object[jcombContext.getParameterCount()], 0,
+      root = createNode(jcombContext, new Object[jcombContext.getParameterCount()],
+          new int[jcombContext.getParameterCount()], 0,
           new boolean[jcombContext.getParameterCount()], 0, constraints);
     }
   }
@@ -55,144 +110,246 @@ public class ConstraintTree implements ConstraintHandler {
   @Override
   public boolean isSatisfiable(int[] combination) {
     // null represents true, but decreases tree size
-    return root == null || root.isSatisfiable(combination);
+    if (root == null) {
+      return true;
+    }
+    return root.isSatisfiable(combination, getLastAssignedPosition(combination));
   }
 
-  private CheckNode createNode(JCombContext context, Object[] combination,
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The allowed values are collected in a single traversal of the tree. The subtree below every
+   * value of the parameter is visited at most once.
+   */
+  @Override
+  public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    if (root == null || !constrainedParameters[parameter]) {
+      return ConstraintHandler.super.getAllowedValues(test, parameter, domainSize);
+    }
+    long[] allowedValues = new long[(domainSize + 63) >>> 6];
+    int originalValue = test[parameter];
+    test[parameter] = -1;
+    int lastAssignedPosition =
+        Math.max(getLastAssignedPosition(test), positionOfParameter[parameter]);
+    InnerNode.addAllowedValues(root, test, lastAssignedPosition, parameter, allowedValues,
+        domainSize);
+    test[parameter] = originalValue;
+    return allowedValues;
+  }
+
+  private int getLastAssignedPosition(int[] combination) {
+    int lastAssignedPosition = -1;
+    for (int parameter = 0; parameter < combination.length; parameter++) {
+      if (combination[parameter] != -1) {
+        lastAssignedPosition = Math.max(lastAssignedPosition, positionOfParameter[parameter]);
+      }
+    }
+    return lastAssignedPosition;
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return constrainedParameters[parameter];
+  }
+
+  /**
+   * Returns the root of this tree.
+   * 
+   * @return The root node or null, if every combination is satisfiable.
+   */
+  CheckNode getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns the position of the given parameter in the order in which the parameters are tested
+   * by this tree.
+   * 
+   * @param parameter The index of the parameter.
+   * @return The position or -1, if the parameter is not constrained.
+   */
+  int getPositionOfParameter(int parameter) {
+    return positionOfParameter[parameter];
+  }
+
+  /**
+   * Returns the number of parameters of the context of this tree.
+   * 
+   * @return The parameter count.
+   */
+  int getParameterCount() {
+    return positionOfParameter.length;
+  }
+
+  /**
+   * Computes the position of every parameter in the order in which a tree over the given sorted
+   * constraints tests the parameters.
+   * 
+   * @param constraints The constraints in the order in which the tree checks them.
+   * @param parameterCount The number of parameters.
+   * @return The position of every parameter or -1, if it is not constrained.
+   */
+  static int[] getPositionsOfParameters(List<Constraint> constraints, int parameterCount) {
+    int[] positionOfParameter = new int[parameterCount];
+    Arrays.fill(positionOfParameter, -1);
+    int position = 0;
+    for (Constraint constraint : constraints) {
+      for (int parameter : constraint.getInvolvedParameters()) {
+        if (positionOfParameter[parameter] == -1) {
+          positionOfParameter[parameter] = position++;
+        }
+      }
+    }
+    return positionOfParameter;
+  }
+
+  /**
+   * Returns the number of leading positions, whose branches together are enough to keep all
+   * threads of the common pool busy.
+   */
+  private int getParallelPositions(JCombContext context, int positionCount) {
+    int[] parameterAtPosition = new int[positionCount];
+    for (int parameter = 0; parameter < positionOfParameter.length; parameter++) {
+      if (positionOfParameter[parameter] != -1) {
+        parameterAtPosition[positionOfParameter[parameter]] = parameter;
+      }
+    }
+    long branchCount = 1;
+    int positions = 0;
+    while (positions < positionCount
+        && branchCount < PARALLEL_BRANCHES_PER_THREAD * ForkJoinPool.getCommonPoolParallelism()) {
+      branchCount *= context.getParameter(parameterAtPosition[positions]).getSize();
+      positions++;
+    }
+    return positions;
+  }
+
+  private CheckNode createNode(JCombContext context, Object[] combination, int[] valueIndices,
       int currentConstraintParameter,
       boolean[] coveredParameters, int currentConstraint,
       List<Constraint> constraintIt) {
     int currentParameter =
         constraintIt.get(currentConstraint).getInvolvedParameters()[currentConstraintParameter];
     // check whether or not this is the last parameter for the current constraint
-    if (currentConstraintParameter == constraintIt.get(currentConstraint)
-        .getInvolvedParameters().length
-        - 1) {
-      if (!coveredParameters[currentParameter]) {
-        // if the last parameter is not yet covered, cover it and at the same time check for the
-        // constraint
-        coveredParameters[currentParameter] = true;
-        CheckNode node =
-            createConstraintEndNode(context, combination, currentConstraintParameter,
-                coveredParameters,
-                currentConstraint,
-                constraintIt);
-        coveredParameters[currentParameter] = false;
-        return node;
-      } else {
-        // if the last parameter is already covered, only check for the constraint
-        return checkConstraintEndNode(context, combination, currentConstraintParameter,
-            coveredParameters,
-            currentConstraint,
-            constraintIt);
-      }
+    boolean lastParameter = currentConstraintParameter == constraintIt.get(currentConstraint)
+        .getInvolvedParameters().length - 1;
+    if (!coveredParameters[currentParameter]) {
+      // if the current parameter is not yet covered, cover it. If it is the last parameter of
+      // the constraint, check for the constraint at the same time
+      coveredParameters[currentParameter] = true;
+      CheckNode node = createInnerNode(context, combination, valueIndices,
+          currentConstraintParameter, coveredParameters, currentConstraint, constraintIt,
+          lastParameter);
+      coveredParameters[currentParameter] = false;
+      return node;
+    } else if (lastParameter) {
+      // if the last parameter is already covered, only check for the constraint
+      return checkConstraintEndNode(context, combination, valueIndices, coveredParameters,
+          currentConstraint, constraintIt);
     } else {
-      if (!coveredParameters[currentParameter]) {
-        // if the current parameter is not yet covered, cover it
-        coveredParameters[currentParameter] = true;
-        CheckNode node =
-            createCompleteInnerNode(context, combination, currentConstraintParameter,
-                coveredParameters,
-                currentConstraint, constraintIt);
-        coveredParameters[currentParameter] = false;
-        return node;
-      } else {
-        // if the current parameter is already covered, go on with the next parameter
-        return createNode(context, combination, currentConstraintParameter + 1, coveredParameters,
-            currentConstraint,
-            constraintIt);
-      }
+      // if the current parameter is already covered, go on with the next parameter
+      return createNode(context, combination, valueIndices, currentConstraintParameter + 1,
+          coveredParameters, currentConstraint, constraintIt);
     }
   }
 
   private CheckNode checkConstraintEndNode(JCombContext context, Object[] combination,
-      int currentConstraintParameter,
-      boolean[] coveredParameters, int currentConstraint,
+      int[] valueIndices, boolean[] coveredParameters, int currentConstraint,
       List<Constraint> constraintIt) {
     Constraint constraint = constraintIt.get(currentConstraint);
 
-    if (!checkConstraintWithFullCombination(constraint, combination)) {
+    if (!checkConstraintWithFullCombination(constraint, combination, valueIndices)) {
       // Constraint not fulfilled
       return falseLeave;
     } else {
       // Constraint fulfilled
       if (currentConstraint < constraintIt.size() - 1) {
-        return createNode(context, combination, 0, coveredParameters, currentConstraint + 1,
-            constraintIt);
+        return createNode(context, combination, valueIndices, 0, coveredParameters,
+            currentConstraint + 1, constraintIt);
       } else {
         return null; // null represents true, but decreases tree size
       }
     }
   }
 
-  private CheckNode createConstraintEndNode(JCombContext context, Object[] combination,
-      int currentConstraintParameter,
-      boolean[] coveredParameters, int currentConstraint,
-      List<Constraint> constraintIt) {
-    Constraint constraint = constraintIt.get(currentConstraint);
-    int currentParameter = constraint.getInvolvedParameters()[currentConstraintParameter];
+  /**
+   * Creates the node of the current parameter, which was just covered. The children of the
+   * parameters at the first positions are created concurrently, each with its own copy of the
+   * arrays describing the current path.
+   */
+  private CheckNode createInnerNode(JCombContext context, Object[] combination,
+      int[] valueIndices, int currentConstraintParameter, boolean[] coveredParameters,
+      int currentConstraint, List<Constraint> constraintIt, boolean constraintEnd) {
+    int currentParameter = constraintIt.get(currentConstraint)
+        .getInvolvedParameters()[currentConstraintParameter];
     Domain parameter = context.getParameter(currentParameter);
-    InnerNode newNode = null;
+    CheckNode[] children = new CheckNode[parameter.getSize()];
+    if (positionOfParameter[currentParameter] < parallelPositions) {
+      List<ForkJoinTask<CheckNode>> tasks = new ArrayList<>(children.length);
+      for (int valueIndex = 0; valueIndex < children.length; valueIndex++) {
+        final int value = valueIndex;
+        Object[] branchCombination = combination.clone();
+        int[] branchValueIndices = valueIndices.clone();
+        boolean[] branchCoveredParameters = coveredParameters.clone();
+        tasks.add(ForkJoinTask.adapt(() -> createChild(context, branchCombination,
+            branchValueIndices, currentConstraintParameter, branchCoveredParameters,
+            currentConstraint, constraintIt, constraintEnd, value)));
+      }
+      ForkJoinTask.invokeAll(tasks);
+      for (int valueIndex = 0; valueIndex < children.length; valueIndex++) {
+        children[valueIndex] = tasks.get(valueIndex).join();
+      }
+    } else {
+      for (int valueIndex = 0; valueIndex < children.length; valueIndex++) {
+        children[valueIndex] = createChild(context, combination, valueIndices,
+            currentConstraintParameter, coveredParameters, currentConstraint, constraintIt,
+            constraintEnd, valueIndex);
+      }
+    }
 
-    for (int valueIndex = 0; valueIndex < parameter.getSize(); valueIndex++) {
-      combination[currentParameter] = parameter.getValueAt(valueIndex);
-      if (!checkConstraintWithFullCombination(constraint, combination)) {
-        // Constraint not fulfilled
+    InnerNode newNode = null;
+    for (int valueIndex = 0; valueIndex < children.length; valueIndex++) {
+      if (children[valueIndex] != null) {
         if (newNode == null) {
-          newNode = new InnerNode(currentParameter, parameter.getSize());
-        }
-        newNode.setChild(valueIndex, falseLeave);
-      } else {
-        // Constraint fulfilled
-        CheckNode child;
-        if (currentConstraint < constraintIt.size() - 1) {
-          child =
-              createNode(context, combination, 0, coveredParameters, currentConstraint + 1,
-                  constraintIt);
-        } else {
-          child = null; // null represents true, but decreases tree size
-        }
-        if (child != null) {
-          if (newNode == null) {
-            newNode = new InnerNode(currentParameter, parameter.getSize());
-          }
-          newNode.setChild(valueIndex, child);
+          newNode = new InnerNode(currentParameter, children.length);
         }
+        newNode.setChild(valueIndex, children[valueIndex]);
       }
     }
+    if (newNode != null) {
+      newNode.summarize(positionOfParameter[currentParameter]);
+    }
     return newNode;
   }
 
-  private CheckNode createCompleteInnerNode(JCombContext context, Object[] combination,
-      int currentConstraintParameter,
-      boolean[] coveredParameters, int currentConstraint,
-      List<Constraint> constraintIt) {
+  private CheckNode createChild(JCombContext context, Object[] combination, int[] valueIndices,
+      int currentConstraintParameter, boolean[] coveredParameters, int currentConstraint,
+      List<Constraint> constraintIt, boolean constraintEnd, int valueIndex) {
     Constraint constraint = constraintIt.get(currentConstraint);
     int currentParameter = constraint.getInvolvedParameters()[currentConstraintParameter];
-    InnerNode newNode = null;
-    Domain parameter = context.getParameter(currentParameter);
-    for (int valueIndex = 0; valueIndex < parameter.getSize(); valueIndex++) {
-      combination[currentParameter] = parameter.getValueAt(valueIndex);
-      CheckNode child =
-          createNode(context, combination, currentConstraintParameter + 1, coveredParameters,
-              currentConstraint,
-              constraintIt);
-      if (child != null) {
-        if (newNode == null) {
-          newNode = new InnerNode(currentParameter, parameter.getSize());
-        }
-        newNode.setChild(valueIndex, child);
-      }
+    valueIndices[currentParameter] = valueIndex;
+    if (valuesNeeded[currentParameter]) {
+      combination[currentParameter] = context.getParameter(currentParameter).getValueAt(valueIndex);
+    }
+    if (!constraintEnd) {
+      return createNode(context, combination, valueIndices, currentConstraintParameter + 1,
+          coveredParameters, currentConstraint, constraintIt);
+    } else if (!checkConstraintWithFullCombination(constraint, combination, valueIndices)) {
+      // Constraint not fulfilled
+      return falseLeave;
+    } else if (currentConstraint < constraintIt.size() - 1) {
+      // Constraint fulfilled
+      return createNode(context, combination, valueIndices, 0, coveredParameters,
+          currentConstraint + 1, constraintIt);
+    } else {
+      return null; // null represents true, but decreases tree size
     }
-    return newNode;
   }
 
-  private boolean checkConstraintWithFullCombination(Constraint con, Object[] combination) {
-    Object[] input = new Object[con.getInvolvedParameters().length];
-    for (int i = 0; i < con.getInvolvedParameters().length; i++) {
-      input[i] = combination[con.getInvolvedParameters()[i]];
-    }
-    return con.confirmsWith(input);
+  private boolean checkConstraintWithFullCombination(Constraint con, Object[] combination,
+      int[] valueIndices) {
+    return con.confirmsWith(combination, valueIndices, con.getInvolvedParameters());
   }
 
 }
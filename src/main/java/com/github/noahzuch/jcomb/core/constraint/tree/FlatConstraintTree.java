@@ -0,0 +1,337 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+
+/**
+ * An implementation of the {@link ConstraintHandler} interface, that encodes a
+ * {@link ConstraintTree} into a single int array. Combinations are checked by an iterative
+ * evaluator, that walks the array without recursion or calls to node objects.
+ * <p>
+ * Every inner node is stored as its parameter index, the position of this parameter in the order
+ * in which the tree tests parameters, its child count, the offset of its parent and its value
+ * index in the parent and the references to its children. The parent references allow the
+ * evaluator to backtrack without a stack.
+ * References to inner nodes are the offsets of these nodes in the array, the leaves are
+ * represented by the negative sentinels {@link #TRUE} and {@link #FALSE}. Subtrees without any
+ * satisfiable path are replaced by {@link #FALSE}, so every inner node has a satisfiable path.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class FlatConstraintTree implements ConstraintHandler {
+
+  /**
+   * The reference to a leaf, below which every path is satisfiable.
+   */
+  static final int TRUE = -1;
+
+  /**
+   * The reference to a leaf, below which no path is satisfiable.
+   */
+  static final int FALSE = -2;
+
+  static final int PARAMETER = 0;
+  static final int POSITION = 1;
+  static final int CHILD_COUNT = 2;
+  static final int PARENT = 3;
+  static final int PARENT_VALUE = 4;
+  static final int CHILDREN = 5;
+
+  /**
+   * The parent of the root node.
+   */
+  static final int NO_PARENT = -1;
+
+  private int[] nodes;
+  private int size;
+  private int root;
+  private int[] positionOfParameter;
+  private boolean[] constrainedParameters;
+
+  /**
+   * Creates a new FlatConstraintTree for the given context.
+   * 
+   * @param jcombContext The context to create a FlatConstraintTree from.
+   */
+  public FlatConstraintTree(JCombContext jcombContext) {
+    this(new ConstraintTree(jcombContext));
+  }
+
+  /**
+   * Creates a new FlatConstraintTree, which encodes the given {@link ConstraintTree}. The given
+   * tree is not referenced afterwards.
+   * 
+   * @param tree The tree to encode.
+   */
+  public FlatConstraintTree(ConstraintTree tree) {
+    positionOfParameter = new int[tree.getParameterCount()];
+    constrainedParameters = new boolean[tree.getParameterCount()];
+    for (int parameter = 0; parameter < positionOfParameter.length; parameter++) {
+      positionOfParameter[parameter] = tree.getPositionOfParameter(parameter);
+      constrainedParameters[parameter] = tree.isConstrained(parameter);
+    }
+    nodes = new int[getSize(tree.getRoot())];
+    root = encode(tree.getRoot(), NO_PARENT, 0);
+  }
+
+  /**
+   * Returns the number of array entries needed to encode the satisfiable part of the given
+   * subtree.
+   */
+  private static int getSize(CheckNode node) {
+    if (!(node instanceof InnerNode)) {
+      return 0;
+    }
+    InnerNode innerNode = (InnerNode) node;
+    if (!hasSatisfiablePath(innerNode)) {
+      return 0;
+    }
+    int size = CHILDREN + innerNode.getChildCount();
+    for (int valueIndex = 0; valueIndex < innerNode.getChildCount(); valueIndex++) {
+      if (innerNode.isValueSatisfiable(valueIndex)) {
+        size += getSize(innerNode.getChild(valueIndex));
+      }
+    }
+    return size;
+  }
+
+  private static boolean hasSatisfiablePath(InnerNode node) {
+    for (int valueIndex = 0; valueIndex < node.getChildCount(); valueIndex++) {
+      if (node.isValueSatisfiable(valueIndex)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Appends the given subtree to the encoded nodes.
+   * 
+   * @return The reference to the encoded subtree.
+   */
+  private int encode(CheckNode node, int parent, int parentValue) {
+    if (node == null) {
+      return TRUE;
+    } else if (node instanceof LeaveNode) {
+      return ((LeaveNode) node).isSatisfiable() ? TRUE : FALSE;
+    }
+    InnerNode innerNode = (InnerNode) node;
+    if (!hasSatisfiablePath(innerNode)) {
+      return FALSE;
+    }
+    int offset = size;
+    size += CHILDREN + innerNode.getChildCount();
+    nodes[offset + PARAMETER] = innerNode.getParameterIndex();
+    nodes[offset + POSITION] = innerNode.getPosition();
+    nodes[offset + CHILD_COUNT] = innerNode.getChildCount();
+    nodes[offset + PARENT] = parent;
+    nodes[offset + PARENT_VALUE] = parentValue;
+    for (int valueIndex = 0; valueIndex < innerNode.getChildCount(); valueIndex++) {
+      if (innerNode.isValueSatisfiable(valueIndex)) {
+        nodes[offset + CHILDREN + valueIndex] =
+            encode(innerNode.getChild(valueIndex), offset, valueIndex);
+      } else {
+        nodes[offset + CHILDREN + valueIndex] = FALSE;
+      }
+    }
+    return offset;
+  }
+
+  @Override
+  public boolean isSatisfiable(int[] combination) {
+    return isSatisfiable(root, combination, getLastAssignedPosition(combination));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The allowed values are collected in a single walk over the array. The subtree below every
+   * value of the parameter is visited at most once.
+   */
+  @Override
+  public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    if (!constrainedParameters[parameter]) {
+      return ConstraintHandler.super.getAllowedValues(test, parameter, domainSize);
+    }
+    long[] allowedValues = new long[(domainSize + 63) >>> 6];
+    int originalValue = test[parameter];
+    test[parameter] = -1;
+    int lastAssignedPosition =
+        Math.max(getLastAssignedPosition(test), positionOfParameter[parameter]);
+    addAllowedValues(root, test, lastAssignedPosition, parameter, allowedValues, domainSize);
+    test[parameter] = originalValue;
+    return allowedValues;
+  }
+
+  /**
+   * Sets the bits of all values of the given parameter, that have a satisfiable path through the
+   * given subtree.
+   * 
+   * @return true if all values of the domain are allowed, so that no other path has to be visited.
+   */
+  private boolean addAllowedValues(int node, int[] combination, int lastAssignedPosition,
+      int parameter, long[] allowedValues, int domainSize) {
+    if (node == FALSE) {
+      return false;
+    } else if (node == TRUE || nodes[node + POSITION] > lastAssignedPosition) {
+      // the parameter is not tested on this path and every inner node has a satisfiable path
+      ConstraintHandler.allowAll(allowedValues, domainSize);
+      return true;
+    }
+    int childCount = nodes[node + CHILD_COUNT];
+    if (nodes[node + PARAMETER] == parameter) {
+      // every value has its own subtree, so each subtree is visited at most once
+      for (int valueIndex = 0; valueIndex < childCount; valueIndex++) {
+        int child = nodes[node + CHILDREN + valueIndex];
+        if (child != FALSE && !ConstraintHandler.isAllowed(allowedValues, valueIndex)) {
+          combination[parameter] = valueIndex;
+          if (nodes[node + POSITION] >= lastAssignedPosition
+              || isSatisfiable(child, combination, lastAssignedPosition)) {
+            allowedValues[valueIndex >>> 6] |= 1L << valueIndex;
+          }
+        }
+      }
+      combination[parameter] = -1;
+      return ConstraintHandler.allAllowed(allowedValues, domainSize);
+    }
+    int valueIndex = combination[nodes[node + PARAMETER]];
+    if (valueIndex != -1) {
+      return addAllowedValues(nodes[node + CHILDREN + valueIndex], combination,
+          lastAssignedPosition, parameter, allowedValues, domainSize);
+    }
+    for (valueIndex = 0; valueIndex < childCount; valueIndex++) {
+      if (addAllowedValues(nodes[node + CHILDREN + valueIndex], combination,
+          lastAssignedPosition, parameter, allowedValues, domainSize)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int getLastAssignedPosition(int[] combination) {
+    int lastAssignedPosition = -1;
+    for (int parameter = 0; parameter < combination.length; parameter++) {
+      if (combination[parameter] != -1) {
+        lastAssignedPosition = Math.max(lastAssignedPosition, positionOfParameter[parameter]);
+      }
+    }
+    return lastAssignedPosition;
+  }
+
+  /**
+   * Checks whether or not the given subtree has a path, that matches the given combination. The
+   * walk never leaves the subtree.
+   */
+  private boolean isSatisfiable(int start, int[] combination, int lastAssignedPosition) {
+    int node = start;
+    if (node < 0) {
+      return node == TRUE;
+    } else if (nodes[node + POSITION] > lastAssignedPosition) {
+      // no parameter is assigned and every inner node has a satisfiable path
+      return true;
+    }
+    // the next value index to check at the current node, if its parameter is a wildcard
+    int nextValue = 0;
+    while (true) {
+      int child = FALSE;
+      int valueIndex = combination[nodes[node + PARAMETER]];
+      if (valueIndex != -1) {
+        if (nextValue == 0) {
+          child = nodes[node + CHILDREN + valueIndex];
+        }
+      } else {
+        int childCount = nodes[node + CHILD_COUNT];
+        while (nextValue < childCount && (child = nodes[node + CHILDREN + nextValue]) == FALSE) {
+          nextValue++;
+        }
+      }
+
+      if (child == TRUE) {
+        return true;
+      } else if (child != FALSE) {
+        if (nodes[node + POSITION] >= lastAssignedPosition) {
+          // the child tests the next position, so no parameter below the child is assigned
+          return true;
+        }
+        node = child;
+        nextValue = 0;
+      } else {
+        // no child of the current node is satisfiable, go on with the next value of the parent
+        if (node == start) {
+          return false;
+        }
+        nextValue = nodes[node + PARENT_VALUE] + 1;
+        node = nodes[node + PARENT];
+      }
+    }
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return constrainedParameters[parameter];
+  }
+
+  /**
+   * Returns the encoded nodes. The inner nodes are stored one after another, starting at offset 0.
+   * 
+   * @return The array encoding this tree.
+   */
+  int[] getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the reference to the root of this tree.
+   * 
+   * @return The offset of the root node, {@link #TRUE} or {@link #FALSE}.
+   */
+  int getRoot() {
+    return root;
+  }
+
+  /**
+   * Returns the position of the given parameter in the order in which the parameters are tested
+   * by this tree.
+   * 
+   * @param parameter The index of the parameter.
+   * @return The position or -1, if the parameter is not constrained.
+   */
+  int getPositionOfParameter(int parameter) {
+    return positionOfParameter[parameter];
+  }
+
+  /**
+   * Returns the number of parameters of the context of this tree.
+   * 
+   * @return The parameter count.
+   */
+  int getParameterCount() {
+    return positionOfParameter.length;
+  }
+
+  /**
+   * Returns the number of int values used to encode this tree.
+   * 
+   * @return The length of the array encoding this tree.
+   */
+  public int getEncodedSize() {
+    return nodes.length;
+  }
+
+}
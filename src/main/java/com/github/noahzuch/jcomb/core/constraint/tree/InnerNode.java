@@ -15,6 +15,8 @@
  */
 package com.github.noahzuch.jcomb.core.constraint.tree;
 
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+
 /**
  * An inner node in a constraint tree.
  * @author Noah
@@ -25,6 +27,29 @@ public class InnerNode implements CheckNode {
   private int parameterIndex;
   private CheckNode[] children;
 
+  /**
+   * The position of the parameter of this node in the order in which the tree tests parameters.
+   */
+  private int position;
+
+  /**
+   * Whether or not any path below this node is satisfiable. May be true for a subtree that was not
+   * created yet, as long as exact is false.
+   */
+  private boolean satisfiable;
+
+  /**
+   * Whether or not satisfiable is known for sure. This is false, if the result depends on subtrees
+   * that are not created yet, and is set once a check visited them.
+   */
+  private volatile boolean exact;
+
+  /**
+   * Whether or not any path below the child of a value index can be satisfiable. false is only set
+   * if no path is satisfiable.
+   */
+  private boolean[] valueSatisfiable;
+
   /**
    * Creates a new InnerNode in the given parameter layer and with a given child count.
    * @param parameterIndex The parameter index of the layer in which the new Node lies.
@@ -44,6 +69,185 @@ public class InnerNode implements CheckNode {
     children[valueIndex] = node;
   }
 
+  /**
+   * Precomputes whether or not the paths below this node and below each of its children are
+   * satisfiable. Has to be called after all children were set and summarized. Children that are
+   * not created yet are assumed to be satisfiable until a check visits them.
+   * 
+   * @param position The position of the parameter of this node in the order in which the tree
+   *        tests parameters.
+   */
+  void summarize(int position) {
+    this.position = position;
+    valueSatisfiable = new boolean[children.length];
+    satisfiable = false;
+    boolean knownSatisfiable = false;
+    boolean allKnown = true;
+    for (int valueIndex = 0; valueIndex < children.length; valueIndex++) {
+      CheckNode child = children[valueIndex];
+      valueSatisfiable[valueIndex] = child == null || isSatisfiable(child);
+      satisfiable |= valueSatisfiable[valueIndex];
+      boolean known = child == null || child instanceof LeaveNode
+          || child instanceof InnerNode && ((InnerNode) child).exact;
+      knownSatisfiable |= known && valueSatisfiable[valueIndex];
+      allKnown &= known;
+    }
+    exact = knownSatisfiable || allKnown;
+  }
+
+  /**
+   * Returns the parameter index of the layer in which this node lies.
+   * 
+   * @return The parameter index.
+   */
+  int getParameterIndex() {
+    return parameterIndex;
+  }
+
+  /**
+   * Returns the position of the parameter of this node, as set by {@link #summarize(int)}.
+   * 
+   * @return The position of the parameter.
+   */
+  int getPosition() {
+    return position;
+  }
+
+  /**
+   * Returns the number of children of this node.
+   * 
+   * @return The child count.
+   */
+  int getChildCount() {
+    return children.length;
+  }
+
+  /**
+   * Returns the child for a specific value index.
+   * 
+   * @param valueIndex The value index of the child node.
+   * @return The child node or null, if every path through it is satisfiable.
+   */
+  CheckNode getChild(int valueIndex) {
+    return children[valueIndex];
+  }
+
+  /**
+   * Returns whether or not the path to the child of the given value index can be satisfiable, as
+   * computed by {@link #summarize(int)}.
+   * 
+   * @param valueIndex The value index of the child node.
+   * @return false if no path below the child is satisfiable, true otherwise.
+   */
+  boolean isValueSatisfiable(int valueIndex) {
+    return valueSatisfiable[valueIndex];
+  }
+
+  /**
+   * Adds the values of the given parameter, for which a path below the given node is satisfiable,
+   * to the bitmask of allowed values. The parameter has to be a wildcard in the combination, but
+   * its position is already included in lastAssignedPosition. Requires {@link #summarize(int)} to
+   * be called on all nodes below. Placeholders are resolved on the way.
+   * 
+   * @param node The node to start at.
+   * @param combination The combination to check. The value of the parameter is changed during the
+   *        check and set to -1 afterwards.
+   * @param lastAssignedPosition The highest position of an assigned parameter or the parameter.
+   * @param parameter The index of the parameter.
+   * @param allowedValues The bitmask of allowed values.
+   * @param domainSize The number of values of the parameter.
+   * @return true if all values of the parameter are allowed.
+   */
+  static boolean addAllowedValues(CheckNode node, int[] combination, int lastAssignedPosition,
+      int parameter, long[] allowedValues, int domainSize) {
+    if (node != null) {
+      node = node.resolve();
+    }
+    if (node == null || node instanceof LeaveNode && ((LeaveNode) node).isSatisfiable()) {
+      // the parameter is not tested on this path
+      ConstraintHandler.allowAll(allowedValues, domainSize);
+      return true;
+    } else if (!(node instanceof InnerNode)) {
+      return false;
+    }
+    InnerNode innerNode = (InnerNode) node;
+    if (innerNode.parameterIndex == parameter) {
+      // every value has its own subtree, so each subtree is visited at most once
+      for (int valueIndex = 0; valueIndex < innerNode.children.length; valueIndex++) {
+        if (innerNode.valueSatisfiable[valueIndex]
+            && !ConstraintHandler.isAllowed(allowedValues, valueIndex)) {
+          combination[parameter] = valueIndex;
+          CheckNode child = innerNode.children[valueIndex];
+          if (child == null || child.isSatisfiable(combination, lastAssignedPosition)) {
+            allowedValues[valueIndex >>> 6] |= 1L << valueIndex;
+          }
+        }
+      }
+      combination[parameter] = -1;
+      return ConstraintHandler.allAllowed(allowedValues, domainSize);
+    }
+    int valueIndex = combination[innerNode.parameterIndex];
+    if (valueIndex != -1) {
+      return addAllowedValues(innerNode.children[valueIndex], combination, lastAssignedPosition,
+          parameter, allowedValues, domainSize);
+    }
+    for (valueIndex = 0; valueIndex < innerNode.children.length; valueIndex++) {
+      if (innerNode.valueSatisfiable[valueIndex] && addAllowedValues(
+          innerNode.children[valueIndex], combination, lastAssignedPosition, parameter,
+          allowedValues, domainSize)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSatisfiable(CheckNode node) {
+    if (node instanceof InnerNode) {
+      return ((InnerNode) node).satisfiable;
+    } else if (node instanceof LeaveNode) {
+      return ((LeaveNode) node).isSatisfiable();
+    }
+    // unknown nodes have to be visited
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Requires {@link #summarize(int)} to be called on this node and on all nodes below.
+   */
+  @Override
+  public boolean isSatisfiable(int[] combination, int lastAssignedPosition) {
+    // if true, no parameter below this node is assigned
+    boolean unassignedBelow = position > lastAssignedPosition;
+    if (unassignedBelow && exact) {
+      return satisfiable;
+    }
+    int valueIndex = combination[parameterIndex];
+    if (valueIndex == -1) {
+      for (valueIndex = 0; valueIndex < children.length; valueIndex++) {
+        if (valueSatisfiable[valueIndex]) {
+          if (children[valueIndex] == null
+              || children[valueIndex].isSatisfiable(combination, lastAssignedPosition)) {
+            if (unassignedBelow) {
+              exact = true;
+            }
+            return true;
+          } else if (unassignedBelow) {
+            valueSatisfiable[valueIndex] = false;
+          }
+        }
+      }
+      if (unassignedBelow) {
+        satisfiable = false;
+        exact = true;
+      }
+      return false;
+    }
+    CheckNode child = children[valueIndex];
+    return child == null || child.isSatisfiable(combination, lastAssignedPosition);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,277 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * An implementation of the {@link ConstraintHandler} interface, that uses the same tree structure
+ * as {@link ConstraintTree}. But instead of creating the whole tree in the constructor, every
+ * subtree below an {@link InnerNode} is only created when a check reaches it for the first time.
+ * Until then it is represented by a placeholder, that only stores its parent placeholder and the
+ * value assigned on the way to it. The state of the construction at this point is rebuilt from
+ * these assignments when the placeholder is expanded. Parts of the constraint space that are never
+ * checked are therefore never created.
+ * <p>
+ * Like in the ConstraintTree, every {@link InnerNode} is summarized when it is created. Subtrees
+ * that are not created yet count as satisfiable, until a check without assigned parameters below
+ * visits them.
+ * <p>
+ * The expansion of a placeholder is synchronized, so a LazyConstraintTree can be used by multiple
+ * threads at once.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class LazyConstraintTree implements ConstraintHandler {
+
+  private static final CheckNode falseLeave = new LeaveNode(false);
+
+  private final JCombContext context;
+  private final List<Constraint> constraints;
+  private final CheckNode root;
+  private final boolean[] constrainedParameters;
+  private final boolean[] valuesNeeded;
+  private final int[] positionOfParameter;
+
+  /**
+   * Creates a new LazyConstraintTree for the given context.
+   * 
+   * @param jcombContext The context to create a LazyConstraintTree from.
+   */
+  public LazyConstraintTree(JCombContext jcombContext) {
+    this(jcombContext, Constraints.TABLE_SIZE_LIMIT);
+  }
+
+  /**
+   * Creates a new LazyConstraintTree for the given context, that stores only constraints with at
+   * most tableSizeLimit value combinations in a table. See
+   * {@link Constraints#compile(JCombContext, int)}.
+   * 
+   * @param jcombContext The context to create a LazyConstraintTree from.
+   * @param tableSizeLimit The maximum number of value combinations of a tabulated constraint.
+   */
+  LazyConstraintTree(JCombContext jcombContext, int tableSizeLimit) {
+    context = jcombContext;
+    constraints = Constraints.compile(jcombContext, tableSizeLimit).stream()
+        .sorted((l1, l2) -> Integer.compare(l1.getInvolvedParameters().length,
+            l2.getInvolvedParameters().length))
+        .collect(Collectors.toList());
+    constrainedParameters = new boolean[jcombContext.getParameterCount()];
+    for (Constraint constraint : constraints) {
+      for (int parameter : constraint.getInvolvedParameters()) {
+        constrainedParameters[parameter] = true;
+      }
+    }
+    valuesNeeded = Constraints.getParametersWithNeededValues(constraints,
+        jcombContext.getParameterCount());
+    positionOfParameter = ConstraintTree.getPositionsOfParameters(constraints,
+        jcombContext.getParameterCount());
+    if (constraints.size() == 0) {
+      root = null;
+    } else {
+      root = new LazyNode(null, -1, -1, 0, 0);
+    }
+  }
+
+  @Override
+  public boolean isSatisfiable(int[] combination) {
+    // null represents true
+    return root == null
+        || root.isSatisfiable(combination, getLastAssignedPosition(combination));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The allowed values are collected in a single traversal of the tree like in
+   * {@link ConstraintTree#getAllowedValues(int[], int, int)}. Only the visited subtrees are
+   * created.
+   */
+  @Override
+  public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+    if (root == null || !constrainedParameters[parameter]) {
+      return ConstraintHandler.super.getAllowedValues(test, parameter, domainSize);
+    }
+    long[] allowedValues = new long[(domainSize + 63) >>> 6];
+    int originalValue = test[parameter];
+    test[parameter] = -1;
+    int lastAssignedPosition =
+        Math.max(getLastAssignedPosition(test), positionOfParameter[parameter]);
+    InnerNode.addAllowedValues(root, test, lastAssignedPosition, parameter, allowedValues,
+        domainSize);
+    test[parameter] = originalValue;
+    return allowedValues;
+  }
+
+  private int getLastAssignedPosition(int[] combination) {
+    int lastAssignedPosition = -1;
+    for (int parameter = 0; parameter < combination.length; parameter++) {
+      if (combination[parameter] != -1) {
+        lastAssignedPosition = Math.max(lastAssignedPosition, positionOfParameter[parameter]);
+      }
+    }
+    return lastAssignedPosition;
+  }
+
+  @Override
+  public boolean isConstrained(int parameter) {
+    return constrainedParameters[parameter];
+  }
+
+  private CheckNode createNode(LazyNode placeholder, Object[] combination, int[] valueIndices,
+      int currentConstraintParameter, boolean[] coveredParameters, int currentConstraint) {
+    Constraint constraint = constraints.get(currentConstraint);
+    int currentParameter = constraint.getInvolvedParameters()[currentConstraintParameter];
+    boolean isLastParameter =
+        currentConstraintParameter == constraint.getInvolvedParameters().length - 1;
+    if (coveredParameters[currentParameter]) {
+      if (!isLastParameter) {
+        return createNode(placeholder, combination, valueIndices,
+            currentConstraintParameter + 1, coveredParameters, currentConstraint);
+      } else if (!constraint.confirmsWith(combination, valueIndices,
+          constraint.getInvolvedParameters())) {
+        return falseLeave;
+      } else {
+        return createNextConstraintNode(placeholder, combination, valueIndices,
+            coveredParameters, currentConstraint);
+      }
+    }
+
+    coveredParameters[currentParameter] = true;
+    Domain parameter = context.getParameter(currentParameter);
+    InnerNode newNode = null;
+    for (int valueIndex = 0; valueIndex < parameter.getSize(); valueIndex++) {
+      valueIndices[currentParameter] = valueIndex;
+      if (valuesNeeded[currentParameter]) {
+        combination[currentParameter] = parameter.getValueAt(valueIndex);
+      }
+      CheckNode child;
+      if (!isLastParameter) {
+        child = new LazyNode(placeholder, currentParameter, valueIndex,
+            currentConstraintParameter + 1, currentConstraint);
+      } else if (!constraint.confirmsWith(combination, valueIndices,
+          constraint.getInvolvedParameters())) {
+        child = falseLeave;
+      } else if (currentConstraint < constraints.size() - 1) {
+        child = new LazyNode(placeholder, currentParameter, valueIndex, 0,
+            currentConstraint + 1);
+      } else {
+        child = null; // null represents true
+      }
+      if (child != null) {
+        if (newNode == null) {
+          newNode = new InnerNode(currentParameter, parameter.getSize());
+        }
+        newNode.setChild(valueIndex, child);
+      }
+    }
+    combination[currentParameter] = null;
+    coveredParameters[currentParameter] = false;
+    if (newNode != null) {
+      newNode.summarize(positionOfParameter[currentParameter]);
+    }
+    return newNode;
+  }
+
+  private CheckNode createNextConstraintNode(LazyNode placeholder, Object[] combination,
+      int[] valueIndices, boolean[] coveredParameters, int currentConstraint) {
+    if (currentConstraint < constraints.size() - 1) {
+      return createNode(placeholder, combination, valueIndices, 0, coveredParameters,
+          currentConstraint + 1);
+    } else {
+      return null; // null represents true
+    }
+  }
+
+  /**
+   * A placeholder for a subtree, that is created on the first check. The placeholders form a chain
+   * up to the root, where each link stores one parameter and the value assigned to it.
+   */
+  private class LazyNode implements CheckNode {
+
+    private final LazyNode parent;
+    private final int parameter;
+    private final int valueIndex;
+    private final int currentConstraintParameter;
+    private final int currentConstraint;
+
+    private volatile boolean expanded;
+    private CheckNode node;
+
+    LazyNode(LazyNode parent, int parameter, int valueIndex, int currentConstraintParameter,
+        int currentConstraint) {
+      this.parent = parent;
+      this.parameter = parameter;
+      this.valueIndex = valueIndex;
+      this.currentConstraintParameter = currentConstraintParameter;
+      this.currentConstraint = currentConstraint;
+    }
+
+    @Override
+    public boolean isSatisfiable(int[] combination) {
+      if (!expanded) {
+        expand();
+      }
+      // null represents true
+      return node == null || node.isSatisfiable(combination);
+    }
+
+    @Override
+    public boolean isSatisfiable(int[] combination, int lastAssignedPosition) {
+      if (!expanded) {
+        expand();
+      }
+      // null represents true
+      return node == null || node.isSatisfiable(combination, lastAssignedPosition);
+    }
+
+    @Override
+    public CheckNode resolve() {
+      if (!expanded) {
+        expand();
+      }
+      return node;
+    }
+
+    private synchronized void expand() {
+      if (!expanded) {
+        int parameterCount = context.getParameterCount();
+        Object[] combination = new Object[parameterCount];
+        int[] valueIndices = new int[parameterCount];
+        boolean[] coveredParameters = new boolean[parameterCount];
+        for (LazyNode link = this; link.parent != null; link = link.parent) {
+          valueIndices[link.parameter] = link.valueIndex;
+          coveredParameters[link.parameter] = true;
+          if (valuesNeeded[link.parameter]) {
+            combination[link.parameter] =
+                context.getParameter(link.parameter).getValueAt(link.valueIndex);
+          }
+        }
+        node = createNode(this, combination, valueIndices, currentConstraintParameter,
+            coveredParameters, currentConstraint);
+        expanded = true;
+      }
+    }
+  }
+
+}
@@ -32,6 +32,15 @@ public class LeaveNode implements CheckNode {
     this.isSatisviable = isSatisviable;
   }
 
+  /**
+   * Returns whether or not the paths to this leaf node are satisfiable.
+   * 
+   * @return The value of this leaf node.
+   */
+  boolean isSatisfiable() {
+    return isSatisviable;
+  }
+
   /**
    * {@inheritDoc}
    */
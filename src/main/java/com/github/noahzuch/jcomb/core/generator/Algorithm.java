@@ -29,11 +29,13 @@ public enum Algorithm {
   ANY,
   /**
    * The Orthogonal Array (OA) algorithm is the fastest one and creates the smallest test set
-   * possible. But it can only be used if the following criterias are met: Strength has to be 2.
-   * There are no defined constraints. Every Parameter has to have the same number of possible
-   * values. For a given value count v and its primefactorisation p_1^e_1*...*P_n^e_n the number of
-   * parameters has to be below min{p_i^e_i}+2. Only true primes and the primepowers 4, 8 and 9 are
-   * currently allowed in the factorisation.
+   * possible. If constraints are defined, the forbidden tests of the array are repaired and the
+   * tupels that are still uncovered are added afterwards. If every parameter has the same number of
+   * possible values v and there are more than t+1 parameters for a strength t, the number of
+   * parameters has to be below min{p_i^e_i}+2 for the primefactorisation p_1^e_1*...*P_n^e_n of v.
+   * Strengths greater than 2 use Bush's construction. If the parameters have different numbers of
+   * values, an orthogonal array for a bigger number of values is collapsed onto the parameters,
+   * which creates a small but not necessarily the smallest test set.
    */
   OA,
   /**
@@ -41,5 +43,12 @@ public enum Algorithm {
    * create the best test set possible. But it has none of the limitations of the OA algorithm an
    * can be executed with any inputs.
    */
-  IPOG
+  IPOG,
+  /**
+   * The Deterministic Density Algorithm (DDA) creates the test set one test at a time by choosing
+   * every value based on the density of the still uncovered tupels. Like IPOG it can be executed
+   * with any inputs and often creates smaller test sets for parameters with different numbers of
+   * values. The tests are calculated lazily while they are executed.
+   */
+  DDA
 }
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator;
+
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link TestGenerator} whose tests can be accessed directly via their index. No test has to be
+ * held in memory, and the returned streams are sized and can be split at any index. This allows
+ * parallel streams or a partitioning of the tests into shards.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public interface RandomAccessTestGenerator extends TestGenerator {
+
+  /**
+   * Returns the number of tests created by this generator.
+   * 
+   * @return The number of tests.
+   */
+  long size();
+
+  /**
+   * Returns the number of parameters in every test.
+   * 
+   * @return The number of parameters.
+   */
+  int getParameterCount();
+
+  /**
+   * Writes the test with the given index into the supplied array.
+   * 
+   * @param index The index of the test. Has to be between 0 (inclusive) and {@link #size()}
+   *        (exclusive).
+   * @param into The array to fill. Has to be at least of size {@link #getParameterCount()}.
+   * @throws IndexOutOfBoundsException if the index is not in the valid range.
+   */
+  void row(long index, int[] into);
+
+  /**
+   * Returns a sized {@link Spliterator} over all tests of this generator.
+   * 
+   * @return A new spliterator starting at the first test.
+   */
+  default Spliterator<int[]> spliterator() {
+    return new RowSpliterator(this, 0, size());
+  }
+
+  /**
+   * Returns a sized {@link Spliterator} over the tests between the two given indices.
+   * 
+   * @param fromIndex The index of the first test (inclusive).
+   * @param toIndex The index of the last test (exclusive).
+   * @return A new spliterator over the given range.
+   * @throws IndexOutOfBoundsException if the given range is not valid.
+   */
+  default Spliterator<int[]> spliterator(long fromIndex, long toIndex) {
+    if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+      throw new IndexOutOfBoundsException(
+          "Invalid range [" + fromIndex + ", " + toIndex + ") for size " + size());
+    }
+    return new RowSpliterator(this, fromIndex, toIndex);
+  }
+
+  @Override
+  default Stream<int[]> getAllInputCombinations() {
+    return StreamSupport.stream(spliterator(), false);
+  }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over a range of tests of a {@link RandomAccessTestGenerator}. The tests are
+ * computed when they are consumed and splitting divides the remaining range in half.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class RowSpliterator implements Spliterator<int[]> {
+
+  private final RandomAccessTestGenerator generator;
+  private long index;
+  private final long end;
+
+  /**
+   * Creates a new spliterator for the given range.
+   * 
+   * @param generator The generator to get the tests from.
+   * @param index The index of the first test (inclusive).
+   * @param end The index of the last test (exclusive).
+   */
+  RowSpliterator(RandomAccessTestGenerator generator, long index, long end) {
+    this.generator = generator;
+    this.index = index;
+    this.end = end;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super int[]> action) {
+    if (index < end) {
+      int[] test = new int[generator.getParameterCount()];
+      generator.row(index++, test);
+      action.accept(test);
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super int[]> action) {
+    int parameterCount = generator.getParameterCount();
+    for (; index < end; index++) {
+      int[] test = new int[parameterCount];
+      generator.row(index, test);
+      action.accept(test);
+    }
+  }
+
+  @Override
+  public Spliterator<int[]> trySplit() {
+    long middle = index + ((end - index) >>> 1);
+    if (middle <= index) {
+      return null;
+    }
+    RowSpliterator prefix = new RowSpliterator(generator, index, middle);
+    index = middle;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    return end - index;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+  }
+
+}
@@ -15,8 +15,6 @@
  */
 package com.github.noahzuch.jcomb.core.generator;
 
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 import com.github.noahzuch.jcomb.core.JCombContext;
 import com.github.noahzuch.jcomb.core.domain.Domain;
 
@@ -26,7 +24,7 @@ import com.github.noahzuch.jcomb.core.domain.Domain;
  * @author Noah Zuch
  *
  */
-public class SingleParameterInputGenerator implements TestGenerator {
+public class SingleParameterInputGenerator implements RandomAccessTestGenerator {
 
   Domain parameter;
 
@@ -47,8 +45,21 @@ public class SingleParameterInputGenerator implements TestGenerator {
   }
 
   @Override
-  public Stream<int[]> getAllInputCombinations() {
-    return IntStream.rangeClosed(0, parameter.getSize() - 1).mapToObj(i -> new int[] {i});
+  public long size() {
+    return parameter.getSize();
+  }
+
+  @Override
+  public int getParameterCount() {
+    return 1;
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= parameter.getSize()) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + parameter.getSize());
+    }
+    into[0] = (int) index;
   }
 
 }
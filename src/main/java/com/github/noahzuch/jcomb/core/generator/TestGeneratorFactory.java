@@ -15,12 +15,33 @@
  */
 package com.github.noahzuch.jcomb.core.generator;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.github.noahzuch.jcomb.core.InstanceInformation;
 import com.github.noahzuch.jcomb.core.JCombContext;
 import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.CachingConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
 import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.constraint.mdd.MddConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.solver.SolverConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.tree.CompiledConstraintTree;
 import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.constraint.tree.FlatConstraintTree;
+import com.github.noahzuch.jcomb.core.constraint.tree.LazyConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+import com.github.noahzuch.jcomb.core.generator.binary.BinaryTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.dda.DdaTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.hybrid.HybridTestGenerator;
 import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.library.CoveringArrayLibrary;
+import com.github.noahzuch.jcomb.core.generator.oa.ConstrainedOrthogonalArrayGenerator;
+import com.github.noahzuch.jcomb.core.generator.oa.MixedLevelOrthogonalArrayGenerator;
 import com.github.noahzuch.jcomb.core.generator.oa.OrthogonalArrayGenerator;
+import com.github.noahzuch.jcomb.core.generator.recursive.RecursiveTestGenerator;
 import com.google.common.base.Preconditions;
 
 /**
@@ -31,6 +52,49 @@ import com.google.common.base.Preconditions;
  */
 public class TestGeneratorFactory {
 
+  /**
+   * The factor by which a collapsed mixed level orthogonal array may exceed the lower bound of
+   * tests, so that it is used by {@link Algorithm#ANY} instead of IPOG.
+   */
+  private static final double MIXED_LEVEL_MAX_OVERHEAD = 1.2;
+
+  /**
+   * The maximum number of tupel checks that {@link Algorithm#ANY} spends on removing the redundant
+   * tests of a collapsed mixed level orthogonal array, if the array is too big without the removal.
+   * Bigger arrays rarely shrink enough to be used, so IPOG is used without trying.
+   */
+  private static final long MIXED_LEVEL_MAX_TUPEL_CHECKS = 1L << 22;
+
+  /**
+   * The minimum number of parameters for which {@link Algorithm#ANY} uses recursive constructions
+   * for strength 2 instead of IPOG.
+   */
+  private static final int RECURSIVE_MIN_PARAMETERS = 40;
+
+  /**
+   * The minimum share of parameters that an equal sized block has to contain, so that
+   * {@link Algorithm#ANY} seeds IPOG with a direct construction for this block.
+   */
+  private static final double HYBRID_MIN_BLOCK_SHARE = 0.5;
+
+  /**
+   * The maximum number of sub-diagrams built for a {@link MddConstraintHandler}. Constraints that
+   * interact too much for a diagram of this size are handled by a {@link SolverConstraintHandler}.
+   */
+  private static final int MDD_SIZE_LIMIT = 100000;
+
+  /**
+   * The maximum number of paths of a {@link ConstraintTree}, for which the whole tree is built and
+   * compiled into a {@link CompiledConstraintTree} instead of a {@link LazyConstraintTree}.
+   */
+  private static final long EAGER_TREE_SIZE_LIMIT = 1 << 16;
+
+  /**
+   * The minimum number of paths of a {@link ConstraintTree}, for which its branches are built
+   * concurrently, if all constraints are tabulated.
+   */
+  private static final long PARALLEL_TREE_SIZE = 1 << 12;
+
   private TestGeneratorFactory() {
 
   }
@@ -54,6 +118,8 @@ public class TestGeneratorFactory {
         return createOrthogonalArrayGenerator(context);
       case IPOG:
         return createIpogGenerator(context);
+      case DDA:
+        return createDdaGenerator(context);
       default:
         throw new IllegalArgumentException("Unrecognized algorithm type");
     }
@@ -65,6 +131,12 @@ public class TestGeneratorFactory {
     return new IpogTestGenerator(context.getStrength(), domainSizes, constraintHandler);
   }
 
+  private static TestGenerator createDdaGenerator(JCombContext context) {
+    int[] domainSizes = createDomainSizesFromContext(context);
+    ConstraintHandler constraintHandler = createConstraintHandlerFromContext(context);
+    return new DdaTestGenerator(context.getStrength(), domainSizes, constraintHandler);
+  }
+
   private static int[] createDomainSizesFromContext(JCombContext context) {
     int[] domainSizes = new int[context.getParameterCount()];
     for (int i = 0; i < domainSizes.length; i++) {
@@ -74,13 +146,67 @@ public class TestGeneratorFactory {
   }
 
   private static ConstraintHandler createConstraintHandlerFromContext(JCombContext context) {
+    if (context.getConstraints().isEmpty()) {
+      return ConstraintHandler.getDefaultConstraintHandler();
+    }
+    // compile the constraints only once, even if a handler has to be replaced by another one
+    context = new CompiledJCombContext(context);
     ConstraintHandler constraintHandler;
-    if (context.getConstraints().size() > 0) {
-      constraintHandler = new ConstraintTree(context);
+    if (constraintsShareParameters(context)) {
+      try {
+        constraintHandler = new MddConstraintHandler(context, MDD_SIZE_LIMIT);
+      } catch (IllegalArgumentException e) {
+        constraintHandler = new SolverConstraintHandler(context);
+      }
     } else {
-      constraintHandler = ConstraintHandler.getDefaultConstraintHandler();
+      long pathCount = getTreePathCount(context);
+      if (pathCount <= EAGER_TREE_SIZE_LIMIT) {
+        // tabulated constraints run no code of the user and can be checked concurrently
+        boolean parallel = pathCount >= PARALLEL_TREE_SIZE
+            && context.getConstraints().values().stream().allMatch(Constraints::isTabulated);
+        constraintHandler = new CompiledConstraintTree(
+            new FlatConstraintTree(new ConstraintTree(context, parallel)));
+      } else {
+        constraintHandler = new LazyConstraintTree(context);
+      }
     }
-    return constraintHandler;
+    return new CachingConstraintHandler(constraintHandler,
+        createDomainSizesFromContext(context));
+  }
+
+  /**
+   * Checks whether or not a parameter is involved in more than one constraint. The sub-trees of
+   * such constraints repeat in a ConstraintTree, while a {@link MddConstraintHandler} shares them.
+   */
+  private static boolean constraintsShareParameters(JCombContext context) {
+    boolean[] involved = new boolean[context.getParameterCount()];
+    for (Constraint constraint : context.getConstraints().values()) {
+      for (int parameter : Arrays.stream(constraint.getInvolvedParameters()).distinct()
+          .toArray()) {
+        if (involved[parameter]) {
+          return true;
+        }
+        involved[parameter] = true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of value combinations of all constrained parameters, capped at
+   * {@link #EAGER_TREE_SIZE_LIMIT} + 1. For constraints without shared parameters, this is the
+   * maximum number of paths of a ConstraintTree.
+   */
+  private static long getTreePathCount(JCombContext context) {
+    long pathCount = 1;
+    for (Constraint constraint : context.getConstraints().values()) {
+      for (int parameter : Arrays.stream(constraint.getInvolvedParameters()).distinct()
+          .toArray()) {
+        pathCount = Math.min(pathCount * context.getParameter(parameter).getSize(),
+            EAGER_TREE_SIZE_LIMIT + 1);
+      }
+    }
+    return pathCount;
   }
 
   // private void sortForHighestDomainSize(int[] parameterSorting, int[] domainSizes) {
@@ -104,25 +230,41 @@ public class TestGeneratorFactory {
   // }
 
   private static TestGenerator createOrthogonalArrayGenerator(JCombContext context) {
-    int valueCount = context.getParameter(0).getSize();
-    for (int k = 1; k < context.getParameterCount(); k++) {
-      int tempValueCount = context.getParameter(k).getSize();
-      if (tempValueCount != valueCount) {
-        throw new JCombException(
-            "Algorithm Orhtogonal Array needs all parameters to have the same number of possible va"
-            + "lues.");
+    RandomAccessTestGenerator orthogonalArray =
+        createUnconstrainedOrthogonalArray(context, Long.MAX_VALUE);
+    if (context.getConstraints().isEmpty()) {
+      return orthogonalArray;
+    }
+    return new ConstrainedOrthogonalArrayGenerator(context.getStrength(),
+        createDomainSizesFromContext(context), orthogonalArray,
+        createConstraintHandlerFromContext(context));
+  }
+
+  /**
+   * Creates the orthogonal array for the parameters of the context. A collapsed mixed level
+   * orthogonal array is only created, if it does not contain more than maxSize tests. Its redundant
+   * tests are only removed, if the array is small enough without them or if the removal does not
+   * exceed {@link #MIXED_LEVEL_MAX_TUPEL_CHECKS}.
+   */
+  private static RandomAccessTestGenerator createUnconstrainedOrthogonalArray(
+      JCombContext context, long maxSize) {
+    int[] domainSizes = createDomainSizesFromContext(context);
+    try {
+      if (isEqualSizedModel(domainSizes)) {
+        return new OrthogonalArrayGenerator(context.getStrength(), context.getParameterCount(),
+            domainSizes[0]);
       }
-      if (context.getStrength() > 2) {
-        throw new JCombException(
-            "Algorithm Orthogonal Array can not be used with a strength greater than 2.");
+      if (MixedLevelOrthogonalArrayGenerator.getOrthogonalArraySize(context.getStrength(),
+          domainSizes) <= maxSize) {
+        return new MixedLevelOrthogonalArrayGenerator(context.getStrength(), domainSizes);
       }
-      if (!context.getConstraints().isEmpty()) {
-        throw new JCombException(
-            "Algorithm Orthogonal Array can not be used with constraints. Use IPOG instead.");
+      if (MixedLevelOrthogonalArrayGenerator.getTupelCheckCount(context.getStrength(),
+          domainSizes) > MIXED_LEVEL_MAX_TUPEL_CHECKS) {
+        throw new JCombException("The removal of redundant tests of the collapsed orthogonal "
+            + "array is too expensive.");
       }
-    }
-    try {
-      return new OrthogonalArrayGenerator(context.getParameterCount(), valueCount);
+      // the removal of redundant tests is aborted as soon as it can no longer reach maxSize
+      return new MixedLevelOrthogonalArrayGenerator(context.getStrength(), domainSizes, maxSize);
     } catch (IllegalArgumentException e) {
       throw new JCombException(e);
     }
@@ -131,16 +273,138 @@ public class TestGeneratorFactory {
   private static TestGenerator createAnyGenerator(JCombContext context) {
     if (context.getParameterCount() == 1) {
       return new SingleParameterInputGenerator(context);
-    } else if (context.getConstraints().size() > 0 || context.getStrength() > 2) {
+    }
+    boolean constrained = !context.getConstraints().isEmpty();
+    if (!constrained) {
+      TestGenerator libraryGenerator = CoveringArrayLibrary.getInstance()
+          .find(context.getStrength(), createDomainSizesFromContext(context));
+      if (libraryGenerator != null) {
+        return libraryGenerator;
+      } else if (isBinaryModel(context)
+          && BinaryTestGenerator.isSupported(context.getStrength(), context.getParameterCount())) {
+        return new BinaryTestGenerator(context.getStrength(), context.getParameterCount());
+      }
+    }
+    try {
+      long maxSize = (long) (MIXED_LEVEL_MAX_OVERHEAD
+          * getLowerBound(context.getStrength(), createDomainSizesFromContext(context)));
+      RandomAccessTestGenerator orthogonalArray =
+          createUnconstrainedOrthogonalArray(context, maxSize);
+      if (constrained) {
+        return new ConstrainedOrthogonalArrayGenerator(context.getStrength(),
+            createDomainSizesFromContext(context), orthogonalArray,
+            createConstraintHandlerFromContext(context));
+      }
+      return orthogonalArray;
+    } catch (JCombException e) {
+      // fallback
+      return createFallbackGenerator(context);
+    }
+  }
+
+  /**
+   * Creates the generator for models, for which no orthogonal array can be used.
+   */
+  private static TestGenerator createFallbackGenerator(JCombContext context) {
+    if (!context.getConstraints().isEmpty()) {
       return createIpogGenerator(context);
-    } else {
-      try {
-        return createOrthogonalArrayGenerator(context);
-      } catch (JCombException e) {
-        // fallback
-        return createIpogGenerator(context);
+    }
+    if (context.getStrength() <= 2 && context.getParameterCount() >= RECURSIVE_MIN_PARAMETERS) {
+      return new RecursiveTestGenerator(createDomainSizesFromContext(context));
+    }
+    try {
+      HybridTestGenerator generator =
+          new HybridTestGenerator(context.getStrength(), createDomainSizesFromContext(context));
+      if (generator.getSeedParameterCount() >= HYBRID_MIN_BLOCK_SHARE
+          * context.getParameterCount()) {
+        return generator;
+      }
+    } catch (IllegalArgumentException e) {
+      // no equal sized block
+    }
+    return createIpogGenerator(context);
+  }
+
+  /**
+   * Returns the product of the strength many biggest domain sizes. No covering array can contain
+   * less tests.
+   */
+  private static long getLowerBound(int strength, int[] domainSizes) {
+    int[] sortedDomainSizes = domainSizes.clone();
+    Arrays.sort(sortedDomainSizes);
+    long lowerBound = 1;
+    for (int i = 0; i < strength; i++) {
+      lowerBound *= sortedDomainSizes[sortedDomainSizes.length - 1 - i];
+    }
+    return lowerBound;
+  }
+
+  private static boolean isEqualSizedModel(int[] domainSizes) {
+    for (int domainSize : domainSizes) {
+      if (domainSize != domainSizes[0]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isBinaryModel(JCombContext context) {
+    for (int i = 0; i < context.getParameterCount(); i++) {
+      if (context.getParameter(i).getSize() != 2) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A view of a context, whose constraints were compiled with
+   * {@link Constraints#compile(JCombContext)}. Compiling them again returns the same constraints.
+   */
+  private static class CompiledJCombContext implements JCombContext {
+
+    private final JCombContext context;
+    private final Map<Integer, Constraint> constraints;
+
+    CompiledJCombContext(JCombContext context) {
+      this.context = context;
+      List<Constraint> compiled = Constraints.compile(context);
+      constraints = new LinkedHashMap<>();
+      int i = 0;
+      for (Integer id : context.getConstraints().keySet()) {
+        constraints.put(id, compiled.get(i++));
       }
     }
+
+    @Override
+    public void initializeForInstance(InstanceInformation instanceInformation) {
+      context.initializeForInstance(instanceInformation);
+    }
+
+    @Override
+    public Map<Integer, Constraint> getConstraints() {
+      return constraints;
+    }
+
+    @Override
+    public Domain getParameter(int index) {
+      return context.getParameter(index);
+    }
+
+    @Override
+    public int getParameterCount() {
+      return context.getParameterCount();
+    }
+
+    @Override
+    public int getStrength() {
+      return context.getStrength();
+    }
+
+    @Override
+    public Algorithm getAlgorithm() {
+      return context.getAlgorithm();
+    }
   }
 
 }
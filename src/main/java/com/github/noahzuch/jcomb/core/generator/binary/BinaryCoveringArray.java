@@ -0,0 +1,209 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.binary;
+
+import java.util.Arrays;
+
+/**
+ * An array of binary values that is saved column by column. Every column is a bitset, in which
+ * each long word holds 64 rows. The rows covering a tupel of a set of columns can therefore be
+ * computed via bitwise AND/ANDN operations of the corresponding column words.
+ *
+ * @author Noah Zuch
+ *
+ */
+class BinaryCoveringArray {
+
+  private long[][] columns;
+  private int rowCount;
+
+  /**
+   * Creates a new array with the given number of columns and rows. Every value is initialized with
+   * zero.
+   *
+   * @param columnCount The number of columns.
+   * @param rowCount The number of rows.
+   */
+  BinaryCoveringArray(int columnCount, int rowCount) {
+    this.rowCount = rowCount;
+    columns = new long[columnCount][wordCount(rowCount)];
+  }
+
+  /**
+   * Returns the number of rows in this array.
+   *
+   * @return The number of rows.
+   */
+  int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the number of columns in this array.
+   *
+   * @return The number of columns.
+   */
+  int getColumnCount() {
+    return columns.length;
+  }
+
+  /**
+   * Returns the number of long words that are used per column.
+   *
+   * @return The number of long words per column.
+   */
+  int getWordCount() {
+    return wordCount(rowCount);
+  }
+
+  /**
+   * Returns the words of the given column. Bits of rows greater or equal than
+   * {@link #getRowCount()} are always zero. The returned array must not be modified.
+   *
+   * @param column The column index.
+   * @return The words of the column.
+   */
+  long[] getColumn(int column) {
+    return columns[column];
+  }
+
+  /**
+   * Returns the value of a single cell.
+   *
+   * @param row The row of the cell.
+   * @param column The column of the cell.
+   * @return True if the cell is set to one, false otherwise.
+   */
+  boolean get(int row, int column) {
+    return (columns[column][row >>> 6] & (1L << row)) != 0;
+  }
+
+  /**
+   * Sets the value of a single cell.
+   *
+   * @param row The row of the cell.
+   * @param column The column of the cell.
+   * @param value The new value of the cell.
+   */
+  void set(int row, int column, boolean value) {
+    if (value) {
+      columns[column][row >>> 6] |= 1L << row;
+    } else {
+      columns[column][row >>> 6] &= ~(1L << row);
+    }
+  }
+
+  /**
+   * Appends the given number of rows, filled with zeros, to this array.
+   *
+   * @param count The number of rows to add.
+   */
+  void addRows(int count) {
+    int newWordCount = wordCount(rowCount + count);
+    if (newWordCount > columns[0].length) {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = Arrays.copyOf(columns[i], Math.max(newWordCount, columns[i].length * 2));
+      }
+    }
+    rowCount += count;
+  }
+
+  /**
+   * Returns a copy of this array that only contains the first columns. Removing columns of a
+   * covering array results in a covering array of the same strength.
+   *
+   * @param columnCount The number of columns to keep.
+   * @return A new array with the given number of columns.
+   */
+  BinaryCoveringArray truncate(int columnCount) {
+    BinaryCoveringArray array = new BinaryCoveringArray(columnCount, rowCount);
+    for (int column = 0; column < columnCount; column++) {
+      array.columns[column] = Arrays.copyOf(columns[column], columns[column].length);
+    }
+    return array;
+  }
+
+  /**
+   * Returns a mask with a bit set for every row of the given word.
+   *
+   * @param word The index of the word.
+   * @return A mask of all existing rows in the given word.
+   */
+  long getRowMask(int word) {
+    int remainingRows = rowCount - (word << 6);
+    return remainingRows >= 64 ? -1L : (1L << remainingRows) - 1;
+  }
+
+  /**
+   * Checks whether this array covers every binary tupel of the given strength.
+   *
+   * @param strength The strength to check.
+   * @return True if every t-way tupel is covered, false otherwise.
+   */
+  boolean isCoveringArray(int strength) {
+    if (strength > columns.length) {
+      return false;
+    }
+    int wordCount = getWordCount();
+    long[][] masks = new long[strength + 1][];
+    masks[0] = new long[wordCount];
+    for (int word = 0; word < wordCount; word++) {
+      masks[0][word] = getRowMask(word);
+    }
+    for (int depth = 1; depth <= strength; depth++) {
+      masks[depth] = new long[(1 << depth) * wordCount];
+    }
+    return checkCoverage(masks, 1, 0, strength, wordCount);
+  }
+
+  private boolean checkCoverage(long[][] masks, int depth, int firstColumn, int strength,
+      int wordCount) {
+    int patternCount = 1 << (depth - 1);
+    for (int column = firstColumn; column <= columns.length - strength + depth - 1; column++) {
+      long[] words = columns[column];
+      long[] parent = masks[depth - 1];
+      long[] current = masks[depth];
+      for (int pattern = 0; pattern < patternCount; pattern++) {
+        boolean zeroCovered = false;
+        boolean oneCovered = false;
+        int parentOffset = pattern * wordCount;
+        int zeroOffset = (pattern << 1) * wordCount;
+        int oneOffset = zeroOffset + wordCount;
+        for (int word = 0; word < wordCount; word++) {
+          long zeros = parent[parentOffset + word] & ~words[word];
+          long ones = parent[parentOffset + word] & words[word];
+          current[zeroOffset + word] = zeros;
+          current[oneOffset + word] = ones;
+          zeroCovered |= zeros != 0;
+          oneCovered |= ones != 0;
+        }
+        if (!zeroCovered || !oneCovered) {
+          return false;
+        }
+      }
+      if (depth < strength
+          && !checkCoverage(masks, depth + 1, column + 1, strength, wordCount)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int wordCount(int rowCount) {
+    return Math.max(1, (rowCount + 63) >>> 6);
+  }
+
+}
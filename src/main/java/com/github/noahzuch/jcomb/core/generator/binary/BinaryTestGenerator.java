@@ -0,0 +1,108 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.binary;
+
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+
+/**
+ * A {@link TestGenerator} for models in which every parameter has exactly two values. The covering
+ * array is held as one bitset per parameter, so that the coverage of tupels can be evaluated with
+ * bitwise operations on 64 tests at once. Known constructions are used where they apply:
+ * <ul>
+ * <li>Strength 2: The optimal construction of Kleitman and Spencer.</li>
+ * <li>Strength 3: Roux's doubling construction for wide models.</li>
+ * <li>Otherwise a greedy column by column construction, which is limited to models with at most
+ * 2^20 tupels per parameter. See {@link #isSupported(int, int)}.</li>
+ * </ul>
+ * Constraints are not supported.
+ *
+ * @author Noah Zuch
+ *
+ */
+public class BinaryTestGenerator implements RandomAccessTestGenerator {
+
+  private int strength;
+  private int parameterCount;
+  private BinaryCoveringArray coveringArray;
+
+  /**
+   * Creates a new generator for the given number of binary parameters.
+   *
+   * @param strength The strength of the desired covering array.
+   * @param parameterCount The number of parameters.
+   * @throws IllegalArgumentException If the strength is smaller than one or greater than the
+   *         parameter count, or if the model is not supported.
+   */
+  public BinaryTestGenerator(int strength, int parameterCount) {
+    if (strength < 1) {
+      throw new IllegalArgumentException("The strength has to be at least one.");
+    }
+    if (strength > parameterCount) {
+      throw new IllegalArgumentException(
+          "The strength can not be greater than the number of parameters.");
+    }
+    if (!isSupported(strength, parameterCount)) {
+      throw new IllegalArgumentException("A binary covering array of strength " + strength
+          + " for " + parameterCount + " parameters is too large to be created greedily.");
+    }
+    this.strength = strength;
+    this.parameterCount = parameterCount;
+  }
+
+  /**
+   * Checks whether or not a covering array of the given strength can be created for the given
+   * number of binary parameters. Arrays of strength 1 to 3 are always supported. A higher strength
+   * needs the greedy construction, whose time and memory grow with the number of tupels per
+   * parameter.
+   *
+   * @param strength The strength of the desired covering array.
+   * @param parameterCount The number of parameters.
+   * @return true if the generator supports the model, false otherwise.
+   */
+  public static boolean isSupported(int strength, int parameterCount) {
+    return Constructions.isSupported(strength, parameterCount);
+  }
+
+  @Override
+  public long size() {
+    return getCoveringArray().getRowCount();
+  }
+
+  @Override
+  public int getParameterCount() {
+    return parameterCount;
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    BinaryCoveringArray array = getCoveringArray();
+    if (index < 0 || index >= array.getRowCount()) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + array.getRowCount());
+    }
+    for (int column = 0; column < parameterCount; column++) {
+      into[column] = array.get((int) index, column) ? 1 : 0;
+    }
+  }
+
+  BinaryCoveringArray getCoveringArray() {
+    if (coveringArray == null) {
+      coveringArray = Constructions.create(strength, parameterCount);
+    }
+    return coveringArray;
+  }
+
+}
@@ -0,0 +1,460 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.binary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A utility class containing constructions for binary covering arrays.
+ *
+ * @author Noah Zuch
+ *
+ */
+final class Constructions {
+
+  /**
+   * Up to this number of parameters a strength 3 array is generated greedily. Wider arrays are
+   * created recursively via {@link #doubleStrength3(BinaryCoveringArray, BinaryCoveringArray)}.
+   */
+  static final int MAX_GREEDY_STRENGTH_3_COLUMNS = 32;
+
+  /**
+   * The maximum number of tupels, that end in the last column of a greedily created array. The
+   * bitsets of the horizontal extension and the tupel masks of the vertical extension grow with
+   * this number, so wider arrays take too much time and memory.
+   */
+  static final long MAX_GREEDY_TUPELS = 1 << 20;
+
+  private Constructions() {
+
+  }
+
+  /**
+   * Checks whether or not {@link #create(int, int)} supports the given strength and number of
+   * parameters. Arrays of strength 1 to 3 are always supported. For a higher strength, the array is
+   * created greedily, which is limited to {@link #MAX_GREEDY_TUPELS} tupels per column.
+   *
+   * @param strength The strength of the covering array.
+   * @param columnCount The number of parameters.
+   * @return true if the array can be created, false otherwise.
+   */
+  static boolean isSupported(int strength, int columnCount) {
+    return columnCount <= strength || strength <= 3
+        || isGreedySupported(strength, columnCount);
+  }
+
+  /**
+   * Checks whether or not the last column of a greedily created array has at most
+   * {@link #MAX_GREEDY_TUPELS} tupels.
+   */
+  private static boolean isGreedySupported(int strength, int columnCount) {
+    if (1L << strength > MAX_GREEDY_TUPELS) {
+      return false;
+    }
+    // binom(columnCount - 1, strength - 1), stopped as soon as it exceeds the limit
+    long parameterCombinationCount = 1;
+    for (int i = 0; i < strength - 1; i++) {
+      parameterCombinationCount = parameterCombinationCount * (columnCount - 1 - i) / (i + 1);
+      if (parameterCombinationCount > MAX_GREEDY_TUPELS) {
+        return false;
+      }
+    }
+    return parameterCombinationCount << strength <= MAX_GREEDY_TUPELS;
+  }
+
+  /**
+   * Creates a binary covering array of the given strength for the given number of parameters.
+   *
+   * @param strength The strength of the covering array.
+   * @param columnCount The number of parameters.
+   * @return A covering array with the given strength.
+   * @throws IllegalArgumentException if the array is not supported, see
+   *         {@link #isSupported(int, int)}.
+   */
+  static BinaryCoveringArray create(int strength, int columnCount) {
+    if (columnCount <= strength) {
+      return fullFactorial(columnCount);
+    } else if (strength == 1) {
+      BinaryCoveringArray array = new BinaryCoveringArray(columnCount, 2);
+      for (int column = 0; column < columnCount; column++) {
+        array.set(1, column, true);
+      }
+      return array;
+    } else if (strength == 2) {
+      return kleitmanSpencer(columnCount);
+    } else if (strength == 3 && columnCount > MAX_GREEDY_STRENGTH_3_COLUMNS) {
+      int halfColumnCount = (columnCount + 1) / 2;
+      return doubleStrength3(create(3, halfColumnCount), kleitmanSpencer(halfColumnCount))
+          .truncate(columnCount);
+    } else {
+      return greedy(strength, columnCount, new Random(strength * 31L + columnCount));
+    }
+  }
+
+  /**
+   * Creates an array containing every possible row for the given number of columns.
+   *
+   * @param columnCount The number of columns.
+   * @return An array with 2^columnCount rows.
+   */
+  static BinaryCoveringArray fullFactorial(int columnCount) {
+    int rowCount = 1 << columnCount;
+    BinaryCoveringArray array = new BinaryCoveringArray(columnCount, rowCount);
+    for (int row = 0; row < rowCount; row++) {
+      for (int column = 0; column < columnCount; column++) {
+        array.set(row, column, ((row >>> (columnCount - column - 1)) & 1) == 1);
+      }
+    }
+    return array;
+  }
+
+  /**
+   * Creates an optimal binary covering array of strength 2 via the construction of Kleitman,
+   * Spencer and Katona. The first row only contains zeros and every column of the remaining N-1
+   * rows is a distinct vector with exactly ceil(N/2) ones. Two such columns always contain all four
+   * combinations of values. N is chosen minimal so that binom(N-1, ceil(N/2)) is at least the
+   * number of columns.
+   *
+   * @param columnCount The number of columns. Has to be at least 2.
+   * @return A covering array of strength 2 with a minimal number of rows.
+   */
+  static BinaryCoveringArray kleitmanSpencer(int columnCount) {
+    int rowCount = 4;
+    while (binomCoeff(rowCount - 1, (rowCount + 1) / 2) < columnCount) {
+      rowCount++;
+    }
+    int weight = (rowCount + 1) / 2;
+    BinaryCoveringArray array = new BinaryCoveringArray(columnCount, rowCount);
+    long vector = (1L << weight) - 1;
+    for (int column = 0; column < columnCount; column++) {
+      for (int bit = 0; bit < rowCount - 1; bit++) {
+        if (((vector >>> bit) & 1) == 1) {
+          array.set(bit + 1, column, true);
+        }
+      }
+      // Gosper's hack: next vector with the same number of ones
+      long lowestBit = vector & -vector;
+      long ripple = vector + lowestBit;
+      vector = (((ripple ^ vector) >>> 2) / lowestBit) | ripple;
+    }
+    return array;
+  }
+
+  /**
+   * Doubles the number of columns of a strength 3 covering array. For a strength 3 array A and a
+   * strength 2 array B with the same number of columns the resulting array is
+   *
+   * <pre>
+   * A  A
+   * B ~B
+   * </pre>
+   *
+   * where ~B is the complement of B. This construction is due to Roux.
+   *
+   * @param strength3 A covering array of strength 3.
+   * @param strength2 A covering array of strength 2 with the same number of columns.
+   * @return A covering array of strength 3 with twice the number of columns.
+   */
+  static BinaryCoveringArray doubleStrength3(BinaryCoveringArray strength3,
+      BinaryCoveringArray strength2) {
+    int columnCount = strength3.getColumnCount();
+    int upperRowCount = strength3.getRowCount();
+    BinaryCoveringArray array =
+        new BinaryCoveringArray(2 * columnCount, upperRowCount + strength2.getRowCount());
+    for (int column = 0; column < columnCount; column++) {
+      for (int row = 0; row < upperRowCount; row++) {
+        boolean value = strength3.get(row, column);
+        array.set(row, column, value);
+        array.set(row, column + columnCount, value);
+      }
+      for (int row = 0; row < strength2.getRowCount(); row++) {
+        boolean value = strength2.get(row, column);
+        array.set(upperRowCount + row, column, value);
+        array.set(upperRowCount + row, column + columnCount, !value);
+      }
+    }
+    return array;
+  }
+
+  /**
+   * Creates a covering array of the given strength greedily in the manner of IPOG. The array is
+   * extended one column at a time. Every existing row gets the value for the new column that covers
+   * the most new tupels. Tupels that are still uncovered afterwards are found via bitwise operations
+   * on the columns and are covered by new rows.
+   *
+   * @param strength The strength of the covering array.
+   * @param columnCount The number of columns.
+   * @param random The source of randomness for cells of new rows that are not needed for any tupel.
+   * @return A covering array of the given strength.
+   * @throws IllegalArgumentException if the last column has more than {@link #MAX_GREEDY_TUPELS}
+   *         tupels.
+   */
+  static BinaryCoveringArray greedy(int strength, int columnCount, Random random) {
+    if (!isGreedySupported(strength, columnCount)) {
+      throw new IllegalArgumentException("A binary covering array of strength " + strength
+          + " for " + columnCount + " parameters is too large to be created greedily.");
+    }
+    BinaryCoveringArray initial = fullFactorial(strength);
+    BinaryCoveringArray array = new BinaryCoveringArray(columnCount, initial.getRowCount());
+    for (int row = 0; row < initial.getRowCount(); row++) {
+      for (int column = 0; column < strength; column++) {
+        array.set(row, column, initial.get(row, column));
+      }
+    }
+    for (int column = strength; column < columnCount; column++) {
+      horizontalExtension(array, strength, column);
+      verticalExtension(array, strength, column, random);
+    }
+    return array;
+  }
+
+  /**
+   * Chooses for every existing row the value of the new column, that covers the most new tupels. A
+   * tupel consists of strength - 1 earlier columns, their values and the value of the new column.
+   * Its earlier columns are split into a prefix and a last column. For every prefix, value pattern
+   * of the prefix and value of the new column, the covered last columns are stored in two bitsets,
+   * one for each value of the last column. With the earlier columns of a row packed into long
+   * words, the new tupels of all last columns of a prefix are counted with
+   * {@link Long#bitCount(long)}. The prefixes are enumerated one after another and never stored.
+   */
+  private static void horizontalExtension(BinaryCoveringArray array, int strength, int column) {
+    int prefixSize = strength - 2;
+    int wordCount = (column + 63) >>> 6;
+    // the last column of a tupel follows its prefix
+    long bitsetCount = binomCoeff(column - 1, prefixSize) << (prefixSize + 2);
+    long[] covered = new long[Math.toIntExact(Math.multiplyExact(bitsetCount, wordCount))];
+    long[] row = new long[wordCount];
+    for (int rowIndex = 0; rowIndex < array.getRowCount(); rowIndex++) {
+      Arrays.fill(row, 0);
+      for (int j = 0; j < column; j++) {
+        if (array.get(rowIndex, j)) {
+          row[j >>> 6] |= 1L << j;
+        }
+      }
+      long[] gains = new long[2];
+      forEachPrefix(row, prefixSize, column, (prefixIndex, pattern, firstLastColumn) -> {
+        int offset = ((prefixIndex << prefixSize | pattern) << 2) * wordCount;
+        for (int word = firstLastColumn >>> 6; word < wordCount; word++) {
+          long range = getRangeMask(word, firstLastColumn, column);
+          for (int value = 0; value < 2; value++) {
+            long zeroCovered = covered[offset + (value << 1) * wordCount + word];
+            long oneCovered = covered[offset + ((value << 1) + 1) * wordCount + word];
+            // the covered last columns for the values they have in this row
+            long rowCovered = zeroCovered ^ ((zeroCovered ^ oneCovered) & row[word]);
+            gains[value] += Long.bitCount(range & ~rowCovered);
+          }
+        }
+      });
+      int value = gains[1] > gains[0] || (gains[1] == gains[0] && (rowIndex & 1) == 1) ? 1 : 0;
+      array.set(rowIndex, column, value == 1);
+      forEachPrefix(row, prefixSize, column, (prefixIndex, pattern, firstLastColumn) -> {
+        int offset = (((prefixIndex << prefixSize | pattern) << 2) + (value << 1)) * wordCount;
+        for (int word = firstLastColumn >>> 6; word < wordCount; word++) {
+          long range = getRangeMask(word, firstLastColumn, column);
+          covered[offset + word] |= range & ~row[word];
+          covered[offset + wordCount + word] |= range & row[word];
+        }
+      });
+    }
+  }
+
+  /**
+   * Iterates over every combination of the given size of the columns smaller than columnLimit - 1,
+   * in lexicographic order. For each of them the consumer is called with its index in this order,
+   * its value pattern in the given packed row and the first column after it.
+   */
+  private static void forEachPrefix(long[] row, int size, int columnLimit,
+      PrefixConsumer consumer) {
+    forEachPrefix(row, size, columnLimit, 0, 0, new int[1], consumer);
+  }
+
+  private static void forEachPrefix(long[] row, int remaining, int columnLimit, int firstColumn,
+      int pattern, int[] prefixIndex, PrefixConsumer consumer) {
+    if (remaining == 0) {
+      consumer.accept(prefixIndex[0]++, pattern, firstColumn);
+      return;
+    }
+    // leave room for the remaining columns of the prefix and the last column
+    for (int column = firstColumn; column < columnLimit - remaining; column++) {
+      int value = (int) (row[column >>> 6] >>> column) & 1;
+      forEachPrefix(row, remaining - 1, columnLimit, column + 1, (pattern << 1) | value,
+          prefixIndex, consumer);
+    }
+  }
+
+  /**
+   * Returns the bits of the given word of a packed row, that belong to the columns from from
+   * (inclusive) to to (exclusive).
+   */
+  private static long getRangeMask(int word, int from, int to) {
+    long mask = -1L;
+    if (word == from >>> 6) {
+      mask &= -1L << from;
+    }
+    if (word == (to - 1) >>> 6) {
+      mask &= -1L >>> (63 - ((to - 1) & 63));
+    }
+    return mask;
+  }
+
+  private static void verticalExtension(BinaryCoveringArray array, int strength, int column,
+      Random random) {
+    long[] columnWords = array.getColumn(column);
+    List<int[]> newRows = new ArrayList<>();
+    forEachTupelMask(array, strength - 1, column, (mask, parameters, pattern) -> {
+      boolean zeroCovered = false;
+      boolean oneCovered = false;
+      for (int word = 0; word < mask.length; word++) {
+        zeroCovered |= (mask[word] & ~columnWords[word]) != 0;
+        oneCovered |= (mask[word] & columnWords[word]) != 0;
+      }
+      if (!zeroCovered) {
+        coverTupel(newRows, parameters, pattern, column, 0, array.getColumnCount());
+      }
+      if (!oneCovered) {
+        coverTupel(newRows, parameters, pattern, column, 1, array.getColumnCount());
+      }
+    });
+    int firstNewRow = array.getRowCount();
+    array.addRows(newRows.size());
+    for (int i = 0; i < newRows.size(); i++) {
+      int[] row = newRows.get(i);
+      for (int j = 0; j < row.length; j++) {
+        boolean value = row[j] == -1 ? random.nextBoolean() : row[j] == 1;
+        array.set(firstNewRow + i, j, value);
+      }
+    }
+  }
+
+  private static void coverTupel(List<int[]> newRows, int[] parameters, int pattern, int column,
+      int value, int columnCount) {
+    for (int[] row : newRows) {
+      if (canCover(row, parameters, pattern, column, value)) {
+        setTupel(row, parameters, pattern, column, value);
+        return;
+      }
+    }
+    int[] row = new int[columnCount];
+    Arrays.fill(row, -1);
+    setTupel(row, parameters, pattern, column, value);
+    newRows.add(row);
+  }
+
+  private static boolean canCover(int[] row, int[] parameters, int pattern, int column,
+      int value) {
+    if (row[column] != -1 && row[column] != value) {
+      return false;
+    }
+    for (int i = 0; i < parameters.length; i++) {
+      int patternValue = (pattern >>> (parameters.length - i - 1)) & 1;
+      if (row[parameters[i]] != -1 && row[parameters[i]] != patternValue) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void setTupel(int[] row, int[] parameters, int pattern, int column, int value) {
+    row[column] = value;
+    for (int i = 0; i < parameters.length; i++) {
+      row[parameters[i]] = (pattern >>> (parameters.length - i - 1)) & 1;
+    }
+  }
+
+  /**
+   * Iterates over every combination of the given size of the columns smaller than
+   * columnLimit and every value pattern of such a combination. For each of them the consumer is
+   * called with the mask of rows that contain the pattern in the combination. The arrays supplied
+   * to the consumer are reused and must not be kept.
+   */
+  private static void forEachTupelMask(BinaryCoveringArray array, int size, int columnLimit,
+      TupelMaskConsumer consumer) {
+    int wordCount = array.getWordCount();
+    long[][] masks = new long[size + 1][];
+    masks[0] = new long[wordCount];
+    for (int word = 0; word < wordCount; word++) {
+      masks[0][word] = array.getRowMask(word);
+    }
+    for (int depth = 1; depth <= size; depth++) {
+      masks[depth] = new long[(1 << depth) * wordCount];
+    }
+    if (size == 0) {
+      consumer.accept(masks[0], new int[0], 0);
+    } else {
+      forEachTupelMask(array, masks, new int[size], new long[wordCount], 1, 0, columnLimit,
+          consumer);
+    }
+  }
+
+  private static void forEachTupelMask(BinaryCoveringArray array, long[][] masks,
+      int[] parameters, long[] patternMask, int depth, int firstColumn, int columnLimit,
+      TupelMaskConsumer consumer) {
+    int size = parameters.length;
+    int wordCount = patternMask.length;
+    int patternCount = 1 << (depth - 1);
+    for (int column = firstColumn; column <= columnLimit - size + depth - 1; column++) {
+      parameters[depth - 1] = column;
+      long[] words = array.getColumn(column);
+      long[] parent = masks[depth - 1];
+      long[] current = masks[depth];
+      for (int pattern = 0; pattern < patternCount; pattern++) {
+        int parentOffset = pattern * wordCount;
+        int zeroOffset = (pattern << 1) * wordCount;
+        int oneOffset = zeroOffset + wordCount;
+        for (int word = 0; word < wordCount; word++) {
+          current[zeroOffset + word] = parent[parentOffset + word] & ~words[word];
+          current[oneOffset + word] = parent[parentOffset + word] & words[word];
+        }
+      }
+      if (depth < size) {
+        forEachTupelMask(array, masks, parameters, patternMask, depth + 1, column + 1,
+            columnLimit, consumer);
+      } else {
+        for (int pattern = 0; pattern < 2 * patternCount; pattern++) {
+          System.arraycopy(current, pattern * wordCount, patternMask, 0, wordCount);
+          consumer.accept(patternMask, parameters, pattern);
+        }
+      }
+    }
+  }
+
+  private static long binomCoeff(int n, int k) {
+    if (k < 0 || k > n) {
+      return 0;
+    }
+    long result = 1;
+    for (int i = 0; i < k; i++) {
+      result = result * (n - i) / (i + 1);
+    }
+    return result;
+  }
+
+  @FunctionalInterface
+  private interface TupelMaskConsumer {
+
+    void accept(long[] mask, int[] parameters, int pattern);
+  }
+
+  @FunctionalInterface
+  private interface PrefixConsumer {
+
+    void accept(int prefixIndex, int pattern, int firstLastColumn);
+  }
+
+}
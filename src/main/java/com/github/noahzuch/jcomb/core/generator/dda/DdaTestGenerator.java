@@ -0,0 +1,273 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.dda;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.CoverageMap;
+import com.github.noahzuch.jcomb.core.generator.ipog.Tools;
+
+/**
+ * A TestGenerator implementation that uses the deterministic density algorithm (DDA). The covering
+ * array is built one test at a time: Every test is started with an uncovered tupel and its
+ * remaining parameters are then fixed one after another. Each parameter gets the value, which
+ * maximizes the density of the test, i.e. the expected number of newly covered tupels if all
+ * parameters that are still free would be chosen at random.
+ * <p>
+ * The parameters of a test are fixed in the order of their density at the start of the test. Ties
+ * between values are broken in favor of the value that was used less often. Tests are only
+ * calculated when they are requested from the returned stream.
+ *
+ * @author Noah Zuch
+ *
+ */
+public class DdaTestGenerator implements TestGenerator {
+
+  private int[] domainSizes;
+  private int parameterCount;
+  private int strength;
+  private ConstraintHandler constraintHandler;
+
+  private CoverageMap[] coverageMaps;
+  private int[][] parameterCombs;
+  private CoverageMap[] mapOfParameterComb;
+  private int[] indexOfParameterComb;
+  private int[][] parameterCombsOfParameter;
+  private int[][] valueOccurences;
+  private int seedParameterComb;
+
+  /**
+   * Creates a new DdaTestGenerator for the given parameters, strength and constraints.
+   *
+   * @param strength The strength of the desired covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @param constraintHandler A {@link ConstraintHandler} object for needed constraints.
+   */
+  public DdaTestGenerator(int strength, int[] domainSizes, ConstraintHandler constraintHandler) {
+    this.strength = strength;
+    this.domainSizes = domainSizes;
+    parameterCount = domainSizes.length;
+    this.constraintHandler = constraintHandler;
+  }
+
+  @Override
+  public Stream<int[]> getAllInputCombinations() {
+    initialize();
+    Iterator<int[]> iterator = new TestIterator();
+    if (!iterator.hasNext()) {
+      throw new JCombException("No valid test could be calculated. Check defined Constraints");
+    }
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+        Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  private void initialize() {
+    coverageMaps = new CoverageMap[parameterCount - strength + 1];
+    int totalParameterCombCount = 0;
+    for (int i = 0; i < coverageMaps.length; i++) {
+      coverageMaps[i] = new CoverageMap(strength, domainSizes, strength + i);
+      coverageMaps[i].coverForbiddenTupels(constraintHandler);
+      totalParameterCombCount += coverageMaps[i].getParameterCombinationCount();
+    }
+
+    parameterCombs = new int[totalParameterCombCount][];
+    mapOfParameterComb = new CoverageMap[totalParameterCombCount];
+    indexOfParameterComb = new int[totalParameterCombCount];
+    int[] combCountOfParameter = new int[parameterCount];
+    int combIndex = 0;
+    for (int i = 0; i < coverageMaps.length; i++) {
+      int[] paramComb = Tools.getFirstParamCombWithFixParam(strength, strength + i);
+      for (int j = 0; j < coverageMaps[i].getParameterCombinationCount(); j++) {
+        parameterCombs[combIndex] = paramComb.clone();
+        mapOfParameterComb[combIndex] = coverageMaps[i];
+        indexOfParameterComb[combIndex] = j;
+        for (int parameter : paramComb) {
+          combCountOfParameter[parameter]++;
+        }
+        combIndex++;
+        Tools.getNextParamCombWithFixParam(paramComb);
+      }
+    }
+
+    parameterCombsOfParameter = new int[parameterCount][];
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      parameterCombsOfParameter[parameter] = new int[combCountOfParameter[parameter]];
+    }
+    Arrays.fill(combCountOfParameter, 0);
+    for (combIndex = 0; combIndex < parameterCombs.length; combIndex++) {
+      for (int parameter : parameterCombs[combIndex]) {
+        parameterCombsOfParameter[parameter][combCountOfParameter[parameter]++] = combIndex;
+      }
+    }
+
+    valueOccurences = new int[parameterCount][];
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      valueOccurences[parameter] = new int[domainSizes[parameter]];
+    }
+    seedParameterComb = 0;
+  }
+
+  /**
+   * Calculates the next test of the covering array.
+   *
+   * @return The next test or null if every satisfiable tupel is covered.
+   */
+  private int[] calculateNextTest() {
+    int[] test = new int[parameterCount];
+    Arrays.fill(test, -1);
+    if (!seedTest(test)) {
+      return null;
+    }
+    for (int parameter : getParameterOrder(test)) {
+      test[parameter] = getBestValue(test, parameter);
+    }
+    for (CoverageMap coverageMap : coverageMaps) {
+      coverageMap.coverValueComb(test);
+    }
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      valueOccurences[parameter][test[parameter]]++;
+    }
+    return test;
+  }
+
+  /**
+   * Fills the given empty test with the first uncovered tupel. Tupels that can not satisfy the
+   * constraints were already marked as covered in {@link #initialize()}.
+   *
+   * @param test The test to fill.
+   * @return true if an uncovered tupel was found, false otherwise.
+   */
+  private boolean seedTest(int[] test) {
+    for (; seedParameterComb < parameterCombs.length; seedParameterComb++) {
+      int valueComb = mapOfParameterComb[seedParameterComb]
+          .getFirstUncoveredValueComb(indexOfParameterComb[seedParameterComb]);
+      if (valueComb != -1) {
+        Tools.fillWithParameterValues(domainSizes, valueComb, parameterCombs[seedParameterComb],
+            test);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int[] getParameterOrder(int[] test) {
+    int freeParameterCount = 0;
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      if (test[parameter] == -1) {
+        freeParameterCount++;
+      }
+    }
+    int[] order = new int[freeParameterCount];
+    double[] densities = new double[freeParameterCount];
+    int orderIndex = 0;
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      if (test[parameter] == -1) {
+        double density = getDensity(test, parameter);
+        int position = orderIndex++;
+        while (position > 0 && densities[position - 1] < density) {
+          densities[position] = densities[position - 1];
+          order[position] = order[position - 1];
+          position--;
+        }
+        densities[position] = density;
+        order[position] = parameter;
+      }
+    }
+    return order;
+  }
+
+  private int getBestValue(int[] test, int parameter) {
+    int bestValue = -1;
+    double bestDensity = -1;
+    for (int value = 0; value < domainSizes[parameter]; value++) {
+      test[parameter] = value;
+      if (constraintHandler.isSatisfiable(test)) {
+        double density = getDensity(test, parameter);
+        if (density > bestDensity || density == bestDensity
+            && valueOccurences[parameter][value] < valueOccurences[parameter][bestValue]) {
+          bestDensity = density;
+          bestValue = value;
+        }
+      }
+    }
+    test[parameter] = -1;
+    if (bestValue == -1) {
+      throw new JCombException("No valid test could be calculated. Check defined Constraints");
+    }
+    return bestValue;
+  }
+
+  /**
+   * Calculates the part of the density of the given test that is influenced by the given
+   * parameter. This is the sum over all parameter combinations containing the parameter, of the
+   * ratio between the uncovered tupels that are consistent with the test and all possible tupels
+   * for the free parameters.
+   *
+   * @param test The partial test.
+   * @param parameter The parameter.
+   * @return The density of the test for the given parameter.
+   */
+  private double getDensity(int[] test, int parameter) {
+    double density = 0;
+    for (int combIndex : parameterCombsOfParameter[parameter]) {
+      int[] paramComb = parameterCombs[combIndex];
+      int uncovered = mapOfParameterComb[combIndex].countUncoveredTupels(test,
+          indexOfParameterComb[combIndex], paramComb);
+      if (uncovered != 0) {
+        int freeTupelCount = 1;
+        for (int combParameter : paramComb) {
+          if (test[combParameter] == -1) {
+            freeTupelCount *= domainSizes[combParameter];
+          }
+        }
+        density += (double) uncovered / freeTupelCount;
+      }
+    }
+    return density;
+  }
+
+  private class TestIterator implements Iterator<int[]> {
+
+    private int[] nextTest;
+
+    @Override
+    public boolean hasNext() {
+      if (nextTest == null) {
+        nextTest = calculateNextTest();
+      }
+      return nextTest != null;
+    }
+
+    @Override
+    public int[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int[] test = nextTest;
+      nextTest = null;
+      return test;
+    }
+  }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.hybrid;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.binary.BinaryTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.oa.OrthogonalArrayGenerator;
+import com.github.noahzuch.jcomb.core.generator.recursive.RecursiveTestGenerator;
+
+/**
+ * A {@link TestGenerator} for models without constraints, in which a big block of parameters
+ * shares the same domain size. The block is covered by a direct construction: an orthogonal array,
+ * the binary construction of {@link BinaryTestGenerator} or for strength 2 the recursive
+ * construction of {@link RecursiveTestGenerator}. Its tests are then used by
+ * {@link IpogTestGenerator} as the initial covering array and only the remaining parameters are
+ * added via horizontal and vertical extension.
+ * <p>
+ * For strength greater than 2 the block is restricted to the number of parameters the orthogonal
+ * array can hold. The other parameters of the same domain size are extended by IPOG.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class HybridTestGenerator implements TestGenerator {
+
+  private final int strength;
+  private final int[] domainSizes;
+  private final SeedBlock seedBlock;
+
+  /**
+   * Creates a new HybridTestGenerator for the given strength and parameters.
+   * 
+   * @param strength The strength of the desired covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @throws IllegalArgumentException if the model contains no block of more than strength
+   *         parameters with the same domain size.
+   */
+  public HybridTestGenerator(int strength, int[] domainSizes) {
+    this.strength = strength;
+    this.domainSizes = domainSizes;
+    seedBlock = findSeedBlock(strength, domainSizes);
+    if (seedBlock == null) {
+      throw new IllegalArgumentException(
+          "The model contains no block of more than " + strength + " equal sized parameters.");
+    }
+  }
+
+  /**
+   * Returns the number of parameters, that are covered by the initial covering array.
+   * 
+   * @return The number of parameters in the seed block.
+   */
+  public int getSeedParameterCount() {
+    return seedBlock.parameterCount;
+  }
+
+  @Override
+  public Stream<int[]> getAllInputCombinations() {
+    int[] parameterOrder = getParameterOrder();
+    int[] reorderedDomainSizes = new int[domainSizes.length];
+    for (int i = 0; i < parameterOrder.length; i++) {
+      reorderedDomainSizes[i] = domainSizes[parameterOrder[i]];
+    }
+    IpogTestGenerator ipog =
+        new IpogTestGenerator(strength, reorderedDomainSizes,
+            ConstraintHandler.getDefaultConstraintHandler(), seedBlock.generator,
+            seedBlock.parameterCount);
+    return ipog.getAllInputCombinations().map(reorderedTest -> {
+      int[] test = new int[domainSizes.length];
+      for (int i = 0; i < parameterOrder.length; i++) {
+        test[parameterOrder[i]] = reorderedTest[i];
+      }
+      return test;
+    });
+  }
+
+  /**
+   * Returns a mapping of the new parameter indices to the original ones. The parameters of the
+   * seed block come first, followed by all others in their original order.
+   */
+  private int[] getParameterOrder() {
+    int[] parameterOrder = new int[domainSizes.length];
+    int blockIndex = 0;
+    int restIndex = seedBlock.parameterCount;
+    for (int parameter = 0; parameter < domainSizes.length; parameter++) {
+      if (domainSizes[parameter] == seedBlock.valueCount
+          && blockIndex < seedBlock.parameterCount) {
+        parameterOrder[blockIndex++] = parameter;
+      } else {
+        parameterOrder[restIndex++] = parameter;
+      }
+    }
+    return parameterOrder;
+  }
+
+  /**
+   * Searches the block of equal sized parameters, for which the most parameters can be covered by
+   * a direct construction. Ties are broken in favor of the bigger domain size.
+   * 
+   * @return The best block or null if no block with more than strength parameters exists.
+   */
+  private static SeedBlock findSeedBlock(int strength, int[] domainSizes) {
+    if (strength < 2) {
+      return null;
+    }
+    int[] sortedDomainSizes = domainSizes.clone();
+    Arrays.sort(sortedDomainSizes);
+    SeedBlock bestBlock = null;
+    int blockEnd = sortedDomainSizes.length;
+    while (blockEnd > 0) {
+      int valueCount = sortedDomainSizes[blockEnd - 1];
+      int blockStart = blockEnd - 1;
+      while (blockStart > 0 && sortedDomainSizes[blockStart - 1] == valueCount) {
+        blockStart--;
+      }
+      int count = blockEnd - blockStart;
+      if (valueCount > 1 && count > strength
+          && (bestBlock == null || count > bestBlock.parameterCount)) {
+        SeedBlock block = createSeedBlock(strength, valueCount, count);
+        if (block.parameterCount > strength
+            && (bestBlock == null || block.parameterCount > bestBlock.parameterCount)) {
+          bestBlock = block;
+        }
+      }
+      blockEnd = blockStart;
+    }
+    return bestBlock;
+  }
+
+  private static SeedBlock createSeedBlock(int strength, int valueCount, int count) {
+    if (valueCount == 2) {
+      return new SeedBlock(valueCount, count, new BinaryTestGenerator(strength, count));
+    }
+    if (strength == 2) {
+      try {
+        return new SeedBlock(valueCount, count,
+            new OrthogonalArrayGenerator(strength, count, valueCount));
+      } catch (IllegalArgumentException e) {
+        int[] blockDomainSizes = new int[count];
+        Arrays.fill(blockDomainSizes, valueCount);
+        return new SeedBlock(valueCount, count, new RecursiveTestGenerator(blockDomainSizes));
+      }
+    }
+    for (int parameterCount = count; parameterCount > strength + 1; parameterCount--) {
+      try {
+        return new SeedBlock(valueCount, parameterCount,
+            new OrthogonalArrayGenerator(strength, parameterCount, valueCount));
+      } catch (IllegalArgumentException e) {
+        // try less parameters
+      }
+    }
+    return new SeedBlock(valueCount, strength + 1,
+        new OrthogonalArrayGenerator(strength, strength + 1, valueCount));
+  }
+
+  private static class SeedBlock {
+
+    private final int valueCount;
+    private final int parameterCount;
+    private final TestGenerator generator;
+
+    SeedBlock(int valueCount, int parameterCount, TestGenerator generator) {
+      this.valueCount = valueCount;
+      this.parameterCount = parameterCount;
+      this.generator = generator;
+    }
+  }
+
+}
@@ -20,13 +20,22 @@ import static com.github.noahzuch.jcomb.core.generator.ipog.Tools.getNextParamCo
 import static com.github.noahzuch.jcomb.core.generator.ipog.Tools.packValues;
 import static com.github.noahzuch.jcomb.core.generator.ipog.Tools.packValuesExceptLast;
 import static com.github.noahzuch.jcomb.core.generator.ipog.Tools.unpackValues;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.function.BiConsumer;
 import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
 
-class CoverageMap {
+/**
+ * A bitmap that saves for every t-tupel, whose last parameter is the newest considered parameter,
+ * whether or not it is already covered. The maps of all parameters together contain every t-tupel
+ * of a model exactly once.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class CoverageMap {
 
   private int[] domainSizes;
   private int parameterCount;
@@ -36,6 +45,9 @@ class CoverageMap {
   private int[] covMapStartIndizes;
   private int[] covMapCounts;
   private int[] toBeCoveredTupels;
+  private int[] freeStrides;
+  private int[] freeSizes;
+  private int[] freeCounters;
 
   /**
    * Creates a new CoverageMap with the given strength, parameter domainSizes and the count of
@@ -74,6 +86,9 @@ class CoverageMap {
       valueCoverageSize = 1;
     }
     coverageMap = new int[valueCoverageSize];
+    freeStrides = new int[strength];
+    freeSizes = new int[strength];
+    freeCounters = new int[strength];
   }
 
   /**
@@ -136,27 +151,23 @@ class CoverageMap {
      * gains[maxIndex]) { test[parameterCount - 1] = j; if (constraintHandler.isSatisfiable(test)) {
      * maxIndex = j; } } }
      */
+    long[] allowedValues = constraintHandler.getAllowedValues(test, parameterCount - 1,
+        domainSizes[parameterCount - 1]);
     Iterator<Integer> occurenceIterator = occTracker.getOccurenceIterator(parameterCount - 1);
 
     // find first value that satisfies constraints before comparing gains
     int bestValue = -1;
-    boolean foundFirstValid = false;
-    while (!foundFirstValid && occurenceIterator.hasNext()) {
+    while (bestValue == -1 && occurenceIterator.hasNext()) {
       int value = occurenceIterator.next();
-      test[parameterCount - 1] = value;
-      if (constraintHandler.isSatisfiable(test)) {
+      if (ConstraintHandler.isAllowed(allowedValues, value)) {
         bestValue = value;
-        foundFirstValid = true;
       }
     }
 
     while (occurenceIterator.hasNext()) {
       int value = occurenceIterator.next();
-      if (gains[value] > gains[bestValue]) {
-        test[parameterCount - 1] = value;
-        if (constraintHandler.isSatisfiable(test)) {
-          bestValue = value;
-        }
+      if (gains[value] > gains[bestValue] && ConstraintHandler.isAllowed(allowedValues, value)) {
+        bestValue = value;
       }
     }
 
@@ -193,6 +204,170 @@ class CoverageMap {
     }
   }
 
+  /**
+   * Sets all tupels to covered, that can not be part of a test satisfying the given constraints.
+   * Afterwards every uncovered tupel is satisfiable and only has to be added to a test. As a tupel
+   * is satisfiable if its values of constrained parameters are, only parameter combinations
+   * containing a constrained parameter are checked. The tupels of such a combination are checked
+   * in blocks sharing all values except the one of the newest parameter: If these shared values are
+   * already unsatisfiable, or the newest parameter is unconstrained, the whole block is decided
+   * with a single check.
+   * 
+   * @param constraintHandler The ConstraintHandler to use.
+   */
+  public void coverForbiddenTupels(ConstraintHandler constraintHandler) {
+    int[] test = new int[domainSizes.length];
+    Arrays.fill(test, -1);
+    boolean anySatisfiable = constraintHandler.isSatisfiable(test);
+    int newestParameter = parameterCount - 1;
+    int newestDomainSize = domainSizes[newestParameter];
+    boolean newestConstrained = constraintHandler.isConstrained(newestParameter);
+    int[] paramComb = getFirstParameterComb();
+    for (int i = 0; i < parameterCombCount; i++) {
+      if (toBeCoveredTupels[i] != 0
+          && (!anySatisfiable || containsConstrainedParameter(paramComb, constraintHandler))) {
+        int startIndex = covMapStartIndizes[i];
+        for (int blockStart = 0; blockStart < covMapCounts[i]; blockStart += newestDomainSize) {
+          Tools.fillWithParameterValues(domainSizes, blockStart, paramComb, test);
+          test[newestParameter] = -1;
+          boolean blockSatisfiable = anySatisfiable && constraintHandler.isSatisfiable(test);
+          for (int value = 0; value < newestDomainSize; value++) {
+            int coverageIndex = startIndex + blockStart + value;
+            if (isNotCovered(coverageIndex)) {
+              test[newestParameter] = value;
+              if (!blockSatisfiable
+                  || newestConstrained && !constraintHandler.isSatisfiable(test)) {
+                cover(coverageIndex);
+                toBeCoveredTupels[i]--;
+              }
+            }
+          }
+        }
+        for (int parameter : paramComb) {
+          test[parameter] = -1;
+        }
+      }
+      getNextParamCombWithFixParam(paramComb);
+    }
+  }
+
+  private boolean containsConstrainedParameter(int[] paramComb,
+      ConstraintHandler constraintHandler) {
+    for (int parameter : paramComb) {
+      if (constraintHandler.isConstrained(parameter)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of parameter combinations in this map. Every combination contains the
+   * newest considered parameter as its last parameter.
+   * 
+   * @return The number of parameter combinations.
+   */
+  public int getParameterCombinationCount() {
+    return parameterCombCount;
+  }
+
+  /**
+   * Returns the number of tupels of a parameter combination that are not yet covered.
+   * 
+   * @param paramCombIndex The index of the parameter combination.
+   * @return The number of uncovered tupels.
+   */
+  public int getUncoveredTupelCount(int paramCombIndex) {
+    return toBeCoveredTupels[paramCombIndex];
+  }
+
+  /**
+   * Returns the first value combination of a parameter combination that is not yet covered.
+   * 
+   * @param paramCombIndex The index of the parameter combination.
+   * @return The index of the first uncovered value combination or -1 if every tupel is covered.
+   */
+  public int getFirstUncoveredValueComb(int paramCombIndex) {
+    if (toBeCoveredTupels[paramCombIndex] != 0) {
+      int startIndex = covMapStartIndizes[paramCombIndex];
+      for (int valueCombIndex = 0; valueCombIndex < covMapCounts[paramCombIndex];
+          valueCombIndex++) {
+        if (isNotCovered(startIndex + valueCombIndex)) {
+          return valueCombIndex;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Sets a single tupel to covered.
+   * 
+   * @param paramCombIndex The index of the parameter combination.
+   * @param valueCombIndex The index of the value combination.
+   */
+  public void coverTupel(int paramCombIndex, int valueCombIndex) {
+    int coverageIndex = covMapStartIndizes[paramCombIndex] + valueCombIndex;
+    if (isNotCovered(coverageIndex)) {
+      cover(coverageIndex);
+      toBeCoveredTupels[paramCombIndex]--;
+    }
+  }
+
+  /**
+   * Counts the uncovered tupels of a parameter combination that match the values of the given
+   * partial test. Parameters with value -1 in the test match every value.
+   * 
+   * @param test The partial test.
+   * @param paramCombIndex The index of the parameter combination.
+   * @param paramComb The parameter combination.
+   * @return The number of uncovered tupels that are consistent with the test.
+   */
+  public int countUncoveredTupels(int[] test, int paramCombIndex, int[] paramComb) {
+    if (toBeCoveredTupels[paramCombIndex] == 0) {
+      return 0;
+    }
+    int freeCount = 0;
+    int baseIndex = covMapStartIndizes[paramCombIndex];
+    int stride = 1;
+    for (int i = paramComb.length - 1; i >= 0; i--) {
+      int parameter = paramComb[i];
+      if (test[parameter] == -1) {
+        freeStrides[freeCount] = stride;
+        freeSizes[freeCount] = domainSizes[parameter];
+        freeCounters[freeCount] = 0;
+        freeCount++;
+      } else {
+        baseIndex += test[parameter] * stride;
+      }
+      stride *= domainSizes[parameter];
+    }
+    if (freeCount == paramComb.length) {
+      return toBeCoveredTupels[paramCombIndex];
+    }
+    int count = 0;
+    int coverageIndex = baseIndex;
+    while (true) {
+      if (isNotCovered(coverageIndex)) {
+        count++;
+      }
+      int i = 0;
+      while (i < freeCount) {
+        freeCounters[i]++;
+        coverageIndex += freeStrides[i];
+        if (freeCounters[i] < freeSizes[i]) {
+          break;
+        }
+        coverageIndex -= freeStrides[i] * freeSizes[i];
+        freeCounters[i] = 0;
+        i++;
+      }
+      if (i == freeCount) {
+        return count;
+      }
+    }
+  }
+
   private boolean isNotCovered(int coverageIndex) {
     return ((coverageMap[coverageIndex / 32] >>> (coverageIndex % 32)) & 1) == 0;
   }
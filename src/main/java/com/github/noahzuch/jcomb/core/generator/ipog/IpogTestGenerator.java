@@ -41,6 +41,9 @@ public class IpogTestGenerator implements TestGenerator {
   private OccurenceTracker occurenceTracker;
   private ConstraintHandler constraintHandler;
 
+  private TestGenerator initialCoveringArray;
+  private int initialParameterCount;
+
   /**
    * Creates a new IpogTestGenerator for the given parameters, strength and constraints.
    * @param strength The strength of the desired covering array
@@ -53,6 +56,36 @@ public class IpogTestGenerator implements TestGenerator {
     parameterCount = domainSizes.length;
     this.constraintHandler = constraintHandler;
     occurenceTracker = new OccurenceTracker(domainSizes);
+    initialParameterCount = strength;
+  }
+
+  /**
+   * Creates a new IpogTestGenerator, that starts with the tests of an existing covering array
+   * instead of all value combinations of the first strength many parameters. The existing array
+   * has to cover the first initialParameterCount parameters with the given strength. Only the
+   * remaining parameters are added via horizontal and vertical extension.
+   * <p>
+   * Tests of the initial covering array, that do not satisfy the constraints, are dropped. The
+   * valid tupels of the first parameters, that were only covered by these tests, are covered again
+   * via vertical extension.
+   * 
+   * @param strength The strength of the desired covering array
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @param constraintHandler A {@link ConstraintHandler} object for needed constraints.
+   * @param initialCoveringArray The generator of the covering array for the first parameters.
+   * @param initialParameterCount The number of parameters of the initial covering array.
+   * @throws IllegalArgumentException if the initial covering array has less than strength
+   *         parameters or more parameters than the model.
+   */
+  public IpogTestGenerator(int strength, int[] domainSizes, ConstraintHandler constraintHandler,
+      TestGenerator initialCoveringArray, int initialParameterCount) {
+    this(strength, domainSizes, constraintHandler);
+    if (initialParameterCount < strength || initialParameterCount > parameterCount) {
+      throw new IllegalArgumentException("The initial covering array must contain between "
+          + strength + " and " + parameterCount + " parameters.");
+    }
+    this.initialCoveringArray = initialCoveringArray;
+    this.initialParameterCount = initialParameterCount;
   }
 
   @Override
@@ -66,9 +99,14 @@ public class IpogTestGenerator implements TestGenerator {
   }
 
   private void ipogCalculation() {
-    generateFirstParameters();
-    for (int parameter = strength; parameter < domainSizes.length; parameter++) {
+    if (initialCoveringArray == null) {
+      generateFirstParameters();
+    } else {
+      copyInitialCoveringArray();
+    }
+    for (int parameter = initialParameterCount; parameter < domainSizes.length; parameter++) {
       CoverageMap covMap = new CoverageMap(strength, domainSizes, parameter + 1);
+      covMap.coverForbiddenTupels(constraintHandler);
       horizontalExtension(covMap, parameter);
       verticalExtension(covMap);
     }
@@ -90,6 +128,42 @@ public class IpogTestGenerator implements TestGenerator {
     }
   }
 
+  private void copyInitialCoveringArray() {
+    boolean[] testDropped = new boolean[1];
+    initialCoveringArray.getAllInputCombinations().forEach(initialTest -> {
+      int[] test = new int[parameterCount];
+      Arrays.fill(test, -1);
+      System.arraycopy(initialTest, 0, test, 0, initialParameterCount);
+      if (constraintHandler.isSatisfiable(test)) {
+        for (int j = 0; j < initialParameterCount; j++) {
+          occurenceTracker.addUsedValue(j, test[j]);
+        }
+        coveringArray.add(test);
+      } else {
+        testDropped[0] = true;
+      }
+    });
+    if (testDropped[0]) {
+      recoverInitialParameters();
+    }
+  }
+
+  /**
+   * Covers the tupels of the first initialParameterCount parameters, that are missing after
+   * dropping tests of the initial covering array. Like for the remaining parameters, a coverage map
+   * is built for every parameter, containing the tupels that end with it.
+   */
+  private void recoverInitialParameters() {
+    for (int parameter = strength - 1; parameter < initialParameterCount; parameter++) {
+      CoverageMap covMap = new CoverageMap(strength, domainSizes, parameter + 1);
+      covMap.coverForbiddenTupels(constraintHandler);
+      for (int[] test : coveringArray) {
+        covMap.coverValueComb(test);
+      }
+      verticalExtension(covMap);
+    }
+  }
+
   private void horizontalExtension(CoverageMap coverageMap,
       int parameterIndex) {
     for (Iterator<int[]> iterator = coveringArray.iterator(); iterator.hasNext();) {
@@ -106,20 +180,12 @@ public class IpogTestGenerator implements TestGenerator {
 
   private void verticalExtension(CoverageMap coverageMap) {
     Map<Integer, List<int[]>> wildCardTests = new HashMap<>();
+    // forbidden tupels were already covered before the horizontal extension
     coverageMap.coverRemainingTupels(
-        (valueComb, parameterComb) -> verticallyExtendTupel(wildCardTests, valueComb,
-            parameterComb));
+        (valueComb, parameterComb) -> coverComb(wildCardTests, valueComb, parameterComb));
     fillAllWildCards(wildCardTests);
   }
 
-  private void verticallyExtendTupel(Map<Integer, List<int[]>> wildCardTests, int valueComb,
-      int[] parameterComb) {
-    int[] test = Tools.generateNewTest(domainSizes, valueComb, parameterComb);
-    if (constraintHandler.isSatisfiable(test)) {
-      coverComb(wildCardTests, valueComb, parameterComb);
-    }
-  }
-
   private void coverComb(Map<Integer, List<int[]>> wildCardTests, int valueCombIndex,
       int[] paramComb) {
 
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.library;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.github.noahzuch.jcomb.core.partial.ParameterReorder;
+
+/**
+ * A library of precomputed covering arrays, that are smaller than the ones created by the
+ * generators of JComb. The arrays are indexed by their strength and the multiset of their domain
+ * sizes.
+ * <p>
+ * The arrays are stored in the text resource {@value #RESOURCE_NAME}. Every array starts with a
+ * header line "&lt;strength&gt;: &lt;domain sizes&gt;", where the domain sizes are listed in
+ * descending order. It is followed by one line per test, which contains the value indices of the
+ * parameters separated by spaces. Arrays are separated by empty lines and lines starting with # are
+ * comments.
+ * <p>
+ * When the library is first accessed, the resource is parsed into a compact buffer. The buffer
+ * starts with the int {@value #MAGIC_NUMBER} and the number of arrays. For every array follows its
+ * strength, its number of parameters, one byte per domain size in descending order, its number of
+ * tests and the position of its tests in the buffer. The tests of an array are stored row by row
+ * with one byte per value. All numbers are big endian.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class CoveringArrayLibrary {
+
+  /**
+   * The name of the resource containing the covering arrays.
+   */
+  public static final String RESOURCE_NAME = "coveringarrays.txt";
+
+  /**
+   * The first int of the buffer.
+   */
+  public static final int MAGIC_NUMBER = 0x4A434131;
+
+  private final ByteBuffer buffer;
+  private final Map<String, Entry> entries;
+
+  /**
+   * Creates a new library for the given buffer.
+   * 
+   * @param buffer The buffer containing the arrays.
+   * @throws IllegalArgumentException if the buffer does not contain a valid library.
+   */
+  CoveringArrayLibrary(ByteBuffer buffer) {
+    this.buffer = buffer;
+    entries = new HashMap<>();
+    try {
+      if (buffer.getInt(0) != MAGIC_NUMBER) {
+        throw new IllegalArgumentException("The resource is no covering array library.");
+      }
+      int entryCount = buffer.getInt(4);
+      int position = 8;
+      for (int i = 0; i < entryCount; i++) {
+        int strength = buffer.getInt(position);
+        int parameterCount = buffer.getInt(position + 4);
+        position += 8;
+        int[] domainSizes = new int[parameterCount];
+        for (int j = 0; j < parameterCount; j++) {
+          domainSizes[j] = buffer.get(position++) & 0xFF;
+        }
+        int rowCount = buffer.getInt(position);
+        int offset = buffer.getInt(position + 4);
+        position += 8;
+        if (offset < 0 || (long) offset + (long) rowCount * parameterCount > buffer.limit()) {
+          throw new IllegalArgumentException("The tests of an array lie outside the resource.");
+        }
+        entries.put(createKey(strength, domainSizes),
+            new Entry(strength, domainSizes, rowCount, offset));
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("The covering array library is truncated.", e);
+    }
+  }
+
+  /**
+   * Returns the library contained in the resource {@value #RESOURCE_NAME}. If the resource does
+   * not exist, the library is empty.
+   * 
+   * @return The shared library instance.
+   */
+  public static CoveringArrayLibrary getInstance() {
+    return InstanceHolder.INSTANCE;
+  }
+
+  /**
+   * Returns the number of covering arrays in this library.
+   * 
+   * @return The number of arrays.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Searches a covering array for the given strength and domain sizes. The order of the domain
+   * sizes is irrelevant, as the columns of the stored array are reordered to match the parameters.
+   * 
+   * @param strength The strength of the desired covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @return A generator for the stored covering array, or null if the library contains no array
+   *         for the given model.
+   */
+  public LibraryTestGenerator find(int strength, int[] domainSizes) {
+    Integer[] parameters = new Integer[domainSizes.length];
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = i;
+    }
+    Arrays.sort(parameters, (p1, p2) -> Integer.compare(domainSizes[p2], domainSizes[p1]));
+    int[] sortedDomainSizes = new int[domainSizes.length];
+    int[] columnToParameter = new int[domainSizes.length];
+    for (int column = 0; column < parameters.length; column++) {
+      columnToParameter[column] = parameters[column];
+      sortedDomainSizes[column] = domainSizes[parameters[column]];
+    }
+    Entry entry = entries.get(createKey(strength, sortedDomainSizes));
+    if (entry == null) {
+      return null;
+    }
+    return new LibraryTestGenerator(buffer, entry.offset, entry.rowCount,
+        new ParameterReorder(columnToParameter, domainSizes.length));
+  }
+
+  private static String createKey(int strength, int[] sortedDomainSizes) {
+    return strength + ":" + Arrays.toString(sortedDomainSizes);
+  }
+
+  private static CoveringArrayLibrary load() {
+    InputStream resource = CoveringArrayLibrary.class.getResourceAsStream(RESOURCE_NAME);
+    if (resource == null) {
+      return new CoveringArrayLibrary(createEmptyBuffer());
+    }
+    try (Reader reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+      return new CoveringArrayLibrary(parse(reader));
+    } catch (IOException | IllegalArgumentException e) {
+      return new CoveringArrayLibrary(createEmptyBuffer());
+    }
+  }
+
+  /**
+   * Parses covering arrays in the text format of the resource {@value #RESOURCE_NAME} into the
+   * buffer used by a library.
+   * 
+   * @param reader The text containing the arrays.
+   * @return The buffer containing the arrays.
+   * @throws IOException if the text can not be read.
+   * @throws IllegalArgumentException if the text does not contain valid arrays.
+   */
+  static ByteBuffer parse(Reader reader) throws IOException {
+    List<int[]> headers = new ArrayList<>();
+    List<List<int[]>> arrays = new ArrayList<>();
+    BufferedReader lines = new BufferedReader(reader);
+    String line;
+    int lineNumber = 0;
+    List<int[]> tests = null;
+    while ((line = lines.readLine()) != null) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        tests = null;
+      } else if (tests == null) {
+        int[] header = parseHeader(line, lineNumber);
+        headers.add(header);
+        tests = new ArrayList<>();
+        arrays.add(tests);
+      } else {
+        tests.add(parseTest(line, lineNumber, headers.get(headers.size() - 1)));
+      }
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bytes);
+    output.writeInt(MAGIC_NUMBER);
+    output.writeInt(arrays.size());
+    int offset = 8;
+    for (int[] header : headers) {
+      offset += 16 + header.length - 1;
+    }
+    for (int i = 0; i < arrays.size(); i++) {
+      int[] header = headers.get(i);
+      int parameterCount = header.length - 1;
+      output.writeInt(header[0]);
+      output.writeInt(parameterCount);
+      for (int j = 1; j < header.length; j++) {
+        output.writeByte(header[j]);
+      }
+      output.writeInt(arrays.get(i).size());
+      output.writeInt(offset);
+      offset += arrays.get(i).size() * parameterCount;
+    }
+    for (List<int[]> array : arrays) {
+      for (int[] test : array) {
+        for (int value : test) {
+          output.writeByte(value);
+        }
+      }
+    }
+    return ByteBuffer.wrap(bytes.toByteArray()).asReadOnlyBuffer();
+  }
+
+  /**
+   * Parses the header of an array.
+   * 
+   * @return The strength followed by the domain sizes.
+   */
+  private static int[] parseHeader(String line, int lineNumber) {
+    int separator = line.indexOf(':');
+    if (separator == -1) {
+      throw new IllegalArgumentException(
+          "Line " + lineNumber + " is no header of the form <strength>: <domain sizes>.");
+    }
+    int[] domainSizes = parseNumbers(line.substring(separator + 1), lineNumber);
+    int[] header = new int[domainSizes.length + 1];
+    header[0] = parseNumbers(line.substring(0, separator), lineNumber)[0];
+    for (int i = 0; i < domainSizes.length; i++) {
+      if (domainSizes[i] < 1 || domainSizes[i] > 0xFF
+          || i > 0 && domainSizes[i] > domainSizes[i - 1]) {
+        throw new IllegalArgumentException("The domain sizes in line " + lineNumber
+            + " have to be between 1 and 255 and in descending order.");
+      }
+      header[i + 1] = domainSizes[i];
+    }
+    return header;
+  }
+
+  private static int[] parseTest(String line, int lineNumber, int[] header) {
+    int[] test = parseNumbers(line, lineNumber);
+    if (test.length != header.length - 1) {
+      throw new IllegalArgumentException("The test in line " + lineNumber + " has "
+          + test.length + " values instead of " + (header.length - 1) + ".");
+    }
+    for (int i = 0; i < test.length; i++) {
+      if (test[i] < 0 || test[i] >= header[i + 1]) {
+        throw new IllegalArgumentException(
+            "The test in line " + lineNumber + " contains a value outside of its domain.");
+      }
+    }
+    return test;
+  }
+
+  private static int[] parseNumbers(String text, int lineNumber) {
+    try {
+      return Arrays.stream(text.trim().split("\\s+")).mapToInt(Integer::parseInt).toArray();
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Line " + lineNumber + " contains no valid numbers.", e);
+    }
+  }
+
+  private static ByteBuffer createEmptyBuffer() {
+    ByteBuffer buffer = ByteBuffer.allocate(8);
+    buffer.putInt(0, MAGIC_NUMBER);
+    return buffer;
+  }
+
+  private static class InstanceHolder {
+
+    private static final CoveringArrayLibrary INSTANCE = load();
+  }
+
+  /**
+   * Returns the stored arrays.
+   */
+  Collection<Entry> getEntries() {
+    return entries.values();
+  }
+
+  /**
+   * The position of a stored array in the resource together with its strength and domain sizes.
+   */
+  static class Entry {
+
+    final int strength;
+    final int[] domainSizes;
+    final int rowCount;
+    final int offset;
+
+    Entry(int strength, int[] domainSizes, int rowCount, int offset) {
+      this.strength = strength;
+      this.domainSizes = domainSizes;
+      this.rowCount = rowCount;
+      this.offset = offset;
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.library;
+
+import java.nio.ByteBuffer;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.partial.ParameterReorder;
+
+/**
+ * A {@link TestGenerator} that returns a covering array stored in the {@link CoveringArrayLibrary}.
+ * The tests are read directly from the library resource. The columns of the stored array are the
+ * new parameters of the {@link ParameterReorder} and are mapped to the old parameter indices of
+ * the model.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class LibraryTestGenerator implements RandomAccessTestGenerator {
+
+  private final ByteBuffer buffer;
+  private final int offset;
+  private final int rowCount;
+  private final ParameterReorder reorder;
+
+  LibraryTestGenerator(ByteBuffer buffer, int offset, int rowCount, ParameterReorder reorder) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.rowCount = rowCount;
+    this.reorder = reorder;
+  }
+
+  @Override
+  public long size() {
+    return rowCount;
+  }
+
+  @Override
+  public int getParameterCount() {
+    return reorder.getReorderedParameterCount();
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= rowCount) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + rowCount);
+    }
+    int columnCount = reorder.getReorderedParameterCount();
+    int rowOffset = offset + (int) index * columnCount;
+    for (int column = 0; column < columnCount; column++) {
+      into[reorder.getOldParamIndexFromNew(column)] = buffer.get(rowOffset + column) & 0xFF;
+    }
+  }
+
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.oa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.CoverageMap;
+import com.github.noahzuch.jcomb.core.generator.ipog.Tools;
+
+/**
+ * A {@link TestGenerator} that adapts an orthogonal array to constraints. The tests of the array
+ * that satisfy the constraints are kept. Every forbidden test is repaired by changing a single
+ * value, so that the test is allowed and covers as many new tupels as possible. If no such change
+ * exists, the test is dropped. Afterwards the tupels that are still uncovered and satisfiable are
+ * added in an IPOG like manner: Each tupel is merged into the first added test that has wildcards
+ * at its parameters, or a new test is created. The remaining wildcards are finally filled with the
+ * least used value that satisfies the constraints.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class ConstrainedOrthogonalArrayGenerator implements TestGenerator {
+
+  private final int strength;
+  private final int[] domainSizes;
+  private final int parameterCount;
+  private final RandomAccessTestGenerator orthogonalArray;
+  private final ConstraintHandler constraintHandler;
+
+  private CoverageMap[] coverageMaps;
+  private int[][] valueOccurences;
+
+  /**
+   * Creates a new generator for the given orthogonal array and constraints.
+   * 
+   * @param strength The strength of the desired covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @param orthogonalArray The orthogonal array for the parameters without constraints.
+   * @param constraintHandler A {@link ConstraintHandler} object for needed constraints.
+   */
+  public ConstrainedOrthogonalArrayGenerator(int strength, int[] domainSizes,
+      RandomAccessTestGenerator orthogonalArray, ConstraintHandler constraintHandler) {
+    this.strength = strength;
+    this.domainSizes = domainSizes;
+    parameterCount = domainSizes.length;
+    this.orthogonalArray = orthogonalArray;
+    this.constraintHandler = constraintHandler;
+  }
+
+  @Override
+  public Stream<int[]> getAllInputCombinations() {
+    coverageMaps = new CoverageMap[parameterCount - strength + 1];
+    for (int i = 0; i < coverageMaps.length; i++) {
+      coverageMaps[i] = new CoverageMap(strength, domainSizes, strength + i);
+      coverageMaps[i].coverForbiddenTupels(constraintHandler);
+    }
+    valueOccurences = new int[parameterCount][];
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      valueOccurences[parameter] = new int[domainSizes[parameter]];
+    }
+
+    List<int[]> coveringArray = new ArrayList<>();
+    List<int[]> forbiddenTests = new ArrayList<>();
+    orthogonalArray.getAllInputCombinations().forEach(test -> {
+      if (constraintHandler.isSatisfiable(test)) {
+        addTest(coveringArray, test);
+      } else {
+        forbiddenTests.add(test);
+      }
+    });
+    for (int[] test : forbiddenTests) {
+      if (repairTest(test)) {
+        addTest(coveringArray, test);
+      }
+    }
+    coverRemainingTupels(coveringArray);
+    if (coveringArray.isEmpty()) {
+      throw new JCombException("No valid test could be calculated. Check defined Constraints");
+    }
+    return coveringArray.stream();
+  }
+
+  private void addTest(List<int[]> coveringArray, int[] test) {
+    for (CoverageMap coverageMap : coverageMaps) {
+      coverageMap.coverValueComb(test);
+    }
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      valueOccurences[parameter][test[parameter]]++;
+    }
+    coveringArray.add(test);
+  }
+
+  /**
+   * Changes the value of a single parameter of the forbidden test, so that it satisfies the
+   * constraints and covers the most new tupels.
+   * 
+   * @param test The forbidden test.
+   * @return false if no change leads to a valid test that covers a new tupel.
+   */
+  private boolean repairTest(int[] test) {
+    int bestParameter = -1;
+    int bestValue = -1;
+    int bestCount = 0;
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      int oldValue = test[parameter];
+      for (int value = 0; value < domainSizes[parameter]; value++) {
+        if (value != oldValue) {
+          test[parameter] = value;
+          if (constraintHandler.isSatisfiable(test)) {
+            int count = countNewTupels(test);
+            if (count > bestCount) {
+              bestCount = count;
+              bestParameter = parameter;
+              bestValue = value;
+            }
+          }
+        }
+      }
+      test[parameter] = oldValue;
+    }
+    if (bestParameter == -1) {
+      return false;
+    }
+    test[bestParameter] = bestValue;
+    return true;
+  }
+
+  private int countNewTupels(int[] test) {
+    int count = 0;
+    for (int i = 0; i < coverageMaps.length; i++) {
+      int[] paramComb = Tools.getFirstParamCombWithFixParam(strength, strength + i);
+      for (int combIndex = 0; combIndex < coverageMaps[i].getParameterCombinationCount();
+          combIndex++) {
+        count += coverageMaps[i].countUncoveredTupels(test, combIndex, paramComb);
+        Tools.getNextParamCombWithFixParam(paramComb);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Adds all uncovered tupels to new tests. Tupels that can not satisfy the constraints were
+   * already marked as covered.
+   */
+  private void coverRemainingTupels(List<int[]> coveringArray) {
+    List<int[]> newTests = new ArrayList<>();
+    for (int i = 0; i < coverageMaps.length; i++) {
+      CoverageMap coverageMap = coverageMaps[i];
+      int[] paramComb = Tools.getFirstParamCombWithFixParam(strength, strength + i);
+      for (int combIndex = 0; combIndex < coverageMap.getParameterCombinationCount();
+          combIndex++) {
+        int valueComb;
+        while ((valueComb = coverageMap.getFirstUncoveredValueComb(combIndex)) != -1) {
+          coverageMap.coverTupel(combIndex, valueComb);
+          int[] tupel = Tools.generateNewTest(domainSizes, valueComb, paramComb);
+          if (!mergeIntoExistingTest(newTests, tupel, paramComb)) {
+            newTests.add(tupel);
+          }
+        }
+        Tools.getNextParamCombWithFixParam(paramComb);
+      }
+    }
+    for (int[] test : newTests) {
+      fillWildCards(test);
+      addTest(coveringArray, test);
+    }
+  }
+
+  private boolean mergeIntoExistingTest(List<int[]> newTests, int[] tupel, int[] paramComb) {
+    for (int[] test : newTests) {
+      int[] merged = Arrays.copyOf(test, parameterCount);
+      boolean compatible = true;
+      for (int parameter : paramComb) {
+        if (merged[parameter] == -1) {
+          merged[parameter] = tupel[parameter];
+        } else if (merged[parameter] != tupel[parameter]) {
+          compatible = false;
+          break;
+        }
+      }
+      if (compatible && constraintHandler.isSatisfiable(merged)) {
+        System.arraycopy(merged, 0, test, 0, parameterCount);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void fillWildCards(int[] test) {
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      if (test[parameter] == -1) {
+        int bestValue = -1;
+        for (int value = 0; value < domainSizes[parameter]; value++) {
+          test[parameter] = value;
+          if (constraintHandler.isSatisfiable(test) && (bestValue == -1
+              || valueOccurences[parameter][value] < valueOccurences[parameter][bestValue])) {
+            bestValue = value;
+          }
+        }
+        if (bestValue == -1) {
+          throw new JCombException("No valid test could be calculated. Check defined Constraints");
+        }
+        test[parameter] = bestValue;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,301 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.oa;
+
+import java.util.Arrays;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.Tools;
+import com.github.noahzuch.jcomb.core.oa.finitefield.FiniteFieldFactory;
+
+/**
+ * A {@link TestGenerator} for parameters with different numbers of values. An orthogonal array
+ * with q values per parameter is created, where q is at least as big as the biggest domain. Every
+ * value of a parameter with d values is then collapsed to its value modulo d. The collapsed array
+ * still covers every tupel, but contains tests whose tupels are all covered by other tests as
+ * well. These tests are removed greedily, starting with the tests that contain the most collapsed
+ * values.
+ * <p>
+ * A maximum size can be supplied to the constructor. The removal of redundant tests is then
+ * aborted as soon as the remaining tests can no longer get below it, since checking the tupels of
+ * every test of a big orthogonal array is expensive.
+ * <p>
+ * Only the indices of the remaining tests of the orthogonal array are saved. The tests themselves
+ * are computed when they are accessed.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class MixedLevelOrthogonalArrayGenerator implements RandomAccessTestGenerator {
+
+  /**
+   * The maximum number of tupels that are checked while removing redundant tests. This is the
+   * number of tests of the orthogonal array times the number of parameter combinations.
+   */
+  public static final long MAX_TUPEL_CHECKS = 1L << 28;
+
+  /**
+   * The maximum number of tupels of all parameter combinations.
+   */
+  public static final long MAX_TUPEL_COUNT = 1L << 26;
+
+  private int strength;
+  private int[] domainSizes;
+  private OrthogonalArrayGenerator orthogonalArray;
+  private long[] rowIndices;
+
+  /**
+   * Creates a new generator and computes the indices of the remaining tests.
+   * 
+   * @param strength The strength of the covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @throws IllegalArgumentException if less parameters than the strength are supplied or if the
+   *         removal of redundant tests would exceed {@link #MAX_TUPEL_CHECKS} or
+   *         {@link #MAX_TUPEL_COUNT}.
+   */
+  public MixedLevelOrthogonalArrayGenerator(int strength, int[] domainSizes) {
+    this(strength, domainSizes, Long.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new generator, whose number of tests does not exceed the given maximum size.
+   * 
+   * @param strength The strength of the covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @param maxSize The maximum number of tests of the generator.
+   * @throws IllegalArgumentException if less parameters than the strength are supplied, if the
+   *         removal of redundant tests would exceed {@link #MAX_TUPEL_CHECKS} or
+   *         {@link #MAX_TUPEL_COUNT} or if more than maxSize tests remain.
+   */
+  public MixedLevelOrthogonalArrayGenerator(int strength, int[] domainSizes, long maxSize) {
+    this.strength = Math.max(strength, 2);
+    this.domainSizes = domainSizes;
+    if (domainSizes.length < this.strength) {
+      throw new IllegalArgumentException(
+          "The strength can not be greater than the number of parameters.");
+    }
+    int valueCount = getValueCount(this.strength, domainSizes);
+    orthogonalArray = new OrthogonalArrayGenerator(this.strength, domainSizes.length, valueCount);
+    removeRedundantRows(maxSize);
+  }
+
+  /**
+   * Returns the number of tests of the orthogonal array that gets collapsed. A generator for the
+   * given parameters contains at most this many tests.
+   * 
+   * @param strength The strength of the covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @return The number of tests of the orthogonal array or {@link Long#MAX_VALUE} if it does not
+   *         fit into a long.
+   */
+  public static long getOrthogonalArraySize(int strength, int[] domainSizes) {
+    int arrayStrength = Math.max(strength, 2);
+    long valueCount = getValueCount(arrayStrength, domainSizes);
+    long size = 1;
+    for (int i = 0; i < arrayStrength; i++) {
+      if (size > Long.MAX_VALUE / valueCount) {
+        return Long.MAX_VALUE;
+      }
+      size *= valueCount;
+    }
+    return size;
+  }
+
+  /**
+   * Returns the number of tupels that are checked while removing the redundant tests of a
+   * generator for the given parameters. This is the number of tests of the orthogonal array times
+   * the number of parameter combinations.
+   * 
+   * @param strength The strength of the covering array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @return The number of tupel checks or {@link Long#MAX_VALUE} if it does not fit into a long.
+   */
+  public static long getTupelCheckCount(int strength, int[] domainSizes) {
+    long size = getOrthogonalArraySize(strength, domainSizes);
+    int paramCombCount = Tools.binomCoeff(domainSizes.length, Math.max(strength, 2));
+    if (size > Long.MAX_VALUE / paramCombCount) {
+      return Long.MAX_VALUE;
+    }
+    return size * paramCombCount;
+  }
+
+  /**
+   * Returns the number of values per parameter of the orthogonal array that gets collapsed.
+   * 
+   * @param strength The strength of the orthogonal array.
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @return The smallest possible number of values.
+   */
+  static int getValueCount(int strength, int[] domainSizes) {
+    int maxDomainSize = Arrays.stream(domainSizes).max().getAsInt();
+    if (domainSizes.length <= strength + 1) {
+      return maxDomainSize;
+    }
+    int valueCount = Math.max(maxDomainSize, domainSizes.length - 1);
+    while (!FiniteFieldFactory.isSupported(valueCount)) {
+      valueCount++;
+    }
+    return valueCount;
+  }
+
+  @Override
+  public long size() {
+    return rowIndices.length;
+  }
+
+  @Override
+  public int getParameterCount() {
+    return domainSizes.length;
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= rowIndices.length) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + rowIndices.length);
+    }
+    orthogonalArray.row(rowIndices[(int) index], into);
+    collapse(into);
+  }
+
+  private void collapse(int[] test) {
+    for (int k = 0; k < domainSizes.length; k++) {
+      test[k] %= domainSizes[k];
+    }
+  }
+
+  private void removeRedundantRows(long maxSize) {
+    long size = orthogonalArray.size();
+    int parameterCount = domainSizes.length;
+    int paramCombCount = Tools.binomCoeff(parameterCount, strength);
+    // checked before multiplying or casting the size, as both could overflow
+    if (size > MAX_TUPEL_CHECKS / paramCombCount) {
+      throw new IllegalArgumentException("The orthogonal array for the given parameters is too "
+          + "big: " + size + " tests");
+    }
+    int rowCount = (int) size;
+    int[] row = new int[parameterCount];
+    int[] collapsedValueCounts = new int[rowCount];
+    // rows without collapsed values are never removed
+    int candidateCount = 0;
+    for (int i = 0; i < rowCount; i++) {
+      orthogonalArray.row(i, row);
+      for (int k = 0; k < parameterCount; k++) {
+        if (row[k] >= domainSizes[k]) {
+          collapsedValueCounts[i]++;
+        }
+      }
+      if (collapsedValueCounts[i] > 0) {
+        candidateCount++;
+      }
+    }
+    checkSize(rowCount - candidateCount, maxSize);
+
+    int[][] paramCombs = new int[paramCombCount][];
+    long tupelCount = 0;
+    int[] paramComb = Tools.getFirstParamComb(strength);
+    for (int c = 0; c < paramCombCount; c++) {
+      paramCombs[c] = paramComb.clone();
+      long valueCombCount = 1;
+      for (int parameter : paramComb) {
+        valueCombCount *= domainSizes[parameter];
+      }
+      tupelCount += valueCombCount;
+      if (c < paramCombCount - 1) {
+        Tools.getNextParamComb(paramComb);
+      }
+    }
+    if (tupelCount > MAX_TUPEL_COUNT) {
+      throw new IllegalArgumentException("The parameters have too many tupels: " + tupelCount);
+    }
+    int[][] coverageCounts = new int[paramCombCount][];
+    for (int c = 0; c < paramCombCount; c++) {
+      int valueCombCount = 1;
+      for (int parameter : paramCombs[c]) {
+        valueCombCount *= domainSizes[parameter];
+      }
+      coverageCounts[c] = new int[valueCombCount];
+    }
+
+    for (int i = 0; i < rowCount; i++) {
+      orthogonalArray.row(i, row);
+      collapse(row);
+      for (int c = 0; c < paramCombCount; c++) {
+        coverageCounts[c][packValues(row, paramCombs[c])]++;
+      }
+    }
+
+    boolean[] removed = new boolean[rowCount];
+    int remainingCount = rowCount;
+    for (int collapsedValueCount = parameterCount; collapsedValueCount > 0;
+        collapsedValueCount--) {
+      for (int i = 0; i < rowCount; i++) {
+        if (collapsedValueCounts[i] == collapsedValueCount) {
+          candidateCount--;
+          orthogonalArray.row(i, row);
+          collapse(row);
+          if (isRedundant(row, paramCombs, coverageCounts)) {
+            for (int c = 0; c < paramCombCount; c++) {
+              coverageCounts[c][packValues(row, paramCombs[c])]--;
+            }
+            removed[i] = true;
+            remainingCount--;
+          } else {
+            checkSize(remainingCount - candidateCount, maxSize);
+          }
+        }
+      }
+    }
+
+    for (int[] counts : coverageCounts) {
+      for (int count : counts) {
+        if (count == 0) {
+          throw new IllegalStateException("The collapsed orthogonal array does not cover every "
+              + "tupel.");
+        }
+      }
+    }
+
+    rowIndices = new long[remainingCount];
+    int rowIndex = 0;
+    for (int i = 0; i < rowCount; i++) {
+      if (!removed[i]) {
+        rowIndices[rowIndex++] = i;
+      }
+    }
+  }
+
+  private void checkSize(long minimumSize, long maxSize) {
+    if (minimumSize > maxSize) {
+      throw new IllegalArgumentException("The collapsed orthogonal array contains more than "
+          + maxSize + " tests.");
+    }
+  }
+
+  private boolean isRedundant(int[] row, int[][] paramCombs, int[][] coverageCounts) {
+    for (int c = 0; c < paramCombs.length; c++) {
+      if (coverageCounts[c][packValues(row, paramCombs[c])] < 2) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int packValues(int[] row, int[] paramComb) {
+    return Tools.packValues(domainSizes, row,
+        paramComb);
+  }
+
+}
@@ -15,28 +15,41 @@
  */
 package com.github.noahzuch.jcomb.core.generator.oa;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 import com.github.noahzuch.jcomb.core.JCombException;
 import com.github.noahzuch.jcomb.core.generator.Algorithm;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
 import com.github.noahzuch.jcomb.core.generator.TestGenerator;
 import com.github.noahzuch.jcomb.core.oa.finitefield.FiniteField;
 
 /**
- * A {@link TestGenerator} that implements the algorithm Orthogonal Array.
+ * A {@link TestGenerator} that implements the algorithm Orthogonal Array. Every test is computed
+ * directly from its index, so no test is held in memory.
+ * <p>
+ * For a strength t and v values per parameter the array contains v^t tests. If there are at most
+ * t+1 parameters, the last parameter is the sum of the others modulo v. Otherwise Bush's
+ * construction is used for every prime power factor q of v: Each test is a polynomial of degree
+ * smaller than t over GF(q). The first parameter is its leading coefficient and parameter k is the
+ * polynomial evaluated at the field element k-1. This allows up to q+1 parameters. The arrays of
+ * all factors are then combined into one array with v values.
+ * <p>
+ * With fewer parameters than the strength, every test is needed. The array then contains all v^k
+ * tests of the k parameters, as if the strength was k.
  * 
  * @author Noah Zuch
  *
  */
-public class OrthogonalArrayGenerator implements TestGenerator {
+public class OrthogonalArrayGenerator implements RandomAccessTestGenerator {
 
+  private int strength;
   private int parameterCount;
   private int valueCount;
+  private long size;
+  private FiniteField[] finiteFields;
 
   /**
-   * Creates a new generator. The supplied context has to follow the restrictions described in
-   * {@link Algorithm#OA}.
+   * Creates a new generator with strength 2. The supplied context has to follow the restrictions
+   * described in {@link Algorithm#OA}.
    * @param parameterCount The number of parameters.
    * @param valueCount  The number of values per parameter.
    * 
@@ -44,114 +57,129 @@ public class OrthogonalArrayGenerator implements TestGenerator {
    *         parameters.
    */
   public OrthogonalArrayGenerator(int parameterCount, int valueCount) {
+    this(2, parameterCount, valueCount);
+  }
+
+  /**
+   * Creates a new generator for the given strength. The supplied context has to follow the
+   * restrictions described in {@link Algorithm#OA}.
+   * @param strength The strength of the orthogonal array.
+   * @param parameterCount The number of parameters.
+   * @param valueCount  The number of values per parameter.
+   * 
+   * @throws JCombException if the orthogonal array construction is not possible for the supplied
+   *         parameters.
+   */
+  public OrthogonalArrayGenerator(int strength, int parameterCount, int valueCount) {
     assert parameterCount > 0;
 
+    // the tests of a higher strength would repeat every value combination of the parameters
+    this.strength = Math.max(Math.min(strength, parameterCount), 2);
     this.parameterCount = parameterCount;
     this.valueCount = valueCount;
 
     checkInput(parameterCount, valueCount);
+    size = 1;
+    for (int i = 0; i < this.strength; i++) {
+      if (size > Long.MAX_VALUE / valueCount) {
+        throw new IllegalArgumentException(
+            "The orthogonal array has more tests than can be represented.");
+      }
+      size *= valueCount;
+    }
+    if (parameterCount > this.strength + 1) {
+      List<FiniteField> fields = Tools.getFiniteFieldsViaPrimeFactors(valueCount);
+      for (FiniteField field : fields) {
+        if (parameterCount > field.size() + 1) {
+          throw new IllegalArgumentException(
+              "The algorithm Orthogonal Array can not work if the parameter count is bigger than "
+              + "any prime power of the value count plus 1");
+        }
+      }
+      finiteFields = fields.toArray(new FiniteField[fields.size()]);
+    }
   }
 
   @Override
-  public Stream<int[]> getAllInputCombinations() {
-    assert parameterCount >= 2;
-
-    if (parameterCount == 2) {
-      return getAllInputFor2Param();
-    } else if (parameterCount == 3) {
-      return getAllInputFor3Param();
-    } else {
-      return getAllInputForAnyParamTest();
-    }
+  public long size() {
+    return size;
   }
 
-  private Stream<int[]> getAllInputFor2Param() {
-    assert parameterCount == 2;
+  @Override
+  public int getParameterCount() {
+    return parameterCount;
+  }
 
-    List<int[]> result = new ArrayList<>(valueCount ^ 2);
-    for (int i = 0; i < valueCount; i++) {
-      for (int j = 0; j < valueCount; j++) {
-        int[] test = new int[parameterCount];
-        test[0] = i;
-        test[1] = j;
-        result.add(test);
-      }
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + size);
+    }
+    if (finiteFields == null) {
+      computeRowViaSum(index, into);
+    } else {
+      computeRowViaFiniteFields(index, into);
     }
-
-    return result.stream();
   }
 
-  private Stream<int[]> getAllInputFor3Param() {
-    assert parameterCount == 3;
-
-    List<int[]> result = new ArrayList<>(valueCount ^ 2);
-    for (int i = 0; i < valueCount; i++) {
-      for (int j = 0; j < valueCount; j++) {
-        int[] test = new int[parameterCount];
-        test[0] = i;
-        test[1] = j;
-        test[2] = (i + j) % valueCount;
-        result.add(test);
+  /**
+   * Computes a test for at most strength+1 parameters. The index in base v contains the values of
+   * the first parameters and the optional last parameter is their sum modulo v.
+   */
+  private void computeRowViaSum(long index, int[] into) {
+    int sum = 0;
+    for (int k = strength - 1; k >= 0; k--) {
+      int value = (int) (index % valueCount);
+      index /= valueCount;
+      if (k < parameterCount) {
+        into[k] = value;
       }
+      sum = (sum + value) % valueCount;
+    }
+    if (parameterCount > strength) {
+      into[strength] = sum;
     }
-
-    return result.stream();
   }
 
-  private Stream<int[]> getAllInputForAnyParamTest() {
-    List<FiniteField> finiteFields = Tools.getFiniteFieldsViaPrimeFactors(valueCount);
-    // TODO move this check so that it gets catched when creating the OA Generator
-    finiteFields.stream().forEach(ff -> {
-      if (parameterCount > ff.size() + 1) {
-        throw new IllegalArgumentException(
-            "The algorithm Orthogonal Array can not work if the parameter count is bigger than any "
-            + "prime power of the value count plus 1");
+  /**
+   * Computes a test for a value count with the prime power factors q_1,...,q_n. The index is split
+   * into the strength many coefficients of one polynomial per field, with the first field being
+   * the most significant. Every value is then the number with the digits computeValue(f, k,
+   * coefficients_f) in the mixed radix system of q_1,...,q_n.
+   */
+  private void computeRowViaFiniteFields(long index, int[] into) {
+    int[][] coefficients = new int[finiteFields.length][strength];
+    for (int f = finiteFields.length - 1; f >= 0; f--) {
+      int fieldSize = finiteFields[f].size();
+      for (int i = 0; i < strength; i++) {
+        coefficients[f][i] = (int) (index % fieldSize);
+        index /= fieldSize;
       }
-    });
-    int arraySize = (int) Math.pow(valueCount, 2);
-    List<int[]> result = new ArrayList<>(arraySize);
-    for (int i = 0; i < arraySize; i++) {
-      result.add(new int[parameterCount]);
     }
-    fillOrthogonalArray(result, finiteFields, 0, new int[parameterCount], 0);
-
-    return result.stream();
-  }
-
-  private int fillOrthogonalArray(List<int[]> orthogonalArray, List<FiniteField> finiteFields,
-      int fieldIndex, int[] valueOffsets, int testIndex) {
-    FiniteField field = finiteFields.get(fieldIndex);
-    for (int i = 0; i < field.size(); i++) {
-      for (int j = 0; j < field.size(); j++) {
-        if (fieldIndex == finiteFields.size() - 1) {
-          for (int k = 0; k < parameterCount; k++) {
-            orthogonalArray.get(testIndex)[k] =
-                computeValue(field, k, i, j) + valueOffsets[k];
-          }
-          testIndex++;
-        } else {
-          int[] newValueOffsets = new int[parameterCount];
-          for (int k = 0; k < parameterCount; k++) {
-            newValueOffsets[k] = finiteFields.get(fieldIndex + 1).size()
-                * (valueOffsets[k] + computeValue(field, k, i, j));
-          }
-          testIndex =
-              fillOrthogonalArray(orthogonalArray, finiteFields, fieldIndex + 1, newValueOffsets,
-                  testIndex);
-        }
+    for (int k = 0; k < parameterCount; k++) {
+      int value = 0;
+      for (int f = 0; f < finiteFields.length; f++) {
+        value = value * finiteFields[f].size()
+            + computeValue(finiteFields[f], k, coefficients[f]);
       }
+      into[k] = value;
     }
-    return testIndex;
   }
 
-  private int computeValue(FiniteField field, int parameter, int i, int j) {
+  /**
+   * Evaluates the polynomial with the given coefficients (lowest degree first) for a parameter via
+   * horner's method.
+   */
+  private int computeValue(FiniteField field, int parameter, int[] coefficients) {
+    int value = coefficients[strength - 1];
     if (parameter == 0) {
-      return i;
-    } else if (parameter == 1) {
-      return j;
-    } else {
-      return field.add(j, field.multiply(parameter - 1, i));
+      return value;
+    }
+    int x = parameter - 1;
+    for (int i = strength - 2; i >= 0; i--) {
+      value = field.add(field.multiply(value, x), coefficients[i]);
     }
+    return value;
   }
 
   private void checkInput(int k, int v) {
@@ -160,7 +188,7 @@ public class OrthogonalArrayGenerator implements TestGenerator {
           "Algorithm Orhtogonal Array needs at least two parameter.");
     }
 
-    if (k > 3) {
+    if (k > strength + 1) {
       if (k > v + 1) {
         throw new IllegalArgumentException(
             "The algorithm Orthogonal Array can not work with the number of parameters being higher"
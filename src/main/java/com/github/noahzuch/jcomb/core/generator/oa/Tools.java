@@ -18,8 +18,7 @@ package com.github.noahzuch.jcomb.core.generator.oa;
 import java.util.ArrayList;
 import java.util.List;
 import com.github.noahzuch.jcomb.core.oa.finitefield.FiniteField;
-import com.github.noahzuch.jcomb.core.oa.finitefield.PrimeField;
-import com.github.noahzuch.jcomb.core.oa.finitefield.SavedFiniteField;
+import com.github.noahzuch.jcomb.core.oa.finitefield.FiniteFieldFactory;
 
 /**
  * A utility class for orthogonal arrays.
@@ -61,7 +60,8 @@ public class Tools {
 
 
   /**
-   * Returns a list of all finite fields needed for the OA algorithm.
+   * Returns a list of all finite fields needed for the OA algorithm. The fields are shared
+   * instances retrieved from {@link FiniteFieldFactory}.
    * 
    * @param n The number of values in the OA algorithm.
    * @return A List of all finite fields needed.
@@ -70,23 +70,16 @@ public class Tools {
     List<FiniteField> factors = new ArrayList<>();
     for (int i = 2; i <= n / i; i++) {
       if (n % i == 0) {
-        int prime = i;
         int primePower = 1;
-        int power = 0;
         while (n % i == 0) {
-          power++;
-          primePower *= prime;
+          primePower *= i;
           n /= i;
         }
-        if (power == 1) {
-          factors.add(new PrimeField(prime));
-        } else {
-          factors.add(SavedFiniteField.getSavedFiniteField(primePower));
-        }
+        factors.add(FiniteFieldFactory.getFiniteField(primePower));
       }
     }
     if (n > 1) {
-      factors.add(new PrimeField(n));
+      factors.add(FiniteFieldFactory.getFiniteField(n));
     }
     return factors;
   }
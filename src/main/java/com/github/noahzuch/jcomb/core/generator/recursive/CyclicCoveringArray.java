@@ -0,0 +1,125 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import java.util.Arrays;
+import java.util.Random;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+
+/**
+ * A circulant covering array of strength 2. The first k tests are the k cyclic shifts of a starter
+ * vector s of length k and the last v tests are the constant tests. The shifts cover the pair of
+ * values (s_i, s_{i+d}) for every two parameters with distance d, so the array is a covering
+ * array if for every distance d every pair of different values occurs in the starter vector at
+ * that distance. The starter vector is searched via a local search with a fixed seed.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class CyclicCoveringArray implements RandomAccessTestGenerator {
+
+  private static final int MAX_SEARCH_STEPS = 20000;
+
+  private final int[] starter;
+  private final int valueCount;
+
+  private CyclicCoveringArray(int[] starter, int valueCount) {
+    this.starter = starter;
+    this.valueCount = valueCount;
+  }
+
+  /**
+   * Searches a starter vector for the given number of parameters and values.
+   * 
+   * @param parameterCount The number of parameters k.
+   * @param valueCount The number of values v.
+   * @return The circulant covering array or null if no starter vector was found.
+   */
+  static CyclicCoveringArray create(int parameterCount, int valueCount) {
+    if (parameterCount < valueCount * (valueCount - 1)) {
+      return null;
+    }
+    Random random = new Random(parameterCount * 31L + valueCount);
+    int[] starter = new int[parameterCount];
+    for (int i = 0; i < parameterCount; i++) {
+      starter[i] = random.nextInt(valueCount);
+    }
+    int missingPairs = countMissingPairs(starter, valueCount);
+    for (int step = 0; step < MAX_SEARCH_STEPS && missingPairs > 0; step++) {
+      int position = random.nextInt(parameterCount);
+      int oldValue = starter[position];
+      starter[position] = random.nextInt(valueCount);
+      int newMissingPairs = countMissingPairs(starter, valueCount);
+      if (newMissingPairs <= missingPairs) {
+        missingPairs = newMissingPairs;
+      } else {
+        starter[position] = oldValue;
+      }
+    }
+    return missingPairs == 0 ? new CyclicCoveringArray(starter, valueCount) : null;
+  }
+
+  /**
+   * Counts the pairs of different values that are missing for any distance. The distance k-d
+   * covers the reversed pairs of distance d, so only distances up to k/2 are checked.
+   */
+  private static int countMissingPairs(int[] starter, int valueCount) {
+    int k = starter.length;
+    boolean[] covered = new boolean[valueCount * valueCount];
+    int missingPairs = 0;
+    for (int distance = 1; distance <= k / 2; distance++) {
+      Arrays.fill(covered, false);
+      int coveredCount = 0;
+      for (int i = 0; i < k; i++) {
+        int first = starter[i];
+        int second = starter[(i + distance) % k];
+        int pair = first * valueCount + second;
+        if (first != second && !covered[pair]) {
+          covered[pair] = true;
+          coveredCount++;
+        }
+      }
+      missingPairs += valueCount * (valueCount - 1) - coveredCount;
+    }
+    return missingPairs;
+  }
+
+  @Override
+  public long size() {
+    return starter.length + valueCount;
+  }
+
+  @Override
+  public int getParameterCount() {
+    return starter.length;
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + size());
+    }
+    int k = starter.length;
+    if (index < k) {
+      for (int j = 0; j < k; j++) {
+        into[j] = starter[(int) ((j + index) % k)];
+      }
+    } else {
+      Arrays.fill(into, 0, k, (int) (index - k));
+    }
+  }
+
+}
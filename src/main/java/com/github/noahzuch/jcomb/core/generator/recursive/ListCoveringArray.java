@@ -0,0 +1,62 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import java.util.List;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+
+/**
+ * A {@link RandomAccessTestGenerator} over an already computed list of tests, e.g. the result of
+ * a greedy generator.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class ListCoveringArray implements RandomAccessTestGenerator {
+
+  private final int[][] rows;
+  private final int parameterCount;
+
+  /**
+   * Creates a new array for the given tests.
+   * 
+   * @param rows The tests of the array.
+   * @param parameterCount The number of parameters of every test.
+   */
+  ListCoveringArray(List<int[]> rows, int parameterCount) {
+    this.rows = rows.toArray(new int[rows.size()][]);
+    this.parameterCount = parameterCount;
+  }
+
+  @Override
+  public long size() {
+    return rows.length;
+  }
+
+  @Override
+  public int getParameterCount() {
+    return parameterCount;
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= rows.length) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + rows.length);
+    }
+    System.arraycopy(rows[(int) index], 0, into, 0, parameterCount);
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import java.util.ArrayList;
+import java.util.List;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+
+/**
+ * A covering array whose values are permuted per parameter, so that as many tests as possible are
+ * constant. Permuting the values of a single parameter keeps the covering property. Tests that
+ * differ in every parameter are searched greedily and the i-th of them is turned into the constant
+ * test with value i. {@link ProductCoveringArray} can then share these tests between its two
+ * arrays.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class NormalizedCoveringArray implements RandomAccessTestGenerator {
+
+  private final RandomAccessTestGenerator array;
+  private final int[][] permutations;
+
+  /**
+   * Creates a new normalized version of the given array.
+   * 
+   * @param array The array to normalize.
+   * @param valueCount The number of values of every parameter.
+   */
+  NormalizedCoveringArray(RandomAccessTestGenerator array, int valueCount) {
+    this.array = array;
+    int parameterCount = array.getParameterCount();
+    List<int[]> disjointRows = new ArrayList<>();
+    for (long i = 0; i < array.size() && disjointRows.size() < valueCount; i++) {
+      int[] row = new int[parameterCount];
+      array.row(i, row);
+      if (isDisjoint(row, disjointRows)) {
+        disjointRows.add(row);
+      }
+    }
+    permutations = new int[parameterCount][valueCount];
+    for (int k = 0; k < parameterCount; k++) {
+      boolean[] used = new boolean[valueCount];
+      boolean[] assigned = new boolean[valueCount];
+      for (int i = 0; i < disjointRows.size(); i++) {
+        permutations[k][disjointRows.get(i)[k]] = i;
+        used[i] = true;
+        assigned[disjointRows.get(i)[k]] = true;
+      }
+      int nextValue = 0;
+      for (int value = 0; value < valueCount; value++) {
+        if (!assigned[value]) {
+          while (used[nextValue]) {
+            nextValue++;
+          }
+          permutations[k][value] = nextValue;
+          used[nextValue] = true;
+        }
+      }
+    }
+  }
+
+  private static boolean isDisjoint(int[] row, List<int[]> rows) {
+    for (int[] other : rows) {
+      for (int k = 0; k < row.length; k++) {
+        if (row[k] == other[k]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public long size() {
+    return array.size();
+  }
+
+  @Override
+  public int getParameterCount() {
+    return array.getParameterCount();
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    array.row(index, into);
+    for (int k = 0; k < permutations.length; k++) {
+      into[k] = permutations[k][into[k]];
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.oa.OrthogonalArrayGenerator;
+
+/**
+ * Creates covering arrays of strength 2 with a fixed number of values recursively. An array for k
+ * parameters is the product of a small base array with k_A parameters and an array for ceil(k/k_A)
+ * parameters. The base arrays are orthogonal arrays, circulant arrays
+ * ({@link CyclicCoveringArray}) or arrays created by IPOG for at most
+ * {@link #MAX_BASE_PARAMETERS} parameters. For every k the smallest of these options is used.
+ * All created arrays are cached.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class ProductConstruction {
+
+  /**
+   * The maximum number of parameters for which a base array is created by IPOG.
+   */
+  static final int MAX_BASE_PARAMETERS = 32;
+
+  private final int valueCount;
+  private final Map<Integer, RandomAccessTestGenerator> baseArrays = new HashMap<>();
+  private final Map<Integer, RandomAccessTestGenerator> arrays = new HashMap<>();
+
+  /**
+   * Creates a new construction for the given number of values.
+   * 
+   * @param valueCount The number of values of every parameter.
+   */
+  ProductConstruction(int valueCount) {
+    this.valueCount = valueCount;
+  }
+
+  /**
+   * Returns the smallest found covering array of strength 2 with at least the given number of
+   * parameters.
+   * 
+   * @param parameterCount The number of parameters.
+   * @return The covering array.
+   */
+  RandomAccessTestGenerator getArray(int parameterCount) {
+    RandomAccessTestGenerator array = arrays.get(parameterCount);
+    if (array != null) {
+      return array;
+    }
+    if (parameterCount <= MAX_BASE_PARAMETERS) {
+      array = getBaseArray(parameterCount);
+    }
+    for (int baseParameterCount : getBaseParameterCounts()) {
+      int remainingParameterCount =
+          (parameterCount + baseParameterCount - 1) / baseParameterCount;
+      if (baseParameterCount < parameterCount && remainingParameterCount >= 2) {
+        RandomAccessTestGenerator product = new ProductCoveringArray(
+            getBaseArray(baseParameterCount), getArray(remainingParameterCount), valueCount);
+        if (array == null || product.size() < array.size()) {
+          array = product;
+        }
+      }
+    }
+    arrays.put(parameterCount, array);
+    return array;
+  }
+
+  /**
+   * Returns the numbers of parameters of the base arrays used in products. An orthogonal array
+   * with v+1 parameters can share only one constant test, without its first parameter it can
+   * share v constant tests.
+   */
+  private int[] getBaseParameterCounts() {
+    int orthogonalArrayParameterCount = getOrthogonalArrayParameterCount();
+    if (orthogonalArrayParameterCount > 3) {
+      return new int[] {orthogonalArrayParameterCount, orthogonalArrayParameterCount - 1,
+          MAX_BASE_PARAMETERS};
+    }
+    return new int[] {MAX_BASE_PARAMETERS};
+  }
+
+  /**
+   * Returns the maximum number of parameters of an orthogonal array with v values.
+   */
+  private int getOrthogonalArrayParameterCount() {
+    int parameterCount = 2;
+    while (parameterCount < MAX_BASE_PARAMETERS) {
+      try {
+        new OrthogonalArrayGenerator(parameterCount + 1, valueCount);
+        parameterCount++;
+      } catch (IllegalArgumentException e) {
+        break;
+      }
+    }
+    return parameterCount;
+  }
+
+  private RandomAccessTestGenerator getBaseArray(int parameterCount) {
+    RandomAccessTestGenerator array = baseArrays.get(parameterCount);
+    if (array != null) {
+      return array;
+    }
+    try {
+      array = new OrthogonalArrayGenerator(parameterCount, valueCount);
+    } catch (IllegalArgumentException e) {
+      int[] baseDomainSizes = new int[parameterCount];
+      Arrays.fill(baseDomainSizes, valueCount);
+      List<int[]> tests = new IpogTestGenerator(2, baseDomainSizes,
+          ConstraintHandler.getDefaultConstraintHandler()).getAllInputCombinations()
+              .collect(Collectors.toList());
+      array = new ListCoveringArray(tests, parameterCount);
+      CyclicCoveringArray cyclicArray = CyclicCoveringArray.create(parameterCount, valueCount);
+      if (cyclicArray != null && cyclicArray.size() < array.size()) {
+        array = cyclicArray;
+      }
+    }
+    array = new NormalizedCoveringArray(array, valueCount);
+    baseArrays.put(parameterCount, array);
+    return array;
+  }
+
+}
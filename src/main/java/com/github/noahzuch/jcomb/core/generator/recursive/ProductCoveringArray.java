@@ -0,0 +1,119 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import java.util.Arrays;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+
+/**
+ * The product of two covering arrays of strength 2 with the same number of values v. For an array
+ * A with k1 and an array B with k2 parameters, the product has k1*k2 parameters, where parameter
+ * (i,j) = i*k2+j takes its values from parameter i of A in the first tests and from parameter j of
+ * B in the remaining tests. Two parameters that differ in i are covered by the tests of A, all
+ * others by the tests of B.
+ * <p>
+ * If both arrays contain a constant test with the same value, the test of B is skipped as it
+ * results in the same test as the one of A. The tests are computed when they are accessed.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class ProductCoveringArray implements RandomAccessTestGenerator {
+
+  private final RandomAccessTestGenerator first;
+  private final RandomAccessTestGenerator second;
+  private final long[] secondRows;
+
+  /**
+   * Creates the product of the two given arrays.
+   * 
+   * @param first The array A.
+   * @param second The array B.
+   * @param valueCount The number of values v of both arrays.
+   */
+  ProductCoveringArray(RandomAccessTestGenerator first, RandomAccessTestGenerator second,
+      int valueCount) {
+    this.first = first;
+    this.second = second;
+    boolean[] firstConstantValues = getConstantValues(first, valueCount);
+    int[] row = new int[second.getParameterCount()];
+    long[] rows = new long[(int) second.size()];
+    int rowCount = 0;
+    for (int i = 0; i < second.size(); i++) {
+      second.row(i, row);
+      int constantValue = getConstantValue(row);
+      if (constantValue == -1 || !firstConstantValues[constantValue]) {
+        rows[rowCount++] = i;
+      }
+    }
+    secondRows = Arrays.copyOf(rows, rowCount);
+  }
+
+  private static boolean[] getConstantValues(RandomAccessTestGenerator array, int valueCount) {
+    boolean[] constantValues = new boolean[valueCount];
+    int[] row = new int[array.getParameterCount()];
+    for (long i = 0; i < array.size(); i++) {
+      array.row(i, row);
+      int constantValue = getConstantValue(row);
+      if (constantValue != -1) {
+        constantValues[constantValue] = true;
+      }
+    }
+    return constantValues;
+  }
+
+  private static int getConstantValue(int[] row) {
+    for (int value : row) {
+      if (value != row[0]) {
+        return -1;
+      }
+    }
+    return row[0];
+  }
+
+  @Override
+  public long size() {
+    return first.size() + secondRows.length;
+  }
+
+  @Override
+  public int getParameterCount() {
+    return first.getParameterCount() * second.getParameterCount();
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " for size " + size());
+    }
+    int firstParameterCount = first.getParameterCount();
+    int secondParameterCount = second.getParameterCount();
+    if (index < first.size()) {
+      int[] row = new int[firstParameterCount];
+      first.row(index, row);
+      for (int i = 0; i < firstParameterCount; i++) {
+        Arrays.fill(into, i * secondParameterCount, (i + 1) * secondParameterCount, row[i]);
+      }
+    } else {
+      int[] row = new int[secondParameterCount];
+      second.row(secondRows[(int) (index - first.size())], row);
+      for (int i = 0; i < firstParameterCount; i++) {
+        System.arraycopy(row, 0, into, i * secondParameterCount, secondParameterCount);
+      }
+    }
+  }
+
+}
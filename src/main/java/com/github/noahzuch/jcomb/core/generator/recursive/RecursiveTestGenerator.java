@@ -0,0 +1,89 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import java.util.Arrays;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.oa.finitefield.FiniteFieldFactory;
+
+/**
+ * A {@link TestGenerator} of strength 2 for models with a very large number of parameters. The
+ * covering array is combined recursively from smaller arrays via {@link ProductCoveringArray}, as
+ * described in {@link ProductConstruction}. This takes roughly linear time in the number of
+ * parameters, compared to the super quadratic time of IPOG.
+ * <p>
+ * The arrays use v values, where v is the biggest domain size or the next prime power, whichever
+ * results in fewer tests. The values of smaller domains are collapsed via modulo. Only the base
+ * arrays are held in memory, the tests of the products are computed when they are accessed.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class RecursiveTestGenerator implements RandomAccessTestGenerator {
+
+  private final int[] domainSizes;
+  private final RandomAccessTestGenerator coveringArray;
+
+  /**
+   * Creates a new generator of strength 2 for the given parameters.
+   * 
+   * @param domainSizes The parameters supplied via an array of their number of values.
+   * @throws IllegalArgumentException if less than two parameters are supplied.
+   */
+  public RecursiveTestGenerator(int[] domainSizes) {
+    if (domainSizes.length < 2) {
+      throw new IllegalArgumentException(
+          "The strength can not be greater than the number of parameters.");
+    }
+    this.domainSizes = domainSizes;
+    int valueCount = Arrays.stream(domainSizes).max().getAsInt();
+    RandomAccessTestGenerator array =
+        new ProductConstruction(valueCount).getArray(domainSizes.length);
+    int primePower = valueCount;
+    while (!FiniteFieldFactory.isSupported(primePower)) {
+      primePower++;
+    }
+    if (primePower != valueCount) {
+      RandomAccessTestGenerator primePowerArray =
+          new ProductConstruction(primePower).getArray(domainSizes.length);
+      if (primePowerArray.size() < array.size()) {
+        array = primePowerArray;
+      }
+    }
+    coveringArray = array;
+  }
+
+  @Override
+  public long size() {
+    return coveringArray.size();
+  }
+
+  @Override
+  public int getParameterCount() {
+    return domainSizes.length;
+  }
+
+  @Override
+  public void row(long index, int[] into) {
+    int[] row = new int[coveringArray.getParameterCount()];
+    coveringArray.row(index, row);
+    for (int k = 0; k < domainSizes.length; k++) {
+      into[k] = row[k] % domainSizes[k];
+    }
+  }
+
+}
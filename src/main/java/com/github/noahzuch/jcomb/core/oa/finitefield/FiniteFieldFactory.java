@@ -0,0 +1,107 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.oa.finitefield;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import com.github.noahzuch.jcomb.core.generator.oa.Tools;
+
+/**
+ * A factory for {@link FiniteField}s of any prime power size. Created fields are cached, so that
+ * their tables only have to be computed once.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public final class FiniteFieldFactory {
+
+  /**
+   * The biggest field size, for which the tables of a {@link GaloisField} are computed. Bigger
+   * prime fields are calculated directly via {@link PrimeField}.
+   */
+  public static final int MAX_TABLE_SIZE = 1 << 16;
+
+  private static final Map<Integer, FiniteField> cache = new ConcurrentHashMap<>();
+
+  private FiniteFieldFactory() {
+
+  }
+
+  /**
+   * Returns a FiniteField with the given number of values.
+   * 
+   * @param size The size of the field. Has to be a prime power.
+   * @return The finite field for the given size.
+   * @throws IllegalArgumentException if size is not a prime power or if size is a prime power,
+   *         but not a prime, bigger than {@link #MAX_TABLE_SIZE}.
+   */
+  public static FiniteField getFiniteField(int size) {
+    return cache.computeIfAbsent(size, FiniteFieldFactory::createFiniteField);
+  }
+
+  /**
+   * Checks if a FiniteField with the given size can be created.
+   * 
+   * @param size The size of the field.
+   * @return True if {@link #getFiniteField(int)} supports the size, false otherwise.
+   */
+  public static boolean isSupported(int size) {
+    int prime = getPrime(size);
+    return prime != -1 && (prime == size || size <= MAX_TABLE_SIZE);
+  }
+
+  private static FiniteField createFiniteField(int size) {
+    int prime = getPrime(size);
+    if (prime == -1) {
+      throw new IllegalArgumentException("No FiniteField exists for given size: " + size);
+    }
+    if (size > MAX_TABLE_SIZE) {
+      if (prime == size) {
+        return new PrimeField(prime);
+      }
+      throw new IllegalArgumentException("FiniteField is too big: " + size);
+    }
+    int power = 0;
+    for (int n = size; n > 1; n /= prime) {
+      power++;
+    }
+    return new GaloisField(prime, power);
+  }
+
+  /**
+   * Returns the prime p if size is a power of p.
+   * 
+   * @return The prime or -1 if size is not a prime power.
+   */
+  private static int getPrime(int size) {
+    if (size < 2) {
+      return -1;
+    }
+    int prime = size;
+    for (int i = 2; i <= size / i; i++) {
+      if (size % i == 0) {
+        prime = i;
+        break;
+      }
+    }
+    int n = size;
+    while (n % prime == 0) {
+      n /= prime;
+    }
+    return n == 1 && Tools.isPrime(prime) ? prime : -1;
+  }
+
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.oa.finitefield;
+
+import com.github.noahzuch.jcomb.core.generator.oa.Tools;
+
+/**
+ * A FiniteField with p^n values for a prime p. The field is constructed as the polynomials over
+ * the integers modulo p, reduced by a primitive polynomial of degree n. A value represents the
+ * polynomial whose coefficients are the digits of the value in base p, the lowest digit being the
+ * constant coefficient.
+ * <p>
+ * Since the polynomial x generates every non zero value, all operations are table lookups: The
+ * multiplication uses log/antilog tables and the addition of two non zero values uses Zech's
+ * logarithm log(1 + x^d). Instances should be retrieved via {@link FiniteFieldFactory}, which
+ * caches them.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class GaloisField implements FiniteField {
+
+  private final int prime;
+  private final int size;
+  private final int order;
+
+  private final int[] antilog;
+  private final int[] log;
+  private final int[] zech;
+  private final int[] negation;
+  private final int[] inverse;
+
+  /**
+   * Creates a new field with prime^power values.
+   * 
+   * @param prime The characteristic of the field. Has to be a prime number.
+   * @param power The degree of the field extension. Has to be at least one.
+   * @throws IllegalArgumentException if prime is not a prime number, power is smaller than one or
+   *         the size of the field exceeds the maximum int value.
+   */
+  public GaloisField(int prime, int power) {
+    if (!Tools.isPrime(prime)) {
+      throw new IllegalArgumentException("supplied number is not a prime");
+    }
+    if (power < 1) {
+      throw new IllegalArgumentException("The power of a finite field has to be at least one");
+    }
+    long longSize = 1;
+    for (int i = 0; i < power; i++) {
+      longSize *= prime;
+      if (longSize > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("The finite field is too big.");
+      }
+    }
+    this.prime = prime;
+    this.size = (int) longSize;
+    this.order = size - 1;
+
+    antilog = new int[2 * Math.max(order, 1)];
+    log = new int[size];
+    findPrimitivePolynomial(power);
+    for (int i = order; i < antilog.length; i++) {
+      antilog[i] = antilog[i - order];
+    }
+
+    negation = new int[size];
+    for (int a = 0; a < size; a++) {
+      negation[a] = negate(a);
+    }
+    zech = new int[Math.max(order, 1)];
+    for (int d = 0; d < order; d++) {
+      int sum = addOne(antilog[d]);
+      zech[d] = sum == 0 ? -1 : log[sum];
+    }
+    inverse = new int[size];
+    for (int a = 1; a < size; a++) {
+      inverse[a] = antilog[(order - log[a]) % order];
+    }
+  }
+
+  /**
+   * Searches the monic polynomials of the given degree for one, whose root x generates all non zero
+   * values, and fills the log/antilog tables with the powers of x.
+   */
+  private void findPrimitivePolynomial(int power) {
+    int highestDigit = size / prime;
+    for (int reduction = 1; reduction < size; reduction++) {
+      // x^power = -reduction(x) modulo the candidate polynomial x^power + reduction(x)
+      int negatedReduction = negate(reduction);
+      int element = 1;
+      boolean primitive = true;
+      for (int i = 0; i < order; i++) {
+        if (element == 1 && i > 0) {
+          primitive = false;
+          break;
+        }
+        antilog[i] = element;
+        log[element] = i;
+        int overflow = element / highestDigit;
+        element = addScaled((element % highestDigit) * prime, negatedReduction, overflow);
+      }
+      if (primitive && element == 1) {
+        return;
+      }
+    }
+    throw new IllegalStateException("No primitive polynomial found for GF(" + size + ")");
+  }
+
+  /**
+   * Calculates a + factor * b for the polynomials represented by a and b.
+   */
+  private int addScaled(int a, int b, int factor) {
+    int result = 0;
+    int digitValue = 1;
+    while (a > 0 || b > 0) {
+      result += (int) ((a % prime + (long) factor * (b % prime)) % prime) * digitValue;
+      a /= prime;
+      b /= prime;
+      digitValue *= prime;
+    }
+    return result;
+  }
+
+  private int negate(int a) {
+    int result = 0;
+    int digitValue = 1;
+    while (a > 0) {
+      result += ((prime - a % prime) % prime) * digitValue;
+      a /= prime;
+      digitValue *= prime;
+    }
+    return result;
+  }
+
+  private int addOne(int a) {
+    return a % prime == prime - 1 ? a - (prime - 1) : a + 1;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int add(int a, int b) {
+    if (prime == 2) {
+      return a ^ b;
+    }
+    if (a == 0) {
+      return b;
+    }
+    if (b == 0) {
+      return a;
+    }
+    int logA = log[a];
+    int difference = log[b] - logA;
+    int zechLog = zech[difference < 0 ? difference + order : difference];
+    return zechLog == -1 ? 0 : antilog[logA + zechLog];
+  }
+
+  @Override
+  public int subtract(int a, int b) {
+    return add(a, negation[b]);
+  }
+
+  @Override
+  public int multiply(int a, int b) {
+    if (a == 0 || b == 0) {
+      return 0;
+    }
+    return antilog[log[a] + log[b]];
+  }
+
+  @Override
+  public int divide(int a, int b) {
+    return multiply(a, multInvers(b));
+  }
+
+  @Override
+  public int addInvers(int a) {
+    return negation[a];
+  }
+
+  @Override
+  public int multInvers(int b) {
+    if (b == 0) {
+      throw new ArithmeticException("No multiplicative invers exists for zero");
+    }
+    return inverse[b];
+  }
+
+}
@@ -41,39 +41,51 @@ public class PrimeField implements FiniteField {
 
   @Override
   public int subtract(int a, int b) {
-    return (a + addInvers(b)) % prime;
+    return (int) (((long) a + addInvers(b)) % prime);
   }
 
   @Override
   public int multiply(int a, int b) {
-    return (a * b) % prime;
+    return (int) (((long) a * b) % prime);
   }
 
+  /**
+   * Calculates the multiplicative inverse via the extended euclidean algorithm.
+   */
   @Override
   public int multInvers(int a) {
     if (a == 0) {
       throw new ArithmeticException("No multiplicative invers exists for zero");
     }
-    int inv = 1;
-    for (int i = 0; i < prime - 2; i++) {
-      inv = (inv * a) % prime;
+    long oldRemainder = prime;
+    long remainder = a;
+    long oldCoefficient = 0;
+    long coefficient = 1;
+    while (remainder != 0) {
+      long quotient = oldRemainder / remainder;
+      long temp = oldRemainder - quotient * remainder;
+      oldRemainder = remainder;
+      remainder = temp;
+      temp = oldCoefficient - quotient * coefficient;
+      oldCoefficient = coefficient;
+      coefficient = temp;
     }
-    return inv;
+    return (int) ((oldCoefficient % prime + prime) % prime);
   }
 
   @Override
   public int divide(int a, int b) {
-    return (a * multInvers(b)) % prime;
+    return multiply(a, multInvers(b));
   }
 
   @Override
   public int addInvers(int a) {
-    return prime - a;
+    return a == 0 ? 0 : prime - a;
   }
 
   @Override
   public int add(int a, int b) {
-    return (a + b) % prime;
+    return (int) (((long) a + b) % prime);
   }
 
   @Override
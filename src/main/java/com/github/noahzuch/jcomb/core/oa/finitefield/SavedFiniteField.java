@@ -19,7 +19,11 @@ package com.github.noahzuch.jcomb.core.oa.finitefield;
  * An implementation of the {@link FiniteField} interface that uses saved field tables.
  * @author Noah
  *
+ * @deprecated Only contains the fields of size 4 and 8. Use
+ *             {@link FiniteFieldFactory#getFiniteField(int)} instead, which supports every prime
+ *             power.
  */
+@Deprecated
 public class SavedFiniteField implements FiniteField {
 
   private static final FiniteFieldTable[] finiteFields = new FiniteFieldTable[] {
@@ -16,6 +16,7 @@
 package com.github.noahzuch.jcomb.core.partial;
 
 import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.domain.Domain;
 
 /**
  * A Constraint that is based on an already existing one, but uses indices from a ParameterReorder
@@ -71,4 +72,28 @@ public class ReorderedConstraint implements Constraint {
     return wrappedConstraint.confirmsWith(inputKombination);
   }
 
+  @Override
+  public boolean confirmsWith(Object[] combination, int[] parameters) {
+    return wrappedConstraint.confirmsWith(combination, parameters);
+  }
+
+  @Override
+  public boolean usesValueIndices() {
+    return wrappedConstraint.usesValueIndices();
+  }
+
+  @Override
+  public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+    return wrappedConstraint.confirmsWithIndices(valueIndices, parameters);
+  }
+
+  @Override
+  public Constraint compile(Domain[] domains) {
+    Constraint compiled = wrappedConstraint.compile(domains);
+    if (compiled == wrappedConstraint) {
+      return this;
+    }
+    return new ReorderedConstraint(compiled, parameterReOrder);
+  }
+
 }
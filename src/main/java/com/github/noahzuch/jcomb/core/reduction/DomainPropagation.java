@@ -0,0 +1,165 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.reduction;
+
+import java.util.Arrays;
+import java.util.List;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+
+/**
+ * Removes values, that can not be part of any valid test. Every constraint that can be checked with
+ * value indices is enumerated over the remaining values of its parameters. Values without a single
+ * allowed tupel are removed, until no constraint removes a value anymore. Constraints that allow
+ * every remaining tupel are marked as tautologies.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class DomainPropagation {
+
+  private final List<Constraint> constraints;
+  private final int tupelLimit;
+  private final boolean[][] remaining;
+  private final int[] remainingCount;
+  private final boolean[] tautology;
+
+  /**
+   * Creates a new DomainPropagation.
+   * 
+   * @param constraints The compiled constraints.
+   * @param domainSizes The sizes of the domains of all parameters.
+   * @param tupelLimit The maximum number of tupels, that are enumerated for one constraint.
+   */
+  DomainPropagation(List<Constraint> constraints, int[] domainSizes, int tupelLimit) {
+    this.constraints = constraints;
+    this.tupelLimit = tupelLimit;
+    remaining = new boolean[domainSizes.length][];
+    remainingCount = domainSizes.clone();
+    for (int parameter = 0; parameter < domainSizes.length; parameter++) {
+      remaining[parameter] = new boolean[domainSizes[parameter]];
+      Arrays.fill(remaining[parameter], true);
+    }
+    tautology = new boolean[constraints.size()];
+  }
+
+  /**
+   * Propagates the constraints until no more values can be removed.
+   * 
+   * @throws JCombException if a constraint does not allow any tupel, so that no valid test exists.
+   */
+  void propagate() {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < constraints.size(); i++) {
+        if (!tautology[i] && constraints.get(i).usesValueIndices()) {
+          changed |= propagate(i);
+        }
+      }
+    }
+  }
+
+  private boolean propagate(int constraintIndex) {
+    Constraint constraint = constraints.get(constraintIndex);
+    int[] parameters = Arrays.stream(constraint.getInvolvedParameters()).distinct().toArray();
+    long tupelCount = 1;
+    int[][] values = new int[parameters.length][];
+    for (int i = 0; i < parameters.length; i++) {
+      tupelCount *= remainingCount[parameters[i]];
+      if (tupelCount > tupelLimit) {
+        return false;
+      }
+      values[i] = getRemainingValues(parameters[i]);
+    }
+    if (tupelCount == 0) {
+      throw new JCombException("No valid test could be calculated. Check defined Constraints");
+    }
+
+    boolean[][] supported = new boolean[parameters.length][];
+    for (int i = 0; i < parameters.length; i++) {
+      supported[i] = new boolean[remaining[parameters[i]].length];
+    }
+    int[] valueIndices = new int[remaining.length];
+    int[] positions = new int[parameters.length];
+    for (int i = 0; i < parameters.length; i++) {
+      valueIndices[parameters[i]] = values[i][0];
+    }
+    long allowedCount = 0;
+    for (long tupel = 0; tupel < tupelCount; tupel++) {
+      if (constraint.confirmsWithIndices(valueIndices, constraint.getInvolvedParameters())) {
+        allowedCount++;
+        for (int i = 0; i < parameters.length; i++) {
+          supported[i][valueIndices[parameters[i]]] = true;
+        }
+      }
+      for (int i = parameters.length - 1; i >= 0; i--) {
+        positions[i] = (positions[i] + 1) % values[i].length;
+        valueIndices[parameters[i]] = values[i][positions[i]];
+        if (positions[i] != 0) {
+          break;
+        }
+      }
+    }
+
+    if (allowedCount == 0) {
+      throw new JCombException("No valid test could be calculated. Check defined Constraints");
+    }
+    if (allowedCount == tupelCount) {
+      tautology[constraintIndex] = true;
+      return false;
+    }
+    boolean changed = false;
+    for (int i = 0; i < parameters.length; i++) {
+      for (int value : values[i]) {
+        if (!supported[i][value]) {
+          remaining[parameters[i]][value] = false;
+          remainingCount[parameters[i]]--;
+          changed = true;
+        }
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Returns the indices of the values of a parameter, that were not removed.
+   * 
+   * @param parameter The parameter.
+   * @return The remaining value indices in ascending order.
+   */
+  int[] getRemainingValues(int parameter) {
+    int[] values = new int[remainingCount[parameter]];
+    int position = 0;
+    for (int value = 0; value < remaining[parameter].length; value++) {
+      if (remaining[parameter][value]) {
+        values[position++] = value;
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns whether or not the given constraint allows every tupel of the remaining values.
+   * 
+   * @param constraintIndex The index of the constraint.
+   * @return true if the constraint can be left out.
+   */
+  boolean isTautology(int constraintIndex) {
+    return tautology[constraintIndex];
+  }
+
+}
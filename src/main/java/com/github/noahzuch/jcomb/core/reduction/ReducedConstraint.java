@@ -0,0 +1,84 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.reduction;
+
+import java.util.stream.IntStream;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+
+/**
+ * A constraint of a {@link ReducedJCombContext}. Values are passed on unchanged, while value
+ * indices are mapped back to the indices of the original domains.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class ReducedConstraint implements Constraint {
+
+  private final Constraint constraint;
+
+  /**
+   * The original value indices of every reduced value index of the involved parameters.
+   */
+  private final int[][] originalIndices;
+  private final int[] identityPositions;
+
+  /**
+   * A buffer for the original value indices per thread, as constraints are checked in the
+   * innermost loops and by several threads at once.
+   */
+  private final ThreadLocal<int[]> originalValueIndices;
+
+  ReducedConstraint(Constraint constraint, int[][] originalIndicesOfParameter) {
+    this.constraint = constraint;
+    int[] parameters = constraint.getInvolvedParameters();
+    originalIndices = new int[parameters.length][];
+    for (int i = 0; i < parameters.length; i++) {
+      originalIndices[i] = originalIndicesOfParameter[parameters[i]];
+    }
+    identityPositions = IntStream.range(0, parameters.length).toArray();
+    originalValueIndices = ThreadLocal.withInitial(() -> new int[parameters.length]);
+  }
+
+  @Override
+  public int[] getInvolvedParameters() {
+    return constraint.getInvolvedParameters();
+  }
+
+  @Override
+  public boolean confirmsWith(Object[] inputCombination) {
+    return constraint.confirmsWith(inputCombination);
+  }
+
+  @Override
+  public boolean confirmsWith(Object[] combination, int[] parameters) {
+    return constraint.confirmsWith(combination, parameters);
+  }
+
+  @Override
+  public boolean usesValueIndices() {
+    return constraint.usesValueIndices();
+  }
+
+  @Override
+  public boolean confirmsWithIndices(int[] valueIndices, int[] parameters) {
+    int[] original = originalValueIndices.get();
+    for (int i = 0; i < parameters.length; i++) {
+      original[i] = originalIndices[i][valueIndices[parameters[i]]];
+    }
+    return constraint.confirmsWithIndices(original, identityPositions);
+  }
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.reduction;
+
+import com.github.noahzuch.jcomb.core.domain.Domain;
+
+/**
+ * A view of a domain, that only contains the values with the given indices.
+ * 
+ * @author Noah Zuch
+ *
+ */
+class ReducedDomain extends Domain {
+
+  private final Domain domain;
+  private final int[] originalIndices;
+
+  ReducedDomain(Domain domain, int[] originalIndices) {
+    this.domain = domain;
+    this.originalIndices = originalIndices;
+  }
+
+  @Override
+  public Object getValueAt(int index) {
+    return domain.getValueAt(originalIndices[index]);
+  }
+
+  @Override
+  public int getSize() {
+    return originalIndices.length;
+  }
+
+}
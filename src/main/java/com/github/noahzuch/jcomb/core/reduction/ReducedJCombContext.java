@@ -0,0 +1,173 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.reduction;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.github.noahzuch.jcomb.core.InstanceInformation;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+import com.github.noahzuch.jcomb.core.generator.Algorithm;
+
+/**
+ * A simplified view of a context, which is used for the test generation. Values that can not be
+ * part of any valid test are removed from the domains, and constraints that allow every remaining
+ * tupel are left out. The remaining constraints are compiled, see
+ * {@link Constraints#compile(JCombContext)}.
+ * <p>
+ * The generators only see the reduced domains, so they neither track nor try to cover tupels of
+ * removed values. The created tests have to be mapped back with
+ * {@link #toOriginalCombination(int[])}.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class ReducedJCombContext implements JCombContext {
+
+  private final JCombContext context;
+  private final Domain[] domains;
+
+  /**
+   * The original value indices of every reduced value index, or null if the domain of a parameter
+   * was not reduced.
+   */
+  private final int[][] originalIndices;
+  private final Map<Integer, Constraint> constraints;
+  private final boolean reduced;
+
+  private ReducedJCombContext(JCombContext context, int[][] remainingValues,
+      Map<Integer, Constraint> constraints) {
+    this.context = context;
+    this.constraints = constraints;
+    int parameterCount = context.getParameterCount();
+    domains = new Domain[parameterCount];
+    originalIndices = new int[parameterCount][];
+    boolean anyReduced = false;
+    for (int parameter = 0; parameter < parameterCount; parameter++) {
+      Domain domain = context.getParameter(parameter);
+      if (remainingValues[parameter].length < domain.getSize()) {
+        originalIndices[parameter] = remainingValues[parameter];
+        domains[parameter] = new ReducedDomain(domain, remainingValues[parameter]);
+        anyReduced = true;
+      } else {
+        domains[parameter] = domain;
+      }
+    }
+    reduced = anyReduced;
+  }
+
+  /**
+   * Creates the reduced view of the given context.
+   * 
+   * @param context The context to reduce.
+   * @return The reduced context.
+   * @throws JCombException if the constraints do not allow any test.
+   */
+  public static ReducedJCombContext reduce(JCombContext context) {
+    List<Constraint> compiled = Constraints.compile(context);
+    int[] domainSizes = new int[context.getParameterCount()];
+    for (int parameter = 0; parameter < domainSizes.length; parameter++) {
+      domainSizes[parameter] = context.getParameter(parameter).getSize();
+    }
+    DomainPropagation propagation =
+        new DomainPropagation(compiled, domainSizes, Constraints.TABLE_SIZE_LIMIT);
+    propagation.propagate();
+
+    int[][] remainingValues = new int[domainSizes.length][];
+    for (int parameter = 0; parameter < domainSizes.length; parameter++) {
+      remainingValues[parameter] = propagation.getRemainingValues(parameter);
+    }
+    List<Integer> ids = new ArrayList<>(context.getConstraints().keySet());
+    Map<Integer, Constraint> constraints = new LinkedHashMap<>();
+    for (int i = 0; i < compiled.size(); i++) {
+      if (!propagation.isTautology(i)) {
+        constraints.put(ids.get(i), new ReducedConstraint(compiled.get(i), remainingValues));
+      }
+    }
+    return new ReducedJCombContext(context, remainingValues, constraints);
+  }
+
+  /**
+   * Returns whether or not any value was removed from the domains.
+   * 
+   * @return true if at least one domain is smaller than the original one.
+   */
+  public boolean hasReducedDomains() {
+    return reduced;
+  }
+
+  /**
+   * Maps a test of the reduced domains back to the value indices of the original domains.
+   * 
+   * @param combination The value indices of the reduced domains.
+   * @return A new array containing the value indices of the original domains.
+   */
+  public int[] toOriginalCombination(int[] combination) {
+    int[] original = combination.clone();
+    mapToOriginalCombination(original);
+    return original;
+  }
+
+  /**
+   * Maps a test of the reduced domains back to the value indices of the original domains in place.
+   * 
+   * @param combination The value indices of the reduced domains, which are replaced by the value
+   *        indices of the original domains.
+   */
+  void mapToOriginalCombination(int[] combination) {
+    for (int parameter = 0; parameter < combination.length; parameter++) {
+      if (originalIndices[parameter] != null && combination[parameter] != -1) {
+        combination[parameter] = originalIndices[parameter][combination[parameter]];
+      }
+    }
+  }
+
+  @Override
+  public void initializeForInstance(InstanceInformation instanceInformation) {
+    context.initializeForInstance(instanceInformation);
+  }
+
+  @Override
+  public Map<Integer, Constraint> getConstraints() {
+    return constraints;
+  }
+
+  @Override
+  public Domain getParameter(int index) {
+    return domains[index];
+  }
+
+  @Override
+  public int getParameterCount() {
+    return context.getParameterCount();
+  }
+
+  @Override
+  public int getStrength() {
+    return context.getStrength();
+  }
+
+  @Override
+  public Algorithm getAlgorithm() {
+    return context.getAlgorithm();
+  }
+
+}
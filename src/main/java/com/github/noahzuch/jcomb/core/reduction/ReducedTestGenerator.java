@@ -0,0 +1,115 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.reduction;
+
+import java.util.stream.Stream;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+
+/**
+ * A TestGenerator for a {@link ReducedJCombContext}, that maps the value indices of the created
+ * tests back to the indices of the original domains. Use {@link #create(TestGenerator,
+ * ReducedJCombContext)} to keep the random access of a {@link RandomAccessTestGenerator}.
+ * 
+ * @author Noah Zuch
+ *
+ */
+public class ReducedTestGenerator implements TestGenerator {
+
+  private final TestGenerator generator;
+  private final ReducedJCombContext context;
+
+  /**
+   * Creates a new ReducedTestGenerator.
+   * 
+   * @param generator The generator working on the reduced domains.
+   * @param context The reduced context of the generator.
+   */
+  public ReducedTestGenerator(TestGenerator generator, ReducedJCombContext context) {
+    this.generator = generator;
+    this.context = context;
+  }
+
+  /**
+   * Creates a new ReducedTestGenerator, which is a {@link RandomAccessTestGenerator} if the given
+   * generator is one.
+   * 
+   * @param generator The generator working on the reduced domains.
+   * @param context The reduced context of the generator.
+   * @return The created generator.
+   */
+  public static ReducedTestGenerator create(TestGenerator generator,
+      ReducedJCombContext context) {
+    if (generator instanceof RandomAccessTestGenerator) {
+      return new RandomAccessReducedTestGenerator((RandomAccessTestGenerator) generator, context);
+    }
+    return new ReducedTestGenerator(generator, context);
+  }
+
+  @Override
+  public Stream<int[]> getAllInputCombinations() {
+    return generator.getAllInputCombinations().map(context::toOriginalCombination);
+  }
+
+  /**
+   * Returns the generator working on the reduced domains.
+   * 
+   * @return The wrapped generator.
+   */
+  public TestGenerator getGenerator() {
+    return generator;
+  }
+
+  /**
+   * A ReducedTestGenerator for a {@link RandomAccessTestGenerator}, whose rows are mapped one by
+   * one.
+   */
+  private static class RandomAccessReducedTestGenerator extends ReducedTestGenerator
+      implements RandomAccessTestGenerator {
+
+    private final RandomAccessTestGenerator generator;
+    private final ReducedJCombContext context;
+
+    RandomAccessReducedTestGenerator(RandomAccessTestGenerator generator,
+        ReducedJCombContext context) {
+      super(generator, context);
+      this.generator = generator;
+      this.context = context;
+    }
+
+    @Override
+    public long size() {
+      return generator.size();
+    }
+
+    @Override
+    public int getParameterCount() {
+      return generator.getParameterCount();
+    }
+
+    @Override
+    public void row(long index, int[] into) {
+      generator.row(index, into);
+      context.mapToOriginalCombination(into);
+    }
+
+    @Override
+    public Stream<int[]> getAllInputCombinations() {
+      return RandomAccessTestGenerator.super.getAllInputCombinations();
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class CachingConstraintHandlerTest {
+
+  private static final int[] DOMAIN_SIZES = new int[] {3, 4, 2, 5};
+
+  private AtomicInteger checkCount = new AtomicInteger();
+
+  /**
+   * Forbids equal values for the first two parameters and the value 1 for the last one. The third
+   * parameter is unconstrained.
+   */
+  private ConstraintHandler countingHandler = new ConstraintHandler() {
+
+    @Override
+    public boolean isSatisfiable(int[] test) {
+      checkCount.incrementAndGet();
+      return (test[0] == -1 || test[0] != test[1]) && test[3] != 1;
+    }
+
+    @Override
+    public boolean isConstrained(int parameter) {
+      return parameter != 2;
+    }
+  };
+
+  @Test
+  void testRepeatedChecksAreCached() {
+    CachingConstraintHandler cache = new CachingConstraintHandler(countingHandler, DOMAIN_SIZES);
+    assertEquals(false, cache.isSatisfiable(new int[] {1, 1, -1, 0}));
+    assertEquals(false, cache.isSatisfiable(new int[] {1, 1, -1, 0}));
+    assertEquals(true, cache.isSatisfiable(new int[] {1, -1, -1, 0}));
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, checkCount.get());
+  }
+
+  @Test
+  void testUnconstrainedParametersAreIgnored() {
+    CachingConstraintHandler cache = new CachingConstraintHandler(countingHandler, DOMAIN_SIZES);
+    cache.isSatisfiable(new int[] {0, 1, -1, 2});
+    cache.isSatisfiable(new int[] {0, 1, 0, 2});
+    cache.isSatisfiable(new int[] {0, 1, 1, 2});
+    assertEquals(1, checkCount.get());
+    assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+  }
+
+  @Test
+  void testSameResultsWithEvictions() {
+    CachingConstraintHandler cache =
+        new CachingConstraintHandler(countingHandler, DOMAIN_SIZES, 16);
+    Random random = new Random(0);
+    for (int i = 0; i < 5000; i++) {
+      int[] test = new int[DOMAIN_SIZES.length];
+      for (int parameter = 0; parameter < test.length; parameter++) {
+        test[parameter] = random.nextInt(DOMAIN_SIZES[parameter] + 1) - 1;
+      }
+      boolean expected = countingHandler.isSatisfiable(test);
+      assertEquals(expected, cache.isSatisfiable(test), Arrays.toString(test));
+    }
+    assertTrue(cache.getEvictionCount() > 0);
+    assertTrue(cache.getHitCount() > 0);
+    assertEquals(5000, cache.getHitCount() + cache.getMissCount());
+  }
+
+  @Test
+  void testTooManyValuesForKey() {
+    int[] domainSizes = new int[40];
+    Arrays.fill(domainSizes, 5);
+    CachingConstraintHandler cache =
+        new CachingConstraintHandler(test -> test[0] != 1, domainSizes);
+    int[] test = new int[40];
+    Arrays.fill(test, -1);
+    test[0] = 1;
+    assertEquals(false, cache.isSatisfiable(test));
+    assertEquals(false, cache.isSatisfiable(test));
+    assertEquals(0, cache.getHitCount());
+  }
+
+  @Test
+  void testAllowedValuesAreForwarded() {
+    long[] allowedValues = new long[] {5};
+    ConstraintHandler handler = new ConstraintHandler() {
+
+      @Override
+      public boolean isSatisfiable(int[] test) {
+        checkCount.incrementAndGet();
+        return true;
+      }
+
+      @Override
+      public long[] getAllowedValues(int[] test, int parameter, int domainSize) {
+        return allowedValues;
+      }
+    };
+    CachingConstraintHandler cache = new CachingConstraintHandler(handler, DOMAIN_SIZES);
+    assertSame(allowedValues, cache.getAllowedValues(new int[] {0, -1, -1, 2}, 1, 4));
+    assertEquals(0, checkCount.get());
+  }
+
+  @Test
+  void testInvalidCapacity() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new CachingConstraintHandler(countingHandler, DOMAIN_SIZES, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> new CachingConstraintHandler(countingHandler, DOMAIN_SIZES,
+            CachingConstraintHandler.MAX_CAPACITY + 1));
+  }
+
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.mdd.MddConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.solver.SolverConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.constraint.tree.LazyConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+import com.github.noahzuch.jcomb.core.domain.values.Ints;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class ConstraintsTest {
+
+  private static final int PARAMETER_COUNT = 4;
+  private static final int DOMAIN_SIZE = 3;
+
+  @Parameter(0)
+  private static Ints first = new Ints(1, 2, 3);
+
+  @Parameter(1)
+  private static Values second = new Values("a", "b", "c");
+
+  @com.github.noahzuch.jcomb.annotations.Constraint(id = 0, parameters = {0, 1})
+  private static Constraints.Predicate2<Integer, String> notOneAndA =
+      (value, string) -> value != 1 || !string.equals("a");
+
+  @com.github.noahzuch.jcomb.annotations.Constraint(id = 1, parameters = {0, 1})
+  private static Constraints.IndexPredicate2 notLastAndLast =
+      (index0, index1) -> index0 != 2 || index1 != 2;
+
+  @JCombTest
+  void testConstraintFields(int value, String string) {
+    assertFalse(value == 1 && string.equals("a"));
+    assertFalse(value == 3 && string.equals("c"));
+  }
+
+  @Test
+  void testTypedPredicates() {
+    Constraint smaller = Constraints.of(2, 0, (Integer value0, Integer value1) -> value0 < value1);
+    assertFalse(smaller.usesValueIndices());
+    assertTrue(smaller.confirmsWith(new Object[] {1, 2}));
+    assertFalse(smaller.confirmsWith(new Object[] {2, 2}));
+    assertTrue(smaller.confirmsWith(new Object[] {3, null, 1}, smaller.getInvolvedParameters()));
+
+    Constraint sum = Constraints.of(0, 1, 2, 3,
+        (Integer a, Integer b, Integer c, Integer d) -> a + b + c == d);
+    assertTrue(sum.confirmsWith(new Object[] {1, 2, 3, 6}));
+    assertFalse(sum.confirmsWith(new Object[] {1, 2, 3, 7}));
+  }
+
+  @Test
+  void testIndexPredicates() {
+    Constraint different = Constraints.ofIndices(1, 3, (index0, index1) -> index0 != index1);
+    assertTrue(different.usesValueIndices());
+    assertTrue(different.confirmsWithIndices(new int[] {0, 1, 0, 2}, new int[] {1, 3}));
+    assertFalse(different.confirmsWith(null, new int[] {0, 1, 0, 1}, new int[] {1, 3}));
+    assertThrows(UnsupportedOperationException.class,
+        () -> different.confirmsWith(new Object[] {1, 2}));
+
+    Constraint ascending = Constraints.ofIndices(new int[] {0, 1, 2, 3, 4},
+        indices -> IntStream.range(1, indices.length).allMatch(i -> indices[i - 1] < indices[i]));
+    assertTrue(ascending.confirmsWithIndices(new int[] {0, 1, 2, 3, 4},
+        ascending.getInvolvedParameters()));
+    assertFalse(ascending.confirmsWithIndices(new int[] {0, 1, 2, 4, 3},
+        ascending.getInvolvedParameters()));
+  }
+
+  @Test
+  void testWrongValueTypes() {
+    Constraint constraint = Constraints.of(0, (String value) -> value.isEmpty());
+    assertThrows(JCombException.class, () -> constraint.confirmsWith(new Object[] {1}));
+    Constraint typed = Constraints.of(0, 1, (String value, Integer length) -> true);
+    assertThrows(JCombException.class, () -> typed.confirmsWith(new Object[] {"a", "b"}));
+    assertTrue(typed.confirmsWith(new Object[] {"a", 1}));
+  }
+
+  @Test
+  void testExceptionsOfPredicatesArePassedOn() {
+    Constraint constraint = Constraints.of(0, (Object value) -> ((String) value).isEmpty());
+    assertThrows(ClassCastException.class, () -> constraint.confirmsWith(new Object[] {1}));
+    Constraint typed = Constraints.of(0, (Integer value) -> ((String) (Object) value).isEmpty());
+    assertThrows(ClassCastException.class, () -> typed.confirmsWith(new Object[] {1}));
+  }
+
+  @Test
+  void testFromPredicate() {
+    Constraints.IndexPredicate2 predicate = (index0, index1) -> index0 == index1;
+    assertTrue(Constraints.fromPredicate(new int[] {0, 1}, predicate).usesValueIndices());
+    assertThrows(JCombException.class,
+        () -> Constraints.fromPredicate(new int[] {0, 1, 2}, predicate));
+    assertThrows(JCombException.class, () -> Constraints.fromPredicate(new int[] {0}, "test"));
+    assertThrows(JCombException.class, () -> Constraints.fromPredicate(new int[] {0}, null));
+  }
+
+  @Test
+  void testValuesOfIndexConstraintsAreNotLookedUp() {
+    List<Constraint> constraints = Arrays.asList(
+        Constraints.ofIndices(0, 1, (index0, index1) -> index0 != index1),
+        Constraints.ofIndices(1, 2, (index0, index1) -> index0 <= index1),
+        Constraints.ofIndices(0, 2, 3, (index0, index1, index2) -> index0 + index1 + index2 != 3));
+    Domain domain = new Domain() {
+
+      @Override
+      public Object getValueAt(int index) {
+        return fail("The value of an index constraint was looked up.");
+      }
+
+      @Override
+      public int getSize() {
+        return DOMAIN_SIZE;
+      }
+    };
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(PARAMETER_COUNT);
+    for (int i = 0; i < PARAMETER_COUNT; i++) {
+      when(context.getParameter(i)).thenReturn(domain);
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+
+    List<ConstraintHandler> handlers = Arrays.asList(new ConstraintTree(context),
+        new LazyConstraintTree(context), new MddConstraintHandler(context),
+        new SolverConstraintHandler(context), new SolverConstraintHandler(context, 1));
+    for (int[] combination : getAllPartialCombinations()) {
+      boolean expected = isSatisfiable(constraints, combination);
+      for (ConstraintHandler handler : handlers) {
+        assertEquals(expected, handler.isSatisfiable(combination),
+            handler.getClass().getSimpleName() + " " + Arrays.toString(combination));
+      }
+    }
+  }
+
+  @Test
+  void testTabulation() {
+    int[] checkCount = new int[1];
+    Constraint constraint = new AbstractConstraint(new int[] {3, 1}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        checkCount[0]++;
+        return ((String) inputKombination[0]).length() > (Integer) inputKombination[1];
+      }
+    };
+    Domain strings = new Values("", "a", "ab", "abc");
+    Domain numbers = new Values(0, 1, 2);
+    Constraint tabulated = Constraints.compile(constraint, new Domain[] {strings, numbers}, 12);
+    assertTrue(tabulated.usesValueIndices());
+    assertTrue(Constraints.isTabulated(tabulated));
+    assertFalse(Constraints.isTabulated(constraint));
+    assertEquals(12, checkCount[0]);
+    for (int index0 = 0; index0 < strings.getSize(); index0++) {
+      for (int index1 = 0; index1 < numbers.getSize(); index1++) {
+        int[] valueIndices = new int[] {-1, index1, -1, index0};
+        assertEquals(index0 > index1,
+            tabulated.confirmsWithIndices(valueIndices, tabulated.getInvolvedParameters()));
+      }
+    }
+    assertEquals(12, checkCount[0]);
+    assertSame(constraint, Constraints.compile(constraint, new Domain[] {strings, numbers}, 11));
+  }
+
+  private static boolean isSatisfiable(List<Constraint> constraints, int[] combination) {
+    for (int[] test : getAllPartialCombinations()) {
+      boolean matches = true;
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        matches &= test[i] != -1 && (combination[i] == -1 || combination[i] == test[i]);
+      }
+      if (matches && constraints.stream().allMatch(
+          constraint -> constraint.confirmsWithIndices(test, constraint.getInvolvedParameters()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static List<int[]> getAllPartialCombinations() {
+    int combinationCount = (int) Math.pow(DOMAIN_SIZE + 1, PARAMETER_COUNT);
+    List<int[]> combinations = new ArrayList<>(combinationCount);
+    for (int index = 0; index < combinationCount; index++) {
+      int[] combination = new int[PARAMETER_COUNT];
+      int rest = index;
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        combination[i] = rest % (DOMAIN_SIZE + 1) - 1;
+        rest /= DOMAIN_SIZE + 1;
+      }
+      combinations.add(combination);
+    }
+    return combinations;
+  }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombException;
+
+class MethodConstraintTest {
+
+  /**
+   * Public constraints, that can be bound via the LambdaMetafactory.
+   */
+  public static class PublicConstraints {
+
+    public static boolean isPositive(int value) {
+      return value > 0;
+    }
+
+    public static boolean isSmaller(int value0, int value1) {
+      return value0 < value1;
+    }
+
+    public static Boolean isSum(Integer value0, int value1, long value2) {
+      return value0 + value1 == value2;
+    }
+
+    public static boolean isAscending(int value0, int value1, int value2, String value3) {
+      return value0 < value1 && value1 < value2 && value3.equals("asc");
+    }
+  }
+
+  private static boolean isNotEqual(int value0, int value1) {
+    return value0 != value1;
+  }
+
+  private static boolean isSorted(int value0, int value1, int value2, int value3, int value4) {
+    return value0 <= value1 && value1 <= value2 && value2 <= value3 && value3 <= value4;
+  }
+
+  private static boolean throwsException(int value) {
+    throw new IllegalStateException();
+  }
+
+  private static boolean castsWrongly(Object value) {
+    return (Integer) value > 0;
+  }
+
+  private static boolean throwsCheckedException(int value) throws Exception {
+    throw new Exception();
+  }
+
+  @Test
+  void testPublicConstraints() throws NoSuchMethodException {
+    Constraint positive = new MethodConstraint(new int[] {0},
+        PublicConstraints.class.getMethod("isPositive", int.class));
+    assertTrue(positive.confirmsWith(new Object[] {1}));
+    assertFalse(positive.confirmsWith(new Object[] {0}));
+
+    Constraint smaller = new MethodConstraint(new int[] {0, 1},
+        PublicConstraints.class.getMethod("isSmaller", int.class, int.class));
+    assertTrue(smaller.confirmsWith(new Object[] {1, 2}));
+    assertFalse(smaller.confirmsWith(new Object[] {2, 1}));
+
+    Constraint sum = new MethodConstraint(new int[] {0, 1, 2},
+        PublicConstraints.class.getMethod("isSum", Integer.class, int.class, long.class));
+    assertTrue(sum.confirmsWith(new Object[] {1, 2, 3L}));
+    assertFalse(sum.confirmsWith(new Object[] {1, 2, 4L}));
+
+    Constraint ascending = new MethodConstraint(new int[] {0, 1, 2, 3}, PublicConstraints.class
+        .getMethod("isAscending", int.class, int.class, int.class, String.class));
+    assertTrue(ascending.confirmsWith(new Object[] {1, 2, 3, "asc"}));
+    assertFalse(ascending.confirmsWith(new Object[] {1, 2, 3, "desc"}));
+  }
+
+  @Test
+  void testPrivateConstraints() throws NoSuchMethodException {
+    Constraint notEqual = new MethodConstraint(new int[] {0, 1}, getMethod("isNotEqual", 2));
+    assertTrue(notEqual.confirmsWith(new Object[] {1, 2}));
+    assertFalse(notEqual.confirmsWith(new Object[] {2, 2}));
+
+    Constraint sorted =
+        new MethodConstraint(new int[] {0, 1, 2, 3, 4}, getMethod("isSorted", 5));
+    assertTrue(sorted.confirmsWith(new Object[] {1, 2, 2, 3, 4}));
+    assertFalse(sorted.confirmsWith(new Object[] {1, 2, 2, 4, 3}));
+  }
+
+  @Test
+  void testConfirmsWithPositions() throws NoSuchMethodException {
+    Object[] combination = new Object[] {5, 3, 4, 1};
+    Constraint smaller = new MethodConstraint(new int[] {3, 1},
+        PublicConstraints.class.getMethod("isSmaller", int.class, int.class));
+    assertTrue(smaller.confirmsWith(combination, new int[] {3, 1}));
+    assertFalse(smaller.confirmsWith(combination, new int[] {0, 2}));
+
+    Constraint sorted = new MethodConstraint(new int[] {3, 1, 2, 0, 0},
+        getMethod("isSorted", 5));
+    assertTrue(sorted.confirmsWith(combination, new int[] {3, 1, 2, 0, 0}));
+    assertFalse(sorted.confirmsWith(combination, new int[] {0, 1, 2, 3, 3}));
+  }
+
+  @Test
+  void testWrongParameterTypes() throws NoSuchMethodException {
+    Constraint publicConstraint = new MethodConstraint(new int[] {0, 1},
+        PublicConstraints.class.getMethod("isSmaller", int.class, int.class));
+    assertThrows(JCombException.class, () -> publicConstraint.confirmsWith(new Object[] {1, "2"}));
+    Constraint privateConstraint = new MethodConstraint(new int[] {0, 1},
+        getMethod("isNotEqual", 2));
+    assertThrows(JCombException.class,
+        () -> privateConstraint.confirmsWith(new Object[] {"1", 2}));
+  }
+
+  @Test
+  void testWrongParameterCount() {
+    assertThrows(JCombException.class,
+        () -> new MethodConstraint(new int[] {0, 1, 2}, getMethod("isNotEqual", 2)));
+  }
+
+  @Test
+  void testExceptionInConstraint() {
+    Constraint constraint = new MethodConstraint(new int[] {0}, getMethod("throwsException", 1));
+    assertThrows(JCombException.class, () -> constraint.confirmsWith(new Object[] {1}));
+  }
+
+  @Test
+  void testClassCastExceptionInConstraint() {
+    Constraint constraint = new MethodConstraint(new int[] {0}, getMethod("castsWrongly", 1));
+    JCombException exception =
+        assertThrows(JCombException.class, () -> constraint.confirmsWith(new Object[] {"1"}));
+    assertTrue(exception.getMessage().contains("threw an exception"));
+    assertTrue(exception.getCause() instanceof ClassCastException);
+  }
+
+  @Test
+  void testCheckedExceptionInConstraint() {
+    Constraint constraint =
+        new MethodConstraint(new int[] {0}, getMethod("throwsCheckedException", 1));
+    JCombException exception =
+        assertThrows(JCombException.class, () -> constraint.confirmsWith(new Object[] {1}));
+    assertEquals(Exception.class, exception.getCause().getClass());
+  }
+
+  private static Method getMethod(String name, int parameterCount) {
+    for (Method method : MethodConstraintTest.class.getDeclaredMethods()) {
+      if (method.getName().equals(name) && method.getParameterCount() == parameterCount) {
+        return method;
+      }
+    }
+    throw new IllegalArgumentException(name);
+  }
+
+}
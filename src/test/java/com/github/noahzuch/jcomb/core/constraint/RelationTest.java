@@ -0,0 +1,204 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.Domain;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class RelationTest {
+
+  private enum Os {
+    WINDOWS, LINUX, MAC
+  }
+
+  private enum FileSystem {
+    NTFS, EXT4, APFS
+  }
+
+  @Parameter(0)
+  private static Values operatingSystems = new Values((Object[]) Os.values());
+
+  @Parameter(1)
+  private static Values fileSystems = new Values((Object[]) FileSystem.values());
+
+  @com.github.noahzuch.jcomb.annotations.Constraint(id = 0, parameters = {0, 1})
+  private static Relation noExt4OnWindows =
+      Relation.is(0, Os.WINDOWS).then(Relation.isNot(1, FileSystem.EXT4));
+
+  @com.github.noahzuch.jcomb.annotations.Constraint(id = 1, parameters = {1, 0})
+  private static Relation unsupported = Relation.forbidden(
+      new Object[] {FileSystem.APFS, Os.LINUX},
+      new Object[] {FileSystem.NTFS, Os.MAC});
+
+  @JCombTest
+  void testRelationFields(Os os, FileSystem fileSystem) {
+    assertFalse(os == Os.WINDOWS && fileSystem == FileSystem.EXT4);
+    assertFalse(os == Os.LINUX && fileSystem == FileSystem.APFS);
+    assertFalse(os == Os.MAC && fileSystem == FileSystem.NTFS);
+  }
+
+  @Test
+  void testMembershipAndEquality() {
+    Constraint in = Constraints.of(new int[] {0}, Relation.is(0, "a", "b"));
+    assertTrue(in.confirmsWith(new Object[] {"b"}));
+    assertFalse(in.confirmsWith(new Object[] {"c"}));
+    Constraint notIn = Constraints.of(new int[] {0}, Relation.isNot(0, "a", "b"));
+    assertTrue(notIn.confirmsWith(new Object[] {"c"}));
+    assertFalse(notIn.confirmsWith(new Object[] {"a"}));
+    Constraint equal = Constraints.of(new int[] {2, 0}, Relation.equal(0, 1));
+    assertTrue(equal.confirmsWith(new Object[] {1, null, 1}, equal.getInvolvedParameters()));
+    assertFalse(equal.confirmsWith(new Object[] {1, null, 2}, equal.getInvolvedParameters()));
+  }
+
+  @Test
+  void testCombinedRelations() {
+    Relation first = Relation.is(0, 1);
+    Relation second = Relation.is(1, 1);
+    Object[][] tupels = new Object[][] {{0, 0}, {0, 1}, {1, 0}, {1, 1}};
+    boolean[] and = new boolean[] {false, false, false, true};
+    boolean[] or = new boolean[] {false, true, true, true};
+    boolean[] then = new boolean[] {true, true, false, true};
+    for (int i = 0; i < tupels.length; i++) {
+      assertEquals(and[i], Constraints.of(new int[] {0, 1}, first.and(second))
+          .confirmsWith(tupels[i]));
+      assertEquals(or[i], Constraints.of(new int[] {0, 1}, first.or(second))
+          .confirmsWith(tupels[i]));
+      assertEquals(then[i], Constraints.of(new int[] {0, 1}, first.then(second))
+          .confirmsWith(tupels[i]));
+      assertEquals(!then[i], Constraints.of(new int[] {0, 1}, first.then(second).negate())
+          .confirmsWith(tupels[i]));
+    }
+  }
+
+  @Test
+  void testTupelLists() {
+    Relation allowed = Relation.allowed(new Object[] {1, "a"}, new Object[] {2, "b"});
+    assertEquals(2, allowed.getArity());
+    Constraint constraint = Constraints.of(new int[] {0, 1}, allowed);
+    assertTrue(constraint.confirmsWith(new Object[] {2, "b"}));
+    assertFalse(constraint.confirmsWith(new Object[] {2, "a"}));
+    Constraint forbidden = Constraints.of(new int[] {0, 1},
+        Relation.forbidden(new Object[] {1, "a"}, new Object[] {2, "b"}));
+    assertFalse(forbidden.confirmsWith(new Object[] {2, "b"}));
+    assertTrue(forbidden.confirmsWith(new Object[] {2, "a"}));
+
+    assertThrows(IllegalArgumentException.class, () -> Relation.allowed());
+    assertThrows(IllegalArgumentException.class,
+        () -> Relation.forbidden(new Object[] {1, "a"}, new Object[] {2}));
+    assertThrows(JCombException.class, () -> Constraints.of(new int[] {0}, allowed));
+  }
+
+  @Test
+  void testCompiledTable() {
+    Domain numbers = new Values(IntStream.range(0, 5).boxed().toArray());
+    Domain strings = new Values("a", "b", "c");
+    Relation relation = Relation.is(0, 1, 3).then(Relation.isNot(1, "b"))
+        .and(Relation.forbidden(new Object[] {4, "c", 4}).or(Relation.equal(0, 2)));
+    Constraint constraint = Constraints.of(new int[] {0, 1, 2}, relation);
+    assertFalse(constraint.usesValueIndices());
+    Constraint compiled = Constraints.compile(constraint,
+        new Domain[] {numbers, strings, numbers}, Constraints.TABLE_SIZE_LIMIT);
+    assertTrue(compiled.usesValueIndices());
+    int[] parameters = compiled.getInvolvedParameters();
+    for (int index0 = 0; index0 < 5; index0++) {
+      for (int index1 = 0; index1 < 3; index1++) {
+        for (int index2 = 0; index2 < 5; index2++) {
+          Object[] values = new Object[] {numbers.getValueAt(index0), strings.getValueAt(index1),
+              numbers.getValueAt(index2)};
+          int[] indices = new int[] {index0, index1, index2};
+          assertEquals(constraint.confirmsWith(values),
+              compiled.confirmsWithIndices(indices, parameters), Arrays.toString(values));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testLargeRelationsAreNotCompiled() {
+    Domain domain = new Domain() {
+
+      @Override
+      public Object getValueAt(int index) {
+        return index;
+      }
+
+      @Override
+      public int getSize() {
+        return 2048;
+      }
+    };
+    Constraint constraint = Constraints.of(new int[] {0, 1}, Relation.equal(0, 1));
+    assertSame(constraint, Constraints.compile(constraint, new Domain[] {domain, domain},
+        Constraints.TABLE_SIZE_LIMIT));
+  }
+
+  @Test
+  void testHandlerUsesCompiledTable() {
+    int[] lookups = new int[1];
+    Domain domain = new Domain() {
+
+      @Override
+      public Object getValueAt(int index) {
+        lookups[0]++;
+        return index;
+      }
+
+      @Override
+      public int getSize() {
+        return 4;
+      }
+    };
+    List<Constraint> constraints = Arrays.asList(
+        Constraints.of(new int[] {0, 1}, Relation.equal(0, 1).negate()),
+        Constraints.of(new int[] {1, 2}, Relation.is(0, 0).then(Relation.is(1, 3))));
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(3);
+    for (int i = 0; i < 3; i++) {
+      when(context.getParameter(i)).thenReturn(domain);
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    ConstraintTree tree = new ConstraintTree(context);
+    // values are only looked up while the relations are compiled
+    int compileLookups = lookups[0];
+    assertFalse(tree.isSatisfiable(new int[] {2, 2, -1}));
+    assertFalse(tree.isSatisfiable(new int[] {-1, 0, 1}));
+    assertTrue(tree.isSatisfiable(new int[] {1, 0, 3}));
+    assertTrue(tree.isSatisfiable(new int[] {0, -1, -1}));
+    assertEquals(compileLookups, lookups[0]);
+  }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.mdd;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+
+class MddConstraintHandlerTest {
+
+  private static final int PARAMETER_COUNT = 5;
+  private static final int DOMAIN_SIZE = 4;
+
+  private Constraint smaller = new AbstractConstraint(new int[] {0, 1}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+    }
+  };
+
+  private Constraint notTwo = new AbstractConstraint(new int[] {3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] != 2;
+    }
+  };
+
+  private Constraint sum = new AbstractConstraint(new int[] {4, 1, 2}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] + (Integer) inputKombination[1]
+          + (Integer) inputKombination[2] != 6;
+    }
+  };
+
+  private Constraint never = new AbstractConstraint(new int[] {2, 0}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return false;
+    }
+  };
+
+  @Test
+  void testSameResultsAsConstraintTree() {
+    JCombContext context =
+        getMockedJCombContext(PARAMETER_COUNT, Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    MddConstraintHandler mdd = new MddConstraintHandler(context);
+    for (int[] combination : getAllPartialCombinations()) {
+      assertEquals(tree.isSatisfiable(combination), mdd.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
+  @Test
+  void testConcurrentChecks() {
+    JCombContext context =
+        getMockedJCombContext(PARAMETER_COUNT, Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    MddConstraintHandler mdd = new MddConstraintHandler(context);
+    List<int[]> combinations = getAllPartialCombinations();
+    List<Boolean> expected =
+        combinations.stream().map(tree::isSatisfiable).collect(Collectors.toList());
+    List<Boolean> result =
+        combinations.parallelStream().map(mdd::isSatisfiable).collect(Collectors.toList());
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void testIdenticalSubDiagramsAreShared() {
+    // a chain of 12 parameters, where neighbours have to differ. The tree of this model grows
+    // exponentially, while the diagram only needs one node per value and level.
+    int parameterCount = 12;
+    List<Constraint> constraints = new ArrayList<>();
+    for (int i = 0; i < parameterCount - 1; i++) {
+      constraints.add(new AbstractConstraint(new int[] {i, i + 1}) {
+
+        @Override
+        public boolean confirmsWith(Object[] inputKombination) {
+          return !inputKombination[0].equals(inputKombination[1]);
+        }
+      });
+    }
+    MddConstraintHandler mdd =
+        new MddConstraintHandler(getMockedJCombContext(parameterCount, constraints));
+    assertTrue(mdd.getNodeCount() <= 2 + parameterCount * DOMAIN_SIZE);
+
+    int[] test = new int[parameterCount];
+    Arrays.fill(test, -1);
+    test[0] = 1;
+    test[parameterCount - 1] = 3;
+    assertTrue(mdd.isSatisfiable(test));
+    test[1] = 1;
+    assertEquals(false, mdd.isSatisfiable(test));
+  }
+
+  @Test
+  void testVariableOrderKeepsSharedParametersTogether() {
+    List<Constraint> constraints = Arrays.asList(smaller, notTwo, sum);
+    assertArrayEquals(new int[] {1, 0, 2, 4, 3},
+        MddConstraintHandler.createVariableOrder(PARAMETER_COUNT, constraints));
+  }
+
+  @Test
+  void testSizeLimit() {
+    JCombContext context =
+        getMockedJCombContext(PARAMETER_COUNT, Arrays.asList(smaller, notTwo, sum));
+    assertThrows(IllegalArgumentException.class, () -> new MddConstraintHandler(context, 3));
+  }
+
+  @Test
+  void testUnsatisfiableConstraints() {
+    MddConstraintHandler mdd = new MddConstraintHandler(
+        getMockedJCombContext(PARAMETER_COUNT, Arrays.asList(smaller, never)));
+    assertEquals(2, mdd.getNodeCount());
+    assertEquals(false, mdd.isSatisfiable(new int[] {-1, -1, -1, -1, -1}));
+  }
+
+  @Test
+  void testAllowedValuesMatchSingleChecks() {
+    JCombContext context =
+        getMockedJCombContext(PARAMETER_COUNT, Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    MddConstraintHandler mdd = new MddConstraintHandler(context);
+    for (int[] combination : getAllPartialCombinations()) {
+      for (int parameter = 0; parameter < PARAMETER_COUNT; parameter++) {
+        int[] original = combination.clone();
+        long[] allowedValues = mdd.getAllowedValues(combination, parameter, DOMAIN_SIZE);
+        assertArrayEquals(original, combination);
+        for (int value = 0; value < DOMAIN_SIZE; value++) {
+          combination[parameter] = value;
+          assertEquals(tree.isSatisfiable(combination),
+              ConstraintHandler.isAllowed(allowedValues, value), Arrays.toString(combination));
+        }
+        combination[parameter] = original[parameter];
+      }
+    }
+  }
+
+  @Test
+  void testWithoutConstraints() {
+    MddConstraintHandler mdd =
+        new MddConstraintHandler(getMockedJCombContext(PARAMETER_COUNT, Arrays.asList()));
+    assertTrue(mdd.isSatisfiable(new int[] {1, 0, -1, 1, 2}));
+  }
+
+  private static List<int[]> getAllPartialCombinations() {
+    int combinationCount = (int) Math.pow(DOMAIN_SIZE + 1, PARAMETER_COUNT);
+    return IntStream.range(0, combinationCount).mapToObj(index -> {
+      int[] combination = new int[PARAMETER_COUNT];
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        combination[i] = index % (DOMAIN_SIZE + 1) - 1;
+        index /= DOMAIN_SIZE + 1;
+      }
+      return combination;
+    }).collect(Collectors.toList());
+  }
+
+  private static JCombContext getMockedJCombContext(int parameterCount,
+      List<Constraint> constraints) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(parameterCount);
+    for (int i = 0; i < parameterCount; i++) {
+      when(context.getParameter(i)).thenReturn(new Values(0, 1, 2, 3));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    return context;
+  }
+
+}
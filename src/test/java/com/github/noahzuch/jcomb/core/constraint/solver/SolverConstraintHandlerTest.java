@@ -0,0 +1,219 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+
+class SolverConstraintHandlerTest {
+
+  private static final int PARAMETER_COUNT = 5;
+  private static final int DOMAIN_SIZE = 4;
+
+  private Constraint smaller = new AbstractConstraint(new int[] {0, 1}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+    }
+  };
+
+  private Constraint notTwo = new AbstractConstraint(new int[] {3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] != 2;
+    }
+  };
+
+  private Constraint sum = new AbstractConstraint(new int[] {4, 1, 2}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] + (Integer) inputKombination[1]
+          + (Integer) inputKombination[2] != 6;
+    }
+  };
+
+  @Test
+  void testSameResultsAsConstraintTree() {
+    JCombContext context = getMockedJCombContext(PARAMETER_COUNT,
+        Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    SolverConstraintHandler solver = new SolverConstraintHandler(context);
+    for (int[] combination : getAllPartialCombinations()) {
+      assertEquals(tree.isSatisfiable(combination), solver.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
+  @Test
+  void testSameResultsWithLazyConstraints() {
+    JCombContext context = getMockedJCombContext(PARAMETER_COUNT,
+        Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    // only the unary constraint is small enough for a table
+    SolverConstraintHandler solver = new SolverConstraintHandler(context, DOMAIN_SIZE);
+    for (int[] combination : getAllPartialCombinations()) {
+      assertEquals(tree.isSatisfiable(combination), solver.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
+  @Test
+  void testConcurrentChecks() {
+    JCombContext context = getMockedJCombContext(PARAMETER_COUNT,
+        Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    SolverConstraintHandler solver = new SolverConstraintHandler(context, DOMAIN_SIZE);
+    List<int[]> combinations = getAllPartialCombinations();
+    List<Boolean> expected =
+        combinations.stream().map(tree::isSatisfiable).collect(Collectors.toList());
+    List<Boolean> result =
+        combinations.parallelStream().map(solver::isSatisfiable).collect(Collectors.toList());
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void testManyInteractingConstraints() {
+    // neighbours in a ring of 41 parameters have to differ and the first parameter must be
+    // smaller than the last. A ring of odd length can not be colored with two values, so the
+    // middle value has to be used somewhere.
+    int parameterCount = 41;
+    List<Constraint> constraints = new ArrayList<>();
+    for (int i = 0; i < parameterCount; i++) {
+      constraints.add(new AbstractConstraint(new int[] {i, (i + 1) % parameterCount}) {
+
+        @Override
+        public boolean confirmsWith(Object[] inputKombination) {
+          return !inputKombination[0].equals(inputKombination[1]);
+        }
+      });
+    }
+    List<Constraint> allConstraints = new ArrayList<>(constraints);
+    allConstraints.add(new AbstractConstraint(new int[] {0, parameterCount - 1}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+      }
+    });
+    assertTimeout(Duration.ofSeconds(10), () -> {
+      SolverConstraintHandler solver = new SolverConstraintHandler(
+          getMockedJCombContext(parameterCount, allConstraints, 3));
+      int[] test = new int[parameterCount];
+      Arrays.fill(test, -1);
+      assertTrue(solver.isSatisfiable(test));
+
+      for (int i = 0; i < parameterCount; i++) {
+        test[i] = i % 2;
+      }
+      test[parameterCount - 1] = 2;
+      assertTrue(solver.isSatisfiable(test));
+      test[parameterCount - 1] = 0;
+      assertFalse(solver.isSatisfiable(test));
+
+      // the last parameter would have to be bigger than 1 and differ from 2
+      Arrays.fill(test, -1);
+      test[0] = 1;
+      test[parameterCount - 2] = 2;
+      assertFalse(solver.isSatisfiable(test));
+      test[parameterCount - 2] = 0;
+      assertTrue(solver.isSatisfiable(test));
+
+      Arrays.fill(test, -1);
+      test[0] = 2;
+      assertFalse(solver.isSatisfiable(test));
+      test[0] = 0;
+      test[parameterCount / 2] = 1;
+      assertTrue(solver.isSatisfiable(test));
+    });
+  }
+
+  @Test
+  void testUnsatisfiableConstraints() {
+    // three parameters with two values can not all be different
+    List<Constraint> constraints = new ArrayList<>();
+    for (int[] pair : new int[][] {{0, 1}, {1, 2}, {0, 2}}) {
+      constraints.add(new AbstractConstraint(pair) {
+
+        @Override
+        public boolean confirmsWith(Object[] inputKombination) {
+          return !inputKombination[0].equals(inputKombination[1]);
+        }
+      });
+    }
+    SolverConstraintHandler solver =
+        new SolverConstraintHandler(getMockedJCombContext(4, constraints, 2), 1);
+    assertFalse(solver.isSatisfiable(new int[] {-1, -1, -1, -1}));
+    assertFalse(solver.isSatisfiable(new int[] {-1, -1, -1, 1}));
+  }
+
+  @Test
+  void testWithoutConstraints() {
+    SolverConstraintHandler solver =
+        new SolverConstraintHandler(getMockedJCombContext(PARAMETER_COUNT, Arrays.asList()));
+    assertTrue(solver.isSatisfiable(new int[] {1, 0, -1, 1, 2}));
+    assertFalse(solver.isConstrained(0));
+  }
+
+  private static List<int[]> getAllPartialCombinations() {
+    int combinationCount = (int) Math.pow(DOMAIN_SIZE + 1, PARAMETER_COUNT);
+    return IntStream.range(0, combinationCount).mapToObj(index -> {
+      int[] combination = new int[PARAMETER_COUNT];
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        combination[i] = index % (DOMAIN_SIZE + 1) - 1;
+        index /= DOMAIN_SIZE + 1;
+      }
+      return combination;
+    }).collect(Collectors.toList());
+  }
+
+  private static JCombContext getMockedJCombContext(int parameterCount,
+      List<Constraint> constraints) {
+    return getMockedJCombContext(parameterCount, constraints, DOMAIN_SIZE);
+  }
+
+  private static JCombContext getMockedJCombContext(int parameterCount,
+      List<Constraint> constraints, int domainSize) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(parameterCount);
+    for (int i = 0; i < parameterCount; i++) {
+      when(context.getParameter(i))
+          .thenReturn(new Values(IntStream.range(0, domainSize).boxed().toArray()));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    return context;
+  }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+
+class CompiledConstraintTreeTest {
+
+  private static Constraint lessThan = new AbstractConstraint(new int[] {0, 1}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+    }
+  };
+
+  private static Constraint sum = new AbstractConstraint(new int[] {1, 2, 3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] + (Integer) inputKombination[1]
+          == (Integer) inputKombination[2];
+    }
+  };
+
+  private static Constraint notZero = new AbstractConstraint(new int[] {3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return !inputKombination[0].equals(0);
+    }
+  };
+
+  @Test
+  void testSameResultsAsConstraintTree() {
+    JCombContext context = getMockedJCombContext(Arrays.asList(lessThan, sum, notZero), 4, 4);
+    ConstraintTree tree = new ConstraintTree(context);
+    CompiledConstraintTree compiledTree = new CompiledConstraintTree(context);
+
+    assertEquals(true, compiledTree.isCompiled());
+    assertSameResults(tree, compiledTree, 4, 4);
+    assertEquals(true, compiledTree.isSatisfiable(new int[] {0, 1, 2, 3}));
+    assertEquals(false, compiledTree.isSatisfiable(new int[] {-1, 3, 1, -1}));
+    assertEquals(false, compiledTree.isSatisfiable(new int[] {-1, 0, -1, 0}));
+    assertEquals(true, compiledTree.isConstrained(2));
+  }
+
+  @Test
+  void testLargeDomains() {
+    Constraint sumOf250 = new AbstractConstraint(new int[] {0, 1}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return (Integer) inputKombination[0] + (Integer) inputKombination[1] == 250;
+      }
+    };
+    JCombContext context = getMockedJCombContext(Collections.singletonList(sumOf250), 2, 200);
+    CompiledConstraintTree compiledTree = new CompiledConstraintTree(context);
+
+    assertEquals(true, compiledTree.isCompiled());
+    assertEquals(true, compiledTree.isSatisfiable(new int[] {-1, -1}));
+    assertEquals(true, compiledTree.isSatisfiable(new int[] {100, 150}));
+    assertEquals(true, compiledTree.isSatisfiable(new int[] {-1, 199}));
+    assertEquals(false, compiledTree.isSatisfiable(new int[] {100, 149}));
+    assertEquals(false, compiledTree.isSatisfiable(new int[] {-1, 50}));
+    assertEquals(false, compiledTree.isSatisfiable(new int[] {30, -1}));
+    long[] allowedValues = compiledTree.getAllowedValues(new int[] {-1, 150}, 0, 200);
+    for (int value = 0; value < 200; value++) {
+      assertEquals(value == 100, ConstraintHandler.isAllowed(allowedValues, value));
+    }
+  }
+
+  @Test
+  void testConstantTrees() {
+    Constraint never = new AbstractConstraint(new int[] {2}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return false;
+      }
+    };
+    CompiledConstraintTree unsatisfiable = new CompiledConstraintTree(
+        getMockedJCombContext(Collections.singletonList(never), 4, 4));
+    CompiledConstraintTree unconstrained =
+        new CompiledConstraintTree(getMockedJCombContext(Collections.emptyList(), 4, 4));
+
+    assertEquals(true, unsatisfiable.isCompiled());
+    assertEquals(false, unsatisfiable.isSatisfiable(new int[] {-1, -1, -1, -1}));
+    assertEquals(false, unsatisfiable.isSatisfiable(new int[] {0, 1, 2, 3}));
+    assertEquals(true, unconstrained.isCompiled());
+    assertEquals(true, unconstrained.isSatisfiable(new int[] {0, 1, 2, 3}));
+    assertEquals(false, unconstrained.isConstrained(0));
+  }
+
+  @Test
+  void testTreesAboveNodeLimitAreNotCompiled() {
+    Constraint notDivisible = new AbstractConstraint(new int[] {0, 1, 2}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return ((Integer) inputKombination[0] + (Integer) inputKombination[1]
+            + (Integer) inputKombination[2]) % 7 != 0;
+      }
+    };
+    JCombContext context =
+        getMockedJCombContext(Collections.singletonList(notDivisible), 3, 40);
+    FlatConstraintTree flatTree = new FlatConstraintTree(context);
+    CompiledConstraintTree compiledTree = new CompiledConstraintTree(flatTree);
+
+    assertEquals(false, compiledTree.isCompiled());
+    assertEquals(false, compiledTree.isSatisfiable(new int[] {1, 2, 4}));
+    assertEquals(true, compiledTree.isSatisfiable(new int[] {1, 2, -1}));
+    assertEquals(true, compiledTree.isSatisfiable(new int[] {1, 2, 5}));
+  }
+
+  private static void assertSameResults(ConstraintTree expected, CompiledConstraintTree actual,
+      int parameterCount, int domainSize) {
+    int combinationCount = (int) Math.pow(domainSize + 1, parameterCount);
+    for (int index = 0; index < combinationCount; index++) {
+      int[] combination = new int[parameterCount];
+      int rest = index;
+      for (int i = 0; i < parameterCount; i++) {
+        combination[i] = rest % (domainSize + 1) - 1;
+        rest /= domainSize + 1;
+      }
+      assertEquals(expected.isSatisfiable(combination), actual.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
+  private static JCombContext getMockedJCombContext(List<Constraint> constraints,
+      int parameterCount, int domainSize) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(parameterCount);
+    for (int i = 0; i < parameterCount; i++) {
+      when(context.getParameter(i))
+          .thenReturn(new Values(IntStream.range(0, domainSize).boxed().toArray()));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    return context;
+  }
+
+}
@@ -15,9 +15,11 @@
  */
 package com.github.noahzuch.jcomb.core.constraint.tree;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,6 +28,7 @@ import org.junit.jupiter.api.Test;
 import com.github.noahzuch.jcomb.core.JCombContext;
 import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
 import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
 import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
 import com.github.noahzuch.jcomb.core.domain.values.Values;
 
@@ -185,6 +188,138 @@ class ConstraintTreeTest {
 
   }
 
+  @Test
+  void testUnsatisfiableWithWildcards() {
+    Constraint impossible = new AbstractConstraint(new int[] {2, 0}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return (Integer) inputKombination[0] + (Integer) inputKombination[1] > 20;
+      }
+    };
+    ConstraintTree tree = new ConstraintTree(getMockedJCombContext(Arrays.asList(impossible)));
+    assertEquals(false, tree.isSatisfiable(new int[] {-1, -1, -1}));
+    assertEquals(false, tree.isSatisfiable(new int[] {-1, 3, -1}));
+    assertEquals(false, tree.isSatisfiable(new int[] {10, -1, -1}));
+    assertEquals(false, tree.isSatisfiable(new int[] {-1, -1, 10}));
+  }
+
+  @Test
+  void testSameResultsAsLazyTreeForChain() {
+    int parameterCount = 6;
+    int domainSize = 3;
+    JCombContext context = createChainContext(parameterCount, domainSize);
+
+    ConstraintTree tree = new ConstraintTree(context);
+    LazyConstraintTree lazyTree = new LazyConstraintTree(context);
+    assertSameResults(lazyTree, tree, parameterCount, domainSize);
+    assertEquals(false, tree.isSatisfiable(new int[] {-1, -1, -1, -1, 0, 0}));
+    assertEquals(true, tree.isSatisfiable(new int[] {-1, -1, -1, -1, 0, 1}));
+  }
+
+  @Test
+  void testParallelConstructionCreatesSameTree() {
+    int parameterCount = 7;
+    int domainSize = 4;
+    JCombContext context = createChainContext(parameterCount, domainSize);
+
+    ConstraintTree tree = new ConstraintTree(context);
+    ConstraintTree parallelTree = new ConstraintTree(context, true);
+    assertSameResults(tree, parallelTree, parameterCount, domainSize);
+  }
+
+  @Test
+  void testAllowedValuesMatchSingleChecks() {
+    int parameterCount = 5;
+    int domainSize = 3;
+    ConstraintTree tree = new ConstraintTree(createChainContext(parameterCount, domainSize));
+
+    int combinationCount = (int) Math.pow(domainSize + 1, parameterCount);
+    for (int index = 0; index < combinationCount; index++) {
+      int[] combination = new int[parameterCount];
+      int rest = index;
+      for (int i = 0; i < parameterCount; i++) {
+        combination[i] = rest % (domainSize + 1) - 1;
+        rest /= domainSize + 1;
+      }
+      for (int parameter = 0; parameter < parameterCount; parameter++) {
+        int[] original = combination.clone();
+        long[] allowedValues = tree.getAllowedValues(combination, parameter, domainSize);
+        assertArrayEquals(original, combination);
+        for (int value = 0; value < domainSize; value++) {
+          combination[parameter] = value;
+          assertEquals(tree.isSatisfiable(combination),
+              ConstraintHandler.isAllowed(allowedValues, value),
+              Arrays.toString(combination));
+        }
+        combination[parameter] = original[parameter];
+      }
+    }
+  }
+
+  @Test
+  void testAllowedValuesOfLargeDomain() {
+    ConstraintTree tree = new ConstraintTree(createChainContext(3, 100));
+
+    long[] allowedValues = tree.getAllowedValues(new int[] {5, -1, 70}, 1, 100);
+    assertEquals(2, allowedValues.length);
+    for (int value = 0; value < 100; value++) {
+      assertEquals(value != 5 && value != 70, ConstraintHandler.isAllowed(allowedValues, value));
+    }
+    allowedValues = tree.getAllowedValues(new int[] {-1, -1, 3}, 2, 100);
+    for (int value = 0; value < 100; value++) {
+      assertEquals(value != 0, ConstraintHandler.isAllowed(allowedValues, value));
+    }
+  }
+
+  /**
+   * Creates a context, where neighbouring parameters have to differ and the last parameter must
+   * not be 0.
+   */
+  private static JCombContext createChainContext(int parameterCount, int domainSize) {
+    List<Constraint> constraints = new ArrayList<>();
+    for (int i = 0; i < parameterCount - 1; i++) {
+      constraints.add(new AbstractConstraint(new int[] {i + 1, i}) {
+
+        @Override
+        public boolean confirmsWith(Object[] inputKombination) {
+          return !inputKombination[0].equals(inputKombination[1]);
+        }
+      });
+    }
+    constraints.add(new AbstractConstraint(new int[] {parameterCount - 1}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return !inputKombination[0].equals(0);
+      }
+    });
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(parameterCount);
+    for (int i = 0; i < parameterCount; i++) {
+      when(context.getParameter(i))
+          .thenReturn(new Values(IntStream.range(0, domainSize).boxed().toArray()));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    return context;
+  }
+
+  private static void assertSameResults(ConstraintHandler expected, ConstraintHandler actual,
+      int parameterCount, int domainSize) {
+    int combinationCount = (int) Math.pow(domainSize + 1, parameterCount);
+    for (int index = 0; index < combinationCount; index++) {
+      int[] combination = new int[parameterCount];
+      int rest = index;
+      for (int i = 0; i < parameterCount; i++) {
+        combination[i] = rest % (domainSize + 1) - 1;
+        rest /= domainSize + 1;
+      }
+      assertEquals(expected.isSatisfiable(combination), actual.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
   private JCombContext getMockedJCombContext(List<Constraint> constraints) {
     Values param1 = new Values(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
     Values param2 = new Values(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
@@ -0,0 +1,167 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+
+class FlatConstraintTreeTest {
+
+  private static final int PARAMETER_COUNT = 4;
+
+  private static Constraint lessThan = new AbstractConstraint(new int[] {0, 1}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+    }
+  };
+
+  private static Constraint sum = new AbstractConstraint(new int[] {1, 2, 3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] + (Integer) inputKombination[1]
+          == (Integer) inputKombination[2];
+    }
+  };
+
+  private static Constraint notZero = new AbstractConstraint(new int[] {3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return !inputKombination[0].equals(0);
+    }
+  };
+
+  @Test
+  void testSameResultsAsConstraintTree() {
+    ConstraintTree tree =
+        new ConstraintTree(getMockedJCombContext(Arrays.asList(lessThan, sum, notZero)));
+    FlatConstraintTree flatTree = new FlatConstraintTree(tree);
+
+    int combinationCount = (int) Math.pow(5, PARAMETER_COUNT);
+    for (int index = 0; index < combinationCount; index++) {
+      int[] combination = new int[PARAMETER_COUNT];
+      int rest = index;
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        combination[i] = rest % 5 - 1;
+        rest /= 5;
+      }
+      assertEquals(tree.isSatisfiable(combination), flatTree.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+    assertEquals(true, flatTree.isSatisfiable(new int[] {0, 1, 2, 3}));
+    assertEquals(false, flatTree.isSatisfiable(new int[] {-1, 3, 1, -1}));
+    assertEquals(false, flatTree.isSatisfiable(new int[] {-1, 0, -1, 0}));
+  }
+
+  @Test
+  void testAllowedValuesMatchSingleChecks() {
+    FlatConstraintTree flatTree =
+        new FlatConstraintTree(getMockedJCombContext(Arrays.asList(lessThan, sum, notZero)));
+
+    int combinationCount = (int) Math.pow(5, PARAMETER_COUNT);
+    for (int index = 0; index < combinationCount; index++) {
+      int[] combination = new int[PARAMETER_COUNT];
+      int rest = index;
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        combination[i] = rest % 5 - 1;
+        rest /= 5;
+      }
+      for (int parameter = 0; parameter < PARAMETER_COUNT; parameter++) {
+        int[] original = combination.clone();
+        long[] allowedValues = flatTree.getAllowedValues(combination, parameter, 4);
+        assertArrayEquals(original, combination);
+        for (int value = 0; value < 4; value++) {
+          combination[parameter] = value;
+          assertEquals(flatTree.isSatisfiable(combination),
+              ConstraintHandler.isAllowed(allowedValues, value), Arrays.toString(combination));
+        }
+        combination[parameter] = original[parameter];
+      }
+    }
+  }
+
+  @Test
+  void testUnsatisfiableSubtreesAreNotEncoded() {
+    // only the values 0 and 1 of parameter 0 have a satisfiable path
+    Constraint small = new AbstractConstraint(new int[] {0, 1}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return (Integer) inputKombination[0] < 2 && inputKombination[1].equals(3);
+      }
+    };
+    FlatConstraintTree flatTree =
+        new FlatConstraintTree(getMockedJCombContext(Collections.singletonList(small)));
+
+    // the node of parameter 0 and the nodes of parameter 1 for the values 0 and 1
+    assertEquals(3 * (5 + 4), flatTree.getEncodedSize());
+    assertEquals(true, flatTree.isSatisfiable(new int[] {-1, -1, -1, -1}));
+    assertEquals(true, flatTree.isSatisfiable(new int[] {1, -1, -1, -1}));
+    assertEquals(false, flatTree.isSatisfiable(new int[] {2, -1, -1, -1}));
+    assertEquals(false, flatTree.isSatisfiable(new int[] {-1, 2, -1, -1}));
+  }
+
+  @Test
+  void testConstantTrees() {
+    Constraint never = new AbstractConstraint(new int[] {2}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return false;
+      }
+    };
+    FlatConstraintTree unsatisfiable =
+        new FlatConstraintTree(getMockedJCombContext(Collections.singletonList(never)));
+    FlatConstraintTree unconstrained =
+        new FlatConstraintTree(getMockedJCombContext(Collections.emptyList()));
+
+    assertEquals(0, unsatisfiable.getEncodedSize());
+    assertEquals(false, unsatisfiable.isSatisfiable(new int[] {-1, -1, -1, -1}));
+    assertEquals(false, unsatisfiable.isSatisfiable(new int[] {0, 1, 2, 3}));
+    assertEquals(true, unsatisfiable.isConstrained(2));
+    assertEquals(false, unsatisfiable.isConstrained(0));
+    assertEquals(0, unconstrained.getEncodedSize());
+    assertEquals(true, unconstrained.isSatisfiable(new int[] {0, 1, 2, 3}));
+  }
+
+  private static JCombContext getMockedJCombContext(List<Constraint> constraints) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(PARAMETER_COUNT);
+    for (int i = 0; i < PARAMETER_COUNT; i++) {
+      when(context.getParameter(i)).thenReturn(new Values(0, 1, 2, 3));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    return context;
+  }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.constraint.tree;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+
+class LazyConstraintTreeTest {
+
+  private static final int PARAMETER_COUNT = 5;
+  private static final int DOMAIN_SIZE = 4;
+
+  private AtomicInteger checkCount = new AtomicInteger();
+
+  private Constraint smaller = new AbstractConstraint(new int[] {0, 1}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      checkCount.incrementAndGet();
+      return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+    }
+  };
+
+  private Constraint notTwo = new AbstractConstraint(new int[] {3}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      checkCount.incrementAndGet();
+      return (Integer) inputKombination[0] != 2;
+    }
+  };
+
+  private Constraint sum = new AbstractConstraint(new int[] {4, 1, 2}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      checkCount.incrementAndGet();
+      return (Integer) inputKombination[0] + (Integer) inputKombination[1]
+          + (Integer) inputKombination[2] != 6;
+    }
+  };
+
+  @Test
+  void testSameResultsAsConstraintTree() {
+    JCombContext context = getMockedJCombContext(Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    LazyConstraintTree lazyTree = new LazyConstraintTree(context);
+    for (int[] combination : getAllPartialCombinations()) {
+      assertEquals(tree.isSatisfiable(combination), lazyTree.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
+  @Test
+  void testConcurrentChecks() {
+    JCombContext context = getMockedJCombContext(Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    LazyConstraintTree lazyTree = new LazyConstraintTree(context);
+    List<int[]> combinations = getAllPartialCombinations();
+    List<Boolean> expected =
+        combinations.stream().map(tree::isSatisfiable).collect(Collectors.toList());
+    List<Boolean> result =
+        combinations.parallelStream().map(lazyTree::isSatisfiable).collect(Collectors.toList());
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void testSubtreesAreCreatedLazily() {
+    JCombContext context = getMockedJCombContext(Arrays.asList(smaller, notTwo, sum));
+    new ConstraintTree(context);
+    int eagerCheckCount = checkCount.getAndSet(0);
+
+    // without tables the constraints are only evaluated while expanding subtrees
+    LazyConstraintTree lazyTree = new LazyConstraintTree(context, 0);
+    assertEquals(0, checkCount.get());
+    assertEquals(false, lazyTree.isSatisfiable(new int[] {1, 0, 3, 1, 2}));
+    assertTrue(checkCount.get() < eagerCheckCount);
+  }
+
+  @Test
+  void testConstraintsAreEvaluatedOncePerTupel() {
+    LazyConstraintTree lazyTree =
+        new LazyConstraintTree(getMockedJCombContext(Arrays.asList(smaller, notTwo, sum)));
+    // every constraint is evaluated in advance for all tupels of its parameters
+    int tupelCount =
+        DOMAIN_SIZE * DOMAIN_SIZE + DOMAIN_SIZE + DOMAIN_SIZE * DOMAIN_SIZE * DOMAIN_SIZE;
+    assertEquals(tupelCount, checkCount.get());
+    for (int[] combination : getAllPartialCombinations()) {
+      lazyTree.isSatisfiable(combination);
+    }
+    // expanding the subtrees only looks up the tables
+    assertEquals(tupelCount, checkCount.get());
+  }
+
+  @Test
+  void testWildcardChecksOnUnexpandedSubtrees() {
+    JCombContext context = getMockedJCombContext(Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    for (int[] combination : getAllPartialCombinations()) {
+      // a new tree for every check, so that no subtree was expanded by an earlier check
+      LazyConstraintTree lazyTree = new LazyConstraintTree(context);
+      assertEquals(tree.isSatisfiable(combination), lazyTree.isSatisfiable(combination),
+          Arrays.toString(combination));
+    }
+  }
+
+  @Test
+  void testAllowedValuesMatchSingleChecks() {
+    JCombContext context =
+        getMockedJCombContext(Arrays.asList(smaller, notTwo, sum));
+    ConstraintTree tree = new ConstraintTree(context);
+    for (int[] combination : getAllPartialCombinations()) {
+      // a new handler for every combination, so that earlier checks do not influence the result
+      LazyConstraintTree lazyTree = new LazyConstraintTree(context);
+      for (int parameter = 0; parameter < PARAMETER_COUNT; parameter++) {
+        int[] original = combination.clone();
+        long[] allowedValues = lazyTree.getAllowedValues(combination, parameter, DOMAIN_SIZE);
+        assertArrayEquals(original, combination);
+        for (int value = 0; value < DOMAIN_SIZE; value++) {
+          combination[parameter] = value;
+          assertEquals(tree.isSatisfiable(combination),
+              ConstraintHandler.isAllowed(allowedValues, value), Arrays.toString(combination));
+        }
+        combination[parameter] = original[parameter];
+      }
+    }
+  }
+
+  @Test
+  void testWithoutConstraints() {
+    LazyConstraintTree lazyTree =
+        new LazyConstraintTree(getMockedJCombContext(Arrays.asList()));
+    assertTrue(lazyTree.isSatisfiable(new int[] {1, 0, -1, 1, 2}));
+  }
+
+  private static List<int[]> getAllPartialCombinations() {
+    int combinationCount = (int) Math.pow(DOMAIN_SIZE + 1, PARAMETER_COUNT);
+    return IntStream.range(0, combinationCount).mapToObj(index -> {
+      int[] combination = new int[PARAMETER_COUNT];
+      for (int i = 0; i < PARAMETER_COUNT; i++) {
+        combination[i] = index % (DOMAIN_SIZE + 1) - 1;
+        index /= DOMAIN_SIZE + 1;
+      }
+      return combination;
+    }).collect(Collectors.toList());
+  }
+
+  private static JCombContext getMockedJCombContext(List<Constraint> constraints) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(PARAMETER_COUNT);
+    for (int i = 0; i < PARAMETER_COUNT; i++) {
+      when(context.getParameter(i)).thenReturn(new Values(0, 1, 2, 3));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    return context;
+  }
+
+}
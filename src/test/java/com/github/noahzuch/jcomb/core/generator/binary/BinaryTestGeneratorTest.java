@@ -0,0 +1,99 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.binary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.Constraint;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Ints;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class BinaryTestGeneratorTest {
+
+  @Parameter(0)
+  private static Ints strengths = new Ints(1, 2, 3, 4);
+
+  @Parameter(1)
+  private static Ints parameterCounts = new Ints(1, 2, 3, 4, 5, 9, 17, 40);
+
+  @Constraint(id = 0, parameters = {0, 1})
+  public static boolean checkStrengthNotBiggerThanParamCount(int strength, int parameterCount) {
+    return strength <= parameterCount && (strength < 4 || parameterCount < 40);
+  }
+
+  @JCombTest
+  void testCoveringArray(int strength, int parameterCount) {
+    BinaryTestGenerator generator = new BinaryTestGenerator(strength, parameterCount);
+    List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+
+    assertTrue(generator.getCoveringArray().isCoveringArray(strength));
+    int[] domainSizes = new int[parameterCount];
+    Arrays.fill(domainSizes, 2);
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, result, strength,
+        ConstraintHandler.getDefaultConstraintHandler());
+  }
+
+  @Test
+  void testOptimalStrength2Size() {
+    assertEquals(4, Constructions.kleitmanSpencer(3).getRowCount());
+    assertEquals(5, Constructions.kleitmanSpencer(4).getRowCount());
+    assertEquals(6, Constructions.kleitmanSpencer(10).getRowCount());
+    assertEquals(7, Constructions.kleitmanSpencer(15).getRowCount());
+    assertEquals(8, Constructions.kleitmanSpencer(35).getRowCount());
+  }
+
+  @Test
+  void testWideStrength3Model() {
+    assertTimeout(Duration.ofSeconds(10), () -> {
+      BinaryTestGenerator generator = new BinaryTestGenerator(3, 500);
+      assertTrue(generator.getCoveringArray().isCoveringArray(3));
+    });
+  }
+
+  @Test
+  void testWideModelsOfHighStrengthAreRejected() {
+    assertTrue(BinaryTestGenerator.isSupported(3, 100000));
+    assertTrue(BinaryTestGenerator.isSupported(4, 75));
+    assertEquals(false, BinaryTestGenerator.isSupported(4, 150));
+    assertEquals(false, BinaryTestGenerator.isSupported(6, 1000));
+    assertEquals(false, BinaryTestGenerator.isSupported(30, Integer.MAX_VALUE));
+    assertThrows(IllegalArgumentException.class, () -> new BinaryTestGenerator(5, 200));
+  }
+
+  @Test
+  void testMissingTupelIsDetected() {
+    BinaryCoveringArray array = Constructions.kleitmanSpencer(10);
+    assertTrue(array.isCoveringArray(2));
+    for (int row = 0; row < array.getRowCount(); row++) {
+      array.set(row, 1, array.get(row, 0));
+    }
+    assertEquals(false, array.isCoveringArray(2));
+  }
+
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.hybrid;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Ints;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class HybridTestGeneratorTest {
+
+  @Parameter(0)
+  private static Values domainSizes = new Values(
+      new int[] {3, 3, 3, 3, 2, 4},
+      new int[] {2, 5, 2, 2, 2, 2, 3},
+      new int[] {4, 3, 4, 4, 5, 4, 4, 2},
+      new int[] {6, 6, 6, 6, 6, 3, 2},
+      new int[] {3, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 4, 2});
+
+  @Parameter(1)
+  private static Ints strengths = new Ints(2, 3);
+
+  @JCombTest
+  void testCoveringArray(int[] domainSizes, int strength) {
+    List<int[]> result = new HybridTestGenerator(strength, domainSizes).getAllInputCombinations()
+        .collect(Collectors.toList());
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, result, strength,
+        ConstraintHandler.getDefaultConstraintHandler());
+  }
+
+  @Test
+  void testSeedBlock() {
+    assertEquals(10, new HybridTestGenerator(2,
+        new int[] {3, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 4, 2}).getSeedParameterCount());
+    assertEquals(6, new HybridTestGenerator(3,
+        new int[] {3, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 4, 2}).getSeedParameterCount());
+    assertEquals(4,
+        new HybridTestGenerator(2, new int[] {3, 3, 2, 2, 2, 2}).getSeedParameterCount());
+  }
+
+  @Test
+  void testNoEqualSizedBlock() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new HybridTestGenerator(2, new int[] {2, 2, 3, 3, 4}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new HybridTestGenerator(3, new int[] {2, 2, 2, 3, 3, 3}));
+  }
+
+  @Test
+  void testSmallerThanIpog() {
+    int[] domainSizes = new int[] {3, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 4, 2};
+    long hybridSize = new HybridTestGenerator(2, domainSizes).getAllInputCombinations().count();
+    long ipogSize = new IpogTestGenerator(2, domainSizes,
+        ConstraintHandler.getDefaultConstraintHandler()).getAllInputCombinations().count();
+    assertTrue(hybridSize < ipogSize);
+  }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.ipog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+
+class CoverageMapTest {
+
+  private static final int[] DOMAIN_SIZES = new int[] {3, 3, 3};
+
+  @Test
+  void testCoverForbiddenTupels() {
+    // forbids the first parameter to be 1 while the third is 2
+    ConstraintHandler constraintHandler = new ConstraintHandler() {
+
+      @Override
+      public boolean isSatisfiable(int[] test) {
+        return test[0] != 1 || test[2] != 2;
+      }
+
+      @Override
+      public boolean isConstrained(int parameter) {
+        return parameter != 1;
+      }
+    };
+    CoverageMap coverageMap = new CoverageMap(2, DOMAIN_SIZES, 3);
+    coverageMap.coverForbiddenTupels(constraintHandler);
+    assertEquals(8, coverageMap.getUncoveredTupelCount(0));
+    assertEquals(9, coverageMap.getUncoveredTupelCount(1));
+
+    coverageMap.coverRemainingTupels((valueComb, paramComb) -> {
+      int[] test = Tools.generateNewTest(DOMAIN_SIZES, valueComb, paramComb);
+      assertFalse(test[0] == 1 && test[2] == 2);
+    });
+  }
+
+  @Test
+  void testUnconstrainedParametersAreNotChecked() {
+    AtomicInteger checkCount = new AtomicInteger();
+    ConstraintHandler constraintHandler = new ConstraintHandler() {
+
+      @Override
+      public boolean isSatisfiable(int[] test) {
+        checkCount.incrementAndGet();
+        return true;
+      }
+
+      @Override
+      public boolean isConstrained(int parameter) {
+        return false;
+      }
+    };
+    CoverageMap coverageMap = new CoverageMap(2, DOMAIN_SIZES, 3);
+    coverageMap.coverForbiddenTupels(constraintHandler);
+    assertEquals(1, checkCount.get());
+    assertEquals(9, coverageMap.getUncoveredTupelCount(0));
+    assertEquals(9, coverageMap.getUncoveredTupelCount(1));
+  }
+
+  @Test
+  void testForbiddenBlocksAreCheckedOnce() {
+    AtomicInteger checkCount = new AtomicInteger();
+    // forbids the value 0 of the first parameter
+    ConstraintHandler constraintHandler = test -> {
+      checkCount.incrementAndGet();
+      return test[0] != 0;
+    };
+    CoverageMap coverageMap = new CoverageMap(2, DOMAIN_SIZES, 3);
+    coverageMap.coverForbiddenTupels(constraintHandler);
+    assertEquals(6, coverageMap.getUncoveredTupelCount(0));
+    assertEquals(9, coverageMap.getUncoveredTupelCount(1));
+    // one check for the empty test, three per parameter combination for the blocks and three for
+    // each of the five satisfiable blocks
+    assertEquals(1 + 6 + 5 * 3, checkCount.get());
+  }
+
+  @Test
+  void testUnsatisfiableConstraints() {
+    CoverageMap coverageMap = new CoverageMap(2, DOMAIN_SIZES, 3);
+    coverageMap.coverForbiddenTupels(test -> false);
+    assertEquals(0, coverageMap.getUncoveredTupelCount(0));
+    assertEquals(0, coverageMap.getUncoveredTupelCount(1));
+  }
+
+}
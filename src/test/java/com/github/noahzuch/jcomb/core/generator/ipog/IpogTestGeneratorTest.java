@@ -15,6 +15,7 @@
  */
 package com.github.noahzuch.jcomb.core.generator.ipog;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -33,6 +34,7 @@ import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
 import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
 import com.github.noahzuch.jcomb.core.domain.values.Ints;
 import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.core.generator.oa.OrthogonalArrayGenerator;
 import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
 import com.github.noahzuch.jcomb.junitjupiter.SmartToString;
 
@@ -124,6 +126,36 @@ public class IpogTestGeneratorTest {
     assertCoveringArray(domainSizes, result, strength, constraintHandler);
   }
 
+  @Test
+  void testConstrainedInitialParameters() {
+    int[] domainSizes = new int[] {3, 3, 3, 3, 3, 3};
+    com.github.noahzuch.jcomb.core.constraint.Constraint notEqual =
+        new com.github.noahzuch.jcomb.core.constraint.AbstractConstraint(new int[] {0, 1}) {
+
+          @Override
+          public boolean confirmsWith(Object[] inputCombination) {
+            return !inputCombination[0].equals(inputCombination[1]);
+          }
+        };
+    JCombContext context = mock(JCombContext.class);
+    when(context.getConstraints()).thenReturn(Collections.singletonMap(0, notEqual));
+    when(context.getParameterCount()).thenReturn(domainSizes.length);
+    for (int i = 0; i < domainSizes.length; i++) {
+      when(context.getParameter(i)).thenReturn(new Ints(0, 1, 2));
+    }
+    ConstraintHandler constraintHandler = new ConstraintTree(context);
+    // every pair of the orthogonal array is contained in exactly one test, so dropping the tests
+    // with equal values for the first two parameters removes valid pairs of the other parameters
+    IpogTestGenerator generator = new IpogTestGenerator(2, domainSizes, constraintHandler,
+        new OrthogonalArrayGenerator(2, 4, 3), 4);
+    List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+
+    assertCoveringArray(domainSizes, result, 2, constraintHandler);
+    for (int[] test : result) {
+      assertTrue(constraintHandler.isSatisfiable(test), Arrays.toString(test));
+    }
+  }
+
   /**
    * Checks if a given matrix is a covering array.
    * 
@@ -0,0 +1,159 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.library;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.core.generator.library.CoveringArrayLibrary.Entry;
+
+class CoveringArrayLibraryTest {
+
+  private static final int[][] ARRAY_3_3_2 = new int[][] {
+      {0, 0, 0}, {0, 1, 1}, {0, 2, 0}, {1, 0, 1}, {1, 1, 0},
+      {1, 2, 1}, {2, 0, 0}, {2, 1, 1}, {2, 2, 0}};
+
+  @Test
+  void testLibraryContainsArrays() {
+    assertTrue(CoveringArrayLibrary.getInstance().size() > 0);
+  }
+
+  @Test
+  void testAllArraysAreCoveringArrays() {
+    CoveringArrayLibrary library = CoveringArrayLibrary.getInstance();
+    for (Entry entry : library.getEntries()) {
+      LibraryTestGenerator generator = library.find(entry.strength, entry.domainSizes);
+      List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+      assertEquals(entry.rowCount, result.size());
+      IpogTestGeneratorTest.assertCoveringArray(entry.domainSizes, result, entry.strength,
+          ConstraintHandler.getDefaultConstraintHandler());
+    }
+  }
+
+  @Test
+  void testArraysAreSmallerThanIpog() {
+    CoveringArrayLibrary library = CoveringArrayLibrary.getInstance();
+    for (Entry entry : library.getEntries()) {
+      long ipogSize = new IpogTestGenerator(entry.strength, entry.domainSizes,
+          ConstraintHandler.getDefaultConstraintHandler()).getAllInputCombinations().count();
+      assertTrue(entry.rowCount < ipogSize);
+    }
+  }
+
+  @Test
+  void testKnownOptimalArray() {
+    LibraryTestGenerator generator =
+        CoveringArrayLibrary.getInstance().find(2, new int[] {3, 3, 3, 3, 3});
+    assertNotNull(generator);
+    assertEquals(11, generator.size());
+  }
+
+  @Test
+  void testColumnsAreReordered() {
+    CoveringArrayLibrary library = new CoveringArrayLibrary(createLibrary(2, ARRAY_3_3_2));
+    int[] domainSizes = new int[] {2, 3, 3};
+    LibraryTestGenerator generator = library.find(2, domainSizes);
+    assertNotNull(generator);
+    List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+    for (int row = 0; row < ARRAY_3_3_2.length; row++) {
+      assertArrayEquals(new int[] {ARRAY_3_3_2[row][2], ARRAY_3_3_2[row][0],
+          ARRAY_3_3_2[row][1]}, result.get(row));
+    }
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, result, 2,
+        ConstraintHandler.getDefaultConstraintHandler());
+  }
+
+  @Test
+  void testUnknownModel() {
+    CoveringArrayLibrary library = new CoveringArrayLibrary(createLibrary(2, ARRAY_3_3_2));
+    assertNull(library.find(3, new int[] {3, 3, 2}));
+    assertNull(library.find(2, new int[] {3, 3, 3}));
+    assertNull(library.find(2, new int[] {3, 3, 2, 2}));
+  }
+
+  @Test
+  void testInvalidLibrary() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new CoveringArrayLibrary(ByteBuffer.allocate(8)));
+    ByteBuffer truncated = createLibrary(2, ARRAY_3_3_2);
+    truncated.limit(truncated.limit() - 1);
+    assertThrows(IllegalArgumentException.class, () -> new CoveringArrayLibrary(truncated));
+  }
+
+  @Test
+  void testParse() throws IOException {
+    StringBuilder text = new StringBuilder("# comment\n\n2: 3 3 2\n");
+    for (int[] row : ARRAY_3_3_2) {
+      text.append(row[0]).append(' ').append(row[1]).append(' ').append(row[2]).append('\n');
+    }
+    ByteBuffer parsed = CoveringArrayLibrary.parse(new StringReader(text.toString()));
+    assertEquals(createLibrary(2, ARRAY_3_3_2), parsed);
+
+    assertThrows(IllegalArgumentException.class,
+        () -> CoveringArrayLibrary.parse(new StringReader("2: 2 3\n0 0\n")));
+    assertThrows(IllegalArgumentException.class,
+        () -> CoveringArrayLibrary.parse(new StringReader("2: 3 2\n0 2\n")));
+    assertThrows(IllegalArgumentException.class,
+        () -> CoveringArrayLibrary.parse(new StringReader("2: 3 2\n0 1 1\n")));
+    assertThrows(IllegalArgumentException.class,
+        () -> CoveringArrayLibrary.parse(new StringReader("2 3 2\n")));
+  }
+
+  /**
+   * Creates a library with one covering array, whose columns are sorted by descending domain
+   * sizes.
+   */
+  private static ByteBuffer createLibrary(int strength, int[][] array) {
+    int parameterCount = array[0].length;
+    int[] domainSizes = new int[parameterCount];
+    for (int[] row : array) {
+      for (int column = 0; column < parameterCount; column++) {
+        domainSizes[column] = Math.max(domainSizes[column], row[column] + 1);
+      }
+    }
+    int offset = 24 + parameterCount;
+    ByteBuffer buffer = ByteBuffer.allocate(offset + array.length * parameterCount);
+    buffer.putInt(CoveringArrayLibrary.MAGIC_NUMBER);
+    buffer.putInt(1);
+    buffer.putInt(strength);
+    buffer.putInt(parameterCount);
+    for (int domainSize : domainSizes) {
+      buffer.put((byte) domainSize);
+    }
+    buffer.putInt(array.length);
+    buffer.putInt(offset);
+    for (int[] row : array) {
+      for (int value : row) {
+        buffer.put((byte) value);
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.oa;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.Constraint;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.values.Ints;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class ConstrainedOrthogonalArrayGeneratorTest {
+
+  @Parameter(0)
+  private static Values domainSizes = new Values(
+      new int[] {3, 3, 3, 3},
+      new int[] {4, 4, 4, 4, 4},
+      new int[] {5, 5, 5, 5, 5, 5},
+      new int[] {4, 3, 3, 2, 2});
+
+  @Parameter(1)
+  private static Ints strengths = new Ints(2, 3);
+
+  @Parameter(2)
+  private static Values constraints = new Values(
+      new com.github.noahzuch.jcomb.core.constraint.Constraint() {
+
+        int[] params = new int[] {0, 2};
+
+        @Override
+        public int[] getInvolvedParameters() {
+          return params;
+        }
+
+        @Override
+        public boolean confirmsWith(Object[] inputCombination) {
+          return ((int) inputCombination[0]) > ((int) inputCombination[1]);
+        }
+      },
+      new com.github.noahzuch.jcomb.core.constraint.Constraint() {
+
+        int[] params = new int[] {1, 2, 3};
+
+        @Override
+        public int[] getInvolvedParameters() {
+          return params;
+        }
+
+        @Override
+        public boolean confirmsWith(Object[] inputCombination) {
+          return ((int) inputCombination[0]) != 1 || ((int) inputCombination[1]) == 0
+              || ((int) inputCombination[2]) == 0;
+        }
+      });
+
+  @Constraint(id = 0, parameters = {0, 1})
+  static boolean checkStrengthNotBiggerThanParamCount(int[] domainSizes, int strength) {
+    return domainSizes.length > strength;
+  }
+
+  @JCombTest
+  void testGeneration(int[] domainSizes, int strength,
+      com.github.noahzuch.jcomb.core.constraint.Constraint constraint) {
+    ConstraintHandler constraintHandler = createConstraintHandler(domainSizes, constraint);
+    ConstrainedOrthogonalArrayGenerator generator = new ConstrainedOrthogonalArrayGenerator(
+        strength, domainSizes, createOrthogonalArray(strength, domainSizes), constraintHandler);
+    List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, result, strength, constraintHandler);
+    for (int[] test : result) {
+      assertTrue(constraintHandler.isSatisfiable(test));
+    }
+  }
+
+  @Test
+  void testSmallerThanIpog() {
+    int[] domainSizes = new int[] {7, 7, 7, 7, 7, 7, 7, 7};
+    ConstraintHandler constraintHandler = test -> test[0] != 0 || test[1] != 0;
+    long size = new ConstrainedOrthogonalArrayGenerator(2, domainSizes,
+        new OrthogonalArrayGenerator(2, 8, 7), constraintHandler).getAllInputCombinations().count();
+    long ipogSize = new IpogTestGenerator(2, domainSizes, constraintHandler)
+        .getAllInputCombinations().count();
+    assertTrue(size < ipogSize);
+  }
+
+  @Test
+  void testNoValidTest() {
+    int[] domainSizes = new int[] {3, 3, 3};
+    ConstrainedOrthogonalArrayGenerator generator = new ConstrainedOrthogonalArrayGenerator(2,
+        domainSizes, new OrthogonalArrayGenerator(2, 3, 3), test -> false);
+    assertThrows(JCombException.class, () -> generator.getAllInputCombinations());
+  }
+
+  private static RandomAccessTestGenerator createOrthogonalArray(int strength,
+      int[] domainSizes) {
+    if (Arrays.stream(domainSizes).allMatch(domainSize -> domainSize == domainSizes[0])) {
+      return new OrthogonalArrayGenerator(strength, domainSizes.length, domainSizes[0]);
+    }
+    return new MixedLevelOrthogonalArrayGenerator(strength, domainSizes);
+  }
+
+  private static ConstraintHandler createConstraintHandler(int[] domainSizes,
+      com.github.noahzuch.jcomb.core.constraint.Constraint constraint) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getConstraints()).thenReturn(Collections.singletonMap(0, constraint));
+    when(context.getParameterCount()).thenReturn(domainSizes.length);
+    for (int i = 0; i < domainSizes.length; i++) {
+      when(context.getParameter(i)).thenReturn(new Ints(IntStream.range(0, domainSizes[i])
+          .boxed().collect(Collectors.toList()).toArray(new Integer[domainSizes[i]])));
+    }
+    return new ConstraintTree(context);
+  }
+
+}
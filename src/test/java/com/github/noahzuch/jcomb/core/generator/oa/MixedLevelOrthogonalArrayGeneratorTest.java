@@ -0,0 +1,122 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.oa;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.Constraint;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Ints;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class MixedLevelOrthogonalArrayGeneratorTest {
+
+  @Parameter(0)
+  private static Values domainSizes = new Values(
+      new int[] {3, 4},
+      new int[] {3, 4, 5, 7},
+      new int[] {2, 3, 4, 5, 4},
+      new int[] {7, 6, 5, 4, 3, 2},
+      new int[] {5, 5, 4, 4, 3, 3, 2, 2, 2, 2});
+
+  @Parameter(1)
+  private static Ints strengths = new Ints(2, 3);
+
+  @Constraint(id = 0, parameters = {0, 1})
+  static boolean checkStrengthNotBiggerThanParamCount(int[] domainSizes, int strength) {
+    return domainSizes.length >= strength;
+  }
+
+  @JCombTest
+  void testCoveringArray(int[] domainSizes, int strength) {
+    MixedLevelOrthogonalArrayGenerator generator =
+        new MixedLevelOrthogonalArrayGenerator(strength, domainSizes);
+    List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+    assertEquals(generator.size(), result.size());
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, result, strength,
+        ConstraintHandler.getDefaultConstraintHandler());
+    int[] test = new int[domainSizes.length];
+    for (int i = 0; i < result.size(); i++) {
+      generator.row(i, test);
+      assertArrayEquals(result.get(i), test);
+    }
+  }
+
+  @Test
+  void testRedundantTestsAreRemoved() {
+    MixedLevelOrthogonalArrayGenerator generator =
+        new MixedLevelOrthogonalArrayGenerator(2, new int[] {3, 4, 5, 7});
+    assertTrue(generator.size() < 49);
+    assertTrue(generator.size() >= 35);
+  }
+
+  @Test
+  void testMaxSize() {
+    int[] domainSizes = new int[] {3, 4, 5, 7};
+    long size = new MixedLevelOrthogonalArrayGenerator(2, domainSizes).size();
+    assertEquals(size, new MixedLevelOrthogonalArrayGenerator(2, domainSizes, size).size());
+    assertThrows(IllegalArgumentException.class,
+        () -> new MixedLevelOrthogonalArrayGenerator(2, domainSizes, size - 1));
+  }
+
+  @Test
+  void testOrthogonalArraySize() {
+    assertEquals(49,
+        MixedLevelOrthogonalArrayGenerator.getOrthogonalArraySize(2, new int[] {3, 4, 5, 7}));
+    assertEquals(343,
+        MixedLevelOrthogonalArrayGenerator.getOrthogonalArraySize(3, new int[] {3, 4, 5, 7}));
+    assertEquals(Long.MAX_VALUE, MixedLevelOrthogonalArrayGenerator.getOrthogonalArraySize(20,
+        new int[] {1021, 1021, 1021, 1021, 1021, 1021, 1021, 1021, 1021, 1021, 1021, 1021, 1021,
+            1021, 1021, 1021, 1021, 1021, 1021, 1021, 2}));
+  }
+
+  @Test
+  void testTupelCheckCount() {
+    assertEquals(49 * 6,
+        MixedLevelOrthogonalArrayGenerator.getTupelCheckCount(2, new int[] {3, 4, 5, 7}));
+    assertEquals(343 * 4,
+        MixedLevelOrthogonalArrayGenerator.getTupelCheckCount(3, new int[] {3, 4, 5, 7}));
+  }
+
+  @Test
+  void testTooBigOrthogonalArray() {
+    // 331^4 tests overflow to a negative int
+    assertThrows(IllegalArgumentException.class,
+        () -> new MixedLevelOrthogonalArrayGenerator(4, new int[] {331, 331, 331, 331, 2}));
+  }
+
+  @Test
+  void testValueCount() {
+    assertEquals(7, MixedLevelOrthogonalArrayGenerator.getValueCount(2, new int[] {3, 7, 5}));
+    assertEquals(7, MixedLevelOrthogonalArrayGenerator.getValueCount(2, new int[] {3, 4, 5, 7}));
+    assertEquals(7, MixedLevelOrthogonalArrayGenerator.getValueCount(2, new int[] {7, 6, 5, 4, 3,
+        2}));
+    assertEquals(9, MixedLevelOrthogonalArrayGenerator.getValueCount(2, new int[] {6, 6, 6, 6, 6,
+        6, 6, 6, 6, 6}));
+  }
+
+}
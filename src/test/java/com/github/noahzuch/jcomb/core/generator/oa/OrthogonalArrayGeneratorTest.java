@@ -15,10 +15,15 @@
  */
 package com.github.noahzuch.jcomb.core.generator.oa;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import com.github.noahzuch.jcomb.annotations.Constraint;
@@ -28,13 +33,14 @@ import com.github.noahzuch.jcomb.core.domain.values.Ints;
 import com.github.noahzuch.jcomb.core.domain.values.Values;
 import com.github.noahzuch.jcomb.core.generator.Algorithm;
 import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.Tools;
 import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
 
 @ExtendWith(JCombExtension.class)
 class OrthogonalArrayGeneratorTest {
 
   @Parameter(0)
-  private static Values valueCount = new Values(3, 4, 5, 7, 8, 11, 13, 17, 13);
+  private static Values valueCount = new Values(3, 4, 5, 7, 8, 9, 11, 13, 16, 17);
 
   @Parameter(1)
   private static Ints parameterCount = new Ints(2, 3, 4, 5, 6, 7, 8, 9, 11, 12, 13, 14, 15);
@@ -64,6 +70,11 @@ class OrthogonalArrayGeneratorTest {
     testOrthogonalArrayGeneration(20, 5);
   }
 
+  @Test
+  void testOrthogonalArrayGenerationWithNonPrimePower36() {
+    testOrthogonalArrayGeneration(36, 5);
+  }
+
   @Test
   void testOrthogonalArrayGenerationWithNonPrimePower60() {
     testOrthogonalArrayGeneration(60, 4);
@@ -116,6 +127,100 @@ class OrthogonalArrayGeneratorTest {
     assertOrthogonalArray(3, 12, coveringArray);
   }
 
+  @Test
+  void testBushConstruction() {
+    testOrthogonalArrayGeneration(3, 3, 4);
+    testOrthogonalArrayGeneration(3, 4, 5);
+    testOrthogonalArrayGeneration(3, 5, 6);
+    testOrthogonalArrayGeneration(3, 9, 10);
+    testOrthogonalArrayGeneration(4, 7, 8);
+    testOrthogonalArrayGeneration(4, 8, 9);
+  }
+
+  @Test
+  void testHigherStrengthWithNonPrimePower() {
+    testOrthogonalArrayGeneration(3, 6, 4);
+    testOrthogonalArrayGeneration(3, 20, 5);
+  }
+
+  @Test
+  void testHigherStrengthFailureParameterCountToBig() {
+    assertThrows(IllegalArgumentException.class, () -> new OrthogonalArrayGenerator(3, 5, 6));
+    assertThrows(IllegalArgumentException.class, () -> new OrthogonalArrayGenerator(3, 5, 3));
+  }
+
+  @Test
+  void testFewerParametersThanStrength() {
+    OrthogonalArrayGenerator generator = new OrthogonalArrayGenerator(4, 3, 5);
+    List<int[]> combinations = generator.getAllInputCombinations().collect(Collectors.toList());
+    assertEquals(125, generator.size());
+    assertEquals(125, combinations.stream().map(Arrays::toString).distinct().count(),
+        "The array contains duplicate tests");
+  }
+
+  void testOrthogonalArrayGeneration(int strength, int valueCount, int parameterCount) {
+    OrthogonalArrayGenerator generator =
+        new OrthogonalArrayGenerator(strength, parameterCount, valueCount);
+    List<int[]> combinations = generator.getAllInputCombinations().collect(Collectors.toList());
+    assertEquals((int) Math.pow(valueCount, strength), combinations.size(),
+        "The amount of tests is not correct");
+    int[] paramComb = Tools.getFirstParamComb(strength);
+    for (int i = 0; i < Tools.binomCoeff(parameterCount, strength); i++) {
+      int[] occurences = new int[combinations.size()];
+      for (int[] test : combinations) {
+        int valueComb = 0;
+        for (int parameter : paramComb) {
+          valueComb = valueComb * valueCount + test[parameter];
+        }
+        occurences[valueComb]++;
+      }
+      for (int occurence : occurences) {
+        assertEquals(1, occurence, "Tupel not covered exactly once for parameters "
+            + Arrays.toString(paramComb));
+      }
+      Tools.getNextParamComb(paramComb);
+    }
+  }
+
+  @Test
+  void testRandomAccessMatchesStream() {
+    OrthogonalArrayGenerator generator = new OrthogonalArrayGenerator(5, 20);
+    List<int[]> combinations = generator.getAllInputCombinations().collect(Collectors.toList());
+    assertEquals(generator.size(), combinations.size());
+    int[] test = new int[generator.getParameterCount()];
+    for (int i = 0; i < combinations.size(); i++) {
+      generator.row(i, test);
+      assertArrayEquals(combinations.get(i), test);
+    }
+  }
+
+  @Test
+  void testParallelStream() {
+    OrthogonalArrayGenerator generator = new OrthogonalArrayGenerator(6, 13);
+    List<int[]> sequential = generator.getAllInputCombinations().collect(Collectors.toList());
+    List<int[]> parallel = StreamSupport.stream(generator.spliterator(), true)
+        .collect(Collectors.toList());
+    assertEquals(sequential.size(), parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertArrayEquals(sequential.get(i), parallel.get(i));
+    }
+  }
+
+  @Test
+  void testSpliteratorRange() {
+    OrthogonalArrayGenerator generator = new OrthogonalArrayGenerator(4, 7);
+    Spliterator<int[]> spliterator = generator.spliterator(10, 30);
+    assertEquals(20, spliterator.estimateSize());
+    Spliterator<int[]> prefix = spliterator.trySplit();
+    assertEquals(10, prefix.estimateSize());
+    assertEquals(10, spliterator.estimateSize());
+    int[] expected = new int[4];
+    generator.row(20, expected);
+    spliterator.tryAdvance(test -> assertArrayEquals(expected, test));
+    assertThrows(IndexOutOfBoundsException.class, () -> generator.spliterator(0, 50));
+    assertThrows(IndexOutOfBoundsException.class, () -> generator.row(49, expected));
+  }
+
   private void assertOrthogonalArray(int parameterCount, int valueCount,
       List<int[]> coveringArray) {
     for (int p1 = 0; p1 < parameterCount; p1++) {
@@ -0,0 +1,95 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.generator.recursive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.domain.values.Ints;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.core.generator.oa.OrthogonalArrayGenerator;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class RecursiveTestGeneratorTest {
+
+  @Parameter(0)
+  private static Ints valueCounts = new Ints(3, 4, 5, 6);
+
+  @Parameter(1)
+  private static Ints parameterCounts = new Ints(2, 33, 45);
+
+  @JCombTest
+  void testCoveringArray(int valueCount, int parameterCount) {
+    int[] domainSizes = new int[parameterCount];
+    Arrays.fill(domainSizes, valueCount);
+    assertCoveringArray(new RecursiveTestGenerator(domainSizes), domainSizes);
+  }
+
+  @Test
+  void testMixedDomainSizes() {
+    int[] domainSizes = new int[50];
+    for (int i = 0; i < domainSizes.length; i++) {
+      domainSizes[i] = 2 + i % 4;
+    }
+    assertCoveringArray(new RecursiveTestGenerator(domainSizes), domainSizes);
+  }
+
+  @Test
+  void testProductSharesConstantTests() {
+    RandomAccessTestGenerator orthogonalArray =
+        new NormalizedCoveringArray(new OrthogonalArrayGenerator(5, 5), 5);
+    ProductCoveringArray product = new ProductCoveringArray(orthogonalArray, orthogonalArray, 5);
+    assertEquals(45, product.size());
+    assertEquals(25, product.getParameterCount());
+    int[] domainSizes = new int[25];
+    Arrays.fill(domainSizes, 5);
+    assertCoveringArray(product, domainSizes);
+  }
+
+  @Test
+  void testCyclicCoveringArray() {
+    assertNull(CyclicCoveringArray.create(5, 3));
+    CyclicCoveringArray array = CyclicCoveringArray.create(13, 3);
+    assertNotNull(array);
+    assertEquals(16, array.size());
+    int[] domainSizes = new int[13];
+    Arrays.fill(domainSizes, 3);
+    assertCoveringArray(array, domainSizes);
+  }
+
+  private static void assertCoveringArray(RandomAccessTestGenerator generator,
+      int[] domainSizes) {
+    List<int[]> result = generator.getAllInputCombinations().collect(Collectors.toList());
+    assertEquals(generator.size(), result.size());
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, result, 2,
+        ConstraintHandler.getDefaultConstraintHandler());
+    int[] test = new int[domainSizes.length];
+    generator.row(result.size() - 1, test);
+    assertArrayEquals(result.get(result.size() - 1), test);
+  }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.oa.finitefield;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import com.github.noahzuch.jcomb.annotations.JCombTest;
+import com.github.noahzuch.jcomb.annotations.Parameter;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
+
+@ExtendWith(JCombExtension.class)
+class GaloisFieldTest {
+
+  @Parameter(0)
+  private static Values sizes = new Values(2, 3, 4, 5, 8, 9, 16, 25, 27, 32, 49);
+
+  @JCombTest(strength = 1)
+  void testFieldAxioms(int size) {
+    FiniteField field = FiniteFieldFactory.getFiniteField(size);
+    assertEquals(size, field.size());
+    for (int a = 0; a < size; a++) {
+      assertEquals(a, field.add(a, 0));
+      assertEquals(a, field.multiply(a, 1));
+      assertEquals(0, field.add(a, field.addInvers(a)));
+      if (a != 0) {
+        assertEquals(1, field.multiply(a, field.multInvers(a)));
+      }
+      for (int b = 0; b < size; b++) {
+        assertEquals(field.add(a, b), field.add(b, a));
+        assertEquals(field.multiply(a, b), field.multiply(b, a));
+        assertEquals(a, field.add(field.subtract(a, b), b));
+        if (b != 0) {
+          assertEquals(a, field.multiply(field.divide(a, b), b));
+        }
+        for (int c = 0; c < size; c++) {
+          assertEquals(field.add(field.add(a, b), c), field.add(a, field.add(b, c)));
+          assertEquals(field.multiply(field.multiply(a, b), c),
+              field.multiply(a, field.multiply(b, c)));
+          assertEquals(field.multiply(a, field.add(b, c)),
+              field.add(field.multiply(a, b), field.multiply(a, c)));
+        }
+      }
+    }
+  }
+
+  @Test
+  void testCaching() {
+    assertSame(FiniteFieldFactory.getFiniteField(9), FiniteFieldFactory.getFiniteField(9));
+  }
+
+  @Test
+  void testBigFields() {
+    FiniteField field = FiniteFieldFactory.getFiniteField(1 << 16);
+    assertEquals(1, field.multiply(12345, field.multInvers(12345)));
+    FiniteField primeField = FiniteFieldFactory.getFiniteField(1000003);
+    assertTrue(primeField instanceof PrimeField);
+    assertEquals(1, primeField.multiply(1000002, 1000002));
+  }
+
+  @Test
+  void testUnsupportedSizes() {
+    assertFalse(FiniteFieldFactory.isSupported(6));
+    assertFalse(FiniteFieldFactory.isSupported(1));
+    assertFalse(FiniteFieldFactory.isSupported(1 << 17));
+    assertTrue(FiniteFieldFactory.isSupported(81));
+    assertThrows(IllegalArgumentException.class, () -> FiniteFieldFactory.getFiniteField(12));
+  }
+
+}
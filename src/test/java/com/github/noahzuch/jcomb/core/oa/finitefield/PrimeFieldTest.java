@@ -17,6 +17,7 @@ package com.github.noahzuch.jcomb.core.oa.finitefield;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import com.github.noahzuch.jcomb.annotations.Constraint;
 import com.github.noahzuch.jcomb.annotations.JCombTest;
@@ -61,6 +62,15 @@ public class PrimeFieldTest {
     }
   }
 
+  @Test
+  void testBigPrime() {
+    PrimeField pf = new PrimeField(2147483647);
+    assertEquals(1, pf.multiply(2147483646, 2147483646));
+    assertEquals(1, pf.multiply(123456789, pf.multInvers(123456789)));
+    assertEquals(0, pf.add(2147483646, 1));
+    assertEquals(0, pf.addInvers(0));
+  }
+
   @JCombTest(parameters = {0, 1}, constraints = {0})
   void testAddInv(int p, int a) {
     PrimeField pf = new PrimeField(p);
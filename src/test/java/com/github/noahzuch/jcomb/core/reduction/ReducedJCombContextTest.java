@@ -0,0 +1,180 @@
+/**
+ * Copyright 2019 Noah Zuch noahz97@gmail.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.noahzuch.jcomb.core.reduction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.github.noahzuch.jcomb.core.JCombContext;
+import com.github.noahzuch.jcomb.core.JCombException;
+import com.github.noahzuch.jcomb.core.constraint.AbstractConstraint;
+import com.github.noahzuch.jcomb.core.constraint.Constraint;
+import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
+import com.github.noahzuch.jcomb.core.constraint.Constraints;
+import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
+import com.github.noahzuch.jcomb.core.domain.values.Values;
+import com.github.noahzuch.jcomb.core.generator.Algorithm;
+import com.github.noahzuch.jcomb.core.generator.RandomAccessTestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.TestGeneratorFactory;
+import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.core.generator.oa.MixedLevelOrthogonalArrayGenerator;
+
+class ReducedJCombContextTest {
+
+  private static final int DOMAIN_SIZE = 4;
+
+  private Constraint notTwo = new AbstractConstraint(new int[] {0}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] != 2;
+    }
+  };
+
+  private Constraint smaller = new AbstractConstraint(new int[] {1, 2}) {
+
+    @Override
+    public boolean confirmsWith(Object[] inputKombination) {
+      return (Integer) inputKombination[0] < (Integer) inputKombination[1];
+    }
+  };
+
+  @Test
+  void testUnaryConstraintRemovesValue() {
+    ReducedJCombContext context =
+        ReducedJCombContext.reduce(getMockedJCombContext(3, Arrays.asList(notTwo)));
+    assertTrue(context.hasReducedDomains());
+    assertEquals(3, context.getParameter(0).getSize());
+    assertEquals(3, context.getParameter(0).getValueAt(2));
+    assertEquals(DOMAIN_SIZE, context.getParameter(1).getSize());
+    // the constraint holds for all remaining values
+    assertTrue(context.getConstraints().isEmpty());
+    assertArrayEquals(new int[] {3, 2, -1}, context.toOriginalCombination(new int[] {2, 2, -1}));
+  }
+
+  @Test
+  void testPropagation() {
+    Constraint biggerThanOne = Constraints.ofIndices(2, 3, (index2, index3) -> index2 < index3);
+    ReducedJCombContext context = ReducedJCombContext.reduce(
+        getMockedJCombContext(4, Arrays.asList(smaller, biggerThanOne)));
+    // parameter 2 can neither be the smallest nor the biggest value, which then also removes the
+    // second biggest value of parameter 1 and the second smallest value of parameter 3
+    assertEquals(DOMAIN_SIZE - 2, context.getParameter(1).getSize());
+    assertEquals(DOMAIN_SIZE - 2, context.getParameter(2).getSize());
+    assertEquals(DOMAIN_SIZE - 2, context.getParameter(3).getSize());
+    assertEquals(2, context.getConstraints().size());
+    assertArrayEquals(new int[] {0, 0, 1, 3},
+        context.toOriginalCombination(new int[] {0, 0, 0, 1}));
+
+    // the index constraint is checked with the original indices
+    Constraint reduced = context.getConstraints().get(1);
+    assertTrue(reduced.usesValueIndices());
+    assertTrue(reduced.confirmsWithIndices(new int[] {0, 0, 0, 1}, new int[] {2, 3}));
+    assertFalse(reduced.confirmsWithIndices(new int[] {0, 0, 1, 0}, new int[] {2, 3}));
+  }
+
+  @Test
+  void testContradiction() {
+    Constraint bigger = new AbstractConstraint(new int[] {1, 2}) {
+
+      @Override
+      public boolean confirmsWith(Object[] inputKombination) {
+        return (Integer) inputKombination[0] > (Integer) inputKombination[1];
+      }
+    };
+    JCombContext context = getMockedJCombContext(3, Arrays.asList(smaller, bigger));
+    assertThrows(JCombException.class, () -> ReducedJCombContext.reduce(context));
+  }
+
+  @Test
+  void testWithoutReduction() {
+    Constraint notEqual =
+        Constraints.of(1, 2, (Integer value1, Integer value2) -> !value1.equals(value2));
+    ReducedJCombContext context =
+        ReducedJCombContext.reduce(getMockedJCombContext(3, Arrays.asList(notEqual)));
+    // every value of both parameters has a different partner
+    assertFalse(context.hasReducedDomains());
+    assertEquals(1, context.getConstraints().size());
+  }
+
+  @Test
+  void testGenerationWithReducedDomains() {
+    Constraint onlyFirstTwo = Constraints.ofIndices(3, index -> index < 2);
+    JCombContext original =
+        getMockedJCombContext(5, Arrays.asList(notTwo, smaller, onlyFirstTwo));
+    ReducedJCombContext context = ReducedJCombContext.reduce(original);
+    ReducedTestGenerator generator =
+        new ReducedTestGenerator(TestGeneratorFactory.createGenerator(context), context);
+    List<int[]> tests = generator.getAllInputCombinations().collect(Collectors.toList());
+
+    ConstraintHandler constraintHandler = new ConstraintTree(original);
+    int[] domainSizes = new int[5];
+    Arrays.fill(domainSizes, DOMAIN_SIZE);
+    IpogTestGeneratorTest.assertCoveringArray(domainSizes, tests, 2, constraintHandler);
+    for (int[] test : tests) {
+      assertTrue(constraintHandler.isSatisfiable(test), Arrays.toString(test));
+    }
+  }
+
+  @Test
+  void testRandomAccessIsKept() {
+    Constraint onlyFirstTwo = Constraints.ofIndices(3, index -> index < 2);
+    ReducedJCombContext context =
+        ReducedJCombContext.reduce(getMockedJCombContext(5, Arrays.asList(onlyFirstTwo)));
+    int[] domainSizes = IntStream.range(0, 5).map(i -> context.getParameter(i).getSize())
+        .toArray();
+    RandomAccessTestGenerator reducedGenerator =
+        new MixedLevelOrthogonalArrayGenerator(2, domainSizes);
+    TestGenerator generator = ReducedTestGenerator.create(reducedGenerator, context);
+
+    assertTrue(generator instanceof RandomAccessTestGenerator);
+    RandomAccessTestGenerator randomAccess = (RandomAccessTestGenerator) generator;
+    assertEquals(reducedGenerator.size(), randomAccess.size());
+    int[] reducedTest = new int[5];
+    int[] test = new int[5];
+    for (long index = 0; index < randomAccess.size(); index++) {
+      reducedGenerator.row(index, reducedTest);
+      randomAccess.row(index, test);
+      assertArrayEquals(context.toOriginalCombination(reducedTest), test);
+    }
+  }
+
+  private static JCombContext getMockedJCombContext(int parameterCount,
+      List<Constraint> constraints) {
+    JCombContext context = mock(JCombContext.class);
+    when(context.getParameterCount()).thenReturn(parameterCount);
+    for (int i = 0; i < parameterCount; i++) {
+      when(context.getParameter(i))
+          .thenReturn(new Values(IntStream.range(0, DOMAIN_SIZE).boxed().toArray()));
+    }
+    when(context.getConstraints()).thenReturn(IntStream.range(0, constraints.size()).boxed()
+        .collect(Collectors.toMap(i -> i, constraints::get)));
+    when(context.getStrength()).thenReturn(2);
+    when(context.getAlgorithm()).thenReturn(Algorithm.IPOG);
+    return context;
+  }
+
+}
@@ -16,7 +16,6 @@
 package com.github.noahzuch.jcomb.systemtest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.fail;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -26,15 +25,17 @@ import com.github.noahzuch.jcomb.annotations.JCombTest;
 import com.github.noahzuch.jcomb.annotations.Parameter;
 import com.github.noahzuch.jcomb.annotations.ValueIndex;
 import com.github.noahzuch.jcomb.core.JComb;
-import com.github.noahzuch.jcomb.core.JCombException;
 import com.github.noahzuch.jcomb.core.constraint.ConstraintHandler;
 import com.github.noahzuch.jcomb.core.constraint.tree.ConstraintTree;
 import com.github.noahzuch.jcomb.core.domain.values.Ints;
 import com.github.noahzuch.jcomb.core.domain.values.Values;
 import com.github.noahzuch.jcomb.core.generator.Algorithm;
 import com.github.noahzuch.jcomb.core.generator.TestGenerator;
+import com.github.noahzuch.jcomb.core.generator.dda.DdaTestGenerator;
 import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGenerator;
 import com.github.noahzuch.jcomb.core.generator.ipog.IpogTestGeneratorTest;
+import com.github.noahzuch.jcomb.core.generator.oa.ConstrainedOrthogonalArrayGenerator;
+import com.github.noahzuch.jcomb.core.generator.oa.MixedLevelOrthogonalArrayGenerator;
 import com.github.noahzuch.jcomb.core.generator.oa.OrthogonalArrayGenerator;
 import com.github.noahzuch.jcomb.junitjupiter.JCombExtension;
 import com.github.noahzuch.jcomb.systemexamples.SystemTestClass;
@@ -70,13 +71,6 @@ public class SystemTest extends BaseSystemTest {
     }
   }
 
-  @Constraint(id = 2, parameters = {2, 1, 0, 3})
-  public static boolean checkAlgorithmValid(Algorithm algorithm, int[] parameters,
-      int[] constraints, int strength) {
-    return !(algorithm == Algorithm.OA && (IntStream.of(parameters).anyMatch(x -> x == 3)
-        || strength != 2 || constraints.length != 0));
-  }
-
   @JCombTest(parameters = {2, 0, 1, 3}, strength = 3)
   void testValidCoveringArray(Algorithm algorithm, int[] constraints, int[] parameters,
       int strength, @ValueIndex(1) int parametersIndex) {
@@ -104,27 +98,16 @@ public class SystemTest extends BaseSystemTest {
       int strength) {
     JComb jcomb =
         createjCombObject(algorithm, constraints, parameters, strength, SystemTestClass.class);
-    TestGenerator generator;
-
-    if (!(algorithm == Algorithm.OA && (IntStream.of(parameters).anyMatch(x -> x == 3)
-        || strength != 2 || constraints.length != 0))) {
-      generator = jcomb.createTestGenerator();
-    } else {
-      try {
-        generator = jcomb.createTestGenerator();
-        fail();
-      } catch (JCombException e) {
-        return; // success
-      }
-    }
+    TestGenerator generator = jcomb.createTestGenerator();
 
-    if (algorithm == Algorithm.OA && !IntStream.of(parameters).anyMatch(x -> x == 3)
-        && constraints.length == 0) {
-      assertEquals(OrthogonalArrayGenerator.class, generator.getClass());
-    } else if (algorithm == Algorithm.IPOG) {
-      assertEquals(IpogTestGenerator.class, generator.getClass());
-    } else if (IntStream.of(parameters).anyMatch(x -> x == 3) || !(constraints.length == 0)) {
+    if (algorithm == Algorithm.IPOG) {
       assertEquals(IpogTestGenerator.class, generator.getClass());
+    } else if (algorithm == Algorithm.DDA) {
+      assertEquals(DdaTestGenerator.class, generator.getClass());
+    } else if (!(constraints.length == 0)) {
+      assertEquals(ConstrainedOrthogonalArrayGenerator.class, generator.getClass());
+    } else if (IntStream.of(parameters).anyMatch(x -> x == 3)) {
+      assertEquals(MixedLevelOrthogonalArrayGenerator.class, generator.getClass());
     } else {
       assertEquals(OrthogonalArrayGenerator.class, generator.getClass());
     }